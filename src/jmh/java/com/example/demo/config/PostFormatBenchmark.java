@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.model.Post;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * 投稿の一覧をJSON・CBOR・Smileで符号化・復号する時間を比較するベンチマーク。
+ * 各形式のマッパーはAPIと同様にJSONのマッパーの設定を複製して生成します。
+ * 一覧のバイト数は試行の開始時に標準出力へ表示されます。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostFormatBenchmark {
+
+    private static final TypeReference<List<Post>> POST_LIST = new TypeReference<>() {
+    };
+    private static final String[] WORDS = {
+            "Spring", "Boot", "投稿", "いいね", "performance", "レプリケーション", "latency", "キャッシュ",
+            "search", "公開", "draft", "ベンチマーク", "JVM", "throughput", "シリアライズ", "index"
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"10", "100", "1000"})
+    public int posts;
+
+    private ObjectMapper mapper;
+    private List<Post> list;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Spring Bootの既定と同様に、日時はISO-8601の文字列で書く
+        var json = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        list = realisticPosts(posts);
+        encoded = mapper.writeValueAsBytes(list);
+        System.out.printf("%n%s, %d posts: %d bytes (%.1f bytes/post)%n",
+                format, posts, encoded.length, (double) encoded.length / posts);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(list);
+    }
+
+    @Benchmark
+    public List<Post> decode() throws Exception {
+        return mapper.readValue(encoded, POST_LIST);
+    }
+
+    /**
+     * 内容の長さ（数十〜千文字程度）・いいね数・公開日時がばらついた、公開済みの投稿の一覧を生成します。
+     */
+    private static List<Post> realisticPosts(int count) {
+        var random = new Random(42);
+        var base = Instant.parse("2025-06-01T00:00:00Z");
+        var result = new ArrayList<Post>(count);
+        for (int i = 0; i < count; i++) {
+            var content = new StringBuilder();
+            int words = 8 + (int) Math.min(400, Math.abs(random.nextGaussian() * 60));
+            for (int w = 0; w < words; w++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            var post = new Post(content.toString().trim());
+            post.setId(1_000_000L + i);
+            post.setCreatedAt(base.plusSeconds(i * 37L));
+            post.setUpdatedAt(post.getCreatedAt().plusSeconds(random.nextInt(3_600)));
+            post.setDraft(false);
+            post.setPublishedAt(post.getUpdatedAt());
+            post.setLikes(random.nextInt(10) == 0 ? random.nextInt(50_000) : random.nextInt(100));
+            result.add(post);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.model;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 1万件の投稿内容に対するキーワード検索1回分の時間を、従来の判定（内容とキーワードを小文字に変換してから比較）と
+ * {@link KeywordMatcher}で比較するベンチマーク。
+ * {@code -PjmhProfilers=gc}を付けて実行すると、1回の検索当たりの割り当てバイト数（{@code gc.alloc.rate.norm}）も確認できます。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeywordMatcherBenchmark {
+
+    private static final int POSTS = 10_000;
+    private static final String[] WORDS = {
+            "Spring", "Boot", "投稿", "いいね", "performance", "レプリケーション", "latency", "キャッシュ",
+            "search", "公開", "draft", "ベンチマーク", "JVM", "throughput", "シリアライズ", "index"
+    };
+
+    /** 多くの投稿に含まれる語、一部の投稿に含まれる日本語の語、どの投稿にも含まれない語 */
+    @Param({"spring", "レプリケーション", "kubernetes"})
+    public String keyword;
+
+    private String[] contents;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        contents = new String[POSTS];
+        for (int i = 0; i < POSTS; i++) {
+            var content = new StringBuilder();
+            int words = 8 + (int) Math.min(400, Math.abs(random.nextGaussian() * 60));
+            for (int w = 0; w < words; w++) {
+                var word = WORDS[random.nextInt(WORDS.length)];
+                content.append(random.nextInt(8) == 0 ? word.toUpperCase() : word).append(' ');
+            }
+            contents[i] = content.toString();
+        }
+    }
+
+    @Benchmark
+    public int toLowerCaseContains() {
+        int matches = 0;
+        for (var content : contents) {
+            if (content.toLowerCase().contains(keyword.toLowerCase())) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int keywordMatcher() {
+        var matcher = KeywordMatcher.compile(keyword);
+        int matches = 0;
+        for (var content : contents) {
+            if (matcher.matches(content)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.repository;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostService;
+
+/**
+ * ストレージエンジンごとのPostServiceのスループットを計測するベンチマーク。
+ * スレッド数は{@code ./gradlew jmh -PjmhThreads=N}で指定し、1〜64コアでのスケーリングを比較します。
+ * {@code jdbc}は{@code flushInterval}ごとにまとめて書き出すライトビハインド、{@code jdbc-each-write}は変更のたびに書き出しを試みる場合です。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PostRepositoryBenchmark {
+
+    private static final int PRELOADED_POSTS = 100_000;
+
+    @Param({"in-memory", "sharded", "jdbc", "jdbc-each-write"})
+    public String engine;
+
+    @Param({"16"})
+    public int shards;
+
+    @Param({"100"})
+    public int flushIntervalMillis;
+
+    private PostRepository repository;
+    private PostService postService;
+
+    @Setup
+    public void setUp() {
+        repository = switch (engine) {
+            case "sharded" -> new ShardedPostRepository(shards);
+            case "jdbc" -> new JdbcPostRepository("jdbc:h2:mem:benchmark-" + System.nanoTime(),
+                    Duration.ofMillis(flushIntervalMillis), 1000);
+            case "jdbc-each-write" -> new JdbcPostRepository("jdbc:h2:mem:benchmark-" + System.nanoTime(),
+                    Duration.ZERO, 1000);
+            default -> new InMemoryPostRepository();
+        };
+        postService = new PostService(repository);
+        for (int i = 0; i < PRELOADED_POSTS; i++) {
+            var post = postService.createDraft("Benchmark content " + i);
+            if (i % 2 == 0) {
+                postService.publishPost(post.getId());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (repository instanceof JdbcPostRepository jdbc) {
+            // 計測中の書き込みがまとめられた割合と、書き出し1回あたりの時間を確認できるようにする
+            System.out.println(engine + ": " + jdbc.getStats());
+        }
+        if (repository instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public Post getPost() {
+        return postService.getPost(randomId());
+    }
+
+    @Benchmark
+    public Post likePost() {
+        return postService.likePost(randomId());
+    }
+
+    @Benchmark
+    public Post mixedNinetyPercentReads() {
+        var random = ThreadLocalRandom.current();
+        long id = 1 + random.nextInt(PRELOADED_POSTS);
+        return random.nextInt(10) == 0 ? postService.likePost(id) : postService.getPost(id);
+    }
+
+    private static long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(PRELOADED_POSTS);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service.id;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.model.Post;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.service.PostService;
+
+/**
+ * ID採番方式ごとの採番スループットと下書き作成スループットを計測するベンチマーク。
+ * 競合下での差を見るため{@code -PjmhThreads}でスレッド数を増やして実行します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostIdGeneratorBenchmark {
+
+    @Param({"sequential", "snowflake", "block-lease"})
+    public String strategy;
+
+    private PostIdGenerator generator;
+    private PostService postService;
+
+    @Setup
+    public void setUp() {
+        generator = switch (strategy) {
+            case "snowflake" -> new SnowflakeIdGenerator(1);
+            case "block-lease" -> new BlockLeaseIdGenerator(1, 1024);
+            default -> new SequentialIdGenerator();
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStore() {
+        // 作成した投稿が蓄積し続けないよう、イテレーションごとに空のストアから始める
+        postService = new PostService(new InMemoryPostRepository(), generator);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public Post createDraft() {
+        return postService.createDraft("benchmark");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.service.ranking;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostService;
+
+/**
+ * 100万件の公開済み投稿に対するいいねランキングの取得性能を計測するベンチマーク。
+ * {@code topUnderLikes}グループではいいねを送り続けるスレッドと並行して上位K件を取得し、
+ * いいねのスループット（1ms当たり100件で毎秒10万件）と取得のスループットを同時に確認します。
+ * {@code sortAllPublished}は全件をソートする従来の方法との比較用です。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LikeLeaderboardBenchmark {
+
+    private static final int PUBLISHED_POSTS = 1_000_000;
+
+    @Param({"10", "100"})
+    public int k;
+
+    private PostService postService;
+
+    @Setup
+    public void setUp() {
+        postService = new PostService();
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < PUBLISHED_POSTS; i++) {
+            var post = postService.createDraft("Benchmark content " + i);
+            postService.publishPost(post.getId());
+            // 初期状態のいいね数に偏りを持たせる
+            if (random.nextInt(100) == 0) {
+                for (int j = random.nextInt(50); j > 0; j--) {
+                    postService.likePost(post.getId());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Post> topK() {
+        return postService.getTopLikedPosts(k);
+    }
+
+    @Benchmark
+    @Group("topUnderLikes")
+    @GroupThreads(3)
+    public Post like() {
+        return postService.likePost(1 + (long) ThreadLocalRandom.current().nextInt(PUBLISHED_POSTS));
+    }
+
+    @Benchmark
+    @Group("topUnderLikes")
+    @GroupThreads(1)
+    public List<Post> topWhileLiking() {
+        return postService.getTopLikedPosts(k);
+    }
+
+    @Benchmark
+    public List<Post> sortAllPublished() {
+        return postService.getAllPublishedPosts().stream()
+                .sorted(Comparator.comparingInt(Post::getLikes).reversed())
+                .limit(k)
+                .toList();
+    }
+}
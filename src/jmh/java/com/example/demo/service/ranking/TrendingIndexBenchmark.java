@@ -0,0 +1,54 @@
+package com.example.demo.service.ranking;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 100万件の投稿に対するトレンドランキングの更新・取得性能を計測するベンチマーク。
+ * 時間経過による全件の再計算を行わないため、いいねの記録と上位N件の取得はどちらも投稿数にほぼ依存しません。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrendingIndexBenchmark {
+
+    private static final int POSTS = 1_000_000;
+
+    private TrendingIndex trending;
+
+    @Setup
+    public void setUp() {
+        trending = new TrendingIndex(Duration.ofHours(6));
+        var now = Instant.now();
+        for (int i = 1; i <= POSTS; i++) {
+            trending.recordLike(i, now);
+        }
+    }
+
+    @Benchmark
+    @Group("trendingUnderLikes")
+    @GroupThreads(3)
+    public void recordLike() {
+        trending.recordLike(1 + ThreadLocalRandom.current().nextInt(POSTS), Instant.now());
+    }
+
+    @Benchmark
+    @Group("trendingUnderLikes")
+    @GroupThreads(1)
+    public List<Long> topTen() {
+        return trending.topIds(10);
+    }
+}
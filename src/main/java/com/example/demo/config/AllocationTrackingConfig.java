@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.demo.web.AllocationTracker;
+import com.example.demo.web.AllocationTrackingInterceptor;
+
+/**
+ * リクエスト単位の割り当て計測を有効にする設定クラス。
+ * {@code demo.diagnostics.allocation-tracking.enabled=true}の場合のみ読み込まれ、
+ * 投稿APIへのリクエストにインターセプターを登録します。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "demo.diagnostics.allocation-tracking", name = "enabled", havingValue = "true")
+public class AllocationTrackingConfig implements WebMvcConfigurer {
+
+    private final AllocationTracker allocationTracker = new AllocationTracker();
+
+    /**
+     * 割り当て計測の集計先を提供します。
+     *
+     * @return 割り当てトラッカー
+     */
+    @Bean
+    public AllocationTracker allocationTracker() {
+        return allocationTracker;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (allocationTracker.isSupported()) {
+            registry.addInterceptor(new AllocationTrackingInterceptor(allocationTracker))
+                    .addPathPatterns("/api/posts/**");
+        }
+    }
+}
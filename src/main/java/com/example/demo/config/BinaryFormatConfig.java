@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * APIの応答とリクエストボディをJSONに加えてバイナリ形式（CBOR、Smile）でも扱えるようにする設定クラス。
+ * 形式は{@code Accept}ヘッダー（応答）と{@code Content-Type}ヘッダー（リクエストボディ）で選択されます。
+ *
+ * <p>Spring MVCが既定で追加するCBOR・Smileの変換器はSpring BootのJackson設定（日時をISO-8601の文字列で書くなど）を引き継がないため、
+ * JSONと同じ{@link ObjectMapper}の設定を複製した変換器に置き換え、どの形式でも同じ構造のデータを返します。</p>
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 設定クラスのコンストラクタ。
+     *
+     * @param objectMapper JSONの応答に使われるマッパー
+     */
+    public BinaryFormatConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import java.util.EnumMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.demo.web.AdaptiveConcurrencyLimiter;
+import com.example.demo.web.ConcurrencyLimitingInterceptor;
+import com.example.demo.web.RouteConcurrencyLimits;
+import com.example.demo.web.RouteConcurrencyLimits.RouteClass;
+
+/**
+ * 投稿APIの同時実行数の制限を有効にする設定クラス。
+ * {@code demo.posts.concurrency-limit.enabled=true}の場合のみ読み込まれ、
+ * 投稿APIへのリクエストにインターセプターを登録します。
+ * 変更ストリームは接続を長時間保持するため、制限の対象外とします。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "demo.posts.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final PostProperties.ConcurrencyLimit properties;
+    private final RouteConcurrencyLimits limits;
+
+    /**
+     * 設定クラスのコンストラクタ。
+     *
+     * @param properties 投稿機能の設定
+     */
+    public ConcurrencyLimitConfig(PostProperties properties) {
+        this.properties = properties.getConcurrencyLimit();
+        var limiters = new EnumMap<RouteClass, AdaptiveConcurrencyLimiter>(RouteClass.class);
+        limiters.put(RouteClass.POINT_READ, createLimiter(this.properties.getPointRead()));
+        limiters.put(RouteClass.SCAN, createLimiter(this.properties.getScan()));
+        limiters.put(RouteClass.WRITE, createLimiter(this.properties.getWrite()));
+        this.limits = new RouteConcurrencyLimits(limiters);
+    }
+
+    /**
+     * ルートの種類ごとのリミッターを提供します。
+     *
+     * @return ルートの種類ごとのリミッター
+     */
+    @Bean
+    public RouteConcurrencyLimits routeConcurrencyLimits() {
+        return limits;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitingInterceptor(limits, properties.getRetryAfter().toSeconds()))
+                .addPathPatterns("/api/posts/**")
+                .excludePathPatterns("/api/posts/stream");
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter(PostProperties.RouteLimit limit) {
+        return new AdaptiveConcurrencyLimiter(limit.getInitialLimit(), limit.getMaxLimit(), limit.getLatencyTarget());
+    }
+}
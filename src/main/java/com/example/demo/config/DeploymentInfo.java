@@ -1,11 +1,13 @@
 package com.example.demo.config;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 @Component
+@Lazy(false) // 起動日時を記録するため、遅延初期化が有効な場合も起動時に生成する
 public class DeploymentInfo {
     private final String deployedAt;
 
@@ -0,0 +1,122 @@
+package com.example.demo.config;
+
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.repository.CompressingPostRepository;
+import com.example.demo.repository.ContentCompressor;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.repository.JdbcPostRepository;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.repository.ShardedPostRepository;
+import com.example.demo.repository.TieredPostRepository;
+import com.example.demo.service.id.BlockLeaseIdGenerator;
+import com.example.demo.service.id.PostIdGenerator;
+import com.example.demo.service.id.SequentialIdGenerator;
+import com.example.demo.service.id.SnowflakeIdGenerator;
+
+/**
+ * 投稿機能を構成するコンポーネント（保存先、ID採番など）を設定に応じて生成する設定クラス。
+ */
+@Configuration
+@EnableConfigurationProperties(PostProperties.class)
+public class PostConfig {
+
+    /**
+     * {@code demo.posts.storage.engine}で選択されたリポジトリを提供します。
+     * {@code demo.posts.compression.enabled}が有効な場合は、大きな内容を圧縮するリポジトリで包みます。
+     *
+     * @param properties 投稿機能の設定
+     * @return 投稿リポジトリ
+     */
+    @Bean
+    public PostRepository postRepository(PostProperties properties) {
+        return createRepository(properties);
+    }
+
+    /**
+     * 設定に従ってリポジトリを生成します。
+     */
+    static PostRepository createRepository(PostProperties properties) {
+        return createRepository(properties, properties.getStorage().getJdbcUrl(), TieredPostRepository.DEFAULT_SEGMENT_NAME);
+    }
+
+    /**
+     * 起動時のウォームアップで使う、設定と同じ種類の使い捨てのリポジトリを生成します。
+     * JDBCエンジンの場合は、本番のデータベースに触れないよう専用のインメモリデータベースを使用します。
+     * 2階層エンジンの場合は、本番の退避ファイルを上書き・削除しないよう専用のファイル名を使用します。
+     */
+    static PostRepository createScratchRepository(PostProperties properties) {
+        var scratchId = UUID.randomUUID();
+        return createRepository(properties, "jdbc:h2:mem:scratch-" + scratchId, "posts-scratch-" + scratchId + ".seg");
+    }
+
+    private static PostRepository createRepository(PostProperties properties, String jdbcUrl, String segmentName) {
+        var repository = createRepository(properties.getStorage(), jdbcUrl, segmentName);
+        var compression = properties.getCompression();
+        if (!compression.isEnabled()) {
+            return repository;
+        }
+        var compressor = new ContentCompressor(
+                Math.toIntExact(compression.getThreshold().toBytes()), compression.getCacheSize());
+        return new CompressingPostRepository(repository, compressor);
+    }
+
+    private static PostRepository createRepository(PostProperties.Storage storage, String jdbcUrl, String segmentName) {
+        return switch (storage.getEngine()) {
+            case IN_MEMORY -> new InMemoryPostRepository();
+            case SHARDED -> new ShardedPostRepository(storage.getShards());
+            case TIERED -> new TieredPostRepository(storage.getHotCapacity().toBytes(), storage.getSpillDirectory(), segmentName);
+            case JDBC -> new JdbcPostRepository(jdbcUrl, storage.getFlushInterval(), storage.getFlushBatchSize());
+        };
+    }
+
+    /**
+     * {@code demo.posts.id.strategy}で選択されたIDジェネレーターを提供します。
+     * 連番とブロック貸し出しの場合は、永続化されたストアから起動した場合に備えて保存済みの最大のIDの次から採番します。
+     *
+     * @param properties 投稿機能の設定
+     * @param posts 投稿リポジトリ
+     * @return 投稿IDジェネレーター
+     */
+    @Bean
+    public PostIdGenerator postIdGenerator(PostProperties properties, PostRepository posts) {
+        var id = properties.getId();
+        return switch (id.getStrategy()) {
+            case SEQUENTIAL -> new SequentialIdGenerator(nextUnusedId(posts));
+            case SNOWFLAKE -> new SnowflakeIdGenerator(id.getNodeId());
+            case BLOCK_LEASE -> new BlockLeaseIdGenerator(
+                    id.getNodeId(), id.getBlockSize(), nextUnusedSequence(posts, id.getNodeId()));
+        };
+    }
+
+    private static long nextUnusedId(PostRepository posts) {
+        if (posts.count() == 0) {
+            return 1L;
+        }
+        // 全投稿をリストに集めず、走査しながら最大値だけを保持する
+        var max = new long[1];
+        posts.forEach(post -> max[0] = Math.max(max[0], post.getId()));
+        return max[0] + 1;
+    }
+
+    /**
+     * 指定されたノードが採番した保存済みのIDのうち、ノードIDを除いた連番部分の最大値の次を返します。
+     */
+    private static long nextUnusedSequence(PostRepository posts, int nodeId) {
+        if (posts.count() == 0) {
+            return 1L;
+        }
+        var max = new long[1];
+        posts.forEach(post -> {
+            long postId = post.getId();
+            if ((postId >>> BlockLeaseIdGenerator.NODE_SHIFT) == nodeId) {
+                max[0] = Math.max(max[0], postId & BlockLeaseIdGenerator.SEQUENCE_MASK);
+            }
+        });
+        return max[0] + 1;
+    }
+}
@@ -0,0 +1,1065 @@
+package com.example.demo.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 投稿機能に関する設定値を保持するクラス。
+ * {@code demo.posts}で始まるプロパティがバインドされます。
+ */
+@ConfigurationProperties(prefix = "demo.posts")
+public class PostProperties {
+
+    private final Storage storage = new Storage();
+    private final Id id = new Id();
+    private final ChangeLog changeLog = new ChangeLog();
+    private final Replication replication = new Replication();
+    private final Feed feed = new Feed();
+    private final Trending trending = new Trending();
+    private final Schedule schedule = new Schedule();
+    private final Drafts drafts = new Drafts();
+    private final Compression compression = new Compression();
+    private final LikeHistory likeHistory = new LikeHistory();
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    private final Coalescing coalescing = new Coalescing();
+    private final WarmUp warmUp = new WarmUp();
+    private final Query query = new Query();
+    private final ResultCache resultCache = new ResultCache();
+
+    /**
+     * ストレージ設定を取得します。
+     *
+     * @return ストレージ設定
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * ID採番設定を取得します。
+     *
+     * @return ID採番設定
+     */
+    public Id getId() {
+        return id;
+    }
+
+    /**
+     * 変更ログ設定を取得します。
+     *
+     * @return 変更ログ設定
+     */
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * レプリケーション設定を取得します。
+     *
+     * @return レプリケーション設定
+     */
+    public Replication getReplication() {
+        return replication;
+    }
+
+    /**
+     * 変更フィード（Server-Sent Events）設定を取得します。
+     *
+     * @return 変更フィード設定
+     */
+    public Feed getFeed() {
+        return feed;
+    }
+
+    /**
+     * トレンド（時間減衰スコア）設定を取得します。
+     *
+     * @return トレンド設定
+     */
+    public Trending getTrending() {
+        return trending;
+    }
+
+    /**
+     * 予約公開設定を取得します。
+     *
+     * @return 予約公開設定
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * 下書きの保持期間設定を取得します。
+     *
+     * @return 下書きの保持期間設定
+     */
+    public Drafts getDrafts() {
+        return drafts;
+    }
+
+    /**
+     * 投稿内容の圧縮設定を取得します。
+     *
+     * @return 圧縮設定
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * 投稿ごとのいいね数の推移に関する設定を取得します。
+     *
+     * @return いいね数の推移の設定
+     */
+    public LikeHistory getLikeHistory() {
+        return likeHistory;
+    }
+
+    /**
+     * 投稿APIの同時実行数の制限に関する設定を取得します。
+     *
+     * @return 同時実行数の制限の設定
+     */
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * 同時の読み取りをまとめる設定を取得します。
+     *
+     * @return 読み取りのまとめの設定
+     */
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * 起動時のウォームアップ設定を取得します。
+     *
+     * @return ウォームアップの設定
+     */
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * 検索クエリの設定を取得します。
+     *
+     * @return 検索クエリの設定
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+    /**
+     * 検索結果のキャッシュの設定を取得します。
+     *
+     * @return 検索結果のキャッシュの設定
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * 投稿の保存先に関する設定。
+     */
+    public static class Storage {
+        private Engine engine = Engine.IN_MEMORY;
+        private int shards = Runtime.getRuntime().availableProcessors();
+        private DataSize hotCapacity = DataSize.ofMegabytes(64);
+        private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "demo-posts");
+        private String jdbcUrl = "jdbc:h2:mem:posts";
+        private Duration flushInterval = Duration.ofMillis(100);
+        private int flushBatchSize = 1000;
+
+        /**
+         * ストレージエンジンの種類を取得します。
+         *
+         * @return ストレージエンジン
+         */
+        public Engine getEngine() {
+            return engine;
+        }
+
+        /**
+         * ストレージエンジンの種類を設定します。
+         *
+         * @param engine ストレージエンジン
+         */
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * シャード型エンジンのシャード数を取得します。
+         *
+         * @return シャード数（既定はCPUコア数）
+         */
+        public int getShards() {
+            return shards;
+        }
+
+        /**
+         * シャード型エンジンのシャード数を設定します。
+         *
+         * @param shards シャード数
+         */
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        /**
+         * 階層型エンジンがヒープに保持する投稿の推定サイズの上限を取得します。
+         *
+         * @return ヒープに保持する容量（既定は64MB）
+         */
+        public DataSize getHotCapacity() {
+            return hotCapacity;
+        }
+
+        /**
+         * 階層型エンジンがヒープに保持する投稿の推定サイズの上限を設定します。
+         *
+         * @param hotCapacity ヒープに保持する容量
+         */
+        public void setHotCapacity(DataSize hotCapacity) {
+            this.hotCapacity = hotCapacity;
+        }
+
+        /**
+         * 階層型エンジンが投稿を退避するディレクトリを取得します。
+         *
+         * @return 退避先のディレクトリ（既定は一時ディレクトリ配下の{@code demo-posts}）
+         */
+        public Path getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        /**
+         * 階層型エンジンが投稿を退避するディレクトリを設定します。
+         *
+         * @param spillDirectory 退避先のディレクトリ
+         */
+        public void setSpillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
+
+        /**
+         * JDBCエンジンが投稿を書き出すデータベースの接続URLを取得します。
+         *
+         * @return 接続URL（既定はプロセス内のH2インメモリデータベース）
+         */
+        public String getJdbcUrl() {
+            return jdbcUrl;
+        }
+
+        /**
+         * JDBCエンジンが投稿を書き出すデータベースの接続URLを設定します。
+         * 再起動後も投稿を残す場合は{@code jdbc:h2:file:/path/to/posts}のようにファイルを指定します。
+         *
+         * @param jdbcUrl 接続URL
+         */
+        public void setJdbcUrl(String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+
+        /**
+         * JDBCエンジンが変更をまとめて書き出す間隔を取得します。
+         *
+         * @return 書き出しの間隔（既定は100ms）
+         */
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * JDBCエンジンが変更をまとめて書き出す間隔を設定します。
+         * 長くするほど同じ投稿への変更がまとまり書き出しの負荷は下がりますが、異常終了時に失われうる変更は増えます。
+         *
+         * @param flushInterval 書き出しの間隔（0の場合は変更のたびに書き出しを試み、失敗した変更は定期的に再試行する）
+         */
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        /**
+         * JDBCエンジンが1回のバッチで送る最大行数を取得します。
+         *
+         * @return 最大行数（既定は1000）
+         */
+        public int getFlushBatchSize() {
+            return flushBatchSize;
+        }
+
+        /**
+         * JDBCエンジンが1回のバッチで送る最大行数を設定します。
+         * 書き出していない変更がこの件数に達した場合は、間隔を待たずに書き出します。
+         *
+         * @param flushBatchSize 最大行数
+         */
+        public void setFlushBatchSize(int flushBatchSize) {
+            this.flushBatchSize = flushBatchSize;
+        }
+    }
+
+    /**
+     * 投稿IDの採番に関する設定。
+     */
+    public static class Id {
+        private IdStrategy strategy = IdStrategy.SEQUENTIAL;
+        private int nodeId = 0;
+        private int blockSize = 1024;
+
+        /**
+         * 採番方式を取得します。
+         *
+         * @return 採番方式
+         */
+        public IdStrategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * 採番方式を設定します。
+         *
+         * @param strategy 採番方式
+         */
+        public void setStrategy(IdStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * ノードIDを取得します。複数ノードで運用する場合はノードごとに異なる値を設定します。
+         *
+         * @return ノードID（0〜1023）
+         */
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * ノードIDを設定します。
+         *
+         * @param nodeId ノードID（0〜1023）
+         */
+        public void setNodeId(int nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        /**
+         * ブロック方式で1回に借り受けるIDの個数を取得します。
+         *
+         * @return ブロックサイズ
+         */
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        /**
+         * ブロック方式で1回に借り受けるIDの個数を設定します。
+         *
+         * @param blockSize ブロックサイズ
+         */
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    /**
+     * 直近の変更を保持する変更ログに関する設定。
+     */
+    public static class ChangeLog {
+        private int capacity = 100_000;
+
+        /**
+         * 保持する変更の最大件数を取得します。
+         *
+         * @return 最大件数
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * 保持する変更の最大件数を設定します。
+         *
+         * @param capacity 最大件数
+         */
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    /**
+     * リーダー・フォロワー型レプリケーションに関する設定。
+     */
+    public static class Replication {
+        private ReplicationRole role = ReplicationRole.STANDALONE;
+        private int port = 7070;
+        private String primaryHost = "localhost";
+        private int primaryPort = 7070;
+
+        /**
+         * このノードの役割を取得します。
+         *
+         * @return レプリケーションの役割
+         */
+        public ReplicationRole getRole() {
+            return role;
+        }
+
+        /**
+         * このノードの役割を設定します。
+         *
+         * @param role レプリケーションの役割
+         */
+        public void setRole(ReplicationRole role) {
+            this.role = role;
+        }
+
+        /**
+         * プライマリが変更ログを配信する待ち受けポートを取得します。
+         *
+         * @return 待ち受けポート
+         */
+        public int getPort() {
+            return port;
+        }
+
+        /**
+         * プライマリが変更ログを配信する待ち受けポートを設定します。
+         *
+         * @param port 待ち受けポート
+         */
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        /**
+         * フォロワーが接続するプライマリのホスト名を取得します。
+         *
+         * @return プライマリのホスト名
+         */
+        public String getPrimaryHost() {
+            return primaryHost;
+        }
+
+        /**
+         * フォロワーが接続するプライマリのホスト名を設定します。
+         *
+         * @param primaryHost プライマリのホスト名
+         */
+        public void setPrimaryHost(String primaryHost) {
+            this.primaryHost = primaryHost;
+        }
+
+        /**
+         * フォロワーが接続するプライマリのポートを取得します。
+         *
+         * @return プライマリのポート
+         */
+        public int getPrimaryPort() {
+            return primaryPort;
+        }
+
+        /**
+         * フォロワーが接続するプライマリのポートを設定します。
+         *
+         * @param primaryPort プライマリのポート
+         */
+        public void setPrimaryPort(int primaryPort) {
+            this.primaryPort = primaryPort;
+        }
+    }
+
+    /**
+     * Server-Sent Eventsによる変更フィードに関する設定。
+     */
+    public static class Feed {
+        private Duration likeCoalesceWindow = Duration.ofMillis(500);
+        private int subscriberBuffer = 1024;
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * 同じ投稿へのいいねイベントをまとめる時間幅を取得します。
+         *
+         * @return いいねイベントの集約時間幅（0の場合は集約しない）
+         */
+        public Duration getLikeCoalesceWindow() {
+            return likeCoalesceWindow;
+        }
+
+        /**
+         * 同じ投稿へのいいねイベントをまとめる時間幅を設定します。
+         *
+         * @param likeCoalesceWindow いいねイベントの集約時間幅
+         */
+        public void setLikeCoalesceWindow(Duration likeCoalesceWindow) {
+            this.likeCoalesceWindow = likeCoalesceWindow;
+        }
+
+        /**
+         * 購読者ごとの未送信イベントの最大件数を取得します。
+         *
+         * @return 購読者ごとのバッファ件数
+         */
+        public int getSubscriberBuffer() {
+            return subscriberBuffer;
+        }
+
+        /**
+         * 購読者ごとの未送信イベントの最大件数を設定します。
+         *
+         * @param subscriberBuffer 購読者ごとのバッファ件数
+         */
+        public void setSubscriberBuffer(int subscriberBuffer) {
+            this.subscriberBuffer = subscriberBuffer;
+        }
+
+        /**
+         * 1回の購読接続を維持する最大時間を取得します。
+         *
+         * @return 接続の最大時間
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        /**
+         * 1回の購読接続を維持する最大時間を設定します。
+         *
+         * @param timeout 接続の最大時間
+         */
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * トレンド（いいねの時間減衰スコア）に関する設定。
+     */
+    public static class Trending {
+        private Duration halfLife = Duration.ofHours(6);
+
+        /**
+         * いいねの寄与が半分になるまでの時間を取得します。
+         *
+         * @return 半減期
+         */
+        public Duration getHalfLife() {
+            return halfLife;
+        }
+
+        /**
+         * いいねの寄与が半分になるまでの時間を設定します。
+         *
+         * @param halfLife 半減期
+         */
+        public void setHalfLife(Duration halfLife) {
+            this.halfLife = halfLife;
+        }
+    }
+
+    /**
+     * 予約公開に関する設定。
+     */
+    public static class Schedule {
+        private Duration tick = Duration.ofMillis(100);
+
+        /**
+         * 予約公開のタイマーを進める間隔（公開時刻の精度）を取得します。
+         *
+         * @return ティックの長さ
+         */
+        public Duration getTick() {
+            return tick;
+        }
+
+        /**
+         * 予約公開のタイマーを進める間隔を設定します。
+         *
+         * @param tick ティックの長さ
+         */
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * 放置された下書きの自動削除に関する設定。
+     */
+    public static class Drafts {
+        private Duration ttl = Duration.ZERO;
+        private Duration reapInterval = Duration.ofMinutes(1);
+
+        /**
+         * 最終更新から下書きを保持する期間を取得します。
+         *
+         * @return 保持期間（0の場合は自動削除しない）
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        /**
+         * 最終更新から下書きを保持する期間を設定します。
+         *
+         * @param ttl 保持期間（0の場合は自動削除しない）
+         */
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        /**
+         * 期限切れの下書きを削除する間隔（期限の時間バケットの幅）を取得します。
+         *
+         * @return 削除の実行間隔
+         */
+        public Duration getReapInterval() {
+            return reapInterval;
+        }
+
+        /**
+         * 期限切れの下書きを削除する間隔を設定します。
+         *
+         * @param reapInterval 削除の実行間隔
+         */
+        public void setReapInterval(Duration reapInterval) {
+            this.reapInterval = reapInterval;
+        }
+    }
+
+    /**
+     * 投稿内容の圧縮に関する設定。
+     */
+    public static class Compression {
+        private boolean enabled = false;
+        private DataSize threshold = DataSize.ofKilobytes(1);
+        private int cacheSize = 256;
+
+        /**
+         * 大きな投稿内容を圧縮して保存するかどうかを取得します。
+         *
+         * @return 圧縮する場合はtrue
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 大きな投稿内容を圧縮して保存するかどうかを設定します。
+         *
+         * @param enabled 圧縮する場合はtrue
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 圧縮の対象とする内容の最小サイズ（UTF-8）を取得します。
+         *
+         * @return 最小サイズ（既定は1KB）
+         */
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        /**
+         * 圧縮の対象とする内容の最小サイズを設定します。
+         *
+         * @param threshold 最小サイズ
+         */
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+
+        /**
+         * 展開済みの内容をキャッシュする件数を取得します。
+         *
+         * @return キャッシュ件数（0でキャッシュしない）
+         */
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        /**
+         * 展開済みの内容をキャッシュする件数を設定します。
+         *
+         * @param cacheSize キャッシュ件数
+         */
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    /**
+     * 投稿ごとのいいね数の推移（直近24時間の1分単位）に関する設定。
+     */
+    public static class LikeHistory {
+        private int maxTrackedPosts = 10_000;
+
+        /**
+         * 推移を保持する投稿数の上限を取得します。
+         *
+         * @return 投稿数の上限（1件当たり約6KB、既定は10000件）
+         */
+        public int getMaxTrackedPosts() {
+            return maxTrackedPosts;
+        }
+
+        /**
+         * 推移を保持する投稿数の上限を設定します。
+         *
+         * @param maxTrackedPosts 投稿数の上限
+         */
+        public void setMaxTrackedPosts(int maxTrackedPosts) {
+            this.maxTrackedPosts = maxTrackedPosts;
+        }
+    }
+
+    /**
+     * 投稿APIの同時実行数の制限（応答時間に応じて上限を調整し、超過分を503で拒否する）に関する設定。
+     */
+    public static class ConcurrencyLimit {
+        private boolean enabled = false;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private final RouteLimit pointRead = new RouteLimit(100, 1000, Duration.ofMillis(20));
+        private final RouteLimit scan = new RouteLimit(8, 64, Duration.ofMillis(250));
+        private final RouteLimit write = new RouteLimit(32, 256, Duration.ofMillis(50));
+
+        /**
+         * 同時実行数を制限するかどうかを取得します。
+         *
+         * @return 制限する場合はtrue
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 同時実行数を制限するかどうかを設定します。
+         *
+         * @param enabled 制限する場合はtrue
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 拒否したリクエストに{@code Retry-After}ヘッダーで示す再試行までの時間を取得します。
+         *
+         * @return 再試行までの時間（秒単位に切り捨て、最短1秒）
+         */
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * 拒否したリクエストに示す再試行までの時間を設定します。
+         *
+         * @param retryAfter 再試行までの時間
+         */
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * 1件の取得など軽い読み取りの制限を取得します。
+         *
+         * @return 軽い読み取りの制限
+         */
+        public RouteLimit getPointRead() {
+            return pointRead;
+        }
+
+        /**
+         * 一覧取得など全件を走査する読み取りの制限を取得します。
+         *
+         * @return 走査を伴う読み取りの制限
+         */
+        public RouteLimit getScan() {
+            return scan;
+        }
+
+        /**
+         * 書き込みの制限を取得します。
+         *
+         * @return 書き込みの制限
+         */
+        public RouteLimit getWrite() {
+            return write;
+        }
+    }
+
+    /**
+     * ルートの種類ごとの同時実行数の制限。
+     */
+    public static class RouteLimit {
+        private int initialLimit;
+        private int maxLimit;
+        private Duration latencyTarget;
+
+        RouteLimit(int initialLimit, int maxLimit, Duration latencyTarget) {
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTarget = latencyTarget;
+        }
+
+        /**
+         * 同時実行数の初期上限を取得します。
+         *
+         * @return 初期上限
+         */
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        /**
+         * 同時実行数の初期上限を設定します。
+         *
+         * @param initialLimit 初期上限
+         */
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        /**
+         * 同時実行数の上限の最大値を取得します。
+         *
+         * @return 上限の最大値
+         */
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        /**
+         * 同時実行数の上限の最大値を設定します。
+         *
+         * @param maxLimit 上限の最大値
+         */
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        /**
+         * 目標とする平均応答時間を取得します。これを超えると上限を下げます。
+         *
+         * @return 目標の応答時間
+         */
+        public Duration getLatencyTarget() {
+            return latencyTarget;
+        }
+
+        /**
+         * 目標とする平均応答時間を設定します。
+         *
+         * @param latencyTarget 目標の応答時間
+         */
+        public void setLatencyTarget(Duration latencyTarget) {
+            this.latencyTarget = latencyTarget;
+        }
+    }
+
+    /**
+     * 同じ投稿の取得や同じ条件の検索を同時に受けた場合に、1回の読み取りにまとめる設定。
+     */
+    public static class Coalescing {
+        private Duration maxWait = Duration.ofMillis(500);
+
+        /**
+         * 実行中の読み取りの完了を待つ最大時間を取得します。これを超えた呼び出し元は自分で読み取りを実行します。
+         *
+         * @return 最大待ち時間（0の場合はまとめない）
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        /**
+         * 実行中の読み取りの完了を待つ最大時間を設定します。
+         *
+         * @param maxWait 最大待ち時間（0の場合はまとめない）
+         */
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * 起動時のウォームアップ（使い捨てのストアに対する疑似的な操作でJITコンパイルを進めてから準備完了とする）に関する設定。
+     */
+    public static class WarmUp {
+        private boolean enabled = false;
+        private int iterations = 20_000;
+        private Duration maxDuration = Duration.ofSeconds(30);
+
+        /**
+         * 起動時にウォームアップを行うかどうかを取得します。
+         *
+         * @return ウォームアップを行う場合はtrue
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 起動時にウォームアップを行うかどうかを設定します。
+         *
+         * @param enabled ウォームアップを行う場合はtrue
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 疑似的な操作（作成・取得・いいね・一覧・検索の一巡）を繰り返す回数を取得します。
+         *
+         * @return 繰り返し回数
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * 疑似的な操作を繰り返す回数を設定します。
+         *
+         * @param iterations 繰り返し回数
+         */
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        /**
+         * ウォームアップにかける最大時間を取得します。繰り返し回数に達しなくてもこの時間で打ち切ります。
+         *
+         * @return 最大時間
+         */
+        public Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        /**
+         * ウォームアップにかける最大時間を設定します。
+         *
+         * @param maxDuration 最大時間
+         */
+        public void setMaxDuration(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+    }
+
+    /**
+     * 検索クエリ（{@code /api/posts/query}）の実行計画で使う索引に関する設定。
+     */
+    public static class Query {
+        private boolean textIndex = false;
+
+        /**
+         * 投稿内容のトライグラムの転置索引を作るかどうかを取得します。
+         *
+         * @return 転置索引を作る場合はtrue
+         */
+        public boolean isTextIndex() {
+            return textIndex;
+        }
+
+        /**
+         * 投稿内容のトライグラムの転置索引を作るかどうかを設定します。
+         * 転置索引は公開済み投稿の内容の文字数に比例したメモリを使用するため、既定では無効です。
+         * 無効の場合、キーワードの条件は候補の判定だけに使われます。
+         *
+         * @param textIndex 転置索引を作る場合はtrue
+         */
+        public void setTextIndex(boolean textIndex) {
+            this.textIndex = textIndex;
+        }
+    }
+
+    /**
+     * 検索（{@code /api/posts/search}）と検索クエリ（{@code /api/posts/query}）の結果のキャッシュに関する設定。
+     * 上限は検索と検索クエリのそれぞれに適用されます。
+     */
+    public static class ResultCache {
+        private int maxEntries = 1024;
+        private DataSize maxMemory = DataSize.ofMegabytes(16);
+
+        /**
+         * キャッシュするページの最大数を取得します。
+         *
+         * @return ページの最大数（0の場合はキャッシュしない）
+         */
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        /**
+         * キャッシュするページの最大数を設定します。超えた場合は最も長く使われていないページから破棄します。
+         *
+         * @param maxEntries ページの最大数（0の場合はキャッシュしない）
+         */
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * キャッシュが使用するメモリのおおよその上限を取得します。
+         *
+         * @return メモリの上限
+         */
+        public DataSize getMaxMemory() {
+            return maxMemory;
+        }
+
+        /**
+         * キャッシュが使用するメモリのおおよその上限を設定します。
+         * キャッシュは投稿IDの配列だけを保持するため、1ページあたりの使用量は件数×8バイト程度です。
+         *
+         * @param maxMemory メモリの上限
+         */
+        public void setMaxMemory(DataSize maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+    }
+
+    /**
+     * レプリケーションにおけるノードの役割。
+     */
+    public enum ReplicationRole {
+        /** レプリケーションを行わない */
+        STANDALONE,
+        /** 変更ログを配信するプライマリ */
+        PRIMARY,
+        /** プライマリの変更ログを適用する読み取り専用のフォロワー */
+        FOLLOWER
+    }
+
+    /**
+     * 選択可能な投稿IDの採番方式。
+     */
+    public enum IdStrategy {
+        /** 1から始まる連番（単一ノード向け） */
+        SEQUENTIAL,
+        /** 時刻順に並ぶSnowflake形式（ノードIDを含む） */
+        SNOWFLAKE,
+        /** スレッドごとにブロックを借り受ける連番（ノードIDを含む） */
+        BLOCK_LEASE
+    }
+
+    /**
+     * 選択可能なストレージエンジン。
+     */
+    public enum Engine {
+        /** ConcurrentHashMapによるインメモリストレージ */
+        IN_MEMORY,
+        /** シングルライターのシャードに分割したインメモリストレージ */
+        SHARDED,
+        /** よく読まれる投稿だけをヒープに置き、残りをローカルファイルへ退避するストレージ */
+        TIERED,
+        /** ヒープ上の投稿を組み込みデータベースへまとめて書き出すストレージ */
+        JDBC
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import com.example.demo.replication.ReplicationFollower;
+import com.example.demo.replication.ReplicationPublisher;
+import com.example.demo.service.PostService;
+
+/**
+ * {@code demo.posts.replication.role}に応じてレプリケーションの配信側・受信側を起動する設定クラス。
+ * 遅延初期化が有効な場合も、最初のリクエストを待たずに起動時に接続を開始します。
+ */
+@Configuration
+@Lazy(false)
+public class ReplicationConfig {
+
+    /**
+     * プライマリとして変更ログを配信するコンポーネントを提供します。
+     *
+     * @param postService 配信元のサービス
+     * @param properties 投稿機能の設定
+     * @return 起動済みの配信コンポーネント
+     * @throws IOException 待ち受けポートを開けなかった場合
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "demo.posts.replication", name = "role", havingValue = "primary")
+    public ReplicationPublisher replicationPublisher(PostService postService, PostProperties properties) throws IOException {
+        var publisher = new ReplicationPublisher(postService, properties.getReplication().getPort());
+        publisher.start();
+        return publisher;
+    }
+
+    /**
+     * フォロワーとしてプライマリの変更ログを適用するコンポーネントを提供します。
+     *
+     * @param postService 適用先のサービス
+     * @param properties 投稿機能の設定
+     * @return 起動済みの受信コンポーネント
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "demo.posts.replication", name = "role", havingValue = "follower")
+    public ReplicationFollower replicationFollower(PostService postService, PostProperties properties) {
+        var replication = properties.getReplication();
+        var follower = new ReplicationFollower(postService, replication.getPrimaryHost(), replication.getPrimaryPort());
+        follower.start();
+        return follower;
+    }
+}
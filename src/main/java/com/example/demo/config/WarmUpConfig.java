@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.web.WarmUpRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 起動時のウォームアップを有効にする設定クラス。
+ * {@code demo.posts.warm-up.enabled=true}の場合のみ読み込まれ、準備完了の通知より前にウォームアップを実行します。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "demo.posts.warm-up", name = "enabled", havingValue = "true")
+public class WarmUpConfig {
+
+    /**
+     * 本番と同じ種類の使い捨てのリポジトリに対してウォームアップを行うランナーを提供します。
+     *
+     * @param properties 投稿機能の設定
+     * @param objectMapper APIの応答のシリアライズに使われるマッパー
+     * @return ウォームアップのランナー
+     */
+    @Bean
+    public WarmUpRunner warmUpRunner(PostProperties properties, ObjectMapper objectMapper) {
+        return new WarmUpRunner(() -> PostConfig.createScratchRepository(properties), properties, objectMapper);
+    }
+}
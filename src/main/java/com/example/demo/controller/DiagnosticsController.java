@@ -0,0 +1,170 @@
+package com.example.demo.controller;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.repository.CompressingPostRepository;
+import com.example.demo.repository.JdbcPostRepository;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.repository.TieredPostRepository;
+import com.example.demo.service.PostService;
+import com.example.demo.web.AllocationTracker;
+import com.example.demo.web.RouteConcurrencyLimits;
+
+/**
+ * 運用・性能調査向けの診断情報を提供するコントローラークラス。
+ * 各計測機能は任意で有効化され、無効な場合は404（Not Found）を返します。
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    private final ObjectProvider<AllocationTracker> allocationTracker;
+    private final PostService postService;
+    private final ObjectProvider<PostRepository> postRepository;
+    private final ObjectProvider<RouteConcurrencyLimits> concurrencyLimits;
+
+    /**
+     * コントローラーのコンストラクタ。
+     *
+     * @param allocationTracker 割り当てトラッカー（割り当て計測が無効な場合は存在しない）
+     * @param postService 投稿サービスのインスタンス
+     * @param postRepository 投稿リポジトリ
+     * @param concurrencyLimits ルートの種類ごとの同時実行数のリミッター（制限が無効な場合は存在しない）
+     */
+    public DiagnosticsController(ObjectProvider<AllocationTracker> allocationTracker, PostService postService,
+                                 ObjectProvider<PostRepository> postRepository,
+                                 ObjectProvider<RouteConcurrencyLimits> concurrencyLimits) {
+        this.allocationTracker = allocationTracker;
+        this.postService = postService;
+        this.postRepository = postRepository;
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    /**
+     * ルートごとのリクエスト単位割り当てバイト数の集計結果を取得するエンドポイント。
+     *
+     * @return 集計結果とHTTPステータス200（OK）、または計測が無効な場合は404（Not Found）
+     */
+    @GetMapping("/allocations")
+    public ResponseEntity<Map<String, Map<String, Object>>> getAllocations() {
+        return Optional.ofNullable(allocationTracker.getIfAvailable())
+                .map(tracker -> ResponseEntity.ok(tracker.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 割り当てバイト数の集計結果をリセットするエンドポイント。
+     *
+     * @return リセット成功時はHTTPステータス204（No Content）、計測が無効な場合は404（Not Found）
+     */
+    @DeleteMapping("/allocations")
+    public ResponseEntity<Void> resetAllocations() {
+        var tracker = allocationTracker.getIfAvailable();
+        if (tracker == null) {
+            return ResponseEntity.notFound().build();
+        }
+        tracker.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 放置された下書きの自動削除の状況を取得するエンドポイント。
+     *
+     * @return 削除した下書きの数と推定解放バイト数などの統計とHTTPステータス200（OK）、
+     *         または自動削除が無効な場合は404（Not Found）
+     */
+    @GetMapping("/drafts")
+    public ResponseEntity<Map<String, Object>> getDraftExpiry() {
+        return Optional.ofNullable(postService.getDraftExpiryStats())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 階層型ストレージのヒープ使用量と退避状況、またはJDBCストレージの書き出し状況を取得するエンドポイント。
+     *
+     * @return ヒープ上の件数・推定バイト数、退避ファイルのサイズ、ヒット・ミス数などの統計（JDBCストレージの場合は未書き出しの変更数、
+     *         書き出しの回数・所要時間、種類ごとの行数などの統計）とHTTPステータス200（OK）、
+     *         またはいずれのストレージも使用していない場合は404（Not Found）
+     */
+    @GetMapping("/storage")
+    public ResponseEntity<Map<String, Object>> getStorage() {
+        var repository = postRepository.getIfAvailable();
+        if (repository instanceof CompressingPostRepository compressing) {
+            repository = compressing.getDelegate();
+        }
+        if (repository instanceof TieredPostRepository tiered) {
+            return ResponseEntity.ok(tiered.getStats());
+        }
+        if (repository instanceof JdbcPostRepository jdbc) {
+            return ResponseEntity.ok(jdbc.getStats());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 投稿内容の圧縮状況を取得するエンドポイント。
+     *
+     * @return 元の内容のサイズ区間ごとの圧縮率、圧縮・展開の平均時間、キャッシュのヒット率とHTTPステータス200（OK）、
+     *         または圧縮が無効な場合は404（Not Found）
+     */
+    @GetMapping("/compression")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCompression() {
+        if (postRepository.getIfAvailable() instanceof CompressingPostRepository compressing) {
+            return ResponseEntity.ok(compressing.getCompressor().snapshot());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 投稿APIの同時実行数の制限状況を取得するエンドポイント。
+     *
+     * @return ルートの種類ごとの現在の上限、実行中の数、受け付け・拒否した数、直近の平均応答時間とHTTPステータス200（OK）、
+     *         または制限が無効な場合は404（Not Found）
+     */
+    @GetMapping("/concurrency")
+    public ResponseEntity<Map<String, Map<String, Object>>> getConcurrency() {
+        return Optional.ofNullable(concurrencyLimits.getIfAvailable())
+                .map(limits -> ResponseEntity.ok(limits.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 同時の読み取り（投稿の取得と検索）をまとめた状況を取得するエンドポイント。
+     *
+     * @return 読み取りの種類ごとの呼び出し数、実際の実行数、結果を共有した数、まとめられた割合とHTTPステータス200（OK）
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCoalescing() {
+        return ResponseEntity.ok(postService.getCoalescingStats());
+    }
+
+    /**
+     * 検索と検索クエリの結果のキャッシュの状況を取得するエンドポイント。
+     *
+     * @return キャッシュの種類ごとのヒット率、エントリー数、推定メモリ使用量とHTTPステータス200（OK）
+     */
+    @GetMapping("/result-cache")
+    public ResponseEntity<Map<String, Map<String, Object>>> getResultCache() {
+        return ResponseEntity.ok(postService.getResultCacheStats());
+    }
+
+    /**
+     * 検索クエリの実行計画で使う索引の大きさを取得するエンドポイント。
+     *
+     * @return トライグラムの転置索引の有効・無効、索引に含まれる投稿数、トライグラムの種類数、転置リストの要素数、
+     *         推定メモリ使用量とHTTPステータス200（OK）
+     */
+    @GetMapping("/search-index")
+    public ResponseEntity<Map<String, Object>> getSearchIndex() {
+        return ResponseEntity.ok(postService.getSearchIndexStats());
+    }
+}
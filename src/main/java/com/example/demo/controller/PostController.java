@@ -1,5 +1,7 @@
 package com.example.demo.controller;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -7,17 +9,28 @@ import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.config.DeploymentInfo;
 import com.example.demo.model.Post;
+import com.example.demo.service.BulkResult;
+import com.example.demo.service.InvalidCursorException;
+import com.example.demo.service.LikeHistory;
+import com.example.demo.service.PageCursor;
 import com.example.demo.service.PostService;
+import com.example.demo.service.ReadOnlyReplicaException;
+import com.example.demo.service.query.QueryPlan;
+import com.example.demo.service.query.QuerySyntaxException;
+import com.example.demo.service.stats.PostStats;
+import com.example.demo.service.stats.PublishRateSeries;
 
 /**
  * 投稿に関するAPIエンドポイントを提供するコントローラークラス。
@@ -27,6 +40,21 @@ import com.example.demo.service.PostService;
 @RequestMapping("/api/posts")
 public class PostController {
     
+    /** 応答に含まれる投稿がどのシーケンス番号までの変更を反映しているかを示すヘッダー */
+    static final String CHANGE_SEQUENCE_HEADER = "X-Change-Sequence";
+    /** 検索クエリの応答で、実行した計画のドライバーと判定した候補の数、実行時間を示すヘッダー */
+    static final String QUERY_PLAN_HEADER = "X-Query-Plan";
+    /** ページに分けた一覧の応答で、次のページのカーソルを示すヘッダー（最後のページの場合は含まれない） */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** 検索の応答で、キャッシュした結果から返したか（{@code HIT}）どうか（{@code MISS}）を示すヘッダー */
+    static final String CACHE_HEADER = "X-Cache";
+    private static final int MAX_CHANGES_LIMIT = 10_000;
+    private static final int MAX_TOP_K = 100;
+    private static final int MAX_BULK_IDS = 100_000;
+    private static final int DEFAULT_RATE_BUCKETS = 60;
+    private static final int MAX_LIKE_HISTORY_MINUTES = 24 * 60;
+    private static final int MAX_PAGE_LIMIT = 1000;
+    
     private final PostService postService;
     private final DeploymentInfo deploymentInfo;
     
@@ -43,7 +71,7 @@ public class PostController {
     /**
      * 下書き投稿を作成するエンドポイント。
      * 
-     * @param payload 投稿内容を含むリクエストボディ（"content"キーが必須）
+     * @param payload 投稿内容を含むリクエストボディ（"content"キーが必須、"publishAt"に ISO-8601 形式の日時を指定すると公開を予約）
      * @return 作成された投稿情報とHTTPステータス201（Created）、またはエラー時は400（Bad Request）
      */
     @PostMapping("/drafts")
@@ -54,23 +82,75 @@ public class PostController {
             return ResponseEntity.badRequest().build();
         }
         
-        var createdPost = postService.createDraft(content);
+        var publishAtValue = payload.get("publishAt");
+        if (publishAtValue == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(postService.createDraft(content));
+        }
+        Instant publishAt;
+        try {
+            publishAt = Instant.parse(publishAtValue);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        var createdPost = postService.createDraft(content, publishAt);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdPost);
     }
     
     /**
      * 下書き投稿を公開するエンドポイント。
      * 
+     * {@code publishAt}を指定した場合は即時には公開せず、その日時に公開されるよう予約します。
+     * 
      * @param id 公開する投稿のID
-     * @return 公開された投稿情報とHTTPステータス200（OK）、または投稿が見つからない場合は404（Not Found）
+     * @param publishAt 公開を予約する日時（ISO-8601形式、省略時は即時公開）
+     * @return 公開（または予約）された投稿情報とHTTPステータス200（OK）、または投稿が見つからない場合は404（Not Found）
      */
     @PutMapping("/drafts/{id}/publish")
-    public ResponseEntity<Post> publishPost(@PathVariable Long id) {
-        return Optional.ofNullable(postService.publishPost(id))
+    public ResponseEntity<Post> publishPost(@PathVariable Long id,
+                                            @RequestParam(required = false) Instant publishAt) {
+        var post = publishAt == null ? postService.publishPost(id) : postService.schedulePublish(id, publishAt);
+        return Optional.ofNullable(post)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * 下書き投稿をまとめて公開するエンドポイント。
+     * 対象はIDの一覧（{@code ids}）、または作成日時の範囲（{@code from}以上{@code to}未満）のどちらかで指定します。
+     * すべての投稿に同じ公開日時が設定されます。
+     * 
+     * @param request 対象の指定
+     * @return 投稿IDごとの結果とHTTPステータス200（OK）、または指定が不正な場合は400（Bad Request）
+     */
+    @PostMapping("/bulk/publish")
+    public ResponseEntity<BulkResult> publishPosts(@RequestBody BulkRequest request) {
+        if (!request.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        var result = request.ids() != null
+                ? postService.publishPosts(request.ids())
+                : postService.publishDraftsCreatedBetween(request.from(), request.to());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 投稿をまとめて削除するエンドポイント。
+     * 対象はIDの一覧（{@code ids}）、または公開日時の範囲（{@code from}以上{@code to}未満、公開済みの投稿のみ）のどちらかで指定します。
+     * 
+     * @param request 対象の指定
+     * @return 投稿IDごとの結果とHTTPステータス200（OK）、または指定が不正な場合は400（Bad Request）
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResult> deletePosts(@RequestBody BulkRequest request) {
+        if (!request.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        var result = request.ids() != null
+                ? postService.deletePosts(request.ids())
+                : postService.deletePostsPublishedBetween(request.from(), request.to());
+        return ResponseEntity.ok(result);
+    }
+    
     /**
      * 指定されたIDの投稿を取得するエンドポイント。
      * 
@@ -84,6 +164,27 @@ public class PostController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * 指定されたIDの投稿の内容を更新するエンドポイント。
+     * 
+     * @param id 更新する投稿のID
+     * @param payload 投稿内容を含むリクエストボディ（"content"キーが必須）
+     * @return 更新された投稿情報とHTTPステータス200（OK）、内容が空の場合は400（Bad Request）、
+     *         または投稿が見つからない場合は404（Not Found）
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Post> updatePost(@PathVariable Long id, @RequestBody Map<String, String> payload) {
+        var content = payload.get("content");
+        
+        if (content == null || content.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return Optional.ofNullable(postService.updateContent(id, content))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     /**
      * 指定されたIDの投稿を削除するエンドポイント。
      * 
@@ -104,8 +205,178 @@ public class PostController {
      */
     @GetMapping("/published")
     public ResponseEntity<List<Post>> getAllPublishedPosts() {
+        // 一覧の取得より前に読むことで、一覧にはこの番号までの変更が必ず含まれる
+        long sequence = postService.getStableSequence();
         var posts = postService.getAllPublishedPosts();
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok()
+                .header(CHANGE_SEQUENCE_HEADER, Long.toString(sequence))
+                .body(posts);
+    }
+    
+    /**
+     * 検索条件にマッチする公開済みの投稿を公開日時の新しい順に取得するエンドポイント。
+     * {@code limit}を指定した場合はページに分け、続きがあれば次のページのカーソルを{@code X-Next-Cursor}ヘッダーで返します。
+     * 
+     * @param keyword 投稿内容に含まれるキーワード（大文字・小文字を区別しない）
+     * @param publishedAfter この日時以降に公開された投稿に絞り込む（ISO-8601形式）
+     * @param publishedBefore この日時以前に公開された投稿に絞り込む（ISO-8601形式）
+     * @param cursor 前のページの{@code X-Next-Cursor}（最初のページの場合は省略）
+     * @param limit ページの最大件数（省略した場合は残りすべて）
+     * @return 検索条件にマッチする投稿のリストとHTTPステータス200（OK）、
+     *         カーソルまたは件数が不正な場合は400（Bad Request）
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Post>> searchPosts(@RequestParam(required = false) String keyword,
+                                                  @RequestParam(required = false) Instant publishedAfter,
+                                                  @RequestParam(required = false) Instant publishedBefore,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "0") int limit) {
+        if (limit < 0 || limit > MAX_PAGE_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        var params = new Post.SearchParams();
+        params.setContentKeyword(keyword);
+        params.setPublishedAfter(publishedAfter);
+        params.setPublishedBefore(publishedBefore);
+        var page = postService.searchPosts(params, cursor, limit);
+        return pageResponse(page.next(), page.cached()).body(page.posts());
+    }
+    
+    /**
+     * 検索クエリに一致する公開済みの投稿を取得するエンドポイント。
+     * 実行した計画の概要は{@code X-Query-Plan}ヘッダーで返します。ページの分け方は{@code /search}と同じです。
+     * 
+     * @param q クエリ（例: {@code spring AND ("jvm tuning" OR jit) -draft likes:>=10 published:>=2025-06-01}）
+     * @param cursor 前のページの{@code X-Next-Cursor}（最初のページの場合は省略）
+     * @param limit ページの最大件数（省略した場合は残りすべて）
+     * @return 公開日時の新しい順の投稿のリストとHTTPステータス200（OK）、
+     *         クエリ・カーソル・件数が不正な場合は400（Bad Request）
+     */
+    @GetMapping("/query")
+    public ResponseEntity<List<Post>> queryPosts(@RequestParam String q,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "0") int limit) {
+        if (limit < 0 || limit > MAX_PAGE_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        var result = postService.queryPosts(q, cursor, limit);
+        var plan = String.format("%s; estimated=%d; examined=%d; elapsed=%.1fus",
+                result.plan().driver(), result.plan().estimatedRows(), result.examinedRows(), result.elapsedMicros());
+        return pageResponse(result.next(), result.cached())
+                .header(QUERY_PLAN_HEADER, plan)
+                .body(result.posts());
+    }
+    
+    private static ResponseEntity.BodyBuilder pageResponse(PageCursor next, boolean cached) {
+        var response = ResponseEntity.ok().header(CACHE_HEADER, cached ? "HIT" : "MISS");
+        if (next != null) {
+            response.header(NEXT_CURSOR_HEADER, next.encode());
+        }
+        return response;
+    }
+    
+    /**
+     * 検索クエリを実行せずに実行計画を取得するエンドポイント。
+     * 
+     * @param q クエリ
+     * @return 選ばれたドライバー、判定する条件、検討したドライバーごとの推定値とHTTPステータス200（OK）、
+     *         クエリが不正な場合は400（Bad Request）
+     */
+    @GetMapping("/query/explain")
+    public ResponseEntity<QueryPlan> explainQuery(@RequestParam String q) {
+        return ResponseEntity.ok(postService.explainQuery(q));
+    }
+    
+    /**
+     * 指定されたシーケンス番号より後に発生した公開済み投稿の差分を取得するエンドポイント。
+     * クライアントは{@code /published}の{@code X-Change-Sequence}ヘッダー、または前回の応答の{@code sequence}を
+     * {@code since}に指定することで、再接続時に変更分だけを取得できます。
+     * 
+     * @param since 同期済みのシーケンス番号
+     * @param limit 一度に取得する変更の最大件数
+     * @return 差分とHTTPステータス200（OK）、パラメータが不正な場合は400（Bad Request）、
+     *         変更ログの保持範囲を超えて遅れている場合は全件の再取得を求める410（Gone）
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Object> getChanges(@RequestParam long since,
+                                             @RequestParam(defaultValue = "1000") int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        var delta = postService.getChangesSince(since, limit);
+        if (delta == null) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(Map.of("resyncRequired", true, "sequence", postService.getStableSequence()));
+        }
+        return ResponseEntity.ok()
+                .header(CHANGE_SEQUENCE_HEADER, Long.toString(delta.sequence()))
+                .body(delta);
+    }
+    
+    /**
+     * いいね数の多い公開済み投稿を取得するエンドポイント。
+     * 
+     * @param k 取得する件数（1〜100）
+     * @return いいね数の多い順の投稿リストとHTTPステータス200（OK）、または件数が範囲外の場合は400（Bad Request）
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<Post>> getTopLikedPosts(@RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_TOP_K) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(postService.getTopLikedPosts(k));
+    }
+    
+    /**
+     * 最近いいねが集まっている公開済み投稿を取得するエンドポイント。
+     * いいねは新しいものほど重く評価され、古いいいねの寄与は時間とともに減衰します。
+     * 
+     * @param k 取得する件数（1〜100）
+     * @return トレンドスコアの高い順の投稿リストとHTTPステータス200（OK）、または件数が範囲外の場合は400（Bad Request）
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<Post>> getTrendingPosts(@RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_TOP_K) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(postService.getTrendingPosts(k));
+    }
+    
+    /**
+     * 投稿全体の集計値を取得するエンドポイント。
+     * 集計値は変更のたびに更新されているため、投稿数によらず一定の時間で応答します。
+     * 
+     * @return 投稿の総数、下書き・公開済みの数、いいね数の合計、内容の平均文字数とHTTPステータス200（OK）
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<PostStats> getStats() {
+        return ResponseEntity.ok(postService.getStats());
+    }
+    
+    /**
+     * 区間ごとの公開数を取得するエンドポイント。
+     * 範囲を省略した場合は、現在までの直近60区間を返します。
+     * 
+     * @param resolution 区間の解像度（minute / hour / day）
+     * @param from 範囲の開始日時（ISO-8601形式）
+     * @param to 範囲の終了日時（ISO-8601形式、この日時を含まない）
+     * @return 区間ごとの公開数とHTTPステータス200（OK）、またはパラメータが不正な場合は400（Bad Request）
+     */
+    @GetMapping("/publish-rate")
+    public ResponseEntity<Map<String, Object>> getPublishRate(@RequestParam(defaultValue = "minute") String resolution,
+                                                              @RequestParam(required = false) Instant from,
+                                                              @RequestParam(required = false) Instant to) {
+        var parsed = PublishRateSeries.Resolution.parse(resolution);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        var end = to != null ? to : Instant.now();
+        var start = from != null ? from : end.minusMillis(parsed.getMillis() * DEFAULT_RATE_BUCKETS);
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        var buckets = postService.getPublishRate(parsed, start, end);
+        return ResponseEntity.ok(Map.of("resolution", parsed, "buckets", buckets));
     }
     
     /**
@@ -145,6 +416,75 @@ public class PostController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * 投稿の直近の1分ごとのいいね数を取得するエンドポイント。
+     *
+     * @param id 投稿のID
+     * @param minutes 取得する分の数（1〜1440）
+     * @return いいね数の推移とHTTPステータス200（OK）、分の数が範囲外の場合は400（Bad Request）、
+     *         または投稿が見つからない場合は404（Not Found）
+     */
+    @GetMapping("/{id}/likes/history")
+    public ResponseEntity<LikeHistory> getLikeHistory(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "1440") int minutes) {
+        if (minutes < 1 || minutes > MAX_LIKE_HISTORY_MINUTES) {
+            return ResponseEntity.badRequest().build();
+        }
+        return Optional.ofNullable(postService.getLikeHistory(id, minutes))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * 読み取り専用のレプリカに更新操作が送られた場合の例外ハンドラー。
+     *
+     * @param e 発生した例外
+     * @return エラーメッセージとHTTPステータス503（Service Unavailable）
+     */
+    @ExceptionHandler(ReadOnlyReplicaException.class)
+    public ResponseEntity<Map<String, String>> handleReadOnlyReplica(ReadOnlyReplicaException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    }
+    
+    /**
+     * 検索クエリの構文が正しくない場合の例外ハンドラー。
+     *
+     * @param e 発生した例外
+     * @return エラーメッセージと位置、HTTPステータス400（Bad Request）
+     */
+    @ExceptionHandler(QuerySyntaxException.class)
+    public ResponseEntity<Map<String, Object>> handleQuerySyntax(QuerySyntaxException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage(), "position", e.getPosition()));
+    }
+    
+    /**
+     * ページのカーソルが正しくない場合の例外ハンドラー。
+     *
+     * @param e 発生した例外
+     * @return エラーメッセージとHTTPステータス400（Bad Request）
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+    
+    /**
+     * 一括操作の対象の指定。IDの一覧と日時の範囲のどちらか一方を指定します。
+     *
+     * @param ids 対象の投稿ID
+     * @param from 範囲の開始日時（この日時を含む）
+     * @param to 範囲の終了日時（この日時を含まない）
+     */
+    public record BulkRequest(List<Long> ids, Instant from, Instant to) {
+
+        boolean isValid() {
+            if (ids != null) {
+                return from == null && to == null && ids.size() <= MAX_BULK_IDS && !ids.contains(null);
+            }
+            return from != null && to != null && from.isBefore(to);
+        }
+    }
+    
     @RestController
     public class TestController {
         @GetMapping("/test")
@@ -0,0 +1,95 @@
+package com.example.demo.controller;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.service.PostChange;
+import com.example.demo.web.PostChangeFeed;
+
+/**
+ * 投稿の変更をServer-Sent Eventsで配信するコントローラークラス。
+ * クライアントはポーリングの代わりにこのストリームを購読することで、変更を即座に受け取れます。
+ */
+@RestController
+@RequestMapping("/api/posts")
+public class PostFeedController {
+
+    private final PostChangeFeed feed;
+    private final long timeoutMillis;
+
+    /**
+     * コントローラーのコンストラクタ。
+     *
+     * @param feed 変更フィード
+     * @param properties 投稿機能の設定
+     */
+    public PostFeedController(PostChangeFeed feed, PostProperties properties) {
+        this.feed = feed;
+        this.timeoutMillis = properties.getFeed().getTimeout().toMillis();
+    }
+
+    /**
+     * 投稿の変更ストリームを購読するエンドポイント。
+     * イベントIDには変更シーケンス番号、イベント名には変更の種類（小文字）が設定されます。
+     * 再接続時に{@code Last-Event-ID}ヘッダーが送られた場合は、取りこぼした変更から配信を再開します。
+     * 取りこぼしを再送できない場合は{@code resync}イベントを送って接続を終了します。
+     *
+     * @param lastEventId 最後に受信したイベントID（初回接続の場合はなし）
+     * @return SSEのストリーム
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        var emitter = new SseEmitter(timeoutMillis);
+        var subscription = feed.subscribe(parseSequence(lastEventId), new EmitterSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private static Long parseSequence(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // 不正なIDは初回接続として扱う
+            return null;
+        }
+    }
+
+    /**
+     * 変更フィードのイベントを{@link SseEmitter}へ書き出すアダプター。
+     */
+    private record EmitterSink(SseEmitter emitter) implements PostChangeFeed.EventSink {
+
+        @Override
+        public void send(PostChange change) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.sequence()))
+                    .name(change.type().name().toLowerCase())
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void sendResync() throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name("resync")
+                    .data(Map.of("resyncRequired", true), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
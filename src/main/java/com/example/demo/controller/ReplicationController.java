@@ -0,0 +1,65 @@
+package com.example.demo.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.replication.ReplicationFollower;
+import com.example.demo.replication.ReplicationPublisher;
+import com.example.demo.service.PostService;
+
+/**
+ * レプリケーションの状態を提供するコントローラークラス。
+ * ロードバランサーや監視から、フォロワーの遅れを確認するために使用します。
+ */
+@RestController
+@RequestMapping("/api/replication")
+public class ReplicationController {
+
+    private final PostService postService;
+    private final ObjectProvider<ReplicationPublisher> publisher;
+    private final ObjectProvider<ReplicationFollower> follower;
+
+    /**
+     * コントローラーのコンストラクタ。
+     *
+     * @param postService 投稿サービスのインスタンス
+     * @param publisher 配信コンポーネント（プライマリの場合のみ存在する）
+     * @param follower 受信コンポーネント（フォロワーの場合のみ存在する）
+     */
+    public ReplicationController(PostService postService,
+                                 ObjectProvider<ReplicationPublisher> publisher,
+                                 ObjectProvider<ReplicationFollower> follower) {
+        this.postService = postService;
+        this.publisher = publisher;
+        this.follower = follower;
+    }
+
+    /**
+     * このノードのレプリケーション状態を取得するエンドポイント。
+     *
+     * @return 役割、現在のシーケンス番号、フォロワーの場合は遅れ、プライマリの場合は接続中のフォロワー一覧
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        var status = new LinkedHashMap<String, Object>();
+        status.put("currentSequence", postService.getCurrentSequence());
+        var activeFollower = follower.getIfAvailable();
+        var activePublisher = publisher.getIfAvailable();
+        if (activeFollower != null) {
+            status.put("role", "follower");
+            status.putAll(activeFollower.getStatus());
+        } else if (activePublisher != null) {
+            status.put("role", "primary");
+            status.put("followers", activePublisher.getFollowerStatus());
+        } else {
+            status.put("role", "standalone");
+        }
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.model;
+
+/**
+ * ストレージ層によって圧縮された投稿内容。
+ * {@link Post}は内容を文字列の代わりにこの形式で保持でき、{@link Post#getContent()}の呼び出し時に展開します。
+ * 実装は不変でなければなりません（投稿の複製間で共有されるため）。
+ */
+public interface CompressedContent {
+
+    /**
+     * 圧縮前の文字列を復元します。
+     *
+     * @return 投稿内容
+     */
+    String decompress();
+
+    /**
+     * 圧縮前の文字列の長さを取得します。展開は行いません。
+     *
+     * @return 文字数（{@link String#length()}と同じ単位）
+     */
+    int length();
+
+    /**
+     * 圧縮後の内容がヒープ上で占めるおおよそのバイト数を取得します。
+     *
+     * @return 推定バイト数
+     */
+    long footprint();
+}
@@ -0,0 +1,131 @@
+package com.example.demo.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 投稿内容に検索キーワードが含まれるかを、大文字・小文字を区別せずに判定する照合器。
+ *
+ * <p>キーワードは検索ごとに1回だけ小文字に揃えてBoyer-Moore-Horspool法のずらし表を作り、
+ * 投稿内容は文字を1文字ずつ小文字に揃えながらその場で照合します。
+ * そのため、投稿ごとに内容を小文字に変換した文字列を作ることはなく、照合中のメモリ割り当てはありません。</p>
+ *
+ * <p>判定結果は{@code content.toLowerCase().contains(keyword.toLowerCase())}と一致します。
+ * 1文字ずつの変換と文字列全体の変換の結果が異なる文字（ギリシャ文字のシグマ、{@code U+0130}、サロゲートペアなど）を
+ * キーワードが含む場合や、既定のロケールが独自の変換規則を持つ言語（トルコ語など）の場合は、文字列全体を変換する方法で判定します。</p>
+ */
+public final class KeywordMatcher {
+
+    /** ずらし表の大きさ（文字コードの下位ビットで引く。衝突した文字は小さい方のずらし量を使う） */
+    private static final int TABLE_SIZE = 256;
+    /** 文字列全体の変換で前の文字の変換結果に結合される文字（{@code U+0130}を小文字にすると後ろに付く） */
+    private static final char COMBINING_DOT_ABOVE = '\u0307';
+    /** 文字列全体の変換で{@code i}と{@link #COMBINING_DOT_ABOVE}の2文字になる文字 */
+    private static final char CAPITAL_I_WITH_DOT = '\u0130';
+
+    private final String keyword;
+    private final char[] pattern;
+    private final int[] shifts;
+    private final boolean legacy;
+
+    private KeywordMatcher(String keyword, char[] pattern, int[] shifts, boolean legacy) {
+        this.keyword = keyword;
+        this.pattern = pattern;
+        this.shifts = shifts;
+        this.legacy = legacy;
+    }
+
+    /**
+     * キーワードから照合器を生成します。
+     *
+     * @param keyword 検索キーワード（空文字は不可）
+     * @return 照合器
+     */
+    public static KeywordMatcher compile(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("keyword must not be empty");
+        }
+        var lower = keyword.toLowerCase();
+        if (!foldsPerChar(keyword, lower)) {
+            return new KeywordMatcher(lower, null, null, true);
+        }
+        var pattern = lower.toCharArray();
+        int last = pattern.length - 1;
+        var shifts = new int[TABLE_SIZE];
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < last; i++) {
+            shifts[pattern[i] & (TABLE_SIZE - 1)] = last - i;
+        }
+        return new KeywordMatcher(lower, pattern, shifts, false);
+    }
+
+    /**
+     * 投稿内容にキーワードが含まれるかを判定します。
+     *
+     * @param content 投稿内容
+     * @return 大文字・小文字を区別せずに含まれる場合はtrue
+     */
+    public boolean matches(String content) {
+        if (legacy) {
+            return content.toLowerCase().contains(keyword);
+        }
+        int last = pattern.length - 1;
+        int end = content.length() - last;
+        int start = 0;
+        while (start < end) {
+            char tail = Character.toLowerCase(content.charAt(start + last));
+            if (tail == pattern[last] && matchesAt(content, start, last)) {
+                return true;
+            }
+            start += shifts[tail & (TABLE_SIZE - 1)];
+        }
+        return false;
+    }
+
+    /**
+     * 投稿内容を1文字ずつ{@link Character#toLowerCase(char)}で変換して照合するかどうかを取得します。
+     * trueの場合、キーワードを含む投稿の内容は、1文字ずつ変換した結果にもキーワードをそのまま含みます
+     * （1文字ずつ変換した内容から作った索引で候補を絞り込めます）。
+     *
+     * @return 1文字ずつ変換して照合する場合はtrue、文字列全体を変換して照合する場合はfalse
+     */
+    public boolean isFoldedPerChar() {
+        return !legacy;
+    }
+
+    /**
+     * 末尾以外の文字を後ろから照合します。
+     */
+    private boolean matchesAt(String content, int start, int last) {
+        for (int i = last - 1; i >= 0; i--) {
+            char c = content.charAt(start + i);
+            // 文字列全体の変換ではU+0130の後ろに結合文字が入るため、末尾以外にあるとキーワードと一致しない
+            if (c == CAPITAL_I_WITH_DOT || Character.toLowerCase(c) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 1文字ずつの変換で文字列全体の変換と同じ判定結果になるキーワードかどうか。
+     */
+    private static boolean foldsPerChar(String keyword, String lower) {
+        var language = Locale.getDefault().getLanguage();
+        if ("tr".equals(language) || "az".equals(language) || "lt".equals(language)) {
+            return false;
+        }
+        // U+0130など、変換で文字数が変わる文字を含む
+        if (lower.length() != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            // シグマは語末かどうかで変換結果（σ・ς）が変わる
+            if (c == '\u03C3' || c == '\u03C2' || c == COMBINING_DOT_ABOVE || Character.isSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
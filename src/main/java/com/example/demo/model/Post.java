@@ -9,9 +9,12 @@ import java.time.Instant;
 public class Post {
     private Long id;
     private String content;
+    /** ストレージ層が内容を圧縮した場合に保持する（このときcontentはnull） */
+    private CompressedContent compressedContent;
     private Instant createdAt;
     private Instant updatedAt;
     private Instant publishedAt;
+    private Instant scheduledPublishAt;
     private boolean isDraft;
     private int likes = 0;
 
@@ -37,6 +40,24 @@ public class Post {
         this.isDraft = true;
     }
 
+    /**
+     * 既存の投稿の内容をすべて複製するコピーコンストラクタ。
+     * ストレージエンジンが公開する読み取り用スナップショットの作成に使用します。
+     *
+     * @param source 複製元の投稿
+     */
+    public Post(Post source) {
+        this.id = source.id;
+        this.content = source.content;
+        this.compressedContent = source.compressedContent;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+        this.publishedAt = source.publishedAt;
+        this.scheduledPublishAt = source.scheduledPublishAt;
+        this.isDraft = source.isDraft;
+        this.likes = source.likes;
+    }
+
     /**
      * 投稿IDを取得します。
      *
@@ -57,11 +78,12 @@ public class Post {
 
     /**
      * 投稿内容を取得します。
+     * 内容が圧縮されている場合は展開した文字列を返します。
      *
      * @return 投稿内容
      */
     public String getContent() {
-        return content;
+        return compressedContent != null ? compressedContent.decompress() : content;
     }
 
     /**
@@ -72,9 +94,42 @@ public class Post {
      */
     public void setContent(String content) {
         this.content = content;
+        this.compressedContent = null;
         this.updatedAt = Instant.now();
     }
 
+    /**
+     * 投稿内容の文字数を取得します。内容が圧縮されている場合も展開は行いません。
+     *
+     * @return 文字数（内容がない場合は0）
+     */
+    public int contentLength() {
+        if (compressedContent != null) {
+            return compressedContent.length();
+        }
+        return content != null ? content.length() : 0;
+    }
+
+    /**
+     * 圧縮された投稿内容を取得します。
+     *
+     * @return 圧縮された内容、または内容が圧縮されていない場合はnull
+     */
+    public CompressedContent compressedContent() {
+        return compressedContent;
+    }
+
+    /**
+     * 投稿内容を圧縮形式に置き換えます。内容自体は変わらないため、更新日時は変更しません。
+     * ストレージ層が保存時に使用します。
+     *
+     * @param compressedContent 現在の内容を圧縮したもの
+     */
+    public void compressContent(CompressedContent compressedContent) {
+        this.compressedContent = compressedContent;
+        this.content = null;
+    }
+
     /**
      * 投稿の作成日時を取得します。
      *
@@ -129,6 +184,24 @@ public class Post {
         this.publishedAt = publishedAt;
     }
 
+    /**
+     * 予約公開の日時を取得します。
+     *
+     * @return 予約公開日時、または予約されていない場合はnull
+     */
+    public Instant getScheduledPublishAt() {
+        return scheduledPublishAt;
+    }
+
+    /**
+     * 予約公開の日時を設定します。
+     *
+     * @param scheduledPublishAt 予約公開日時（予約を取り消す場合はnull）
+     */
+    public void setScheduledPublishAt(Instant scheduledPublishAt) {
+        this.scheduledPublishAt = scheduledPublishAt;
+    }
+
     /**
      * 投稿が下書き状態かどうかを判定します。
      *
@@ -195,15 +268,14 @@ public class Post {
             return true;
         }
         
-        if (searchParams.getContentKeyword() != null && !searchParams.getContentKeyword().isEmpty()) {
-            if (this.content == null) {
+        KeywordMatcher keywordMatcher = searchParams.keywordMatcher();
+        if (keywordMatcher != null) {
+            String content = getContent();
+            if (content == null) {
                 return false;
             }
             
-            String contentLower = this.content.toLowerCase();
-            String keywordLower = searchParams.getContentKeyword().toLowerCase();
-            
-            if (!contentLower.contains(keywordLower)) {
+            if (!keywordMatcher.matches(content)) {
                 return false;
             }
         }
@@ -231,6 +303,8 @@ public class Post {
         private String contentKeyword;
         private Instant publishedAfter;
         private Instant publishedBefore;
+        /** キーワードから生成した照合器（同じ条件で多数の投稿を判定するため、最初の判定時に1回だけ生成する） */
+        private KeywordMatcher keywordMatcher;
         
         /**
          * 検索キーワードを取得します。
@@ -248,6 +322,25 @@ public class Post {
          */
         public void setContentKeyword(String contentKeyword) {
             this.contentKeyword = contentKeyword;
+            this.keywordMatcher = null;
+        }
+        
+        /**
+         * 検索キーワードの照合器を取得します。
+         *
+         * @return 照合器（キーワードが指定されていない場合はnull）
+         */
+        KeywordMatcher keywordMatcher() {
+            if (contentKeyword == null || contentKeyword.isEmpty()) {
+                return null;
+            }
+            KeywordMatcher matcher = keywordMatcher;
+            if (matcher == null) {
+                // 並行して生成されても結果は同じで、照合器は不変のため同期は不要
+                matcher = KeywordMatcher.compile(contentKeyword);
+                keywordMatcher = matcher;
+            }
+            return matcher;
         }
         
         /**
@@ -323,7 +416,7 @@ public class Post {
     public String toString() {
         return "Post{" +
                 "id=" + id +
-                ", content='" + content + '\'' +
+                ", content='" + getContent() + '\'' +
                 ", isDraft=" + isDraft +
                 ", likes=" + likes +
                 '}';
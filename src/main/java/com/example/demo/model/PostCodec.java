@@ -0,0 +1,99 @@
+package com.example.demo.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * {@link Post}をコンパクトなバイナリ形式で読み書きするユーティリティクラス。
+ * レプリケーションの転送やディスクへの退避など、JSONを介さずに投稿を受け渡す用途で使用します。
+ *
+ * <p>形式: フラグ(1バイト) / ID / 作成日時 / 更新日時 / 公開日時 / 予約公開日時 / いいね数 / 内容（UTF-8の長さ付きバイト列）。
+ * nullになり得る項目はフラグのビットで有無を表します。</p>
+ */
+public final class PostCodec {
+
+    private static final int DRAFT = 1;
+    private static final int HAS_ID = 1 << 1;
+    private static final int HAS_CONTENT = 1 << 2;
+    private static final int HAS_CREATED_AT = 1 << 3;
+    private static final int HAS_UPDATED_AT = 1 << 4;
+    private static final int HAS_PUBLISHED_AT = 1 << 5;
+    private static final int HAS_SCHEDULED_PUBLISH_AT = 1 << 6;
+
+    private PostCodec() {
+    }
+
+    /**
+     * 投稿をバイナリ形式で書き込みます。
+     *
+     * @param out 書き込み先
+     * @param post 書き込む投稿
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public static void write(DataOutput out, Post post) throws IOException {
+        int flags = (post.isDraft() ? DRAFT : 0)
+                | (post.getId() != null ? HAS_ID : 0)
+                | (post.getContent() != null ? HAS_CONTENT : 0)
+                | (post.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+                | (post.getUpdatedAt() != null ? HAS_UPDATED_AT : 0)
+                | (post.getPublishedAt() != null ? HAS_PUBLISHED_AT : 0)
+                | (post.getScheduledPublishAt() != null ? HAS_SCHEDULED_PUBLISH_AT : 0);
+        out.writeByte(flags);
+        if (post.getId() != null) {
+            out.writeLong(post.getId());
+        }
+        writeInstant(out, post.getCreatedAt());
+        writeInstant(out, post.getUpdatedAt());
+        writeInstant(out, post.getPublishedAt());
+        writeInstant(out, post.getScheduledPublishAt());
+        out.writeInt(post.getLikes());
+        if (post.getContent() != null) {
+            byte[] bytes = post.getContent().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * バイナリ形式の投稿を読み込みます。
+     *
+     * @param in 読み込み元
+     * @return 読み込んだ投稿
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static Post read(DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        var post = new Post();
+        post.setId((flags & HAS_ID) != 0 ? in.readLong() : null);
+        post.setCreatedAt((flags & HAS_CREATED_AT) != 0 ? readInstant(in) : null);
+        Instant updatedAt = (flags & HAS_UPDATED_AT) != 0 ? readInstant(in) : null;
+        Instant publishedAt = (flags & HAS_PUBLISHED_AT) != 0 ? readInstant(in) : null;
+        post.setDraft((flags & DRAFT) != 0);
+        post.setPublishedAt(publishedAt);
+        post.setScheduledPublishAt((flags & HAS_SCHEDULED_PUBLISH_AT) != 0 ? readInstant(in) : null);
+        post.setLikes(in.readInt());
+        if ((flags & HAS_CONTENT) != 0) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            post.setContent(new String(bytes, StandardCharsets.UTF_8));
+        }
+        // setContentは更新日時を現在時刻にするため、最後に元の値へ戻す
+        post.setUpdatedAt(updatedAt);
+        return post;
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        return Instant.ofEpochSecond(seconds, in.readInt());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.PostCodec;
+import com.example.demo.service.PostService;
+
+/**
+ * フォロワー側でプライマリの変更ログを受信し、ローカルの{@link PostService}へ適用するクラス。
+ * 起動するとサービスを読み取り専用に切り替え、読み取り系のエンドポイントはローカルのレプリカから応答します。
+ * 接続が切れた場合は適用済みのシーケンス番号から再開するよう自動的に再接続します。
+ */
+public class ReplicationFollower implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    /** 生存通知が途絶えたと判断するまでの時間 */
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final PostService postService;
+    private final String primaryHost;
+    private final int primaryPort;
+    private final Thread thread;
+    private volatile Socket socket;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile long primaryEpoch;
+    private volatile long appliedSequence;
+    private volatile long primarySequence;
+    private volatile Instant lastAppliedTimestamp;
+    private volatile Instant lastContactAt;
+
+    /**
+     * フォロワーを生成します。
+     *
+     * @param postService 変更の適用先となるローカルのサービス
+     * @param primaryHost プライマリのホスト名
+     * @param primaryPort プライマリのレプリケーションポート
+     */
+    public ReplicationFollower(PostService postService, String primaryHost, int primaryPort) {
+        this.postService = postService;
+        this.primaryHost = primaryHost;
+        this.primaryPort = primaryPort;
+        this.thread = new Thread(this::run, "replication-follower");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * ローカルのサービスを読み取り専用にし、プライマリへの接続を開始します。
+     */
+    public void start() {
+        postService.setReadOnly(true);
+        thread.start();
+    }
+
+    /**
+     * プライマリと接続中かどうかを判定します。
+     *
+     * @return 接続中の場合はtrue
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * ローカルに適用済みのシーケンス番号を取得します。
+     *
+     * @return 適用済みのシーケンス番号
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * レプリケーションの状態と遅れを取得します。
+     * 遅れ（ミリ秒）は、未適用の変更がある場合に最後に適用した変更の発生時刻から現在までの経過時間です。
+     *
+     * @return レプリケーションの状態
+     */
+    public Map<String, Object> getStatus() {
+        long applied = appliedSequence;
+        long primary = Math.max(primarySequence, applied);
+        var lastApplied = lastAppliedTimestamp;
+        long lagMillis = applied >= primary || lastApplied == null
+                ? 0 : Math.max(0, System.currentTimeMillis() - lastApplied.toEpochMilli());
+
+        var status = new LinkedHashMap<String, Object>();
+        status.put("primary", primaryHost + ":" + primaryPort);
+        status.put("connected", connected);
+        status.put("appliedSequence", applied);
+        status.put("primarySequence", primary);
+        status.put("lagSequences", primary - applied);
+        status.put("lagMillis", lagMillis);
+        status.put("lastContactAt", lastContactAt);
+        return status;
+    }
+
+    /**
+     * 受信を停止します。
+     */
+    @Override
+    public void close() {
+        running = false;
+        var current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // 停止処理中のため無視する
+            }
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try (var s = new Socket()) {
+                socket = s;
+                s.connect(new InetSocketAddress(primaryHost, primaryPort), CONNECT_TIMEOUT_MILLIS);
+                s.setSoTimeout(READ_TIMEOUT_MILLIS);
+                s.setTcpNoDelay(true);
+                var out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+                var in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                out.writeInt(ReplicationProtocol.MAGIC);
+                out.writeLong(primaryEpoch);
+                out.writeLong(appliedSequence);
+                out.flush();
+                primaryEpoch = in.readLong();
+                connected = true;
+                log.info("Connected to replication primary {}:{} from sequence {}", primaryHost, primaryPort, appliedSequence);
+                receive(in);
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Replication connection to {}:{} lost: {}", primaryHost, primaryPort, e.toString());
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(DataInputStream in) throws IOException {
+        while (running) {
+            byte kind = in.readByte();
+            lastContactAt = Instant.now();
+            switch (kind) {
+                case ReplicationProtocol.CHANGE -> {
+                    var change = ReplicationProtocol.readChange(in);
+                    postService.applyReplicatedChange(change);
+                    appliedSequence = change.sequence();
+                    lastAppliedTimestamp = change.timestamp();
+                    primarySequence = Math.max(primarySequence, change.sequence());
+                }
+                case ReplicationProtocol.SNAPSHOT_BEGIN -> postService.beginReplicaSnapshot();
+                case ReplicationProtocol.SNAPSHOT_POST -> postService.applySnapshotPost(PostCodec.read(in));
+                case ReplicationProtocol.SNAPSHOT_END -> {
+                    long snapshotSequence = in.readLong();
+                    postService.completeReplicaSnapshot(snapshotSequence);
+                    appliedSequence = snapshotSequence;
+                    primarySequence = Math.max(primarySequence, snapshotSequence);
+                    lastAppliedTimestamp = lastContactAt;
+                }
+                case ReplicationProtocol.HEARTBEAT -> primarySequence = in.readLong();
+                default -> throw new IOException("Unknown replication message: " + kind);
+            }
+        }
+    }
+}
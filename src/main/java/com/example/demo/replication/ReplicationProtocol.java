@@ -0,0 +1,58 @@
+package com.example.demo.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+
+import com.example.demo.model.PostCodec;
+import com.example.demo.service.PostChange;
+
+/**
+ * プライマリとフォロワーの間でやり取りするレプリケーションストリームの形式。
+ *
+ * <p>接続直後にフォロワーは「マジック値・前回接続したプライマリのエポック・適用済みシーケンス番号」を送り、
+ * プライマリは自身のエポックを返します。以降はプライマリから1バイトの種別に続くメッセージが順に送られます。</p>
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x504F5354;
+
+    /** 変更1件（シーケンス順） */
+    static final byte CHANGE = 1;
+    /** 全件スナップショットの開始 */
+    static final byte SNAPSHOT_BEGIN = 2;
+    /** スナップショットに含まれる投稿1件 */
+    static final byte SNAPSHOT_POST = 3;
+    /** スナップショットの終了（取得時点のシーケンス番号を伴う） */
+    static final byte SNAPSHOT_END = 4;
+    /** 変更がない間に送られる生存通知（プライマリの現在のシーケンス番号を伴う） */
+    static final byte HEARTBEAT = 5;
+
+    private static final PostChange.Type[] TYPES = PostChange.Type.values();
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeChange(DataOutputStream out, PostChange change) throws IOException {
+        out.writeByte(CHANGE);
+        out.writeLong(change.sequence());
+        out.writeByte(change.type().ordinal());
+        out.writeLong(change.postId());
+        out.writeLong(change.timestamp().getEpochSecond());
+        out.writeInt(change.timestamp().getNano());
+        out.writeBoolean(change.post() != null);
+        if (change.post() != null) {
+            PostCodec.write(out, change.post());
+        }
+    }
+
+    static PostChange readChange(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        var type = TYPES[in.readUnsignedByte()];
+        long postId = in.readLong();
+        var timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        var post = in.readBoolean() ? PostCodec.read(in) : null;
+        return new PostChange(sequence, type, postId, post, timestamp);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.PostCodec;
+import com.example.demo.service.PostService;
+
+/**
+ * プライマリ側で変更ログをソケット経由でフォロワーへ配信するクラス。
+ * フォロワーごとに1本の送信スレッドを割り当て、{@link com.example.demo.service.ChangeLog}から
+ * ストアへの反映が完了した変更だけをシーケンス順に送ります。フォロワーが変更ログの保持範囲より遅れている場合は、
+ * 全件スナップショットを送ってから続きの変更を送ります。
+ */
+public class ReplicationPublisher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationPublisher.class);
+    private static final int BATCH_SIZE = 512;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    private final PostService postService;
+    private final ServerSocket serverSocket;
+    /** プライマリの起動ごとに変わる識別子。再起動後の接続でフォロワーの状態を作り直すために使用します */
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    /**
+     * 指定されたポートで待ち受ける配信者を生成します。
+     *
+     * @param postService 配信元のサービス
+     * @param port 待ち受けポート（0の場合は空きポートを使用）
+     * @throws IOException ポートを開けなかった場合
+     */
+    public ReplicationPublisher(PostService postService, int port) throws IOException {
+        this.postService = postService;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * フォロワーからの接続受け付けを開始します。
+     */
+    public void start() {
+        var acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication publisher listening on port {}", getPort());
+    }
+
+    /**
+     * 実際に待ち受けているポートを取得します。
+     *
+     * @return 待ち受けポート
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 接続中のフォロワーごとの送信状況を取得します。
+     *
+     * @return フォロワーごとの送信済みシーケンス番号と遅れ
+     */
+    public List<Map<String, Object>> getFollowerStatus() {
+        long current = postService.getCurrentSequence();
+        var result = new ArrayList<Map<String, Object>>();
+        for (Session session : sessions) {
+            var status = new LinkedHashMap<String, Object>();
+            status.put("remoteAddress", String.valueOf(session.socket.getRemoteSocketAddress()));
+            status.put("sentSequence", session.sentSequence);
+            status.put("lagSequences", Math.max(0, current - session.sentSequence));
+            result.add(status);
+        }
+        return result;
+    }
+
+    /**
+     * 待ち受けとすべてのフォロワーへの送信を停止します。
+     */
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        for (Session session : sessions) {
+            closeQuietly(session.socket);
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                var socket = serverSocket.accept();
+                var session = new Session(socket);
+                sessions.add(session);
+                var thread = new Thread(session, "replication-sender-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Failed to accept replication connection", e);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // 停止処理中のため無視する
+        }
+    }
+
+    /**
+     * 1台のフォロワーへの送信処理。
+     */
+    private final class Session implements Runnable {
+        private final Socket socket;
+        private volatile long sentSequence;
+
+        Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try (socket) {
+                socket.setTcpNoDelay(true);
+                var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                if (in.readInt() != ReplicationProtocol.MAGIC) {
+                    log.warn("Rejected replication connection from {}: bad handshake", socket.getRemoteSocketAddress());
+                    return;
+                }
+                long followerEpoch = in.readLong();
+                long cursor = in.readLong();
+                out.writeLong(epoch);
+
+                boolean needsSnapshot = (followerEpoch != epoch && cursor != 0) || cursor > postService.getCurrentSequence();
+                var changeLog = postService.getChangeLog();
+                while (running) {
+                    var batch = needsSnapshot ? null : changeLog.stableSince(cursor, BATCH_SIZE);
+                    if (batch == null) {
+                        cursor = sendSnapshot(out);
+                        needsSnapshot = false;
+                    } else if (batch.isEmpty()) {
+                        out.flush();
+                        if (!changeLog.awaitStableAfter(cursor, HEARTBEAT_INTERVAL_MILLIS)) {
+                            out.writeByte(ReplicationProtocol.HEARTBEAT);
+                            out.writeLong(changeLog.getStableSequence());
+                            out.flush();
+                        }
+                    } else {
+                        for (var change : batch) {
+                            ReplicationProtocol.writeChange(out, change);
+                            cursor = change.sequence();
+                        }
+                        out.flush();
+                    }
+                    sentSequence = cursor;
+                }
+            } catch (IOException e) {
+                log.info("Replication follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                sessions.remove(this);
+            }
+        }
+
+        /**
+         * 全件スナップショットを送信します。取得開始時点の反映済みシーケンス番号より後の変更は後続で送られるため、
+         * スナップショット中に変更された投稿もフォロワー上で最終的に一致します。
+         */
+        private long sendSnapshot(DataOutputStream out) throws IOException {
+            long snapshotSequence = postService.getStableSequence();
+            out.writeByte(ReplicationProtocol.SNAPSHOT_BEGIN);
+            try {
+                // 全投稿をリストに集めず、ストアを走査しながら送る
+                postService.forEachPost(post -> {
+                    try {
+                        out.writeByte(ReplicationProtocol.SNAPSHOT_POST);
+                        PostCodec.write(out, post);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+            out.writeLong(snapshotSequence);
+            out.flush();
+            log.info("Sent snapshot at sequence {} to {}", snapshotSequence, socket.getRemoteSocketAddress());
+            return snapshotSequence;
+        }
+    }
+}
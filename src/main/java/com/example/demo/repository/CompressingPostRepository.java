@@ -0,0 +1,100 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.example.demo.model.Post;
+
+/**
+ * 他のリポジトリを包み、保存・更新された投稿の大きな内容を{@link ContentCompressor}で圧縮するリポジトリ実装。
+ * 内容は{@link Post#getContent()}の呼び出し時に展開されるため、呼び出し側から圧縮は見えません。
+ */
+public class CompressingPostRepository implements PostRepository, AutoCloseable {
+
+    private final PostRepository delegate;
+    private final ContentCompressor compressor;
+
+    /**
+     * リポジトリを生成します。
+     *
+     * @param delegate 投稿を実際に保存するリポジトリ
+     * @param compressor 内容の圧縮に使用するコンポーネント
+     */
+    public CompressingPostRepository(PostRepository delegate, ContentCompressor compressor) {
+        this.delegate = delegate;
+        this.compressor = compressor;
+    }
+
+    /**
+     * 包んでいるリポジトリを取得します。
+     *
+     * @return 投稿を実際に保存するリポジトリ
+     */
+    public PostRepository getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 内容の圧縮に使用しているコンポーネントを取得します。
+     *
+     * @return 圧縮コンポーネント
+     */
+    public ContentCompressor getCompressor() {
+        return compressor;
+    }
+
+    @Override
+    public Post save(Post post) {
+        compressor.compact(post);
+        return delegate.save(post);
+    }
+
+    @Override
+    public Post findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Post update(Long id, UnaryOperator<Post> mutator) {
+        return delegate.update(id, post -> {
+            var result = mutator.apply(post);
+            if (result != null) {
+                // 内容が変更された場合だけ圧縮済みの形式が外れているため、改めて圧縮する
+                compressor.compact(result);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Post deleteById(Long id, Predicate<Post> condition) {
+        return delegate.deleteById(id, condition);
+    }
+
+    @Override
+    public List<Post> findAll(Predicate<Post> filter) {
+        return delegate.findAll(filter);
+    }
+
+    @Override
+    public void forEach(Consumer<Post> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    /**
+     * 包んでいるリポジトリが終了処理を持つ場合は、それを呼び出します。
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.example.demo.model.CompressedContent;
+import com.example.demo.model.Post;
+
+/**
+ * 大きな投稿内容をDeflateで圧縮し、読み取り時に展開するコンポーネント。
+ *
+ * <p>UTF-8で閾値以上のバイト数を持つ内容だけを圧縮し、圧縮しても1/4以上小さくならない内容は展開の手間に見合わないため、そのまま保持します。
+ * 展開した文字列は件数上限付きのLRUキャッシュに保持し、同じ投稿が続けて読まれた場合は再展開しません。</p>
+ *
+ * <p>圧縮率と圧縮・展開にかかった時間を、元の内容のサイズ（2のべき乗ごとの区間）別に集計します。</p>
+ */
+public class ContentCompressor {
+
+    private final int thresholdBytes;
+    private final int cacheSize;
+    /** 展開済みの内容のキャッシュ。キーは圧縮済みの内容（同一性で比較） */
+    private final LinkedHashMap<Deflated, String> cache;
+    private final Map<Integer, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * コンポーネントを生成します。
+     *
+     * @param thresholdBytes 圧縮の対象とする内容の最小バイト数（UTF-8）
+     * @param cacheSize 展開済みの内容を保持する件数（0でキャッシュしない）
+     */
+    public ContentCompressor(int thresholdBytes, int cacheSize) {
+        if (thresholdBytes < 1) {
+            throw new IllegalArgumentException("thresholdBytes must be positive: " + thresholdBytes);
+        }
+        this.thresholdBytes = thresholdBytes;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Deflated, String> eldest) {
+                return size() > ContentCompressor.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 投稿の内容が閾値以上であれば圧縮形式に置き換えます。圧縮済みの投稿や閾値未満の投稿は変更しません。
+     *
+     * @param post 対象の投稿
+     * @return 内容を圧縮形式に置き換えた場合はtrue
+     */
+    public boolean compact(Post post) {
+        if (post.compressedContent() != null) {
+            return false;
+        }
+        var content = post.getContent();
+        // UTF-8のバイト数は文字数の3倍以下のため、明らかに閾値に満たない内容はエンコードせずに除外できる
+        if (content == null || content.length() * 3L < thresholdBytes) {
+            return false;
+        }
+        var compressed = compress(content);
+        if (compressed == null) {
+            return false;
+        }
+        post.compressContent(compressed);
+        return true;
+    }
+
+    /**
+     * 元の内容のサイズ区間ごとの圧縮率と処理時間を取得します。
+     *
+     * @return 区間（例: {@code 4KB-8KB}）ごとの統計
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        var snapshot = new LinkedHashMap<String, Map<String, Object>>();
+        new TreeMap<>(buckets).forEach((exponent, bucket) -> snapshot.put(label(exponent), bucket.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * 内容を圧縮します。十分に小さくならない場合はnullを返します。
+     */
+    Deflated compress(String content) {
+        long start = System.nanoTime();
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < thresholdBytes) {
+            return null;
+        }
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] output;
+        int length;
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            // 1/4以上小さくならない場合は圧縮しないため、それを超える出力は不要
+            int limit = bytes.length - bytes.length / 4;
+            output = new byte[limit];
+            length = 0;
+            while (!deflater.finished() && length < limit) {
+                length += deflater.deflate(output, length, limit - length);
+            }
+            if (!deflater.finished()) {
+                length = -1;
+            }
+        } finally {
+            deflater.end();
+        }
+        var bucket = bucketOf(bytes.length);
+        if (length < 0) {
+            bucket.skipped.increment();
+            return null;
+        }
+        var compressed = new Deflated(this, Arrays.copyOf(output, length), bytes.length, content.length());
+        bucket.recordWrite(bytes.length, length, System.nanoTime() - start);
+        return compressed;
+    }
+
+    private String inflate(Deflated compressed) {
+        var bucket = bucketOf(compressed.originalBytes);
+        if (cacheSize > 0) {
+            String cached;
+            synchronized (cache) {
+                cached = cache.get(compressed);
+            }
+            if (cached != null) {
+                bucket.cacheHits.increment();
+                return cached;
+            }
+        }
+        long start = System.nanoTime();
+        var inflater = new Inflater();
+        var bytes = new byte[compressed.originalBytes];
+        try {
+            inflater.setInput(compressed.data);
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                length += inflater.inflate(bytes, length, bytes.length - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed content", e);
+        } finally {
+            inflater.end();
+        }
+        var content = new String(bytes, StandardCharsets.UTF_8);
+        bucket.recordRead(System.nanoTime() - start);
+        if (cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(compressed, content);
+            }
+        }
+        return content;
+    }
+
+    private Bucket bucketOf(int originalBytes) {
+        return buckets.computeIfAbsent(31 - Integer.numberOfLeadingZeros(originalBytes), exponent -> new Bucket());
+    }
+
+    private static String label(int exponent) {
+        return formatSize(1L << exponent) + "-" + formatSize(1L << (exponent + 1));
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes >= 1 << 20) {
+            return (bytes >> 20) + "MB";
+        }
+        return bytes >= 1 << 10 ? (bytes >> 10) + "KB" : bytes + "B";
+    }
+
+    /**
+     * Deflateで圧縮された内容。展開は生成元の{@link ContentCompressor}に委ね、キャッシュと統計を共有します。
+     */
+    static final class Deflated implements CompressedContent {
+        private final ContentCompressor owner;
+        private final byte[] data;
+        private final int originalBytes;
+        private final int length;
+
+        private Deflated(ContentCompressor owner, byte[] data, int originalBytes, int length) {
+            this.owner = owner;
+            this.data = data;
+            this.originalBytes = originalBytes;
+            this.length = length;
+        }
+
+        @Override
+        public String decompress() {
+            return owner.inflate(this);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public long footprint() {
+            // オブジェクト本体32 + 配列ヘッダー16 + 配列本体（8バイト境界に切り上げ）
+            return 32 + 16 + ((data.length + 7) & ~7L);
+        }
+    }
+
+    /**
+     * サイズ区間ごとの集計値。
+     */
+    private static final class Bucket {
+        private final LongAdder compressed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder originalBytes = new LongAdder();
+        private final LongAdder storedBytes = new LongAdder();
+        private final LongAdder writeNanos = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder readNanos = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+
+        void recordWrite(long original, long stored, long nanos) {
+            compressed.increment();
+            originalBytes.add(original);
+            storedBytes.add(stored);
+            writeNanos.add(nanos);
+        }
+
+        void recordRead(long nanos) {
+            reads.increment();
+            readNanos.add(nanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = compressed.sum();
+            long original = originalBytes.sum();
+            long decompressions = reads.sum();
+            long hits = cacheHits.sum();
+            var stats = new LinkedHashMap<String, Object>();
+            stats.put("compressed", count);
+            stats.put("skipped", skipped.sum());
+            stats.put("originalBytes", original);
+            stats.put("storedBytes", storedBytes.sum());
+            stats.put("ratio", original == 0 ? 0.0 : (double) storedBytes.sum() / original);
+            stats.put("avgCompressMicros", count == 0 ? 0.0 : writeNanos.sum() / 1_000.0 / count);
+            stats.put("decompressions", decompressions);
+            stats.put("avgDecompressMicros", decompressions == 0 ? 0.0 : readNanos.sum() / 1_000.0 / decompressions);
+            stats.put("cacheHits", hits);
+            stats.put("cacheHitRatio", decompressions + hits == 0 ? 0.0 : (double) hits / (decompressions + hits));
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import com.example.demo.model.Post;
+
+/**
+ * {@link ConcurrentHashMap}を使用したインメモリのリポジトリ実装。
+ * 更新は{@link ConcurrentHashMap#computeIfPresent}内で行うため、同一投稿への更新は直列化されます。
+ * 読み取り結果は保存されている投稿そのもの（コピーではない）です。
+ */
+public class InMemoryPostRepository implements PostRepository {
+
+    private final Map<Long, Post> posts = new ConcurrentHashMap<>();
+
+    @Override
+    public Post save(Post post) {
+        posts.put(post.getId(), post);
+        return post;
+    }
+
+    @Override
+    public Post findById(Long id) {
+        return posts.get(id);
+    }
+
+    @Override
+    public Post update(Long id, UnaryOperator<Post> mutator) {
+        var result = new Post[1];
+        posts.computeIfPresent(id, (key, post) -> {
+            result[0] = mutator.apply(post);
+            return post;
+        });
+        return result[0];
+    }
+
+    @Override
+    public Post deleteById(Long id, Predicate<Post> condition) {
+        var removed = new Post[1];
+        posts.computeIfPresent(id, (key, post) -> {
+            if (condition.test(post)) {
+                removed[0] = post;
+                return null;
+            }
+            return post;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public List<Post> findAll(Predicate<Post> filter) {
+        return posts.values().stream()
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEach(Consumer<Post> action) {
+        posts.values().forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return posts.size();
+    }
+}
@@ -0,0 +1,458 @@
+package com.example.demo.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.Post;
+
+/**
+ * 組み込みデータベース（H2など、JDBCで接続できるもの）へ投稿を書き出すリポジトリ実装。
+ *
+ * <p>読み書きはヒープ上の投稿に対して{@link InMemoryPostRepository}と同じ方法で行い、変更は投稿IDごとに記録だけして、
+ * {@code flushInterval}ごとにバックグラウンドでまとめてデータベースへ書き出します（ライトビハインド）。
+ * 書き出すまでに同じ投稿が何度変更されても書き出すのは最新の内容の1行だけで、作成してすぐ削除された投稿は書き出しません。
+ * 書き出しはプリペアドステートメントのバッチ（挿入・更新・削除ごとに最大{@code batchSize}行）で行い、1回の書き出しを1トランザクションとします。
+ * 記録した変更が{@code batchSize}件に達した場合は間隔を待たずに書き出します。</p>
+ *
+ * <p>{@code flushInterval}が0の場合は、変更のたびに呼び出し元のスレッドで書き出しを試みます（即時書き出し）。
+ * これはライトスルーではありません。変更はデータベースへの書き出しより先にヒープ上で有効になり、書き出しに失敗しても
+ * 呼び出し元には例外を返さず、警告をログに出して変更を記録に残します。残った変更は次の変更、
+ * {@code retryInterval}ごとのバックグラウンドでの再試行、または{@link #close()}の書き出しで再び書き出します。
+ * どちらの方式でも、書き出す前にプロセスが異常終了すると書き出していない変更は失われます。{@link #close()}では残りを書き出します。</p>
+ *
+ * <p>生成時にテーブルがなければ作成し、既存の行をすべてヒープへ読み込みます。</p>
+ */
+public class JdbcPostRepository implements PostRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcPostRepository.class);
+
+    /** 即時書き出しで失敗した変更をバックグラウンドで再び書き出す間隔の既定値 */
+    static final Duration DEFAULT_RETRY_INTERVAL = Duration.ofSeconds(1);
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS posts (
+                id BIGINT PRIMARY KEY,
+                content CHARACTER LARGE OBJECT,
+                draft BOOLEAN NOT NULL,
+                likes INT NOT NULL,
+                created_at TIMESTAMP(9) WITH TIME ZONE,
+                updated_at TIMESTAMP(9) WITH TIME ZONE,
+                published_at TIMESTAMP(9) WITH TIME ZONE,
+                scheduled_publish_at TIMESTAMP(9) WITH TIME ZONE
+            )""";
+    private static final String SELECT_ALL = "SELECT id, content, draft, likes, created_at, updated_at, published_at, "
+            + "scheduled_publish_at FROM posts";
+    // 挿入と更新はパラメーターの順序を揃え、同じ処理で値を設定する
+    private static final String INSERT = "INSERT INTO posts (content, draft, likes, created_at, updated_at, published_at, "
+            + "scheduled_publish_at, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE posts SET content = ?, draft = ?, likes = ?, created_at = ?, updated_at = ?, "
+            + "published_at = ?, scheduled_publish_at = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM posts WHERE id = ?";
+
+    private final Map<Long, Post> posts = new ConcurrentHashMap<>();
+    /**
+     * まだ書き出していない変更がある投稿ID → その投稿の行がデータベースに存在するか。
+     * 投稿ごとの変更と同じロック（{@link #posts}の該当キーの更新）の中で読み書きする。
+     */
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final int batchSize;
+    /** 変更のたびに呼び出し元のスレッドで書き出す場合はtrue */
+    private final boolean flushEachWrite;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final String url;
+
+    // 以下はflushMonitorで保護する
+    private final Object flushMonitor = new Object();
+    private final Connection connection;
+    private final PreparedStatement insert;
+    private final PreparedStatement update;
+    private final PreparedStatement delete;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder insertedRows = new LongAdder();
+    private final LongAdder updatedRows = new LongAdder();
+    private final LongAdder deletedRows = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+
+    /**
+     * リポジトリを生成し、データベースに保存済みの投稿を読み込みます。
+     *
+     * @param url JDBCの接続URL（例: {@code jdbc:h2:mem:posts}、{@code jdbc:h2:file:/var/lib/demo/posts}）
+     * @param flushInterval 変更を書き出す間隔（0の場合は変更のたびに書き出しを試み、失敗した変更は定期的に再試行する）
+     * @param batchSize 1回のバッチで送る最大行数。記録した変更がこの件数に達した場合は間隔を待たずに書き出す
+     */
+    public JdbcPostRepository(String url, Duration flushInterval, int batchSize) {
+        this(url, flushInterval, batchSize, DEFAULT_RETRY_INTERVAL);
+    }
+
+    /**
+     * 即時書き出しで失敗した変更を再び書き出す間隔を指定してリポジトリを生成します。テストで再試行を待つ時間を短くするために使用します。
+     *
+     * @param retryInterval {@code flushInterval}が0の場合に、残った変更をバックグラウンドで書き出す間隔
+     */
+    JdbcPostRepository(String url, Duration flushInterval, int batchSize, Duration retryInterval) {
+        if (flushInterval.isNegative()) {
+            throw new IllegalArgumentException("flushInterval must not be negative: " + flushInterval);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (!retryInterval.isPositive()) {
+            throw new IllegalArgumentException("retryInterval must be positive: " + retryInterval);
+        }
+        this.url = url;
+        this.batchSize = batchSize;
+        Connection opened = null;
+        try {
+            opened = DriverManager.getConnection(url);
+            opened.setAutoCommit(false);
+            try (var statement = opened.createStatement()) {
+                statement.execute(CREATE_TABLE);
+            }
+            opened.commit();
+            this.connection = opened;
+            this.insert = opened.prepareStatement(INSERT);
+            this.update = opened.prepareStatement(UPDATE);
+            this.delete = opened.prepareStatement(DELETE);
+            load();
+        } catch (SQLException e) {
+            closeQuietly(opened);
+            throw new IllegalStateException("Failed to open post database " + url, e);
+        }
+        this.flushEachWrite = flushInterval.isZero();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "post-db-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 即時書き出しでは、書き出しに失敗して残った変更が次の変更を待たずに書き出されるよう定期的に再試行する
+        long intervalNanos = (flushEachWrite ? retryInterval : flushInterval).toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Post save(Post post) {
+        posts.compute(post.getId(), (id, previous) -> {
+            markDirty(id, previous != null);
+            return post;
+        });
+        afterWrite();
+        return post;
+    }
+
+    @Override
+    public Post findById(Long id) {
+        return posts.get(id);
+    }
+
+    @Override
+    public Post update(Long id, UnaryOperator<Post> mutator) {
+        var result = new Post[1];
+        posts.computeIfPresent(id, (key, post) -> {
+            result[0] = mutator.apply(post);
+            if (result[0] != null) {
+                markDirty(key, true);
+            }
+            return post;
+        });
+        if (result[0] != null) {
+            afterWrite();
+        }
+        return result[0];
+    }
+
+    @Override
+    public Post deleteById(Long id, Predicate<Post> condition) {
+        var removed = new Post[1];
+        posts.computeIfPresent(id, (key, post) -> {
+            if (condition.test(post)) {
+                removed[0] = post;
+                markDirty(key, true);
+                return null;
+            }
+            return post;
+        });
+        if (removed[0] != null) {
+            afterWrite();
+        }
+        return removed[0];
+    }
+
+    @Override
+    public List<Post> findAll(Predicate<Post> filter) {
+        return posts.values().stream()
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEach(Consumer<Post> action) {
+        posts.values().forEach(action);
+    }
+
+    @Override
+    public long count() {
+        return posts.size();
+    }
+
+    /**
+     * 記録した変更をデータベースへ書き出します。
+     * 書き出しに失敗した場合、変更は記録に戻され、次回の書き出しで再び書き出されます。
+     *
+     * @return 書き出した行数（挿入・更新・削除の合計）
+     * @throws IllegalStateException 書き出しに失敗した場合
+     */
+    public int flush() {
+        synchronized (flushMonitor) {
+            flushRequested.set(false);
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            // 取り出した投稿に取り出し中の変更が記録し直されても、同じ書き出しに2回含めないよう先にIDを写し取る
+            var ids = List.copyOf(pending.keySet());
+            var drained = new ArrayList<Write>(ids.size());
+            for (Long id : ids) {
+                // 投稿の変更と同じロックの中で記録を取り出し、その時点の内容を複製する
+                posts.compute(id, (key, post) -> {
+                    Boolean inDatabase = pending.remove(key);
+                    if (inDatabase != null) {
+                        drained.add(new Write(key, inDatabase, post != null ? new Post(post) : null));
+                    }
+                    return post;
+                });
+            }
+            try {
+                var counts = new int[3];
+                for (var write : drained) {
+                    if (write.post() == null) {
+                        // 作成後に書き出す前に削除された投稿は、データベースに行がない
+                        if (write.inDatabase()) {
+                            delete.setLong(1, write.id());
+                            addBatch(delete, counts, 2);
+                        }
+                    } else if (write.inDatabase()) {
+                        bind(update, write.post());
+                        addBatch(update, counts, 1);
+                    } else {
+                        bind(insert, write.post());
+                        addBatch(insert, counts, 0);
+                    }
+                }
+                insert.executeBatch();
+                update.executeBatch();
+                delete.executeBatch();
+                connection.commit();
+                insertedRows.add(counts[0]);
+                updatedRows.add(counts[1]);
+                deletedRows.add(counts[2]);
+                flushes.increment();
+                flushNanos.add(System.nanoTime() - start);
+                return counts[0] + counts[1] + counts[2];
+            } catch (SQLException e) {
+                flushFailures.increment();
+                // 実行されなかったバッチが次回の書き出しに混ざらないよう、すべての文のバッチを捨てる
+                clearBatchesQuietly();
+                rollbackQuietly();
+                for (var write : drained) {
+                    // データベースはこの書き出しの前の状態に戻ったため、行の有無も書き出し前の値に戻す
+                    posts.compute(write.id(), (key, post) -> {
+                        pending.put(key, write.inDatabase());
+                        return post;
+                    });
+                }
+                throw new IllegalStateException("Failed to flush " + drained.size() + " posts to " + url, e);
+            }
+        }
+    }
+
+    /**
+     * 書き出しの状況を取得します。
+     *
+     * @return 投稿数、未書き出しの変更数、書き出す前にまとめられた変更数、書き出しの回数・所要時間、種類ごとの行数などの統計
+     */
+    public Map<String, Object> getStats() {
+        long flushCount = flushes.sum();
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("posts", (long) posts.size());
+        stats.put("pendingWrites", (long) pending.size());
+        stats.put("writes", writes.sum());
+        stats.put("coalescedWrites", coalescedWrites.sum());
+        stats.put("flushes", flushCount);
+        stats.put("flushFailures", flushFailures.sum());
+        stats.put("averageFlushMillis", flushCount == 0 ? 0.0 : flushNanos.sum() / 1_000_000.0 / flushCount);
+        stats.put("insertedRows", insertedRows.sum());
+        stats.put("updatedRows", updatedRows.sum());
+        stats.put("deletedRows", deletedRows.sum());
+        return stats;
+    }
+
+    /**
+     * バックグラウンドの書き出しを止め、残りの変更を書き出してから接続を閉じます。
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (flushMonitor) {
+            try {
+                flush();
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    /**
+     * 投稿に書き出していない変更があることを記録します。投稿ごとのロックの中で呼び出します。
+     *
+     * @param existed 変更の前に投稿が存在した場合はtrue
+     */
+    private void markDirty(Long id, boolean existed) {
+        writes.increment();
+        // 記録済みの変更がある場合は、その時点の行の有無を保ったまま最新の内容でまとめて書き出す。
+        // 記録がなければ、それまでの変更は書き出し済み（または書き出し中）のため、変更前に投稿があれば行もある
+        if (pending.putIfAbsent(id, existed) != null) {
+            coalescedWrites.increment();
+        }
+    }
+
+    private void afterWrite() {
+        if (flushEachWrite) {
+            // 変更は既にヒープへ反映されているため、失敗しても呼び出し元へは伝えず次の変更か定期的な再試行に任せる
+            flushQuietly();
+        } else if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing posts to the database failed; will retry", e);
+        }
+    }
+
+    private void addBatch(PreparedStatement statement, int[] counts, int kind) throws SQLException {
+        statement.addBatch();
+        if (++counts[kind] % batchSize == 0) {
+            statement.executeBatch();
+        }
+    }
+
+    private void load() throws SQLException {
+        try (var statement = connection.createStatement(); var rows = statement.executeQuery(SELECT_ALL)) {
+            while (rows.next()) {
+                var post = new Post();
+                post.setId(rows.getLong("id"));
+                post.setCreatedAt(instant(rows, "created_at"));
+                post.setDraft(rows.getBoolean("draft"));
+                post.setPublishedAt(instant(rows, "published_at"));
+                post.setScheduledPublishAt(instant(rows, "scheduled_publish_at"));
+                post.setLikes(rows.getInt("likes"));
+                post.setContent(rows.getString("content"));
+                // setContentは更新日時を現在時刻にするため、最後に元の値へ戻す
+                post.setUpdatedAt(instant(rows, "updated_at"));
+                posts.put(post.getId(), post);
+            }
+        }
+        connection.commit();
+    }
+
+    private static void bind(PreparedStatement statement, Post post) throws SQLException {
+        statement.setString(1, post.getContent());
+        statement.setBoolean(2, post.isDraft());
+        statement.setInt(3, post.getLikes());
+        setInstant(statement, 4, post.getCreatedAt());
+        setInstant(statement, 5, post.getUpdatedAt());
+        setInstant(statement, 6, post.getPublishedAt());
+        setInstant(statement, 7, post.getScheduledPublishAt());
+        statement.setLong(8, post.getId());
+    }
+
+    private static void setInstant(PreparedStatement statement, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        } else {
+            statement.setObject(index, instant.atOffset(ZoneOffset.UTC));
+        }
+    }
+
+    private static Instant instant(ResultSet rows, String column) throws SQLException {
+        var value = rows.getObject(column, OffsetDateTime.class);
+        return value != null ? value.toInstant() : null;
+    }
+
+    private void clearBatchesQuietly() {
+        for (var statement : List.of(insert, update, delete)) {
+            try {
+                statement.clearBatch();
+            } catch (SQLException e) {
+                log.warn("Clearing a failed post flush batch failed", e);
+            }
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.warn("Rollback of a failed post flush failed", e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Closing the post database connection failed", e);
+        }
+    }
+
+    /**
+     * 書き出す変更1件。
+     *
+     * @param id 投稿ID
+     * @param inDatabase データベースに行が存在する場合はtrue
+     * @param post 書き出す内容（削除の場合はnull）
+     */
+    private record Write(Long id, boolean inDatabase, Post post) {
+    }
+}
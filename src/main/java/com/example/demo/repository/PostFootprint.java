@@ -0,0 +1,37 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Post;
+
+/**
+ * 投稿がヒープ上で占めるおおよそのバイト数を見積もるユーティリティクラス。
+ * 64ビットJVM・圧縮参照を前提とした概算で、メモリ予算の管理や解放量の統計に使用します。
+ */
+public final class PostFootprint {
+
+    /** Post本体48 + Instant 24×4 + Long 16 + マップのエントリー32 */
+    private static final long FIXED_BYTES = 48 + 24 * 4 + 16 + 32;
+
+    private PostFootprint() {
+    }
+
+    /**
+     * 投稿本体、日時、ID、内容の文字列（圧縮されている場合は圧縮後の内容）と、ストアのマップのエントリーを含めたバイト数を見積もります。
+     *
+     * @param post 投稿
+     * @return 推定バイト数
+     */
+    public static long estimate(Post post) {
+        long bytes = FIXED_BYTES;
+        var compressed = post.compressedContent();
+        if (compressed != null) {
+            return bytes + compressed.footprint();
+        }
+        String content = post.getContent();
+        if (content != null) {
+            boolean latin1 = content.chars().allMatch(c -> c < 256);
+            long array = 16 + (long) content.length() * (latin1 ? 1 : 2);
+            bytes += 24 + ((array + 7) & ~7L);
+        }
+        return bytes;
+    }
+}
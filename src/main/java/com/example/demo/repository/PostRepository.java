@@ -0,0 +1,90 @@
+package com.example.demo.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.example.demo.model.Post;
+
+/**
+ * 投稿の保存先を抽象化するリポジトリインターフェース。
+ * {@link com.example.demo.service.PostService}はこのインターフェースを通じて投稿を読み書きし、
+ * 実装を差し替えることでストレージエンジンを選択できます。
+ *
+ * <p>更新系の操作は1件の投稿に対して原子的に実行されます。
+ * 実装によっては読み取り結果がスナップショット（コピー）となるため、
+ * 取得した投稿を直接変更するのではなく、必ず{@link #update}を使用してください。</p>
+ */
+public interface PostRepository {
+
+    /**
+     * 投稿を保存します。同じIDの投稿が存在する場合は置き換えます。
+     *
+     * @param post 保存する投稿（IDが設定済みであること）
+     * @return 保存された投稿
+     */
+    Post save(Post post);
+
+    /**
+     * 指定されたIDの投稿を取得します。
+     *
+     * @param id 投稿ID
+     * @return 投稿、または存在しない場合はnull
+     */
+    Post findById(Long id);
+
+    /**
+     * 指定されたIDの投稿を原子的に更新します。
+     * {@code mutator}は投稿を変更したうえでその投稿を返すか、変更を行わずにnullを返します。
+     * nullを返す場合は投稿を変更してはいけません。
+     *
+     * @param id 投稿ID
+     * @param mutator 投稿の変更処理
+     * @return 更新後の投稿、または投稿が存在しない・変更されなかった場合はnull
+     */
+    Post update(Long id, UnaryOperator<Post> mutator);
+
+    /**
+     * 条件を満たす場合に限り、指定されたIDの投稿を原子的に削除します。
+     *
+     * @param id 投稿ID
+     * @param condition 削除の可否を判定する条件
+     * @return 削除された投稿、または投稿が存在しない・条件を満たさない場合はnull
+     */
+    Post deleteById(Long id, Predicate<Post> condition);
+
+    /**
+     * 指定されたIDの投稿を削除します。
+     *
+     * @param id 投稿ID
+     * @return 削除された投稿、または投稿が存在しない場合はnull
+     */
+    default Post deleteById(Long id) {
+        return deleteById(id, post -> true);
+    }
+
+    /**
+     * 条件に一致する全投稿を取得します。
+     *
+     * @param filter 抽出条件
+     * @return 条件に一致する投稿のリスト（順序は不定）
+     */
+    List<Post> findAll(Predicate<Post> filter);
+
+    /**
+     * 全投稿を1件ずつ処理します。
+     * {@link #findAll}と異なり全投稿をリストに集めないため、ヒープに収まらない件数を扱う実装でも使用できます。
+     * 走査中に他のスレッドが行った変更が反映されるかどうかは実装によって異なります。
+     *
+     * @param action 各投稿に対する処理
+     */
+    void forEach(Consumer<Post> action);
+
+    /**
+     * 保存されている投稿の件数を取得します。
+     *
+     * @return 投稿件数
+     */
+    long count();
+}
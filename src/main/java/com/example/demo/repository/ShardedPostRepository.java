@@ -0,0 +1,242 @@
+package com.example.demo.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.example.demo.model.Post;
+
+/**
+ * 投稿をIDのハッシュでN個のシャードに分割し、シャードごとに1本の書き込みスレッドが
+ * 変更キューを処理するリポジトリ実装（シングルライター／アクターモデル）。
+ *
+ * <p>各シャードのデータは書き込みスレッドだけが変更するため、データそのものにはロックを使用しません。
+ * 読み取りは書き込みスレッドが変更のたびに公開する不変のスナップショット（投稿のコピー）に対して行われ、
+ * ロックフリーで実行されます。</p>
+ */
+public class ShardedPostRepository implements PostRepository, AutoCloseable {
+
+    private final Shard[] shards;
+
+    /**
+     * 指定されたシャード数でリポジトリを生成し、各シャードの書き込みスレッドを起動します。
+     *
+     * @param shardCount シャード数（1以上）
+     */
+    public ShardedPostRepository(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard("post-shard-" + i);
+        }
+    }
+
+    /**
+     * シャード数を取得します。
+     *
+     * @return シャード数
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public Post save(Post post) {
+        var shard = shardFor(post.getId());
+        var owned = new Post(post);
+        return shard.call(() -> {
+            shard.owned.put(owned.getId(), owned);
+            return shard.publish(owned);
+        });
+    }
+
+    @Override
+    public Post findById(Long id) {
+        return shardFor(id).snapshots.get(id);
+    }
+
+    @Override
+    public Post update(Long id, UnaryOperator<Post> mutator) {
+        var shard = shardFor(id);
+        return shard.call(() -> {
+            var post = shard.owned.get(id);
+            if (post == null || mutator.apply(post) == null) {
+                return null;
+            }
+            return shard.publish(post);
+        });
+    }
+
+    @Override
+    public Post deleteById(Long id, Predicate<Post> condition) {
+        var shard = shardFor(id);
+        return shard.call(() -> {
+            var post = shard.owned.get(id);
+            if (post == null || !condition.test(post)) {
+                return null;
+            }
+            shard.owned.remove(id);
+            return shard.snapshots.remove(id);
+        });
+    }
+
+    @Override
+    public List<Post> findAll(Predicate<Post> filter) {
+        var result = new ArrayList<Post>();
+        for (var shard : shards) {
+            for (var post : shard.snapshots.values()) {
+                if (filter.test(post)) {
+                    result.add(post);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(Consumer<Post> action) {
+        for (var shard : shards) {
+            shard.snapshots.values().forEach(action);
+        }
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (var shard : shards) {
+            count += shard.snapshots.size();
+        }
+        return count;
+    }
+
+    /**
+     * すべての書き込みスレッドを停止します。キューに残っている変更は処理されてから停止します。
+     */
+    @Override
+    public void close() {
+        for (var shard : shards) {
+            shard.stop();
+        }
+    }
+
+    private Shard shardFor(Long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(h ^ (h >>> 32), (long) shards.length)];
+    }
+
+    /**
+     * 1つのシャード。書き込みスレッドが{@code owned}を排他的に所有し、
+     * 変更後の投稿のコピーを{@code snapshots}へ公開します。
+     */
+    private static final class Shard implements Runnable {
+        private final Map<Long, Post> owned = new HashMap<>();
+        private final Map<Long, Post> snapshots = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Task<?>> mailbox = new ConcurrentLinkedQueue<>();
+        private final Thread writer;
+        private volatile boolean running = true;
+
+        Shard(String name) {
+            this.writer = new Thread(this, name);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        /**
+         * 書き込みスレッド上で処理を実行し、その結果を待ち合わせます。
+         * 書き込みスレッド自身から呼ばれた場合はその場で実行します。
+         */
+        <T> T call(Supplier<T> work) {
+            if (Thread.currentThread() == writer) {
+                return work.get();
+            }
+            if (!running) {
+                throw closed();
+            }
+            var task = new Task<>(work, new CompletableFuture<T>());
+            mailbox.add(task);
+            // 追加と停止が競合した場合、書き込みスレッドが終了した後に追加された処理は実行されないため取り下げる
+            if (!running && mailbox.remove(task)) {
+                throw closed();
+            }
+            LockSupport.unpark(writer);
+            try {
+                return task.result().join();
+            } catch (CompletionException e) {
+                // 他のエンジンと同じ例外を呼び出し元へ伝えるため、書き込みスレッド上で発生した例外を取り出す
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        Post publish(Post post) {
+            var snapshot = new Post(post);
+            snapshots.put(snapshot.getId(), snapshot);
+            return snapshot;
+        }
+
+        @Override
+        public void run() {
+            while (running || !mailbox.isEmpty()) {
+                Task<?> task;
+                while ((task = mailbox.poll()) != null) {
+                    task.run();
+                }
+                if (running) {
+                    LockSupport.park(this);
+                }
+            }
+        }
+
+        /**
+         * 書き込みスレッドを停止し、その終了後にキューに残った処理をすべて失敗として完了させます。
+         */
+        void stop() {
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Task<?> task;
+            while ((task = mailbox.poll()) != null) {
+                task.result().completeExceptionally(closed());
+            }
+        }
+
+        private static IllegalStateException closed() {
+            return new IllegalStateException("Repository has been closed");
+        }
+    }
+
+    /**
+     * 書き込みスレッドで実行する処理と、その結果を受け取るフューチャー。
+     */
+    private record Task<T>(Supplier<T> work, CompletableFuture<T> result) {
+
+        void run() {
+            try {
+                result.complete(work.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
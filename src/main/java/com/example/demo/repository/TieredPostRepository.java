@@ -0,0 +1,967 @@
+package com.example.demo.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.Post;
+import com.example.demo.model.PostCodec;
+
+/**
+ * 最近アクセスされた投稿だけをヒープに保持し、それ以外をローカルのセグメントファイルへ退避する2階層のリポジトリ実装。
+ *
+ * <p>ヒープ上の投稿は{@link PostFootprint}で見積もったバイト数の合計が予算を超えないよう管理されます。
+ * 追い出しはW-TinyLFU方式で、新しい投稿はまず小さなウィンドウ（予算の1%）に入り、
+ * ウィンドウからあふれた投稿はメイン領域の最も古い投稿とアクセス頻度（Count-Min Sketchによる概算）を比べて、
+ * 頻度の高い方だけがヒープに残ります。一度だけ読まれる投稿が大量に流れても、よく読まれる投稿は追い出されません。</p>
+ *
+ * <p>ヒープ上の投稿は{@link ConcurrentHashMap}からロックを取らずに読み取ります。投稿は更新のたびにコピーを差し替えるため、
+ * 読み取り中に内容が変わることはありません。アクセスはスレッドごとに分けたバッファへ記録するだけで、
+ * アクセス順と頻度への反映はロックを取得できたスレッドがまとめて行います（バッファが一杯の場合は記録を捨てます）。</p>
+ *
+ * <p>退避された投稿は{@link PostCodec}の形式でファイルに追記され、{@link #findById}で読み込まれた時点でヒープへ戻ります。
+ * ファイルの読み込みはロックを保持せずに行うため、ミスが他の読み書きを待たせることはありません。
+ * {@link #forEach}と{@link #findAll}は退避された投稿も一定件数ずつ読み込んで判定しますが、読み込んだ投稿をヒープへは戻さず、
+ * 走査全体で保持するのは投稿IDの配列だけです。
+ * 退避先のファイルは起動時に作り直される一時領域であり、永続化は行いません。
+ * 退避された投稿1件につき、IDとファイル上の位置（数十バイト）はヒープに残ります。</p>
+ *
+ * <p>追い出す投稿は先にファイルへ書き出し、書き出せた場合に限りヒープから外します。
+ * 書き出しに失敗した投稿（I/Oエラーや、1レコードの上限を超える大きさの投稿）は予算の外でヒープに残し、
+ * 以降の追い出しの際に書き出しをやり直します（上限を超える投稿は更新されるまでヒープに残ります）。
+ * 割り込みなどでファイルのチャネルが閉じられた場合は、次の書き出しで開き直します。</p>
+ */
+public class TieredPostRepository implements PostRepository, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredPostRepository.class);
+
+    /** 退避用のファイルの既定の名前 */
+    public static final String DEFAULT_SEGMENT_NAME = "posts-cold.seg";
+
+    private static final long DEFAULT_MIN_COMPACTION_BYTES = 1L << 20;
+    private static final int LENGTH_BITS = 24;
+    private static final long MAX_RECORD_BYTES = (1L << LENGTH_BITS) - 1;
+    /** 走査で一度に読み込む投稿の件数 */
+    private static final int SCAN_CHUNK = 256;
+
+    private final long windowBudget;
+    private final long mainBudget;
+    /** 無効になったレコードの合計がこの値と有効なレコードの合計の両方を超えたらファイルを詰め直す */
+    private final long minCompactionBytes;
+    /** 1件の投稿をファイルへ書き出せるレコードの最大バイト数 */
+    private final long maxRecordBytes;
+    private final FrequencySketch sketch;
+    private final Path segmentPath;
+    /** 追い出しの管理・退避・ファイルの追記を直列化するロック */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** セグメントファイルの差し替え（詰め直し）とファイルの読み込みを排他するロック */
+    private final ReentrantReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    /** ヒープ上の投稿（{@code window}と{@code main}の和集合）。ロックを取らずに読み取れる */
+    private final Map<Long, Node> hot = new ConcurrentHashMap<>();
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final LongAdder hits = new LongAdder();
+    private volatile long size;
+
+    // 以下はlockで保護する
+    private final LinkedHashMap<Long, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Node> main = new LinkedHashMap<>(16, 0.75f, true);
+    /** 投稿ID → ファイル上のレコード（位置と長さを詰めた値）。ヒープ上の値と同じ内容のレコードだけを保持する */
+    private final Map<Long, Long> cold = new HashMap<>();
+    /** 追い出そうとしたが書き出せず、予算の外でヒープに残している投稿 */
+    private final Map<Long, Node> pinned = new LinkedHashMap<>();
+    private FileChannel segment;
+    private boolean closed;
+    private long pinnedBytes;
+    private long spillFailures;
+    private long segmentEnd;
+    private long liveBytes;
+    private long deadBytes;
+    private long windowBytes;
+    private long mainBytes;
+    private long misses;
+    private long spills;
+    private long compactions;
+
+    /**
+     * リポジトリを生成します。指定されたディレクトリに退避用のセグメントファイルを作成します（既存のファイルは破棄されます）。
+     *
+     * @param hotBudgetBytes ヒープに保持する投稿の推定バイト数の上限
+     * @param directory 退避用のファイルを置くディレクトリ
+     */
+    public TieredPostRepository(long hotBudgetBytes, Path directory) {
+        this(hotBudgetBytes, directory, DEFAULT_SEGMENT_NAME);
+    }
+
+    /**
+     * 退避用のファイル名を指定してリポジトリを生成します。
+     * 同じディレクトリに複数のリポジトリを置く場合は、互いのファイルを上書きしないよう異なる名前を指定してください。
+     *
+     * @param hotBudgetBytes ヒープに保持する投稿の推定バイト数の上限
+     * @param directory 退避用のファイルを置くディレクトリ
+     * @param segmentName 退避用のファイルの名前（既存のファイルは破棄され、{@link #close}で削除されます）
+     */
+    public TieredPostRepository(long hotBudgetBytes, Path directory, String segmentName) {
+        this(hotBudgetBytes, directory, segmentName, DEFAULT_MIN_COMPACTION_BYTES, MAX_RECORD_BYTES);
+    }
+
+    TieredPostRepository(long hotBudgetBytes, Path directory, long minCompactionBytes) {
+        this(hotBudgetBytes, directory, DEFAULT_SEGMENT_NAME, minCompactionBytes, MAX_RECORD_BYTES);
+    }
+
+    TieredPostRepository(long hotBudgetBytes, Path directory, long minCompactionBytes, long maxRecordBytes) {
+        this(hotBudgetBytes, directory, DEFAULT_SEGMENT_NAME, minCompactionBytes, maxRecordBytes);
+    }
+
+    private TieredPostRepository(long hotBudgetBytes, Path directory, String segmentName, long minCompactionBytes,
+                                 long maxRecordBytes) {
+        if (hotBudgetBytes < 1) {
+            throw new IllegalArgumentException("hotBudgetBytes must be positive: " + hotBudgetBytes);
+        }
+        this.windowBudget = Math.max(1, hotBudgetBytes / 100);
+        this.mainBudget = Math.max(1, hotBudgetBytes - windowBudget);
+        this.minCompactionBytes = minCompactionBytes;
+        this.maxRecordBytes = Math.min(maxRecordBytes, MAX_RECORD_BYTES);
+        // 平均的な投稿を数百バイトと見込み、ヒープに載る件数の数倍程度の幅を確保する
+        this.sketch = new FrequencySketch((int) Math.min(1 << 22, Math.max(1024, hotBudgetBytes / 128)));
+        try {
+            Files.createDirectories(directory);
+            this.segmentPath = directory.resolve(segmentName);
+            this.segment = openSegment(segmentPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create cold segment in " + directory, e);
+        }
+    }
+
+    @Override
+    public Post save(Post post) {
+        lock.lock();
+        try {
+            drainReadBuffer();
+            var id = post.getId();
+            var existing = removeHot(id);
+            if (existing == null && !cold.containsKey(id)) {
+                size++;
+            }
+            discardCold(id);
+            sketch.increment(id);
+            admit(new Node(new Post(post), true));
+            return new Post(post);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Post findById(Long id) {
+        var node = hot.get(id);
+        if (node != null) {
+            hits.increment();
+            recordAccess(id);
+            return new Post(node.post);
+        }
+        return findCold(id);
+    }
+
+    @Override
+    public Post update(Long id, UnaryOperator<Post> mutator) {
+        lock.lock();
+        try {
+            drainReadBuffer();
+            var node = loadHot(id);
+            if (node == null) {
+                return null;
+            }
+            // ロックを取らずに読み取っているスレッドがあるため、コピーを変更してから差し替える
+            var updated = mutator.apply(new Post(node.post));
+            if (updated == null) {
+                return null;
+            }
+            sketch.increment(id);
+            node.post = updated;
+            node.dirty = true;
+            discardCold(id);
+            if (hot.get(id) == node && !pinned.containsKey(id)) {
+                resize(node);
+            } else {
+                // 読み込んだ直後に予算超過で追い出されていた場合や、書き出せずに予算の外に残していた場合は、
+                // 更新後の内容で受け入れ直す
+                removeHot(id);
+                node.bytes = PostFootprint.estimate(updated);
+                node.unspillable = false;
+                admit(node);
+            }
+            return new Post(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Post deleteById(Long id, Predicate<Post> condition) {
+        lock.lock();
+        try {
+            var node = hot.get(id);
+            Post post;
+            if (node != null) {
+                post = node.post;
+            } else {
+                Long ref = cold.get(id);
+                if (ref == null) {
+                    return null;
+                }
+                // 条件の判定のためだけに読み込み、ヒープへは戻さない（ロックを保持している間は詰め直しが行われない）
+                post = readRecord(ref);
+            }
+            if (!condition.test(post)) {
+                return null;
+            }
+            removeHot(id);
+            discardCold(id);
+            size--;
+            return post;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 全投稿を{@value #SCAN_CHUNK}件ずつ読み込んで走査します。処理はロックを保持せずに呼び出します。
+     * 走査の開始後に追加された投稿は含まれず、開始後に削除された投稿は含まれない場合があります。
+     */
+    @Override
+    public void forEach(Consumer<Post> action) {
+        long[] ids;
+        int count = 0;
+        lock.lock();
+        try {
+            ids = new long[hot.size() + cold.size()];
+            for (Long id : hot.keySet()) {
+                ids[count++] = id;
+            }
+            for (Long id : cold.keySet()) {
+                if (!hot.containsKey(id)) {
+                    ids[count++] = id;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int from = 0; from < count; from += SCAN_CHUNK) {
+            scan(ids, from, Math.min(count, from + SCAN_CHUNK)).forEach(action);
+        }
+    }
+
+    @Override
+    public List<Post> findAll(Predicate<Post> filter) {
+        var result = new ArrayList<Post>();
+        forEach(post -> {
+            if (filter.test(post)) {
+                result.add(post);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return size;
+    }
+
+    /**
+     * 階層ごとの保持状況とアクセス統計を取得します。
+     *
+     * @return ヒープ上の件数・推定バイト数、退避された件数、ファイルサイズ、ヒット・ミス数などの統計
+     */
+    public Map<String, Object> getStats() {
+        lock.lock();
+        try {
+            var stats = new LinkedHashMap<String, Object>();
+            stats.put("posts", size);
+            stats.put("hotPosts", hot.size());
+            stats.put("hotBytes", windowBytes + mainBytes);
+            stats.put("hotBudgetBytes", windowBudget + mainBudget);
+            stats.put("coldOnlyPosts", size - hot.size());
+            stats.put("segmentBytes", segmentEnd);
+            stats.put("deadBytes", deadBytes);
+            stats.put("hits", hits.sum());
+            stats.put("misses", misses);
+            stats.put("pinnedPosts", pinned.size());
+            stats.put("pinnedBytes", pinnedBytes);
+            stats.put("spills", spills);
+            stats.put("spillFailures", spillFailures);
+            stats.put("compactions", compactions);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 退避用のファイルを閉じて削除します。
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        segmentLock.writeLock().lock();
+        try {
+            closed = true;
+            segment.close();
+            Files.deleteIfExists(segmentPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            segmentLock.writeLock().unlock();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ヒープにない投稿をファイルから読み込み、ヒープへ戻します。
+     */
+    private Post findCold(Long id) {
+        while (true) {
+            long ref;
+            lock.lock();
+            try {
+                sketch.increment(id);
+                var node = hot.get(id);
+                if (node != null) {
+                    hits.increment();
+                    touch(id);
+                    return new Post(node.post);
+                }
+                Long coldRef = cold.get(id);
+                if (coldRef == null) {
+                    return null;
+                }
+                misses++;
+                ref = coldRef;
+                // 読み込みが終わるまでファイルが詰め直されないよう、ロックを手放す前に読み取りロックを取得する
+                segmentLock.readLock().lock();
+            } finally {
+                lock.unlock();
+            }
+            // ファイルの読み込み中は他の読み書きを止めない
+            Post post;
+            try {
+                post = readRecord(ref);
+            } finally {
+                segmentLock.readLock().unlock();
+            }
+            lock.lock();
+            try {
+                var node = hot.get(id);
+                if (node != null) {
+                    return new Post(node.post);
+                }
+                Long coldRef = cold.get(id);
+                if (coldRef != null && coldRef == ref) {
+                    admit(new Node(post, false));
+                    return new Post(post);
+                }
+                // 読み込み中に更新・削除された場合はやり直す
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 走査対象のIDのうち、指定された範囲の投稿を読み込みます。ファイルは位置の順に読み、ディスクを順方向に走査します。
+     */
+    private List<Post> scan(long[] ids, int from, int to) {
+        var posts = new ArrayList<Post>(to - from);
+        var refs = new ArrayList<Long>();
+        lock.lock();
+        try {
+            for (int i = from; i < to; i++) {
+                var node = hot.get(ids[i]);
+                if (node != null) {
+                    posts.add(new Post(node.post));
+                } else {
+                    Long ref = cold.get(ids[i]);
+                    if (ref != null) {
+                        refs.add(ref);
+                    }
+                }
+            }
+            segmentLock.readLock().lock();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            refs.sort(null);
+            for (long ref : refs) {
+                posts.add(readRecord(ref));
+            }
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+        return posts;
+    }
+
+    /**
+     * ロックを取らずに読み取ったアクセスを記録します。バッファが埋まってきた場合は、ロックを取得できれば反映します。
+     */
+    private void recordAccess(long id) {
+        if (readBuffer.offer(id) && lock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 記録されたアクセスを頻度とアクセス順へ反映します。
+     */
+    private void drainReadBuffer() {
+        readBuffer.drain(id -> {
+            sketch.increment(id);
+            touch(id);
+        });
+    }
+
+    /**
+     * ヒープ上の投稿のアクセス順を更新します。
+     */
+    private void touch(Long id) {
+        if (window.get(id) == null) {
+            main.get(id);
+        }
+    }
+
+    /**
+     * 投稿をヒープ上に用意します。退避されている場合はロックを保持したまま読み込みます（更新系の操作用）。
+     */
+    private Node loadHot(Long id) {
+        var node = hot.get(id);
+        if (node != null) {
+            touch(id);
+            return node;
+        }
+        Long ref = cold.get(id);
+        if (ref == null) {
+            return null;
+        }
+        misses++;
+        // ロックを保持している間は詰め直しが行われないため、読み取りロックは不要
+        node = new Node(readRecord(ref), false);
+        admit(node);
+        // 予算を超える大きな投稿は受け入れ直後に退避される場合があるため、呼び出し元は返された参照を使用する
+        return node;
+    }
+
+    private Node removeHot(Long id) {
+        hot.remove(id);
+        var node = pinned.remove(id);
+        if (node != null) {
+            pinnedBytes -= node.bytes;
+            return node;
+        }
+        node = window.remove(id);
+        if (node != null) {
+            windowBytes -= node.bytes;
+            return node;
+        }
+        node = main.remove(id);
+        if (node != null) {
+            mainBytes -= node.bytes;
+        }
+        return node;
+    }
+
+    /**
+     * ファイル上のレコードを無効にします。
+     */
+    private void discardCold(Long id) {
+        Long ref = cold.remove(id);
+        if (ref != null) {
+            long length = ref & MAX_RECORD_BYTES;
+            liveBytes -= length;
+            deadBytes += length;
+        }
+    }
+
+    /**
+     * 更新によって投稿の推定サイズが変わった場合に、予算の計算へ反映します。
+     */
+    private void resize(Node node) {
+        long bytes = PostFootprint.estimate(node.post);
+        long delta = bytes - node.bytes;
+        if (delta == 0) {
+            return;
+        }
+        node.bytes = bytes;
+        if (window.containsKey(node.post.getId())) {
+            windowBytes += delta;
+        } else if (main.containsKey(node.post.getId())) {
+            mainBytes += delta;
+        } else if (pinned.containsKey(node.post.getId())) {
+            pinnedBytes += delta;
+        }
+        evict();
+    }
+
+    /**
+     * 投稿をウィンドウへ追加し、予算を超えた分を追い出します。
+     */
+    private void admit(Node node) {
+        hot.put(node.post.getId(), node);
+        window.put(node.post.getId(), node);
+        windowBytes += node.bytes;
+        evict();
+    }
+
+    private void evict() {
+        while (windowBytes > windowBudget && !window.isEmpty()) {
+            var candidate = pollEldest(window);
+            windowBytes -= candidate.bytes;
+            promote(candidate);
+        }
+        while (mainBytes > mainBudget && !main.isEmpty()) {
+            var victim = pollEldest(main);
+            mainBytes -= victim.bytes;
+            spill(victim);
+        }
+        retryPinned();
+        maybeCompact();
+    }
+
+    /**
+     * ウィンドウからあふれた投稿を、頻度がメイン領域の追い出し候補を上回る場合に限りメイン領域へ移します。
+     */
+    private void promote(Node candidate) {
+        if (candidate.bytes > mainBudget) {
+            spill(candidate);
+            return;
+        }
+        int candidateFrequency = sketch.frequency(candidate.post.getId());
+        while (mainBytes + candidate.bytes > mainBudget && !main.isEmpty()) {
+            var victim = main.values().iterator().next();
+            if (candidateFrequency <= sketch.frequency(victim.post.getId())) {
+                spill(candidate);
+                return;
+            }
+            main.remove(victim.post.getId());
+            mainBytes -= victim.bytes;
+            spill(victim);
+        }
+        main.put(candidate.post.getId(), candidate);
+        mainBytes += candidate.bytes;
+    }
+
+    /**
+     * ウィンドウやメイン領域から取り出した投稿をヒープから外します。
+     * 書き出せなかった場合は、投稿を失わないよう予算の外でヒープに残します。
+     */
+    private void spill(Node node) {
+        if (writeOut(node)) {
+            return;
+        }
+        pinned.put(node.post.getId(), node);
+        pinnedBytes += node.bytes;
+        spillFailures++;
+    }
+
+    /**
+     * ファイル上に同じ内容のレコードがない場合は書き出し、書き出せた場合に限り投稿をヒープから外します。
+     *
+     * @return ヒープから外した場合はtrue
+     */
+    private boolean writeOut(Node node) {
+        var id = node.post.getId();
+        if (node.dirty || !cold.containsKey(id)) {
+            long ref;
+            try {
+                ref = appendRecord(node.post);
+            } catch (RecordTooLargeException e) {
+                if (!node.unspillable) {
+                    log.warn("Keeping post {} on the heap: {}", id, e.getMessage());
+                }
+                node.unspillable = true;
+                return false;
+            } catch (UncheckedIOException e) {
+                if (!pinned.containsKey(id)) {
+                    log.warn("Keeping post {} on the heap because spilling it failed; will retry", id, e);
+                }
+                return false;
+            }
+            cold.put(id, ref);
+            spills++;
+        }
+        hot.remove(id);
+        return true;
+    }
+
+    /**
+     * 書き出せずにヒープに残している投稿の書き出しをやり直します。失敗した時点で次回の追い出しまで見送ります。
+     */
+    private void retryPinned() {
+        var iterator = pinned.values().iterator();
+        while (iterator.hasNext()) {
+            var node = iterator.next();
+            if (node.unspillable) {
+                continue;
+            }
+            if (!writeOut(node)) {
+                return;
+            }
+            iterator.remove();
+            pinnedBytes -= node.bytes;
+        }
+    }
+
+    private long appendRecord(Post post) {
+        ByteBuffer buffer;
+        try {
+            var bytes = new ByteArrayOutputStream(256);
+            var out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            PostCodec.write(out, post);
+            out.flush();
+            buffer = ByteBuffer.wrap(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode post " + post.getId(), e);
+        }
+        int length = buffer.remaining();
+        if (length > maxRecordBytes) {
+            throw new RecordTooLargeException("Post " + post.getId() + " is too large to spill: " + length + " bytes");
+        }
+        buffer.putInt(0, length - Integer.BYTES);
+        long offset = segmentEnd;
+        try {
+            writeFully(buffer, offset);
+        } catch (ClosedChannelException e) {
+            // 割り込みなどでチャネルが閉じられた場合は、ファイルを開き直して1回だけやり直す
+            if (closed || Thread.currentThread().isInterrupted()) {
+                throw new UncheckedIOException("Failed to spill post " + post.getId(), e);
+            }
+            try {
+                reopenSegment();
+                writeFully(buffer.rewind(), offset);
+            } catch (IOException retry) {
+                throw new UncheckedIOException("Failed to spill post " + post.getId(), retry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill post " + post.getId(), e);
+        }
+        segmentEnd += length;
+        liveBytes += length;
+        return (offset << LENGTH_BITS) | length;
+    }
+
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            segment.write(buffer, offset + buffer.position());
+        }
+    }
+
+    /**
+     * 閉じられたチャネルの代わりに、同じファイルを開き直します。ファイルの内容は閉じられる前のまま残っています。
+     */
+    private void reopenSegment() throws IOException {
+        segmentLock.writeLock().lock();
+        try {
+            if (!segment.isOpen()) {
+                segment = FileChannel.open(segmentPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ファイルからレコードを読み込みます。呼び出し元は{@link #lock}または{@link #segmentLock}の読み取りロックを保持している必要があります。
+     */
+    private Post readRecord(long ref) {
+        long offset = ref >>> LENGTH_BITS;
+        int length = (int) (ref & MAX_RECORD_BYTES);
+        try {
+            var buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (segment.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of cold segment");
+                }
+            }
+            var in = new DataInputStream(new ByteArrayInputStream(buffer.array(), Integer.BYTES, length - Integer.BYTES));
+            return PostCodec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read cold post at offset " + offset, e);
+        }
+    }
+
+    /**
+     * 無効なレコードが増えた場合に、有効なレコードだけを新しいファイルへ書き写して差し替えます。
+     */
+    private void maybeCompact() {
+        if (deadBytes < minCompactionBytes || deadBytes < liveBytes) {
+            return;
+        }
+        segmentLock.writeLock().lock();
+        try {
+            var compactedPath = segmentPath.resolveSibling(segmentPath.getFileName() + ".compact");
+            // 新しい位置はファイルを差し替えるまで反映しない（途中で失敗しても元のファイルと位置のまま使い続けられる）
+            var relocated = new long[cold.size()];
+            long end = 0;
+            FileChannel compacted = null;
+            try {
+                compacted = openSegment(compactedPath);
+                int i = 0;
+                for (long ref : cold.values()) {
+                    long offset = ref >>> LENGTH_BITS;
+                    int length = (int) (ref & MAX_RECORD_BYTES);
+                    long copied = 0;
+                    while (copied < length) {
+                        copied += segment.transferTo(offset + copied, length - copied, compacted.position(end + copied));
+                    }
+                    relocated[i++] = (end << LENGTH_BITS) | length;
+                    end += length;
+                }
+                // 開いたままのチャネルは名前を変えても同じファイルを指すため、そのまま新しいファイルとして使う
+                Files.move(compactedPath, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                closeQuietly(compacted);
+                try {
+                    Files.deleteIfExists(compactedPath);
+                } catch (IOException ignored) {
+                    // 次回の詰め直しで上書きされる
+                }
+                log.warn("Compacting the cold segment failed; will retry", e);
+                return;
+            }
+            closeQuietly(segment);
+            segment = compacted;
+            int i = 0;
+            for (var entry : cold.entrySet()) {
+                entry.setValue(relocated[i++]);
+            }
+            segmentEnd = end;
+            liveBytes = end;
+            deadBytes = 0;
+            compactions++;
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 閉じる処理の失敗は無視する
+        }
+    }
+
+    private static FileChannel openSegment(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static Node pollEldest(LinkedHashMap<Long, Node> map) {
+        Iterator<Node> iterator = map.values().iterator();
+        var eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    /**
+     * ヒープ上の投稿1件。
+     */
+    private static final class Node {
+        /** 更新のたびに差し替える（差し替えた投稿は変更しない） */
+        private volatile Post post;
+        private long bytes;
+        /** ファイル上のレコードより新しい内容を持つ（追い出す際に書き出しが必要な）場合はtrue */
+        private boolean dirty;
+        /** 1レコードの上限を超えるため、更新されるまで書き出しを試みない場合はtrue */
+        private boolean unspillable;
+
+        Node(Post post, boolean dirty) {
+            this.post = post;
+            this.bytes = PostFootprint.estimate(post);
+            this.dirty = dirty;
+        }
+    }
+
+    /**
+     * 投稿が1レコードの上限を超えるため書き出せないことを表す例外。
+     */
+    private static final class RecordTooLargeException extends RuntimeException {
+        RecordTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * ロックを取らずに読み取ったアクセスを記録する、スレッドごとに分けた容量固定のバッファ。
+     * 各ストライプは書き込み側が位置をCASで確保するリングバッファで、取り出しはロックを保持したスレッドだけが行います。
+     */
+    static final class ReadBuffer {
+        private static final int STRIPES = 16;
+        private static final int CAPACITY = 64;
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        ReadBuffer() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        /**
+         * アクセスを記録します。他のスレッドと競合した場合やバッファが一杯の場合は記録を捨てます。
+         *
+         * @return バッファが半分以上埋まっており、取り出すべき場合はtrue
+         */
+        boolean offer(long id) {
+            long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+            return stripes[(int) (h >>> 60)].offer(id);
+        }
+
+        /**
+         * 記録されたアクセスをすべて取り出します。同時に呼び出してはいけません。
+         */
+        void drain(LongConsumer consumer) {
+            for (var stripe : stripes) {
+                stripe.drain(consumer);
+            }
+        }
+
+        private static final class Stripe {
+            private final AtomicLongArray slots = new AtomicLongArray(CAPACITY);
+            private final AtomicLong writeIndex = new AtomicLong();
+            private volatile long readIndex;
+
+            Stripe() {
+                for (int i = 0; i < CAPACITY; i++) {
+                    slots.set(i, EMPTY);
+                }
+            }
+
+            boolean offer(long id) {
+                long head = readIndex;
+                long tail = writeIndex.get();
+                long size = tail - head;
+                if (size >= CAPACITY) {
+                    return true;
+                }
+                if (!writeIndex.compareAndSet(tail, tail + 1)) {
+                    return false;
+                }
+                slots.lazySet((int) (tail & (CAPACITY - 1)), id);
+                return size + 1 >= CAPACITY / 2;
+            }
+
+            void drain(LongConsumer consumer) {
+                long head = readIndex;
+                long tail = writeIndex.get();
+                while (head < tail) {
+                    int index = (int) (head & (CAPACITY - 1));
+                    long id = slots.get(index);
+                    if (id == EMPTY) {
+                        // 位置を確保した書き込み側がまだ値を書いていない
+                        break;
+                    }
+                    slots.lazySet(index, EMPTY);
+                    consumer.accept(id);
+                    head++;
+                }
+                readIndex = head;
+            }
+        }
+    }
+
+    /**
+     * 投稿IDごとのアクセス頻度を概算するCount-Min Sketch。
+     * 4行のカウンター（上限15）を持ち、加算回数が一定に達するたびに全カウンターを半分にして古いアクセスの影響を減らします。
+     */
+    static final class FrequencySketch {
+        private static final int ROWS = 4;
+        private static final int MAX_COUNT = 15;
+        private static final long[] SEEDS = {
+                0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+
+        private final int[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            this.counters = new int[ROWS][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(long id) {
+            boolean added = false;
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(id, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                age();
+            }
+        }
+
+        int frequency(long id) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < ROWS; row++) {
+                frequency = Math.min(frequency, counters[row][index(id, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(long id, int row) {
+            long h = (id + SEEDS[row]) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        private void age() {
+            for (int[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
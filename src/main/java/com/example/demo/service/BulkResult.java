@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 複数の投稿に対する一括操作の結果。
+ *
+ * @param timestamp 一括操作で使用した日時（一括公開の場合はすべての投稿の公開日時）
+ * @param applied 操作が適用された投稿の数
+ * @param outcomes 投稿IDごとの結果（指定された順）
+ */
+public record BulkResult(Instant timestamp, int applied, Map<Long, Outcome> outcomes) {
+
+    /**
+     * 投稿1件に対する操作の結果。
+     */
+    public enum Outcome {
+        /** 操作が適用された */
+        APPLIED,
+        /** 投稿が存在しない */
+        NOT_FOUND,
+        /** 投稿の状態が操作の対象外だった（既に公開済みなど） */
+        SKIPPED
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 直近の{@link PostChange}を保持する容量固定のリングバッファ。
+ * 変更はシーケンス番号の連番で追記され、古いものから上書きされます。
+ *
+ * <p>追記は{@link PostService}がシーケンス番号を割り当てた時点で（シーケンス順に）行われるため、
+ * ストアへの反映が完了していない変更も含まれます。反映が完了した範囲は{@link #markStable(long)}で記録され、
+ * 確定した変更だけが必要な読み取り側は{@link #stableSince(long, int)}を使用します。
+ * 読み取りは任意のスレッドから行えます。</p>
+ */
+public class ChangeLog {
+
+    private final PostChange[] entries;
+    /** 保持している最新の変更のシーケンス番号 */
+    private long lastSequence;
+    /** 保持している最古の変更のシーケンス番号 */
+    private long firstSequence = 1;
+    /** それ以前のすべての変更がストアへ反映済みのシーケンス番号 */
+    private long stableSequence;
+
+    /**
+     * 指定された容量で変更ログを生成します。
+     *
+     * @param capacity 保持する変更の最大件数（1以上）
+     */
+    public ChangeLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.entries = new PostChange[capacity];
+    }
+
+    /**
+     * 変更を追記します。シーケンス番号は直前の変更の次の番号でなければなりません。
+     *
+     * @param change 追記する変更
+     */
+    public synchronized void append(PostChange change) {
+        if (change.sequence() != lastSequence + 1) {
+            throw new IllegalStateException("Out-of-order change " + change.sequence() + " after " + lastSequence);
+        }
+        entries[index(change.sequence())] = change;
+        lastSequence = change.sequence();
+        firstSequence = Math.max(firstSequence, lastSequence - entries.length + 1);
+        notifyAll();
+    }
+
+    /**
+     * 保持内容を破棄し、指定されたシーケンス番号の直後から追記を再開できる状態にします。
+     *
+     * @param sequence 以後の追記の直前となるシーケンス番号
+     */
+    public synchronized void reset(long sequence) {
+        Arrays.fill(entries, null);
+        lastSequence = sequence;
+        firstSequence = sequence + 1;
+        stableSequence = sequence;
+        notifyAll();
+    }
+
+    /**
+     * 指定されたシーケンス番号より後の変更を古い順に取得します。
+     *
+     * @param sequence このシーケンス番号より後の変更を取得する
+     * @param limit 取得する最大件数
+     * @return 変更のリスト、または必要な変更がすでに上書きされている場合はnull
+     */
+    public synchronized List<PostChange> since(long sequence, int limit) {
+        if (sequence + 1 < firstSequence) {
+            return null;
+        }
+        long to = Math.min(lastSequence, sequence + limit);
+        var result = new ArrayList<PostChange>((int) Math.max(0, to - sequence));
+        for (long s = sequence + 1; s <= to; s++) {
+            result.add(entries[index(s)]);
+        }
+        return result;
+    }
+
+    /**
+     * 指定されたシーケンス番号より後の、ストアへの反映が完了した変更を古い順に取得します。
+     *
+     * @param sequence このシーケンス番号より後の変更を取得する
+     * @param limit 取得する最大件数
+     * @return 変更のリスト、または必要な変更がすでに上書きされている場合はnull
+     */
+    public synchronized List<PostChange> stableSince(long sequence, int limit) {
+        return since(sequence, (int) Math.min(limit, Math.max(0, stableSequence - sequence)));
+    }
+
+    /**
+     * 指定されたシーケンス番号までの変更がストアへ反映済みであることを記録します。
+     * 記録済みの番号より小さい番号は無視されます。
+     *
+     * @param sequence 反映済みのシーケンス番号
+     */
+    public synchronized void markStable(long sequence) {
+        if (sequence > stableSequence) {
+            stableSequence = Math.min(sequence, lastSequence);
+            notifyAll();
+        }
+    }
+
+    /**
+     * 指定されたシーケンス番号より後の変更がストアへ反映済みになるまで待機します。
+     *
+     * @param sequence 基準となるシーケンス番号
+     * @param timeoutMillis 最大待機時間（ミリ秒）
+     * @return 反映済みの新しい変更がある場合はtrue
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public synchronized boolean awaitStableAfter(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (stableSequence <= sequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * ストアへの反映が完了した最新の変更のシーケンス番号を取得します。
+     *
+     * @return 反映済みのシーケンス番号（変更がない場合は0）
+     */
+    public synchronized long getStableSequence() {
+        return stableSequence;
+    }
+
+    /**
+     * 保持している最新の変更のシーケンス番号を取得します。
+     *
+     * @return 最新のシーケンス番号（変更がない場合は0）
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * 保持している最古の変更のシーケンス番号を取得します。
+     *
+     * @return 最古のシーケンス番号
+     */
+    public synchronized long getFirstSequence() {
+        return firstSequence;
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) entries.length);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.service;
+
+/**
+ * ページのカーソルとして正しくない文字列が指定された場合にスローされる例外。
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    /**
+     * 例外を生成します。
+     *
+     * @param cursor 指定された文字列
+     */
+    public InvalidCursorException(String cursor) {
+        super("Invalid page cursor: " + cursor);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+
+/**
+ * 投稿の直近の1分ごとのいいね数の推移。
+ *
+ * @param postId 投稿ID
+ * @param start 最初の1分の開始日時
+ * @param likesPerMinute 古い順の1分ごとのいいね数
+ */
+public record LikeHistory(Long postId, Instant start, int[] likesPerMinute) {
+}
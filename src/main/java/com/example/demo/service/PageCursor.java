@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import com.example.demo.model.Post;
+
+/**
+ * 公開日時の新しい順（同じ場合はIDの大きい順）に並べた投稿の一覧で、前のページの最後の投稿の位置を表すカーソル。
+ *
+ * <p>位置を件数ではなく投稿の公開日時とIDで表すため、ページをめくる間に投稿が追加・削除されても、
+ * 同じ投稿が2回返されたり読み飛ばされたりしません。クライアントには{@link #encode()}で不透明な文字列として渡します。</p>
+ *
+ * @param publishedAt 前のページの最後の投稿の公開日時
+ * @param id 前のページの最後の投稿のID
+ */
+public record PageCursor(Instant publishedAt, long id) {
+
+    /** ページに分ける一覧の並び順 */
+    public static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getPublishedAt, Comparator.reverseOrder())
+            .thenComparing(Post::getId, Comparator.reverseOrder());
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * 指定された投稿の直後から始まるページのカーソルを生成します。
+     *
+     * @param post ページの最後の投稿
+     * @return カーソル
+     */
+    public static PageCursor after(Post post) {
+        return new PageCursor(post.getPublishedAt(), post.getId());
+    }
+
+    /**
+     * クライアントから受け取った文字列をカーソルに変換します。
+     *
+     * @param token {@link #encode()}で生成した文字列（最初のページの場合はnullまたは空文字）
+     * @return カーソル、または最初のページの場合はnull
+     * @throws InvalidCursorException 文字列がカーソルとして正しくない場合
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            var buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != ENCODED_BYTES) {
+                throw new InvalidCursorException(token);
+            }
+            return new PageCursor(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), buffer.getLong());
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    /**
+     * カーソルをクライアントに渡す文字列に変換します。
+     *
+     * @return URLに含めることのできる文字列
+     */
+    public String encode() {
+        var buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putLong(publishedAt.getEpochSecond())
+                .putInt(publishedAt.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 投稿がこのカーソルより後ろ（次のページ以降）に並ぶかどうかを判定します。
+     *
+     * @param post 公開済みの投稿
+     * @return カーソルより後ろに並ぶ場合はtrue
+     */
+    public boolean precedes(Post post) {
+        int order = post.getPublishedAt().compareTo(publishedAt);
+        return order < 0 || order == 0 && post.getId() < id;
+    }
+
+    /**
+     * 並び順に並べた一覧から、カーソルの直後から始まるページを切り出します。
+     *
+     * @param newestFirst {@link #NEWEST_FIRST}の順に並べた投稿
+     * @param after 前のページのカーソル（最初のページの場合はnull）
+     * @param limit ページの最大件数（0の場合は残りすべて）
+     * @return ページの投稿と、続きがある場合の次のカーソル
+     */
+    public static Page slice(List<Post> newestFirst, PageCursor after, int limit) {
+        int from = 0;
+        if (after != null) {
+            // 並び順に並んでいるため、カーソルより後ろに並ぶ最初の投稿を二分探索で探す
+            int low = 0;
+            int high = newestFirst.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (after.precedes(newestFirst.get(mid))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            from = low;
+        }
+        int to = limit == 0 ? newestFirst.size() : (int) Math.min(newestFirst.size(), (long) from + limit);
+        var page = new ArrayList<>(newestFirst.subList(from, to));
+        var next = to < newestFirst.size() && !page.isEmpty() ? after(page.get(page.size() - 1)) : null;
+        return new Page(page, next);
+    }
+
+    /**
+     * 一覧から切り出したページ。
+     *
+     * @param posts ページの投稿
+     * @param next 次のページのカーソル（最後のページの場合はnull）
+     */
+    public record Page(List<Post> posts, PageCursor next) {
+    }
+}
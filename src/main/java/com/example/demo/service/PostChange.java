@@ -0,0 +1,34 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+
+import com.example.demo.model.Post;
+
+/**
+ * 投稿に対する1回の変更を表すイベント。
+ * {@link PostService}が変更のたびに全体で一意かつ連続した{@code sequence}を割り当てて発行します。
+ *
+ * @param sequence 変更シーケンス番号（1から始まる連番）
+ * @param type 変更の種類
+ * @param postId 変更された投稿のID
+ * @param post 変更後の投稿のスナップショット（削除の場合はnull）
+ * @param timestamp 変更日時
+ */
+public record PostChange(long sequence, Type type, Long postId, Post post, Instant timestamp) {
+
+    /**
+     * 変更の種類。
+     */
+    public enum Type {
+        /** 下書きの作成 */
+        CREATED,
+        /** 下書きの公開 */
+        PUBLISHED,
+        /** 内容の更新 */
+        UPDATED,
+        /** いいねの追加 */
+        LIKED,
+        /** 削除（トゥームストーン） */
+        DELETED
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+/**
+ * 投稿の変更通知を受け取るリスナー。
+ *
+ * <p>通知は変更がストアへ反映された後、投稿のロックの外で、シーケンス順に1件ずつ1つのスレッドから行われます。
+ * 通知中は後続の変更の通知が待たされるため、実装は短時間で処理を終えてください。
+ * 時間のかかる処理はキューに積んで別スレッドで行ってください。</p>
+ */
+@FunctionalInterface
+public interface PostChangeListener {
+
+    /**
+     * 投稿の変更を受け取ります。
+     *
+     * @param change 変更イベント
+     */
+    void onChange(PostChange change);
+}
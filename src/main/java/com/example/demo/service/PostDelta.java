@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.model.Post;
+
+/**
+ * 指定されたシーケンス番号以降の公開済み投稿の差分。
+ * 同じ投稿に複数の変更があった場合は最新の状態だけが含まれます。
+ *
+ * @param since クライアントが指定した同期済みのシーケンス番号
+ * @param sequence この差分を適用した後の同期済みシーケンス番号（次回の{@code since}に指定する値）
+ * @param posts 作成・公開・更新・いいねされた公開済み投稿の最新の状態
+ * @param deletedIds 削除された投稿のID（トゥームストーン）
+ * @param hasMore 件数の上限により、まだ取得していない変更が残っている場合はtrue
+ */
+public record PostDelta(long since, long sequence, List<Post> posts, List<Long> deletedIds, boolean hasMore) {
+}
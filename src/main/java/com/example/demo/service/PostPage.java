@@ -0,0 +1,15 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+import com.example.demo.model.Post;
+
+/**
+ * 公開日時の新しい順に並べた投稿の一覧の1ページ。
+ *
+ * @param posts ページの投稿（変更不可）
+ * @param next 次のページのカーソル（最後のページの場合はnull）
+ * @param cached キャッシュした結果から返した場合はtrue
+ */
+public record PostPage(List<Post> posts, PageCursor next, boolean cached) {
+}
@@ -1,26 +1,172 @@
 package com.example.demo.service;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.config.PostProperties;
 import com.example.demo.model.Post;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.id.PostIdGenerator;
+import com.example.demo.service.id.SequentialIdGenerator;
+import com.example.demo.service.query.PostQuery;
+import com.example.demo.service.query.PostSearchIndex;
+import com.example.demo.service.query.QueryParser;
+import com.example.demo.service.query.QueryPlan;
+import com.example.demo.service.query.QueryPlanner;
+import com.example.demo.service.query.QueryResult;
+import com.example.demo.service.ranking.LikeLeaderboard;
+import com.example.demo.service.ranking.TrendingIndex;
+import com.example.demo.service.schedule.DraftReaper;
+import com.example.demo.service.schedule.PublishScheduler;
+import com.example.demo.service.stats.LikeHistograms;
+import com.example.demo.service.stats.PostStatistics;
+import com.example.demo.service.stats.PostStats;
+import com.example.demo.service.stats.PublishRateSeries;
 
 /**
  * 投稿に関するビジネスロジックを提供するサービスクラス。
  * 投稿の作成、公開、削除、取得など、投稿データの操作を担当します。
- * このデモ実装では、インメモリストレージを使用しています。
+ * 投稿の保存先は{@link PostRepository}の実装によって切り替えられます（既定はインメモリ）。
+ *
+ * <p>すべての変更には全体で連続したシーケンス番号が割り当てられ、{@link ChangeLog}へ記録されます。
+ * {@link PostChangeListener}への通知は変更がストアへ反映された後、投稿のロックの外で、
+ * その時点で通知を担当している1つのスレッドがシーケンス順に行います。</p>
+ *
+ * <p>予約公開と下書きの自動削除のタイマーを生成時に開始するため、遅延初期化が有効な場合も起動時に生成します。</p>
  */
 @Service
-public class PostService {
-    // デモ用にシンプルなインメモリストレージを使用しています
-    private final Map<Long, Post> posts = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(1L);
+@Lazy(false)
+public class PostService implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PostService.class);
+
+    private final PostRepository posts;
+    private final PostIdGenerator idGenerator;
+    private final ChangeLog changeLog;
+    private final List<PostChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final LikeLeaderboard likeLeaderboard = new LikeLeaderboard();
+    private final TrendingIndex trendingIndex;
+    private final PostStatistics statistics = new PostStatistics();
+    private final PublishRateSeries publishRate = new PublishRateSeries();
+    private final LikeHistograms likeHistograms;
+    private final PostSearchIndex searchIndex;
+    private final QueryPlanner queryPlanner;
+    private final SingleFlight<Long, Post> postLookups;
+    private final SingleFlight<SearchKey, List<Post>> searches;
+    private final VersionedCache<PageKey, CachedPage> searchResults;
+    private final VersionedCache<PageKey, CachedQuery> queryResults;
+    private final PublishScheduler publishScheduler;
+    /** 下書きの自動削除が無効な場合はnull */
+    private final DraftReaper draftReaper;
+    /** シーケンス番号の採番と変更ログへの追記を直列化するためのモニター */
+    private final Object changeMonitor = new Object();
+    /** シーケンス番号を割り当て済みだが、まだストアへの反映が完了していない変更 */
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    /** リスナーへの通知が済んでいない変更（シーケンス順） */
+    private final ConcurrentLinkedQueue<PostChange> undelivered = new ConcurrentLinkedQueue<>();
+    /** いずれかのスレッドがリスナーへの通知を担当している間はtrue */
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    /** スナップショットの受信中に投稿を蓄える一時的なストア（受信中でない場合はnull） */
+    private InMemoryPostRepository replicaSnapshot;
+    private volatile long sequence;
+    /** ストアへの反映が完了した変更の数（まとめた読み取りに後から合流できるかの判定に使用） */
+    private final AtomicLong appliedChanges = new AtomicLong();
+    /** ストアへの反映が完了した、いいね以外の公開済み投稿に関わりうる変更の数（検索結果のキャッシュの判定に使用） */
+    private final AtomicLong contentChanges = new AtomicLong();
+    private volatile boolean readOnly;
+
+    /**
+     * インメモリストレージと連番のID採番を使用するサービスを生成します。
+     */
+    public PostService() {
+        this(new InMemoryPostRepository());
+    }
+
+    /**
+     * 指定されたリポジトリを保存先とし、連番でIDを採番するサービスを生成します。
+     *
+     * @param posts 投稿の保存先
+     */
+    public PostService(PostRepository posts) {
+        this(posts, new SequentialIdGenerator());
+    }
+
+    /**
+     * 指定されたリポジトリとIDジェネレーターを使用し、その他は既定の設定でサービスを生成します。
+     *
+     * @param posts 投稿の保存先
+     * @param idGenerator 投稿IDの採番方法
+     */
+    public PostService(PostRepository posts, PostIdGenerator idGenerator) {
+        this(posts, idGenerator, new PostProperties());
+    }
+
+    /**
+     * 指定されたリポジトリ、IDジェネレーター、設定を使用するサービスを生成します。
+     *
+     * @param posts 投稿の保存先
+     * @param idGenerator 投稿IDの採番方法
+     * @param properties 投稿機能の設定
+     */
+    @Autowired
+    public PostService(PostRepository posts, PostIdGenerator idGenerator, PostProperties properties) {
+        this.posts = posts;
+        this.idGenerator = idGenerator;
+        this.changeLog = new ChangeLog(properties.getChangeLog().getCapacity());
+        this.trendingIndex = new TrendingIndex(properties.getTrending().getHalfLife());
+        this.likeHistograms = new LikeHistograms(properties.getLikeHistory().getMaxTrackedPosts());
+        var maxWait = properties.getCoalescing().getMaxWait();
+        this.postLookups = new SingleFlight<>(maxWait, appliedChanges::get);
+        this.searches = new SingleFlight<>(maxWait, appliedChanges::get);
+        this.searchIndex = new PostSearchIndex(properties.getQuery().isTextIndex());
+        this.queryPlanner = new QueryPlanner(posts, searchIndex);
+        var resultCache = properties.getResultCache();
+        this.searchResults = new VersionedCache<>(resultCache.getMaxEntries(), resultCache.getMaxMemory().toBytes(),
+                CachedPage::estimatedBytes);
+        this.queryResults = new VersionedCache<>(resultCache.getMaxEntries(), resultCache.getMaxMemory().toBytes(),
+                CachedQuery::estimatedBytes);
+        this.publishScheduler = new PublishScheduler(properties.getSchedule().getTick(), Clock.systemUTC(), this::publishDue);
+        var drafts = properties.getDrafts();
+        this.draftReaper = drafts.getTtl().isZero() ? null
+                : new DraftReaper(drafts.getTtl(), drafts.getReapInterval(), Clock.systemUTC(), this::expireDraft);
+        // 永続化されたストアから起動した場合に備え、同じ走査で保存済みの予約と下書きの期限も登録し直す
+        rebuildDerivedState(post -> {
+            if (post.isDraft() && post.getScheduledPublishAt() != null) {
+                publishScheduler.schedule(post.getId(), post.getScheduledPublishAt());
+            }
+            if (draftReaper != null) {
+                draftReaper.track(post);
+            }
+        });
+        addChangeListener(likeLeaderboard);
+        addChangeListener(trendingIndex);
+        addChangeListener(publishRate);
+        addChangeListener(searchIndex);
+        if (draftReaper != null) {
+            addChangeListener(draftReaper);
+            draftReaper.start();
+        }
+    }
 
     /**
      * 指定された内容で下書き投稿を作成します。
@@ -29,28 +175,135 @@ public class PostService {
      * @return 作成された投稿エンティティ
      */
     public Post createDraft(String content) {
+        return createDraft(content, null);
+    }
+    
+    /**
+     * 指定された内容で下書き投稿を作成し、必要に応じて公開を予約します。
+     * 
+     * @param content 投稿内容
+     * @param publishAt 公開を予約する日時（予約しない場合はnull）
+     * @return 作成された投稿エンティティ
+     */
+    public Post createDraft(String content, Instant publishAt) {
+        checkWritable();
         Post post = new Post(content);
-        post.setId(idGenerator.getAndIncrement());
-        posts.put(post.getId(), post);
-        return post;
+        post.setId(idGenerator.nextId());
+        post.setScheduledPublishAt(publishAt);
+        long emitted = emit(PostChange.Type.CREATED, post);
+        Post saved;
+        try {
+            saved = posts.save(post);
+        } catch (RuntimeException e) {
+            // 作成は変更ログに記録済みのため、ストアに保存されなかった投稿の削除を続けて発行して打ち消す
+            commit(emit(PostChange.Type.DELETED, post), PostChange.Type.DELETED);
+            throw e;
+        } finally {
+            commit(emitted, PostChange.Type.CREATED);
+        }
+        statistics.added(saved);
+        if (publishAt != null) {
+            publishScheduler.schedule(saved.getId(), publishAt);
+        }
+        return saved;
     }
     
     /**
      * 指定されたIDの下書き投稿を公開状態に変更します。
+     * 公開が予約されていた場合、その予約は取り消されます。
      * 
      * @param id 公開する投稿のID
      * @return 公開された投稿、または投稿が見つからない/既に公開済みの場合はnull
      */
     public Post publishPost(Long id) {
-        Post post = posts.get(id);
-        if (post != null && post.isDraft()) {
-            post.setDraft(false);
-            post.setPublishedAt(new Date().toInstant());
-            return post;
+        Post published = mutate(id, PostChange.Type.PUBLISHED, publishing(new Date().toInstant()));
+        if (published != null) {
+            publishScheduler.cancel(id);
         }
-        return null;
+        return published;
+    }
+    
+    /**
+     * 指定されたIDの下書き投稿をまとめて公開します。
+     * すべての投稿に同じ公開日時を設定し、公開予約の取り消しは最後に一度だけ行います。
+     * 
+     * @param ids 公開する投稿のID（重複は無視されます）
+     * @return 投稿IDごとの結果（既に公開済みの投稿は{@link BulkResult.Outcome#SKIPPED}）
+     */
+    public BulkResult publishPosts(Collection<Long> ids) {
+        checkWritable();
+        Instant now = Instant.now();
+        var outcomes = new LinkedHashMap<Long, BulkResult.Outcome>();
+        var published = new ArrayList<Long>();
+        var publishing = publishing(now);
+        for (Long id : ids) {
+            if (outcomes.containsKey(id)) {
+                continue;
+            }
+            boolean[] found = {false};
+            Post post = mutate(id, PostChange.Type.PUBLISHED, candidate -> {
+                found[0] = true;
+                return publishing.test(candidate);
+            });
+            if (post != null) {
+                published.add(id);
+            }
+            outcomes.put(id, outcome(post != null, found[0]));
+        }
+        publishScheduler.cancelAll(published);
+        return new BulkResult(now, published.size(), outcomes);
+    }
+    
+    /**
+     * 作成日時が指定された範囲にある下書き投稿をまとめて公開します。
+     * 
+     * @param from 範囲の開始日時（この日時を含む）
+     * @param to 範囲の終了日時（この日時を含まない）
+     * @return 投稿IDごとの結果（ID順）
+     */
+    public BulkResult publishDraftsCreatedBetween(Instant from, Instant to) {
+        return publishPosts(findIds(post -> post.isDraft() && isWithin(post.getCreatedAt(), from, to)));
     }
     
+    /**
+     * 指定されたIDの下書き投稿の公開を予約します。既に予約がある場合は日時を変更します。
+     * 指定された日時が現在以前の場合は直ちに公開します。
+     * 
+     * @param id 公開する投稿のID
+     * @param publishAt 公開日時
+     * @return 予約された（または公開された）投稿、または投稿が見つからない/既に公開済みの場合はnull
+     */
+    public Post schedulePublish(Long id, Instant publishAt) {
+        if (!publishAt.isAfter(Instant.now())) {
+            return publishPost(id);
+        }
+        Post scheduled = mutate(id, PostChange.Type.UPDATED, post -> {
+            if (!post.isDraft()) {
+                return false;
+            }
+            post.setScheduledPublishAt(publishAt);
+            return true;
+        });
+        if (scheduled != null) {
+            publishScheduler.schedule(id, publishAt);
+        }
+        return scheduled;
+    }
+    
+    /**
+     * 指定されたIDの投稿の内容を更新します。
+     *
+     * @param id 更新する投稿のID
+     * @param content 新しい投稿内容
+     * @return 更新された投稿、または投稿が見つからない場合はnull
+     */
+    public Post updateContent(Long id, String content) {
+        return mutate(id, PostChange.Type.UPDATED, post -> {
+            post.setContent(content);
+            return true;
+        });
+    }
+
     /**
      * 指定されたIDの投稿を削除します。
      * 
@@ -58,17 +311,142 @@ public class PostService {
      * @return 削除が成功した場合はtrue、投稿が見つからない場合はfalse
      */
     public boolean deletePost(Long id) {
-        return posts.remove(id) != null;
+        checkWritable();
+        if (deleteIf(id, post -> true) == null) {
+            return false;
+        }
+        publishScheduler.cancel(id);
+        return true;
+    }
+    
+    /**
+     * 指定されたIDの投稿をまとめて削除します。公開予約の取り消しは最後に一度だけ行います。
+     * 
+     * @param ids 削除する投稿のID（重複は無視されます）
+     * @return 投稿IDごとの結果
+     */
+    public BulkResult deletePosts(Collection<Long> ids) {
+        return deleteAll(ids, post -> true);
+    }
+    
+    /**
+     * 公開日時が指定された範囲にある公開済み投稿をまとめて削除します。
+     * 
+     * @param from 範囲の開始日時（この日時を含む）
+     * @param to 範囲の終了日時（この日時を含まない）
+     * @return 投稿IDごとの結果（ID順）
+     */
+    public BulkResult deletePostsPublishedBetween(Instant from, Instant to) {
+        Predicate<Post> inRange = post -> !post.isDraft() && isWithin(post.getPublishedAt(), from, to);
+        return deleteAll(findIds(inRange), inRange);
     }
     
     /**
      * 指定されたIDの投稿を取得します。
+     * 同じIDの取得が同時に行われた場合は1回の読み取りにまとめ、結果を共有します。
      * 
      * @param id 取得する投稿のID
      * @return 投稿エンティティ、または投稿が見つからない場合はnull
      */
     public Post getPost(Long id) {
-        return posts.get(id);
+        return postLookups.execute(id, () -> posts.findById(id));
+    }
+    
+    /**
+     * 検索条件にマッチする公開済みの投稿を公開日時の新しい順に取得します。
+     * 
+     * @param params 検索条件
+     * @return 検索条件にマッチする公開済み投稿のリスト（変更不可）
+     */
+    public List<Post> searchPosts(Post.SearchParams params) {
+        return searchPosts(params, null, 0).posts();
+    }
+    
+    /**
+     * 検索条件にマッチする公開済みの投稿を公開日時の新しい順に並べ、指定されたページを取得します。
+     * 同じ条件（キーワードの大文字・小文字の違いは区別しない）の検索が同時に行われた場合は1回の走査にまとめ、結果を共有します。
+     *
+     * <p>ページの投稿IDはキャッシュされ、いいね以外の変更がストアへ反映されるまでは走査せずに返します。
+     * 投稿はキャッシュしたIDから取得し直すため、いいね数は常に最新です。</p>
+     * 
+     * @param params 検索条件
+     * @param cursor 前のページの{@code next}を{@link PageCursor#encode()}した文字列（最初のページの場合はnull）
+     * @param limit ページの最大件数（0の場合は残りすべて）
+     * @return 検索条件にマッチする公開済み投稿のページ
+     * @throws InvalidCursorException カーソルが正しくない場合
+     */
+    public PostPage searchPosts(Post.SearchParams params, String cursor, int limit) {
+        var key = SearchKey.of(params);
+        var after = PageCursor.decode(cursor);
+        // 走査より前にバージョンを読むことで、古い結果が新しいバージョンでキャッシュされることはない
+        long version = contentChanges.get();
+        var computed = new AtomicReference<List<Post>>();
+        var lookup = searchResults.get(new PageKey(key, after, limit), version, () -> {
+            var matched = searches.execute(key, () -> {
+                var criteria = key.toParams();
+                var result = new ArrayList<>(posts.findAll(post -> post.matchesSearchCriteria(criteria)));
+                result.sort(PageCursor.NEWEST_FIRST);
+                return List.copyOf(result);
+            });
+            var page = PageCursor.slice(matched, after, limit);
+            computed.set(List.copyOf(page.posts()));
+            return CachedPage.of(page);
+        });
+        var page = lookup.value();
+        return new PostPage(lookup.cached() ? page.resolve(posts) : computed.get(), page.next(), lookup.cached());
+    }
+    
+    /**
+     * 検索クエリに一致する公開済みの投稿を取得します。
+     * キーワード・フレーズの{@code AND}・{@code OR}・{@code NOT}と、いいね数・公開日時の範囲を組み合わせて指定でき、
+     * 索引を使って最も候補の少ない方法で列挙します（構文は{@link QueryParser}を参照）。
+     * 
+     * @param query クエリ文字列
+     * @return 実行計画と、公開日時の新しい順の投稿のリスト
+     * @throws com.example.demo.service.query.QuerySyntaxException クエリの構文が正しくない場合
+     */
+    public QueryResult queryPosts(String query) {
+        return queryPosts(query, null, 0);
+    }
+    
+    /**
+     * 検索クエリに一致する公開済みの投稿を公開日時の新しい順に並べ、指定されたページを取得します。
+     * 結果は{@link #searchPosts(Post.SearchParams, String, int)}と同様にキャッシュします。
+     * いいね数の条件を含むクエリの結果は、いいねを含むすべての変更でキャッシュが使われなくなります。
+     * 
+     * @param query クエリ文字列
+     * @param cursor 前のページの{@code next}を{@link PageCursor#encode()}した文字列（最初のページの場合はnull）
+     * @param limit ページの最大件数（0の場合は残りすべて）
+     * @return 実行計画と、公開日時の新しい順の投稿のページ
+     * @throws com.example.demo.service.query.QuerySyntaxException クエリの構文が正しくない場合
+     * @throws InvalidCursorException カーソルが正しくない場合
+     */
+    public QueryResult queryPosts(String query, String cursor, int limit) {
+        var parsed = QueryParser.parse(query);
+        var after = PageCursor.decode(cursor);
+        long version = referencesLikes(parsed) ? appliedChanges.get() : contentChanges.get();
+        var computed = new AtomicReference<List<Post>>();
+        var lookup = queryResults.get(new PageKey(normalize(parsed), after, limit), version, () -> {
+            var result = queryPlanner.execute(parsed);
+            var page = PageCursor.slice(result.posts(), after, limit);
+            computed.set(List.copyOf(page.posts()));
+            return new CachedQuery(result.plan(), result.examinedRows(), result.elapsedMicros(), CachedPage.of(page));
+        });
+        var cachedQuery = lookup.value();
+        var page = cachedQuery.page();
+        return new QueryResult(cachedQuery.plan(), lookup.cached() ? page.resolve(posts) : computed.get(),
+                cachedQuery.examinedRows(), cachedQuery.elapsedMicros(), page.next(), lookup.cached());
+    }
+    
+    /**
+     * 検索クエリを実行せずに実行計画を取得します。
+     * 
+     * @param query クエリ文字列
+     * @return 実行計画
+     * @throws com.example.demo.service.query.QuerySyntaxException クエリの構文が正しくない場合
+     */
+    public QueryPlan explainQuery(String query) {
+        return queryPlanner.plan(QueryParser.parse(query));
     }
     
     /**
@@ -77,9 +455,7 @@ public class PostService {
      * @return 公開済み投稿のリスト
      */
     public List<Post> getAllPublishedPosts() {
-        return posts.values().stream()
-                .filter(post -> !post.isDraft())
-                .collect(Collectors.toList());
+        return posts.findAll(post -> !post.isDraft());
     }
     
     /**
@@ -88,9 +464,7 @@ public class PostService {
      * @return 下書き投稿のリスト
      */
     public List<Post> getAllDraftPosts() {
-        return posts.values().stream()
-                .filter(Post::isDraft)
-                .collect(Collectors.toList());
+        return posts.findAll(Post::isDraft);
     }
     
     /**
@@ -100,12 +474,14 @@ public class PostService {
      * @return いいねが追加された投稿、または投稿が見つからない場合はnull
      */
     public Post likePost(Long id) {
-        Post post = posts.get(id);
-        if (post != null) {
+        Post liked = mutate(id, PostChange.Type.LIKED, post -> {
             post.incrementLikes();
-            return post;
+            return true;
+        });
+        if (liked != null) {
+            likeHistograms.record(id, System.currentTimeMillis());
         }
-        return null;
+        return liked;
     }
     
     /**
@@ -115,10 +491,736 @@ public class PostService {
      * @return いいね数、または投稿が見つからない場合はnull
      */
     public Integer getPostLikes(Long id) {
-        Post post = posts.get(id);
+        Post post = posts.findById(id);
         if (post != null) {
             return post.getLikes();
         }
         return null;
     }
+
+    /**
+     * いいね数の多い順に公開済み投稿を取得します。
+     * ランキングは変更のたびに増分で更新されているため、全投稿のソートは行いません。
+     * 
+     * @param k 取得する最大件数
+     * @return いいね数の多い順の公開済み投稿のリスト
+     */
+    public List<Post> getTopLikedPosts(int k) {
+        return resolve(likeLeaderboard.topIds(k));
+    }
+
+    /**
+     * 最近いいねが集まっている公開済み投稿をトレンドスコアの高い順に取得します。
+     * 
+     * @param n 取得する最大件数
+     * @return トレンドスコアの高い順の公開済み投稿のリスト
+     */
+    public List<Post> getTrendingPosts(int n) {
+        return resolve(trendingIndex.topIds(n));
+    }
+
+    /**
+     * 投稿の総数、下書き・公開済みの数、いいね数の合計、内容の平均文字数を取得します。
+     * 集計値は変更のたびに差分で更新されているため、投稿数によらず定数時間で取得できます。
+     *
+     * @return 集計値
+     */
+    public PostStats getStats() {
+        return statistics.snapshot();
+    }
+
+    /**
+     * 指定された範囲の公開数を、解像度ごとの区間に分けて取得します。
+     *
+     * @param resolution 区間の解像度
+     * @param from 範囲の開始日時
+     * @param to 範囲の終了日時（この日時を含まない）
+     * @return 開始日時の古い順の区間ごとの公開数
+     */
+    public List<PublishRateSeries.Bucket> getPublishRate(PublishRateSeries.Resolution resolution, Instant from, Instant to) {
+        return publishRate.query(resolution, from, to);
+    }
+
+    /**
+     * 投稿の直近の1分ごとのいいね数を取得します。
+     *
+     * @param id 投稿ID
+     * @param minutes 取得する分の数（1〜1440）
+     * @return 1分ごとのいいね数の推移、または投稿が見つからない場合はnull
+     */
+    public LikeHistory getLikeHistory(Long id, int minutes) {
+        if (posts.findById(id) == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        return new LikeHistory(id, LikeHistograms.startOf(now, minutes), likeHistograms.recent(id, now, minutes));
+    }
+
+    /**
+     * 同時の読み取りをまとめた状況を取得します。
+     *
+     * @return 読み取りの種類（{@code getPost}、{@code search}）ごとの呼び出し数、実行数、まとめられた割合などの統計
+     */
+    public Map<String, Map<String, Object>> getCoalescingStats() {
+        var stats = new LinkedHashMap<String, Map<String, Object>>();
+        stats.put("getPost", postLookups.snapshot());
+        stats.put("search", searches.snapshot());
+        return stats;
+    }
+
+    /**
+     * 検索結果のキャッシュの状況を取得します。
+     *
+     * @return キャッシュの種類（{@code search}、{@code query}）ごとのヒット率、エントリー数、推定メモリ使用量などの統計
+     */
+    public Map<String, Map<String, Object>> getResultCacheStats() {
+        var stats = new LinkedHashMap<String, Map<String, Object>>();
+        stats.put("search", searchResults.snapshot());
+        stats.put("query", queryResults.snapshot());
+        return stats;
+    }
+
+    /**
+     * 検索クエリの実行計画で使う索引の大きさを取得します。
+     *
+     * @return 転置索引の有効・無効、索引に含まれる投稿数、トライグラムの種類数、転置リストの要素数、推定メモリ使用量
+     */
+    public Map<String, Object> getSearchIndexStats() {
+        return searchIndex.snapshot();
+    }
+
+    /**
+     * 放置された下書きの自動削除の状況を取得します。
+     *
+     * @return 削除した下書きの数や推定解放バイト数などの統計、または自動削除が無効な場合はnull
+     */
+    public Map<String, Object> getDraftExpiryStats() {
+        return draftReaper != null ? draftReaper.snapshot() : null;
+    }
+
+    /**
+     * 投稿の変更通知を受け取るリスナーを登録します。
+     *
+     * @param listener 登録するリスナー
+     */
+    public void addChangeListener(PostChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 登録済みのリスナーを解除します。
+     *
+     * @param listener 解除するリスナー
+     */
+    public void removeChangeListener(PostChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 最後に発行された変更のシーケンス番号を取得します。
+     *
+     * @return 現在のシーケンス番号（変更がない場合は0）
+     */
+    public long getCurrentSequence() {
+        return sequence;
+    }
+
+    /**
+     * それ以前のすべての変更がストアへ反映済みであることが保証されたシーケンス番号を取得します。
+     * 一覧やスナップショットを取得する直前にこの値を読めば、取得結果には少なくともこの番号までの変更が含まれるため、
+     * この番号より後の変更を追いかけることで取りこぼしなく同期できます。
+     *
+     * @return 反映済みのシーケンス番号
+     */
+    public long getStableSequence() {
+        synchronized (changeMonitor) {
+            Long oldestInFlight = inFlight.isEmpty() ? null : inFlight.first();
+            return oldestInFlight != null ? oldestInFlight - 1 : sequence;
+        }
+    }
+
+    /**
+     * 直近の変更を保持する変更ログを取得します。
+     *
+     * @return 変更ログ
+     */
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * 指定されたシーケンス番号より後に発生した、公開済み投稿の差分を取得します。
+     * 変更ログを投稿ごとに最新の変更へまとめるため、コストはストア全体ではなく変更の件数に比例します。
+     * 下書きのままの投稿は含まれず、削除された投稿はIDだけが返ります。
+     *
+     * @param since クライアントが同期済みのシーケンス番号
+     * @param limit 一度に走査する変更の最大件数
+     * @return 差分、または変更ログに必要な範囲が残っておらず全件の再取得が必要な場合はnull
+     */
+    public PostDelta getChangesSince(long since, int limit) {
+        // 反映が完了していない変更を返すと、それより前の変更を取りこぼす可能性があるため安定点で打ち切る
+        long stable = getStableSequence();
+        if (since > stable) {
+            return since > sequence ? null : new PostDelta(since, since, List.of(), List.of(), false);
+        }
+        List<PostChange> changes = changeLog.since(since, limit);
+        if (changes == null) {
+            return null;
+        }
+        var latest = new LinkedHashMap<Long, PostChange>();
+        long upTo = since;
+        for (PostChange change : changes) {
+            if (change.sequence() > stable) {
+                break;
+            }
+            latest.remove(change.postId());
+            latest.put(change.postId(), change);
+            upTo = change.sequence();
+        }
+        var updated = new ArrayList<Post>();
+        var deletedIds = new ArrayList<Long>();
+        for (PostChange change : latest.values()) {
+            if (change.type() == PostChange.Type.DELETED) {
+                deletedIds.add(change.postId());
+            } else if (!change.post().isDraft()) {
+                updated.add(change.post());
+            }
+        }
+        return new PostDelta(since, upTo, updated, deletedIds, upTo < stable);
+    }
+
+    /**
+     * 全投稿を取得します（下書き・公開済みを問わない）。
+     *
+     * @return 全投稿のリスト
+     */
+    public List<Post> getAllPosts() {
+        return posts.findAll(post -> true);
+    }
+
+    /**
+     * 全投稿を1件ずつ処理します（下書き・公開済みを問わない）。
+     * 全投稿をリストに集めないため、件数の多いストアを順に送り出す場合に使用します。
+     *
+     * @param action 各投稿に対する処理
+     */
+    public void forEachPost(Consumer<Post> action) {
+        posts.forEach(action);
+    }
+
+    /**
+     * このサービスが読み取り専用（レプリカ）かどうかを判定します。
+     *
+     * @return 読み取り専用の場合はtrue
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * 読み取り専用モードを設定します。読み取り専用の間、更新操作は{@link ReadOnlyReplicaException}をスローします。
+     * 読み取り専用から書き込み可能に切り替えた場合（フォロワーの昇格）は、下書きの期限の管理をストアから作り直します。
+     *
+     * @param readOnly 読み取り専用にする場合はtrue
+     */
+    public synchronized void setReadOnly(boolean readOnly) {
+        boolean promoted = this.readOnly && !readOnly;
+        this.readOnly = readOnly;
+        if (promoted && draftReaper != null) {
+            // 読み取り専用の間は期限切れの下書きの削除を見送り、管理対象から外しているため
+            draftReaper.clear();
+            posts.forEach(draftReaper::track);
+        }
+    }
+
+    /**
+     * プライマリから受信した変更をローカルのストアへ適用します（レプリカ用）。
+     * シーケンス番号はプライマリのものを引き継ぎ、ローカルのリスナーにも同じ変更を通知します。
+     *
+     * @param change 適用する変更（直前に適用した変更の次のシーケンス番号であること）
+     */
+    public void applyReplicatedChange(PostChange change) {
+        applyReplicated(change);
+        dispatch();
+    }
+
+    private void applyReplicated(PostChange change) {
+        synchronized (changeMonitor) {
+            if (change.type() == PostChange.Type.DELETED) {
+                Post removed = posts.deleteById(change.postId());
+                if (removed != null) {
+                    statistics.removed(removed);
+                }
+                likeHistograms.remove(change.postId());
+            } else {
+                Post previous = posts.findById(change.postId());
+                Post post = new Post(change.post());
+                posts.save(post);
+                if (previous == null) {
+                    statistics.added(post);
+                } else {
+                    statistics.changed(PostStatistics.Shape.of(previous), post);
+                }
+                if (change.type() == PostChange.Type.LIKED) {
+                    likeHistograms.record(change.postId(), change.timestamp().toEpochMilli());
+                }
+            }
+            appliedChanges.incrementAndGet();
+            if (affectsContent(change.type())) {
+                contentChanges.incrementAndGet();
+            }
+            record(change);
+        }
+    }
+
+    /**
+     * プライマリからの全件スナップショットの受信を開始します（レプリカ用）。
+     * 受信した投稿は完了までローカルのストアとは別の一時的なストアに蓄えるため、
+     * 受信中もローカルのストアは直前の状態のまま読み取りに応答します。
+     */
+    public void beginReplicaSnapshot() {
+        synchronized (changeMonitor) {
+            replicaSnapshot = new InMemoryPostRepository();
+        }
+    }
+
+    /**
+     * スナップショットに含まれる投稿を一時的なストアへ保存します（レプリカ用）。
+     *
+     * @param post 保存する投稿
+     */
+    public void applySnapshotPost(Post post) {
+        synchronized (changeMonitor) {
+            if (replicaSnapshot == null) {
+                throw new IllegalStateException("No replica snapshot in progress");
+            }
+            replicaSnapshot.save(post);
+        }
+    }
+
+    /**
+     * スナップショットの受信を完了し、受信した投稿でローカルのストアを置き換えて、シーケンス番号をプライマリに合わせます（レプリカ用）。
+     * スナップショットにない投稿は削除され、それ以外の投稿は上書きされます。ローカルの変更ログは破棄されます。
+     *
+     * @param snapshotSequence スナップショット取得時点のプライマリのシーケンス番号
+     */
+    public void completeReplicaSnapshot(long snapshotSequence) {
+        synchronized (changeMonitor) {
+            if (replicaSnapshot == null) {
+                throw new IllegalStateException("No replica snapshot in progress");
+            }
+            var snapshot = replicaSnapshot;
+            replicaSnapshot = null;
+            // 先に上書きしてから不要な投稿を削除するため、置き換えの途中でもストアが空になることはない
+            snapshot.forEach(posts::save);
+            var stale = new ArrayList<Long>();
+            posts.forEach(post -> {
+                if (snapshot.findById(post.getId()) == null) {
+                    stale.add(post.getId());
+                }
+            });
+            stale.forEach(posts::deleteById);
+            appliedChanges.incrementAndGet();
+            contentChanges.incrementAndGet();
+            sequence = snapshotSequence;
+            changeLog.reset(snapshotSequence);
+            undelivered.clear();
+            rebuildDerivedState(post -> { });
+            // スナップショットにはいいねの履歴が含まれないため、トレンドといいね数の推移は以降のいいねから集計し直す
+            trendingIndex.clear();
+            likeHistograms.clear();
+        }
+    }
+
+    /**
+     * 予約公開のスケジューラーを停止します。
+     */
+    @Override
+    public void close() {
+        publishScheduler.close();
+        if (draftReaper != null) {
+            draftReaper.close();
+        }
+    }
+
+    /**
+     * ランキングから得た投稿IDを投稿に変換します。取得までの間に削除された投稿は除外します。
+     */
+    private List<Post> resolve(List<Long> ids) {
+        var result = new ArrayList<Post>(ids.size());
+        for (Long id : ids) {
+            Post post = posts.findById(id);
+            if (post != null) {
+                result.add(post);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 条件を満たす投稿のIDをID順に取得します。
+     */
+    private List<Long> findIds(Predicate<Post> filter) {
+        var ids = new ArrayList<Long>();
+        posts.forEach(post -> {
+            if (filter.test(post)) {
+                ids.add(post.getId());
+            }
+        });
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * ストアを1回走査して、ランキング・集計・公開数の推移・検索用の索引を作り直します。
+     * 全投稿をリストに集めないため、ヒープに収まらない件数を扱うストアでも使用できます。
+     *
+     * @param alsoVisit 同じ走査で各投稿に行う追加の処理
+     */
+    private void rebuildDerivedState(Consumer<Post> alsoVisit) {
+        likeLeaderboard.clear();
+        statistics.clear();
+        publishRate.clear();
+        searchIndex.clear();
+        posts.forEach(post -> {
+            likeLeaderboard.add(post);
+            statistics.added(post);
+            publishRate.add(post);
+            searchIndex.add(post);
+            alsoVisit.accept(post);
+        });
+    }
+
+    private static boolean isWithin(Instant instant, Instant from, Instant to) {
+        return instant != null && !instant.isBefore(from) && instant.isBefore(to);
+    }
+
+    private static BulkResult.Outcome outcome(boolean applied, boolean found) {
+        if (applied) {
+            return BulkResult.Outcome.APPLIED;
+        }
+        return found ? BulkResult.Outcome.SKIPPED : BulkResult.Outcome.NOT_FOUND;
+    }
+
+    /**
+     * 下書きを指定された日時で公開状態にする変更処理を返します。公開済みの投稿は変更しません。
+     */
+    private static Predicate<Post> publishing(Instant publishedAt) {
+        return post -> {
+            if (!post.isDraft()) {
+                return false;
+            }
+            post.setDraft(false);
+            post.setPublishedAt(publishedAt);
+            post.setScheduledPublishAt(null);
+            return true;
+        };
+    }
+
+    private BulkResult deleteAll(Collection<Long> ids, Predicate<Post> condition) {
+        checkWritable();
+        Instant now = Instant.now();
+        var outcomes = new LinkedHashMap<Long, BulkResult.Outcome>();
+        var deleted = new ArrayList<Long>();
+        for (Long id : ids) {
+            if (outcomes.containsKey(id)) {
+                continue;
+            }
+            boolean[] found = {false};
+            Post post = deleteIf(id, candidate -> {
+                found[0] = true;
+                return condition.test(candidate);
+            });
+            if (post != null) {
+                deleted.add(id);
+            }
+            outcomes.put(id, outcome(post != null, found[0]));
+        }
+        publishScheduler.cancelAll(deleted);
+        return new BulkResult(now, deleted.size(), outcomes);
+    }
+
+    /**
+     * 条件を満たす場合に限り投稿を削除し、削除した場合は変更を発行します。
+     *
+     * @return 削除した投稿、または投稿が存在しない・条件を満たさない場合はnull
+     */
+    private Post deleteIf(Long id, Predicate<Post> condition) {
+        long[] emitted = {0};
+        Post removed;
+        try {
+            removed = posts.deleteById(id, post -> {
+                if (!condition.test(post)) {
+                    return false;
+                }
+                emitted[0] = emit(PostChange.Type.DELETED, post);
+                statistics.removed(post);
+                return true;
+            });
+        } finally {
+            commit(emitted[0], PostChange.Type.DELETED);
+        }
+        if (removed != null) {
+            likeHistograms.remove(id);
+        }
+        return removed;
+    }
+
+    /**
+     * 予約公開の期限を迎えた投稿をまとめて公開します。
+     * 予約の取り消し・変更と競合した場合に備え、投稿の予約日時を改めて確認してから公開します。
+     */
+    private void publishDue(List<Long> ids) {
+        if (readOnly) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (Long id : ids) {
+            try {
+                mutate(id, PostChange.Type.PUBLISHED, post -> {
+                    Instant scheduledAt = post.getScheduledPublishAt();
+                    if (!post.isDraft() || scheduledAt == null || scheduledAt.isAfter(now)) {
+                        return false;
+                    }
+                    post.setDraft(false);
+                    post.setPublishedAt(now);
+                    post.setScheduledPublishAt(null);
+                    return true;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Scheduled publish of post {} failed", id, e);
+            }
+        }
+    }
+
+    /**
+     * 期限切れの下書きを削除します。削除の直前に、下書きのままで期限を過ぎていることを確認します。
+     *
+     * @return 削除した投稿、または削除しなかった場合はnull
+     */
+    private Post expireDraft(Long id) {
+        if (readOnly) {
+            return null;
+        }
+        Instant cutoff = draftReaper.getExpiryCutoff();
+        return deleteIf(id, post -> {
+            Instant lastModified = post.getUpdatedAt() != null ? post.getUpdatedAt() : post.getCreatedAt();
+            return post.isDraft() && post.getScheduledPublishAt() == null && !lastModified.isAfter(cutoff);
+        });
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new ReadOnlyReplicaException();
+        }
+    }
+
+    /**
+     * 投稿を原子的に変更し、変更が行われた場合は指定された種類の変更を発行します。
+     *
+     * @param action 投稿を変更してtrueを返すか、変更せずにfalseを返す処理
+     * @return 変更後の投稿、または投稿が存在しない・変更されなかった場合はnull
+     */
+    private Post mutate(Long id, PostChange.Type type, Predicate<Post> action) {
+        checkWritable();
+        long[] emitted = {0};
+        try {
+            return posts.update(id, post -> {
+                var before = PostStatistics.Shape.of(post);
+                if (!action.test(post)) {
+                    return null;
+                }
+                emitted[0] = emit(type, post);
+                statistics.changed(before, post);
+                return post;
+            });
+        } finally {
+            commit(emitted[0], type);
+        }
+    }
+
+    /**
+     * 変更にシーケンス番号を割り当てて変更ログへ記録します。
+     * 呼び出し元は対象の投稿を排他的に変更している最中（リポジトリの更新処理内）であり、
+     * ストアへの反映後に{@link #commit(long, PostChange.Type)}を呼び出す必要があります。
+     * リスナーへの通知はその後に行われます。
+     *
+     * @return 割り当てたシーケンス番号
+     */
+    private long emit(PostChange.Type type, Post post) {
+        var snapshot = type == PostChange.Type.DELETED ? null : new Post(post);
+        synchronized (changeMonitor) {
+            var change = new PostChange(sequence + 1, type, post.getId(), snapshot, Instant.now());
+            inFlight.add(change.sequence());
+            record(change);
+            return change.sequence();
+        }
+    }
+
+    /**
+     * 発行済みの変更がストアへ反映されたことを記録し、通知できるようになった変更をリスナーへ通知します。
+     */
+    private void commit(long emittedSequence, PostChange.Type type) {
+        if (emittedSequence != 0) {
+            inFlight.remove(emittedSequence);
+            appliedChanges.incrementAndGet();
+            if (affectsContent(type)) {
+                contentChanges.incrementAndGet();
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * 変更がいいね数以外の点で検索結果を変えうるかどうかを判定します。
+     * 作成直後の投稿は下書きのため、検索結果には含まれません。
+     */
+    private static boolean affectsContent(PostChange.Type type) {
+        return type != PostChange.Type.LIKED && type != PostChange.Type.CREATED;
+    }
+
+    /**
+     * クエリがいいね数の条件を含むかどうかを判定します。
+     */
+    private static boolean referencesLikes(PostQuery query) {
+        return switch (query) {
+            case PostQuery.LikesRange range -> true;
+            case PostQuery.And and -> and.operands().stream().anyMatch(PostService::referencesLikes);
+            case PostQuery.Or or -> or.operands().stream().anyMatch(PostService::referencesLikes);
+            case PostQuery.Not not -> referencesLikes(not.operand());
+            default -> false;
+        };
+    }
+
+    /**
+     * キャッシュのキーにするため、大文字・小文字を区別しないキーワードを小文字に揃えます。
+     */
+    private static PostQuery normalize(PostQuery query) {
+        return switch (query) {
+            case PostQuery.Contains contains -> new PostQuery.Contains(contains.text().toLowerCase(), contains.phrase());
+            case PostQuery.And and -> new PostQuery.And(and.operands().stream().map(PostService::normalize).toList());
+            case PostQuery.Or or -> new PostQuery.Or(or.operands().stream().map(PostService::normalize).toList());
+            case PostQuery.Not not -> new PostQuery.Not(normalize(not.operand()));
+            default -> query;
+        };
+    }
+
+    /**
+     * 変更ログへ追記し、通知待ちの変更に加えます。{@code changeMonitor}を保持して呼び出す必要があります。
+     */
+    private void record(PostChange change) {
+        sequence = change.sequence();
+        changeLog.append(change);
+        undelivered.add(change);
+    }
+
+    /**
+     * それ以前の変更がすべてストアへ反映済みとなった変更を、シーケンス順にリスナーへ通知します。
+     * 通知を担当するスレッドは常に1つで、他のスレッドが担当している場合は任せてすぐに戻ります。
+     * 担当を終える直前に追加された変更を取りこぼさないよう、終えた後にもう一度確認します。
+     */
+    private void dispatch() {
+        while (dispatching.compareAndSet(false, true)) {
+            try {
+                PostChange change;
+                while ((change = undelivered.peek()) != null && isStable(change.sequence())) {
+                    undelivered.poll();
+                    changeLog.markStable(change.sequence());
+                    for (PostChangeListener listener : listeners) {
+                        try {
+                            listener.onChange(change);
+                        } catch (RuntimeException e) {
+                            log.warn("Post change listener failed for change {}", change.sequence(), e);
+                        }
+                    }
+                }
+            } finally {
+                dispatching.set(false);
+            }
+            var next = undelivered.peek();
+            if (next == null || !isStable(next.sequence())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 指定された変更とそれ以前のすべての変更がストアへ反映済みかどうかを判定します。
+     */
+    private boolean isStable(long changeSequence) {
+        Long oldestInFlight = inFlight.ceiling(Long.MIN_VALUE);
+        return oldestInFlight == null || oldestInFlight > changeSequence;
+    }
+
+    /**
+     * 検索結果のキャッシュのキー。
+     *
+     * @param criteria 正規化した検索条件（{@link SearchKey}または{@link PostQuery}）
+     * @param after 前のページのカーソル（最初のページの場合はnull）
+     * @param limit ページの最大件数
+     */
+    private record PageKey(Object criteria, PageCursor after, int limit) {
+    }
+
+    /**
+     * キャッシュしたページ。投稿ではなくIDだけを保持し、返すときにストアから取得し直します。
+     */
+    private record CachedPage(long[] ids, PageCursor next) {
+
+        static CachedPage of(PageCursor.Page page) {
+            return new CachedPage(page.posts().stream().mapToLong(Post::getId).toArray(), page.next());
+        }
+
+        List<Post> resolve(PostRepository posts) {
+            var resolved = new ArrayList<Post>(ids.length);
+            for (long id : ids) {
+                // バージョンの確認後に削除された投稿は返さない
+                Post post = posts.findById(id);
+                if (post != null) {
+                    resolved.add(post);
+                }
+            }
+            return List.copyOf(resolved);
+        }
+
+        long estimatedBytes() {
+            return 64 + (long) ids.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * キャッシュした検索クエリの結果。
+     */
+    private record CachedQuery(QueryPlan plan, long examinedRows, double elapsedMicros, CachedPage page) {
+
+        /** 実行計画の文字列とドライバーの候補が占めるおおよそのバイト数 */
+        private static final long PLAN_BYTES = 512;
+
+        long estimatedBytes() {
+            return PLAN_BYTES + page.estimatedBytes();
+        }
+    }
+
+    /**
+     * まとめて実行する検索のキー。キーワードは小文字に揃え、空文字は指定なしとして扱います。
+     */
+    private record SearchKey(String keyword, Instant publishedAfter, Instant publishedBefore) {
+
+        static SearchKey of(Post.SearchParams params) {
+            if (params == null) {
+                return new SearchKey(null, null, null);
+            }
+            var keyword = params.getContentKeyword();
+            return new SearchKey(keyword == null || keyword.isEmpty() ? null : keyword.toLowerCase(),
+                    params.getPublishedAfter(), params.getPublishedBefore());
+        }
+
+        Post.SearchParams toParams() {
+            var params = new Post.SearchParams();
+            params.setContentKeyword(keyword);
+            params.setPublishedAfter(publishedAfter);
+            params.setPublishedBefore(publishedBefore);
+            return params;
+        }
+    }
 }
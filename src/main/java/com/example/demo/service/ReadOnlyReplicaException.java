@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+/**
+ * 読み取り専用のレプリカに対して更新操作が行われた場合にスローされる例外。
+ */
+public class ReadOnlyReplicaException extends RuntimeException {
+
+    /**
+     * 例外を生成します。
+     */
+    public ReadOnlyReplicaException() {
+        super("This node is a read-only replica; send writes to the primary");
+    }
+}
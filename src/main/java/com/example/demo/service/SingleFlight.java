@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 同じキーに対する同時の読み取りを1回の実行にまとめ、結果を待っていたすべての呼び出し元で共有する仕組み。
+ *
+ * <p>最初の呼び出し元（リーダー）だけが読み取りを実行し、実行中に届いた同じキーの呼び出しはその完了を待ちます。
+ * 待ち時間が上限を超えた呼び出し元は待つのをやめて自分で読み取りを実行するため、遅い読み取りに巻き込まれ続けることはありません。</p>
+ *
+ * <p>リーダーが読み取りを始めた後に書き込みがあった場合、その実行には合流せずに新しい実行を始めます。
+ * これにより、書き込みを終えた呼び出し元が書き込み前の結果を受け取ることはありません。
+ * 共有された結果は同じインスタンスが複数の呼び出し元に返されるため、呼び出し元で変更しないでください。</p>
+ *
+ * @param <K> 読み取りのキー（等価性で同一の読み取りを判定する）
+ * @param <V> 読み取りの結果
+ */
+public class SingleFlight<K, V> {
+
+    private final long maxWaitNanos;
+    private final LongSupplier version;
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * 仕組みを生成します。
+     *
+     * @param maxWait 実行中の読み取りの完了を待つ最大時間（0の場合はまとめずに毎回実行する）
+     * @param version 書き込みのたびに増える値（変更のシーケンス番号など）
+     */
+    public SingleFlight(Duration maxWait, LongSupplier version) {
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait must not be negative: " + maxWait);
+        }
+        this.maxWaitNanos = maxWait.toNanos();
+        this.version = version;
+    }
+
+    /**
+     * 読み取りを実行します。同じキーの読み取りが実行中であれば、その結果を待って共有します。
+     *
+     * @param key 読み取りのキー
+     * @param loader 読み取り処理
+     * @return 読み取りの結果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        requests.increment();
+        if (maxWaitNanos == 0) {
+            executions.increment();
+            return loader.get();
+        }
+        long current = version.getAsLong();
+        var flight = new Flight<V>(current);
+        while (true) {
+            var existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, loader);
+            }
+            if (existing.version == current) {
+                return await(existing, loader);
+            }
+            // 書き込み前に始まった実行には合流せず、自分の実行に置き換える
+            if (flights.replace(key, existing, flight)) {
+                return lead(key, flight, loader);
+            }
+        }
+    }
+
+    /**
+     * 読み取りのまとめ状況を取得します。
+     *
+     * @return 呼び出し数、実際の実行数、結果を共有した数、待ちきれずに自分で実行した数、まとめられた割合
+     */
+    public Map<String, Object> snapshot() {
+        long total = requests.sum();
+        long joined = shared.sum();
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("requests", total);
+        stats.put("executions", executions.sum());
+        stats.put("shared", joined);
+        stats.put("timeouts", timeouts.sum());
+        stats.put("collapseRatio", total == 0 ? 0.0 : (double) joined / total);
+        stats.put("inFlight", flights.size());
+        return stats;
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(Flight<V> flight, Supplier<V> loader) {
+        try {
+            V value = flight.result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            shared.increment();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            shared.increment();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw (Error) e.getCause();
+        }
+        executions.increment();
+        return loader.get();
+    }
+
+    /**
+     * 実行中の読み取り。
+     */
+    private static final class Flight<V> {
+        private final long version;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        Flight(long version) {
+            this.version = version;
+        }
+    }
+}
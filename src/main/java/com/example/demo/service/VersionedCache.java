@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 読み取りの結果を、計算を始めた時点のバージョン（書き込みのたびに増える値）とともに保持する、件数とメモリ量に上限のあるキャッシュ。
+ *
+ * <p>キャッシュした結果は、取得時のバージョンが保持しているバージョンと一致する場合にだけ返します。
+ * 書き込みのたびに個別のエントリーを探して無効化する必要はなく、バージョンが進めば古いエントリーは使われずに置き換えられるか、
+ * 最近使われていない順に追い出されます。</p>
+ *
+ * <p>ヒットはロックを取らずに{@link ConcurrentHashMap}から読み、エントリーに最後に使われた時刻を記録するだけです。
+ * 保存と追い出しはミスした呼び出しだけが行い、上限を超えた場合は記録された時刻の最も古いエントリーから追い出します。
+ * 時刻の記録は読み取りと競合しうるため、追い出す順序は厳密なLRUではなく近似です。</p>
+ *
+ * <p>呼び出し元は、結果の計算に使うデータを読む前にバージョンを読み、バージョンは書き込みがストアへ反映された後に増やす必要があります。
+ * これにより、結果はそのバージョンの時点以降の状態を反映したものになり、古い結果が新しいバージョンで保存されることはありません。</p>
+ *
+ * @param <K> キャッシュのキー（正規化した検索条件など）
+ * @param <V> キャッシュする結果（不変であること）
+ */
+public class VersionedCache<K, V> {
+
+    /** キーとマップのエントリーが占めるおおよそのバイト数 */
+    static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ToLongFunction<V> weigher;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    /** 保存と追い出しを直列化するロック（ヒットでは取得しない） */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * キャッシュを生成します。
+     *
+     * @param maxEntries 保持するエントリーの最大数（0の場合はキャッシュしない）
+     * @param maxBytes 保持する結果のおおよその最大バイト数
+     * @param weigher 結果のおおよそのバイト数を見積もる関数
+     */
+    public VersionedCache(int maxEntries, long maxBytes, ToLongFunction<V> weigher) {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("limits must not be negative: " + maxEntries + ", " + maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * キャッシュした結果を取得します。キャッシュにない場合や古いバージョンの結果しかない場合は計算して保存します。
+     *
+     * @param key キー
+     * @param version 呼び出し元が計算の前に読んだバージョン
+     * @param loader 結果を計算する処理（ロックの外で実行される）
+     * @return 結果と、キャッシュから返したかどうか
+     */
+    public Lookup<V> get(K key, long version, Supplier<V> loader) {
+        if (maxEntries == 0) {
+            misses.increment();
+            return new Lookup<>(loader.get(), false);
+        }
+        var entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            entry.touch();
+            hits.increment();
+            return new Lookup<>(entry.value, true);
+        }
+        if (entry != null) {
+            stale.increment();
+        }
+        misses.increment();
+        V value = loader.get();
+        put(key, version, value);
+        return new Lookup<>(value, false);
+    }
+
+    /**
+     * キャッシュの状況を取得します。
+     *
+     * @return 呼び出し数、ヒット数、ヒット率、古いバージョンのため使われなかった数、追い出した数、エントリー数、推定バイト数と上限
+     */
+    public Map<String, Object> snapshot() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("requests", total);
+        stats.put("hits", hitCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("staleMisses", stale.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("estimatedBytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private void put(K key, long version, V value) {
+        long size = ENTRY_OVERHEAD_BYTES + weigher.applyAsLong(value);
+        writeLock.lock();
+        try {
+            var existing = entries.get(key);
+            // 並行して計算された、より新しいバージョンの結果は上書きしない
+            if (existing != null && existing.version > version) {
+                return;
+            }
+            if (existing != null) {
+                entries.remove(key);
+                bytes -= existing.bytes;
+            }
+            if (size > maxBytes) {
+                return;
+            }
+            entries.put(key, new Entry<>(version, value, size));
+            bytes += size;
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                var victim = leastRecentlyUsed();
+                entries.remove(victim.getKey());
+                bytes -= victim.getValue().bytes;
+                evictions.increment();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 最後に使われた時刻の最も古いエントリーを探します。保存したばかりのエントリーは最も新しいため、選ばれることはありません。
+     */
+    private Map.Entry<K, Entry<V>> leastRecentlyUsed() {
+        Map.Entry<K, Entry<V>> eldest = null;
+        for (var candidate : entries.entrySet()) {
+            if (eldest == null || candidate.getValue().lastAccess - eldest.getValue().lastAccess < 0) {
+                eldest = candidate;
+            }
+        }
+        return eldest;
+    }
+
+    /**
+     * 取得の結果。
+     *
+     * @param value 結果
+     * @param cached キャッシュから返した場合はtrue
+     * @param <V> 結果の型
+     */
+    public record Lookup<V>(V value, boolean cached) {
+    }
+
+    private static final class Entry<V> {
+        private final long version;
+        private final V value;
+        private final long bytes;
+        /** 最後に使われた時刻（{@link System#nanoTime()}） */
+        private volatile long lastAccess = System.nanoTime();
+
+        Entry(long version, V value, long bytes) {
+            this.version = version;
+            this.value = value;
+            this.bytes = bytes;
+        }
+
+        void touch() {
+            lastAccess = System.nanoTime();
+        }
+    }
+}
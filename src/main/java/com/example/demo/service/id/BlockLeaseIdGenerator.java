@@ -0,0 +1,77 @@
+package com.example.demo.service.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * スレッドごとにIDのブロックを借り受けて採番するジェネレーター。
+ * 共有カウンターへのアクセスはブロックを使い切ったときの1回だけで、
+ * それ以外の採番はスレッドローカルな加算のみで完了します。
+ *
+ * <p>IDの上位10ビットにノードIDを埋め込むため、ノードIDが異なれば複数ノードで重複しません。
+ * IDは採番したスレッド内では単調増加しますが、スレッドをまたいだ順序はブロック単位でしか保証されません。
+ * ノード全体での単調増加が必要な場合は{@link SnowflakeIdGenerator}を使用してください。</p>
+ */
+public class BlockLeaseIdGenerator implements PostIdGenerator {
+
+    /** ノードIDを格納するビット位置 */
+    public static final int NODE_SHIFT = 53;
+    /** 指定可能なノードIDの最大値 */
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+    /** IDからノードIDを除いた連番部分を取り出すマスク */
+    public static final long SEQUENCE_MASK = (1L << NODE_SHIFT) - 1;
+
+    private final long nodePrefix;
+    private final int blockSize;
+    private final AtomicLong nextBlockStart;
+    private final ThreadLocal<Lease> lease = ThreadLocal.withInitial(Lease::new);
+
+    /**
+     * 連番部分を1から採番するジェネレーターを生成します。
+     *
+     * @param nodeId ノードID（0〜{@value #MAX_NODE_ID}）
+     * @param blockSize 1回に借り受けるIDの個数（1以上）
+     */
+    public BlockLeaseIdGenerator(int nodeId, int blockSize) {
+        this(nodeId, blockSize, 1L);
+    }
+
+    /**
+     * 連番部分を指定された値から採番するジェネレーターを生成します。永続化されたストアから起動する場合に、保存済みのIDとの重複を避けるために使用します。
+     *
+     * @param nodeId ノードID（0〜{@value #MAX_NODE_ID}）
+     * @param blockSize 1回に借り受けるIDの個数（1以上）
+     * @param firstSequence 最初に貸し出すブロックの先頭の連番（ノードIDを含まない値、1〜{@link #SEQUENCE_MASK}）
+     */
+    public BlockLeaseIdGenerator(int nodeId, int blockSize, long firstSequence) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        if (firstSequence < 1 || firstSequence > SEQUENCE_MASK) {
+            throw new IllegalArgumentException("firstSequence must be between 1 and " + SEQUENCE_MASK + ": " + firstSequence);
+        }
+        this.nodePrefix = (long) nodeId << NODE_SHIFT;
+        this.blockSize = blockSize;
+        this.nextBlockStart = new AtomicLong(firstSequence);
+    }
+
+    @Override
+    public long nextId() {
+        var current = lease.get();
+        if (current.next == current.limit) {
+            current.next = nextBlockStart.getAndAdd(blockSize);
+            current.limit = current.next + blockSize;
+        }
+        return nodePrefix | current.next++;
+    }
+
+    /**
+     * スレッドが借り受けているIDの範囲 [next, limit)。
+     */
+    private static final class Lease {
+        long next;
+        long limit;
+    }
+}
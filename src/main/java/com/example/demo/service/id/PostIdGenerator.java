@@ -0,0 +1,15 @@
+package com.example.demo.service.id;
+
+/**
+ * 投稿IDを採番するジェネレーターのインターフェース。
+ * 実装はスレッドセーフであり、同一ノード内で重複しないIDを返す必要があります。
+ */
+public interface PostIdGenerator {
+
+    /**
+     * 新しい投稿IDを採番します。
+     *
+     * @return 正の投稿ID
+     */
+    long nextId();
+}
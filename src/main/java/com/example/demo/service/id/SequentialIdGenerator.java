@@ -0,0 +1,36 @@
+package com.example.demo.service.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1から始まる連番を採番するジェネレーター（既定）。
+ * 単一の{@link AtomicLong}を使用するため、単一ノードでの運用を前提とします。
+ */
+public class SequentialIdGenerator implements PostIdGenerator {
+
+    private final AtomicLong sequence;
+
+    /**
+     * 1から採番するジェネレーターを生成します。
+     */
+    public SequentialIdGenerator() {
+        this(1L);
+    }
+
+    /**
+     * 指定された値から採番するジェネレーターを生成します。永続化されたストアから起動する場合に、保存済みのIDとの重複を避けるために使用します。
+     *
+     * @param firstId 最初に採番するID（1以上）
+     */
+    public SequentialIdGenerator(long firstId) {
+        if (firstId < 1) {
+            throw new IllegalArgumentException("firstId must be positive: " + firstId);
+        }
+        this.sequence = new AtomicLong(firstId);
+    }
+
+    @Override
+    public long nextId() {
+        return sequence.getAndIncrement();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service.id;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 時刻順に並ぶSnowflake形式のIDを採番するジェネレーター。
+ * IDは上位から「エポックからの経過ミリ秒（41ビット）」「ノードID（10ビット）」「シーケンス（12ビット）」で構成され、
+ * ノードIDが異なれば複数ノードで採番しても重複しません。
+ *
+ * <p>同一ミリ秒内でシーケンスを使い切った場合や時計が巻き戻った場合は、
+ * 待機せずに直前のIDの続きから採番するため、ノード内でIDは常に単調増加します。</p>
+ */
+public class SnowflakeIdGenerator implements PostIdGenerator {
+
+    /** ノードIDのビット数 */
+    public static final int NODE_BITS = 10;
+    /** シーケンスのビット数 */
+    public static final int SEQUENCE_BITS = 12;
+    /** 指定可能なノードIDの最大値 */
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    /** タイムスタンプの基準時刻（2025-01-01T00:00:00Z） */
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final Clock clock;
+    private final long epochMillis = EPOCH.toEpochMilli();
+    /** 直前に採番した「タイムスタンプ（上位）＋シーケンス（下位12ビット）」 */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * システム時計を使用するジェネレーターを生成します。
+     *
+     * @param nodeId ノードID（0〜{@value #MAX_NODE_ID}）
+     */
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    /**
+     * 指定された時計を使用するジェネレーターを生成します。
+     *
+     * @param nodeId ノードID（0〜{@value #MAX_NODE_ID}）
+     * @param clock 時刻の取得元
+     */
+    public SnowflakeIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long next;
+        for (;;) {
+            long previous = state.get();
+            long now = clock.millis() - epochMillis;
+            // 時刻が進んでいればシーケンスを0から、そうでなければ直前の値に1を加える（桁あふれは次のミリ秒へ繰り上がる）
+            next = now > (previous >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : previous + 1;
+            if (state.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * IDから採番時刻を取り出します。
+     *
+     * @param id このジェネレーターで採番したID
+     * @return 採番時刻（シーケンスの繰り上がりにより実際より最大数ミリ秒進むことがあります）
+     */
+    public static Instant timestampOf(long id) {
+        return EPOCH.plusMillis(id >>> (NODE_BITS + SEQUENCE_BITS));
+    }
+
+    /**
+     * IDからノードIDを取り出します。
+     *
+     * @param id このジェネレーターで採番したID
+     * @return ノードID
+     */
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
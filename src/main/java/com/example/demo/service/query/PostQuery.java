@@ -0,0 +1,112 @@
+package com.example.demo.service.query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 投稿の検索クエリの構文木。{@link QueryParser}がクエリ文字列から生成し、{@link QueryPlanner}が実行します。
+ *
+ * <p>文字列表現（{@link #toString()}）は演算子の優先順位を括弧で明示した正規形で、実行計画の表示に使われます。</p>
+ */
+public sealed interface PostQuery {
+
+    /**
+     * 投稿内容に文字列が含まれるという条件（大文字・小文字を区別しない）。
+     *
+     * @param text 含まれるべき文字列
+     * @param phrase 引用符で囲まれたフレーズとして指定された場合はtrue
+     */
+    record Contains(String text, boolean phrase) implements PostQuery {
+
+        @Override
+        public String toString() {
+            return phrase ? '"' + text + '"' : text;
+        }
+    }
+
+    /**
+     * すべての条件を満たすという条件。
+     *
+     * @param operands 条件（2つ以上）
+     */
+    record And(List<PostQuery> operands) implements PostQuery {
+
+        public And {
+            operands = List.copyOf(operands);
+        }
+
+        @Override
+        public String toString() {
+            return operands.stream().map(PostQuery::group).collect(Collectors.joining(" AND "));
+        }
+    }
+
+    /**
+     * いずれかの条件を満たすという条件。
+     *
+     * @param operands 条件（2つ以上）
+     */
+    record Or(List<PostQuery> operands) implements PostQuery {
+
+        public Or {
+            operands = List.copyOf(operands);
+        }
+
+        @Override
+        public String toString() {
+            return operands.stream().map(PostQuery::group).collect(Collectors.joining(" OR "));
+        }
+    }
+
+    /**
+     * 条件を満たさないという条件。
+     *
+     * @param operand 否定する条件
+     */
+    record Not(PostQuery operand) implements PostQuery {
+
+        @Override
+        public String toString() {
+            return "NOT " + PostQuery.group(operand);
+        }
+    }
+
+    /**
+     * いいね数の範囲。
+     *
+     * @param min 下限（この値を含む）
+     * @param max 上限（この値を含む）
+     */
+    record LikesRange(int min, int max) implements PostQuery {
+
+        @Override
+        public String toString() {
+            if (max == Integer.MAX_VALUE) {
+                return "likes:>=" + min;
+            }
+            return min == 0 ? "likes:<=" + max : "likes:" + min + ".." + max;
+        }
+    }
+
+    /**
+     * 公開日時の範囲。
+     *
+     * @param from 開始日時（この日時を含む。nullの場合は下限なし）
+     * @param to 終了日時（この日時を含まない。nullの場合は上限なし）
+     */
+    record PublishedRange(Instant from, Instant to) implements PostQuery {
+
+        @Override
+        public String toString() {
+            return "published:[" + (from != null ? from : "") + "," + (to != null ? to : "") + ")";
+        }
+    }
+
+    /**
+     * 複数の条件を組み合わせた条件を、他の条件の一部として表示するときに括弧で囲みます。
+     */
+    private static String group(PostQuery query) {
+        return query instanceof And || query instanceof Or ? "(" + query + ")" : query.toString();
+    }
+}
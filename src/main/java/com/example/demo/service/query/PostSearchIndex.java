@@ -0,0 +1,371 @@
+package com.example.demo.service.query;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongConsumer;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+
+/**
+ * 検索クエリの実行計画で使う、公開済み投稿の索引。
+ * 公開済みの投稿IDの集合（状態）、公開日時順の索引、いいね数順の索引と、投稿内容の3文字ずつの並び（トライグラム）の転置索引を、
+ * 変更イベントのたびに該当する投稿の分だけ更新します。
+ *
+ * <p>トライグラムは{@link Character#toLowerCase(char)}で1文字ずつ小文字にした内容から作るため、
+ * 大文字・小文字を区別しない3文字以上のキーワードを含む投稿は、キーワードのトライグラムをすべて持ちます。
+ * 索引は候補を絞り込むためだけに使い、候補の投稿は実行時に改めて条件を判定します。</p>
+ *
+ * <p>更新は変更の発行と同じく直列に行われる前提です。読み取りは更新と並行して行えます。</p>
+ */
+public class PostSearchIndex implements PostChangeListener {
+
+    private static final Comparator<TimeEntry> TIME_ORDER = Comparator
+            .comparing(TimeEntry::publishedAt)
+            .thenComparingLong(TimeEntry::id);
+    private static final Comparator<LikesEntry> LIKES_ORDER = Comparator
+            .comparingInt(LikesEntry::likes)
+            .thenComparingLong(LikesEntry::id);
+    private static final long[] NO_TRIGRAMS = new long[0];
+    /** 投稿1件あたりの概算バイト数（IDの集合・公開日時順・いいね数順の各エントリー） */
+    private static final long BYTES_PER_POST = 240;
+    /** トライグラム1種類あたりの概算バイト数（転置リストの集合そのもの） */
+    private static final long BYTES_PER_TRIGRAM = 160;
+    /** 転置リストの要素1件あたりの概算バイト数（集合のエントリーと投稿側のトライグラムの配列） */
+    private static final long BYTES_PER_POSTING = 56;
+
+    private final boolean textIndexEnabled;
+    private final Map<Long, Indexed> indexed = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<TimeEntry> byPublishedAt = new ConcurrentSkipListSet<>(TIME_ORDER);
+    private final ConcurrentSkipListSet<LikesEntry> byLikes = new ConcurrentSkipListSet<>(LIKES_ORDER);
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * 索引を生成します。
+     *
+     * @param textIndexEnabled トライグラムの転置索引を作る場合はtrue（投稿内容の文字数に比例したメモリを使用します）
+     */
+    public PostSearchIndex(boolean textIndexEnabled) {
+        this.textIndexEnabled = textIndexEnabled;
+    }
+
+    @Override
+    public void onChange(PostChange change) {
+        if (change.type() == PostChange.Type.DELETED || change.post().isDraft() || change.post().getPublishedAt() == null) {
+            remove(change.postId());
+        } else {
+            put(change.post(), change.type() != PostChange.Type.LIKED);
+        }
+    }
+
+    /**
+     * 現在の投稿から索引を作り直します。
+     * 変更イベントを経由せずにストアの内容が入れ替わった場合（レプリカのスナップショットなど）に使用します。
+     *
+     * @param posts ストア内の全投稿
+     */
+    public void rebuild(Collection<Post> posts) {
+        clear();
+        posts.forEach(this::add);
+    }
+
+    /**
+     * 索引を空にします。{@link #add}と組み合わせて、ストアを走査しながら作り直す場合に使用します。
+     */
+    public void clear() {
+        indexed.clear();
+        byPublishedAt.clear();
+        byLikes.clear();
+        postings.clear();
+    }
+
+    /**
+     * 変更イベントを経由せずに投稿を索引へ追加します。公開済みでない投稿は無視されます。
+     *
+     * @param post 追加する投稿
+     */
+    public void add(Post post) {
+        if (!post.isDraft() && post.getPublishedAt() != null) {
+            put(post, true);
+        }
+    }
+
+    /**
+     * トライグラムの転置索引を作っているかどうかを取得します。
+     *
+     * @return 転置索引を作っている場合はtrue
+     */
+    public boolean isTextIndexEnabled() {
+        return textIndexEnabled;
+    }
+
+    /**
+     * 索引の大きさを取得します。転置リストの要素数は呼び出しのたびに数えます。
+     *
+     * @return 転置索引の有効・無効、索引に含まれる投稿数、トライグラムの種類数、転置リストの要素数、推定メモリ使用量
+     */
+    public Map<String, Object> snapshot() {
+        long posts = indexed.size();
+        long trigrams = postings.size();
+        long entries = 0;
+        for (var ids : postings.values()) {
+            entries += ids.size();
+        }
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("textIndex", textIndexEnabled);
+        stats.put("posts", posts);
+        stats.put("trigrams", trigrams);
+        stats.put("postings", entries);
+        stats.put("estimatedBytes", posts * BYTES_PER_POST + trigrams * BYTES_PER_TRIGRAM + entries * BYTES_PER_POSTING);
+        return stats;
+    }
+
+    /**
+     * 索引に含まれる公開済み投稿の数を取得します。
+     *
+     * @return 公開済み投稿の数
+     */
+    public int publishedCount() {
+        return indexed.size();
+    }
+
+    /**
+     * 公開済みのすべての投稿IDを渡します。
+     *
+     * @param action 投稿IDを受け取る処理
+     */
+    public void forEachPublished(LongConsumer action) {
+        for (Long id : indexed.keySet()) {
+            action.accept(id);
+        }
+    }
+
+    /**
+     * 公開日時が範囲にある投稿の数を、上限まで数えます。
+     *
+     * @param from 開始日時（この日時を含む。nullの場合は下限なし）
+     * @param to 終了日時（この日時を含まない。nullの場合は上限なし）
+     * @param limit 数える上限
+     * @return 投稿の数（上限に達した場合は上限）
+     */
+    public long countPublishedBetween(Instant from, Instant to, long limit) {
+        return count(publishedBetween(from, to), limit);
+    }
+
+    /**
+     * 公開日時が範囲にある投稿IDを、公開日時の新しい順に渡します。
+     *
+     * @param from 開始日時（この日時を含む。nullの場合は下限なし）
+     * @param to 終了日時（この日時を含まない。nullの場合は上限なし）
+     * @param action 投稿IDを受け取る処理
+     */
+    public void forEachPublishedBetween(Instant from, Instant to, LongConsumer action) {
+        for (TimeEntry entry : publishedBetween(from, to).descendingSet()) {
+            action.accept(entry.id());
+        }
+    }
+
+    /**
+     * いいね数が範囲にある投稿の数を、上限まで数えます。
+     *
+     * @param min 下限（この値を含む）
+     * @param max 上限（この値を含む）
+     * @param limit 数える上限
+     * @return 投稿の数（上限に達した場合は上限）
+     */
+    public long countLikesBetween(int min, int max, long limit) {
+        return count(likesBetween(min, max), limit);
+    }
+
+    /**
+     * いいね数が範囲にある投稿IDを渡します。
+     *
+     * @param min 下限（この値を含む）
+     * @param max 上限（この値を含む）
+     * @param action 投稿IDを受け取る処理
+     */
+    public void forEachLikesBetween(int min, int max, LongConsumer action) {
+        for (LikesEntry entry : likesBetween(min, max)) {
+            action.accept(entry.id());
+        }
+    }
+
+    /**
+     * キーワードを含む可能性がある投稿の数の上限（キーワードのトライグラムのうち、最も少ない投稿にしか現れないものの投稿数）を取得します。
+     *
+     * @param keyword 小文字に揃えたキーワード（3文字以上）
+     * @return 投稿の数の上限
+     */
+    public long estimateContaining(String keyword) {
+        long estimate = Long.MAX_VALUE;
+        for (long trigram : trigrams(keyword)) {
+            var ids = postings.get(trigram);
+            estimate = Math.min(estimate, ids != null ? ids.size() : 0);
+        }
+        return estimate == Long.MAX_VALUE ? indexed.size() : estimate;
+    }
+
+    /**
+     * キーワードのトライグラムをすべて持つ投稿IDを渡します。
+     *
+     * @param keyword 小文字に揃えたキーワード（3文字以上）
+     * @param action 投稿IDを受け取る処理
+     */
+    public void forEachContaining(String keyword, LongConsumer action) {
+        var lists = Arrays.stream(trigrams(keyword))
+                .mapToObj(trigram -> postings.getOrDefault(trigram, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+        if (lists.isEmpty()) {
+            return;
+        }
+        candidates:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            action.accept(id);
+        }
+    }
+
+    private void put(Post post, boolean contentMayChange) {
+        long id = post.getId();
+        var previous = indexed.get(id);
+        long[] trigrams;
+        if (!textIndexEnabled) {
+            trigrams = NO_TRIGRAMS;
+        } else if (previous != null && !contentMayChange) {
+            trigrams = previous.trigrams();
+        } else {
+            var content = post.getContent();
+            trigrams = content != null ? trigrams(content) : NO_TRIGRAMS;
+        }
+        var current = new Indexed(post.getPublishedAt(), post.getLikes(), trigrams);
+        indexed.put(id, current);
+        // 追加してから古いエントリーを削除するため、読み取り中の投稿が一時的に索引から消えることはない
+        var time = new TimeEntry(current.publishedAt(), id);
+        byPublishedAt.add(time);
+        var likes = new LikesEntry(current.likes(), id);
+        byLikes.add(likes);
+        if (previous != null) {
+            if (!previous.publishedAt().equals(current.publishedAt())) {
+                byPublishedAt.remove(new TimeEntry(previous.publishedAt(), id));
+            }
+            if (previous.likes() != current.likes()) {
+                byLikes.remove(new LikesEntry(previous.likes(), id));
+            }
+        }
+        if (previous == null || previous.trigrams() != trigrams) {
+            var old = previous != null ? previous.trigrams() : NO_TRIGRAMS;
+            for (long trigram : trigrams) {
+                if (Arrays.binarySearch(old, trigram) < 0) {
+                    postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+            }
+            for (long trigram : old) {
+                if (Arrays.binarySearch(trigrams, trigram) < 0) {
+                    removePosting(trigram, id);
+                }
+            }
+        }
+    }
+
+    private void remove(long id) {
+        var previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        byPublishedAt.remove(new TimeEntry(previous.publishedAt(), id));
+        byLikes.remove(new LikesEntry(previous.likes(), id));
+        for (long trigram : previous.trigrams()) {
+            removePosting(trigram, id);
+        }
+    }
+
+    private void removePosting(long trigram, long id) {
+        postings.computeIfPresent(trigram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private NavigableSet<TimeEntry> publishedBetween(Instant from, Instant to) {
+        if (from != null && to != null) {
+            if (!from.isBefore(to)) {
+                return Collections.emptyNavigableSet();
+            }
+            return byPublishedAt.subSet(new TimeEntry(from, Long.MIN_VALUE), new TimeEntry(to, Long.MIN_VALUE));
+        }
+        if (from != null) {
+            return byPublishedAt.tailSet(new TimeEntry(from, Long.MIN_VALUE));
+        }
+        if (to != null) {
+            return byPublishedAt.headSet(new TimeEntry(to, Long.MIN_VALUE));
+        }
+        return byPublishedAt;
+    }
+
+    private Set<LikesEntry> likesBetween(int min, int max) {
+        if (min > max) {
+            return Set.of();
+        }
+        return byLikes.subSet(new LikesEntry(min, Long.MIN_VALUE), true, new LikesEntry(max, Long.MAX_VALUE), true);
+    }
+
+    private static long count(Collection<?> entries, long limit) {
+        long count = 0;
+        var iterator = entries.iterator();
+        while (count < limit && iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 1文字ずつ小文字にした文字列の、重複のないトライグラムを昇順で返します。各トライグラムは3文字を16ビットずつ並べた値です。
+     */
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return NO_TRIGRAMS;
+        }
+        var trigrams = new long[text.length() - 2];
+        long window = ((long) Character.toLowerCase(text.charAt(0)) << 16) | Character.toLowerCase(text.charAt(1));
+        for (int i = 2; i < text.length(); i++) {
+            window = ((window << 16) | Character.toLowerCase(text.charAt(i))) & 0xFFFF_FFFF_FFFFL;
+            trigrams[i - 2] = window;
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * 索引に登録した投稿の値（更新時に古いエントリーを探すために保持する）。
+     */
+    private record Indexed(Instant publishedAt, int likes, long[] trigrams) {
+    }
+
+    private record TimeEntry(Instant publishedAt, long id) {
+    }
+
+    private record LikesEntry(int likes, long id) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.service.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 投稿の検索クエリ文字列を構文木（{@link PostQuery}）に変換するパーサー。
+ *
+ * <p>クエリは次の要素からなります。</p>
+ * <ul>
+ * <li>単語（{@code spring}）と引用符で囲んだフレーズ（{@code "spring boot"}）: 投稿内容に含まれる文字列（大文字・小文字を区別しない）</li>
+ * <li>{@code AND}・{@code OR}・{@code NOT}（大文字のみ）と括弧: 優先順位は{@code NOT}、{@code AND}、{@code OR}の順。
+ *     演算子を省略して並べた条件は{@code AND}で結ばれ、先頭の{@code -}は{@code NOT}と同じ意味です</li>
+ * <li>{@code likes:}: いいね数。{@code likes:10}、{@code likes:>=10}、{@code likes:<100}、{@code likes:10..100}（両端を含む）</li>
+ * <li>{@code published:}: 公開日時。{@code published:>=2025-06-01}、{@code published:2025-06-01..2025-06-30}、
+ *     {@code published:<2025-06-01T12:00:00Z}。日付だけの指定はUTCのその日全体を表します</li>
+ * </ul>
+ */
+public final class QueryParser {
+
+    /** クエリ文字列の最大長 */
+    public static final int MAX_LENGTH = 1_000;
+    /** 括弧と{@code NOT}の入れ子の最大の深さ */
+    private static final int MAX_DEPTH = 32;
+    private static final String LIKES_FIELD = "likes:";
+    private static final String PUBLISHED_FIELD = "published:";
+
+    private final String input;
+    private final List<Token> tokens;
+    private int index;
+    private int depth;
+
+    private QueryParser(String input, List<Token> tokens) {
+        this.input = input;
+        this.tokens = tokens;
+    }
+
+    /**
+     * クエリ文字列を構文木に変換します。
+     *
+     * @param query クエリ文字列
+     * @return 構文木
+     * @throws QuerySyntaxException クエリの構文が正しくない場合
+     */
+    public static PostQuery parse(String query) {
+        if (query == null || query.isBlank()) {
+            throw new QuerySyntaxException("query must not be empty", 0);
+        }
+        if (query.length() > MAX_LENGTH) {
+            throw new QuerySyntaxException("query must be at most " + MAX_LENGTH + " characters", MAX_LENGTH);
+        }
+        var parser = new QueryParser(query, tokenize(query));
+        var result = parser.parseOr();
+        if (parser.index < parser.tokens.size()) {
+            var token = parser.tokens.get(parser.index);
+            throw new QuerySyntaxException("unexpected '" + token.text() + "'", token.position());
+        }
+        return result;
+    }
+
+    private PostQuery parseOr() {
+        var operands = new ArrayList<PostQuery>();
+        operands.add(parseAnd());
+        while (peek(Kind.OR)) {
+            index++;
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : new PostQuery.Or(operands);
+    }
+
+    private PostQuery parseAnd() {
+        var operands = new ArrayList<PostQuery>();
+        operands.add(parseUnary());
+        while (true) {
+            if (peek(Kind.AND)) {
+                index++;
+            } else if (!peek(Kind.WORD) && !peek(Kind.PHRASE) && !peek(Kind.LPAREN) && !peek(Kind.NOT)) {
+                break;
+            }
+            operands.add(parseUnary());
+        }
+        return operands.size() == 1 ? operands.get(0) : new PostQuery.And(operands);
+    }
+
+    private PostQuery parseUnary() {
+        if (++depth > MAX_DEPTH) {
+            throw new QuerySyntaxException("query is nested too deeply", current().position());
+        }
+        try {
+            if (peek(Kind.NOT)) {
+                index++;
+                return new PostQuery.Not(parseUnary());
+            }
+            return parsePrimary();
+        } finally {
+            depth--;
+        }
+    }
+
+    private PostQuery parsePrimary() {
+        var token = current();
+        index++;
+        return switch (token.kind()) {
+            case LPAREN -> {
+                var inner = parseOr();
+                if (!peek(Kind.RPAREN)) {
+                    throw new QuerySyntaxException("missing ')'", current().position());
+                }
+                index++;
+                yield inner;
+            }
+            case PHRASE -> {
+                if (token.text().isEmpty()) {
+                    throw new QuerySyntaxException("phrase must not be empty", token.position());
+                }
+                yield new PostQuery.Contains(token.text(), true);
+            }
+            case WORD -> word(token);
+            case END -> throw new QuerySyntaxException("unexpected end of query", token.position());
+            default -> throw new QuerySyntaxException("unexpected '" + token.text() + "'", token.position());
+        };
+    }
+
+    private static PostQuery word(Token token) {
+        var text = token.text();
+        if (text.startsWith(LIKES_FIELD)) {
+            return likes(text.substring(LIKES_FIELD.length()), token.position() + LIKES_FIELD.length());
+        }
+        if (text.startsWith(PUBLISHED_FIELD)) {
+            return published(text.substring(PUBLISHED_FIELD.length()), token.position() + PUBLISHED_FIELD.length());
+        }
+        return new PostQuery.Contains(text, false);
+    }
+
+    private static PostQuery likes(String value, int position) {
+        try {
+            if (value.startsWith(">=")) {
+                return new PostQuery.LikesRange(nonNegative(value.substring(2)), Integer.MAX_VALUE);
+            }
+            if (value.startsWith("<=")) {
+                return new PostQuery.LikesRange(0, nonNegative(value.substring(2)));
+            }
+            if (value.startsWith(">")) {
+                int min = nonNegative(value.substring(1));
+                return min == Integer.MAX_VALUE ? new PostQuery.LikesRange(1, 0) : new PostQuery.LikesRange(min + 1, Integer.MAX_VALUE);
+            }
+            if (value.startsWith("<")) {
+                return new PostQuery.LikesRange(0, nonNegative(value.substring(1)) - 1);
+            }
+            int separator = value.indexOf("..");
+            if (separator >= 0) {
+                return new PostQuery.LikesRange(nonNegative(value.substring(0, separator)), nonNegative(value.substring(separator + 2)));
+            }
+            int likes = nonNegative(value);
+            return new PostQuery.LikesRange(likes, likes);
+        } catch (NumberFormatException e) {
+            throw new QuerySyntaxException("invalid likes value '" + value + "'", position);
+        }
+    }
+
+    private static PostQuery published(String value, int position) {
+        try {
+            if (value.startsWith(">=")) {
+                return new PostQuery.PublishedRange(start(value.substring(2)), null);
+            }
+            if (value.startsWith("<=")) {
+                return new PostQuery.PublishedRange(null, end(value.substring(2)));
+            }
+            if (value.startsWith(">")) {
+                return new PostQuery.PublishedRange(end(value.substring(1)), null);
+            }
+            if (value.startsWith("<")) {
+                return new PostQuery.PublishedRange(null, start(value.substring(1)));
+            }
+            int separator = value.indexOf("..");
+            if (separator >= 0) {
+                return new PostQuery.PublishedRange(start(value.substring(0, separator)), end(value.substring(separator + 2)));
+            }
+            return new PostQuery.PublishedRange(start(value), end(value));
+        } catch (DateTimeParseException e) {
+            throw new QuerySyntaxException("invalid published value '" + value + "'", position);
+        }
+    }
+
+    private static int nonNegative(String value) {
+        int number = Integer.parseInt(value);
+        if (number < 0) {
+            throw new NumberFormatException(value);
+        }
+        return number;
+    }
+
+    /**
+     * 日付（その日の始まり）または日時を返します。
+     */
+    private static Instant start(String value) {
+        if (value.indexOf('T') < 0) {
+            return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(value);
+    }
+
+    /**
+     * 日付または日時の直後（範囲の終わりとして含まない最初の時点）を返します。
+     */
+    private static Instant end(String value) {
+        if (value.indexOf('T') < 0) {
+            return LocalDate.parse(value).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(value).plus(Duration.ofNanos(1));
+    }
+
+    private boolean peek(Kind kind) {
+        return current().kind() == kind;
+    }
+
+    private Token current() {
+        return index < tokens.size() ? tokens.get(index) : new Token(Kind.END, "", input.length());
+    }
+
+    private static List<Token> tokenize(String query) {
+        var tokens = new ArrayList<Token>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(c == '(' ? Kind.LPAREN : Kind.RPAREN, String.valueOf(c), i));
+                i++;
+            } else if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                if (close < 0) {
+                    throw new QuerySyntaxException("unterminated phrase", i);
+                }
+                tokens.add(new Token(Kind.PHRASE, query.substring(i + 1, close), i));
+                i = close + 1;
+            } else if (c == '-' && i + 1 < query.length() && startsOperand(query.charAt(i + 1))) {
+                tokens.add(new Token(Kind.NOT, "-", i));
+                i++;
+            } else {
+                int start = i;
+                while (i < query.length() && !Character.isWhitespace(query.charAt(i))
+                        && "()\"".indexOf(query.charAt(i)) < 0) {
+                    i++;
+                }
+                var text = query.substring(start, i);
+                var kind = switch (text) {
+                    case "AND" -> Kind.AND;
+                    case "OR" -> Kind.OR;
+                    case "NOT" -> Kind.NOT;
+                    default -> Kind.WORD;
+                };
+                tokens.add(new Token(kind, text, start));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean startsOperand(char c) {
+        return !Character.isWhitespace(c) && c != ')' && c != '-';
+    }
+
+    private enum Kind {
+        WORD, PHRASE, AND, OR, NOT, LPAREN, RPAREN, END
+    }
+
+    private record Token(Kind kind, String text, int position) {
+    }
+}
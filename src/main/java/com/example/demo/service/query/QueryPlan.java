@@ -0,0 +1,45 @@
+package com.example.demo.service.query;
+
+import java.util.List;
+
+/**
+ * 検索クエリの実行計画。どの索引（ドライバー）で候補を列挙し、どの条件で絞り込むかを表します。
+ *
+ * @param query 正規化したクエリ
+ * @param driver 候補の列挙に使うドライバー
+ * @param driverCondition ドライバーで絞り込む条件（全件走査・状態索引の場合は公開済みであること）
+ * @param estimatedRows ドライバーが列挙する候補の推定数
+ * @param filters 候補ごとに判定する条件（判定する順）
+ * @param candidates 検討したドライバーとその推定値
+ */
+public record QueryPlan(String query, Driver driver, String driverCondition, long estimatedRows,
+                        List<String> filters, List<Candidate> candidates) {
+
+    /**
+     * 候補の列挙方法。
+     */
+    public enum Driver {
+        /** ストアの全投稿を走査する */
+        FULL_SCAN,
+        /** 公開済みの投稿IDの集合を列挙する */
+        STATE_INDEX,
+        /** 公開日時順の索引から範囲を列挙する */
+        PUBLISHED_INDEX,
+        /** いいね数順の索引から範囲を列挙する */
+        LIKES_INDEX,
+        /** トライグラムの転置索引からキーワードを含みうる投稿を列挙する */
+        TEXT_INDEX
+    }
+
+    /**
+     * 検討したドライバー。
+     *
+     * @param driver ドライバー
+     * @param condition ドライバーで絞り込む条件
+     * @param estimatedRows 列挙する候補の推定数（{@code capped}の場合は数えるのを打ち切った値）
+     * @param capped 選ばれた計画より多いことが分かった時点で数えるのを打ち切った場合はtrue
+     * @param cost 推定コスト（全件走査の1件を1とする）
+     */
+    public record Candidate(Driver driver, String condition, long estimatedRows, boolean capped, long cost) {
+    }
+}
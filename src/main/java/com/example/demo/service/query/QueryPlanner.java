@@ -0,0 +1,220 @@
+package com.example.demo.service.query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+import com.example.demo.model.KeywordMatcher;
+import com.example.demo.model.Post;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.PageCursor;
+import com.example.demo.service.query.QueryPlan.Candidate;
+import com.example.demo.service.query.QueryPlan.Driver;
+
+/**
+ * 検索クエリの実行計画を立てて実行するプランナー。
+ *
+ * <p>クエリの最上位の{@code AND}の各条件のうち、索引で候補を列挙できるもの（公開日時・いいね数の範囲、3文字以上のキーワード）と、
+ * 全件走査・公開済みの投稿IDの集合を比較し、推定コストの最も小さいものを候補の列挙（ドライバー）に選びます。
+ * 索引から列挙した候補は1件ずつストアから取得するため、1件あたりのコストを全件走査の{@value #LOOKUP_COST}倍と見積もります。
+ * 範囲の索引は、それまでの最良の計画を上回ることが分かった時点で数えるのを打ち切るため、計画の作成は大きな範囲でも安価です。</p>
+ *
+ * <p>候補には、ドライバーに使った条件を含むすべての条件を、範囲・キーワード・{@code OR}や{@code NOT}を含む条件の順に判定します。
+ * 結果は公開日時の新しい順（同じ場合はIDの大きい順）です。</p>
+ */
+public class QueryPlanner {
+
+    /** 索引から列挙した候補をストアから1件取得するコスト（全件走査の1件を1とする） */
+    static final long LOOKUP_COST = 2;
+    /** 索引で列挙できるキーワードの最小文字数（トライグラムの長さ） */
+    private static final int MIN_INDEXED_KEYWORD = 3;
+
+    private final PostRepository posts;
+    private final PostSearchIndex index;
+
+    /**
+     * プランナーを生成します。
+     *
+     * @param posts 投稿の保存先
+     * @param index 公開済み投稿の索引
+     */
+    public QueryPlanner(PostRepository posts, PostSearchIndex index) {
+        this.posts = posts;
+        this.index = index;
+    }
+
+    /**
+     * クエリを実行せずに実行計画を立てます。
+     *
+     * @param query クエリ
+     * @return 実行計画
+     */
+    public QueryPlan plan(PostQuery query) {
+        return prepare(query).plan();
+    }
+
+    /**
+     * クエリを実行します。
+     *
+     * @param query クエリ
+     * @return 実行計画と結果
+     */
+    public QueryResult execute(PostQuery query) {
+        var prepared = prepare(query);
+        long start = System.nanoTime();
+        var examined = new LongAdder();
+        Predicate<Post> filter = prepared.filter();
+        List<Post> matched;
+        if (prepared.source() == null) {
+            matched = new ArrayList<>(posts.findAll(post -> {
+                examined.increment();
+                return filter.test(post);
+            }));
+        } else {
+            // 索引の更新中は同じ投稿が一時的に2回列挙されることがあるため、IDで重複を除く
+            var byId = new HashMap<Long, Post>();
+            prepared.source().accept(id -> {
+                examined.increment();
+                Post post = posts.findById(id);
+                if (post != null && filter.test(post)) {
+                    byId.put(id, post);
+                }
+            });
+            matched = new ArrayList<>(byId.values());
+        }
+        matched.sort(PageCursor.NEWEST_FIRST);
+        double elapsedMicros = (System.nanoTime() - start) / 1_000.0;
+        return new QueryResult(prepared.plan(), List.copyOf(matched), examined.sum(), elapsedMicros);
+    }
+
+    private Prepared prepare(PostQuery query) {
+        var conjuncts = query instanceof PostQuery.And and ? and.operands() : List.of(query);
+        var likes = new PostQuery.LikesRange(0, Integer.MAX_VALUE);
+        var published = new PostQuery.PublishedRange(null, null);
+        var keywords = new ArrayList<String>();
+        for (PostQuery conjunct : conjuncts) {
+            if (conjunct instanceof PostQuery.LikesRange range) {
+                likes = new PostQuery.LikesRange(Math.max(likes.min(), range.min()), Math.min(likes.max(), range.max()));
+            } else if (conjunct instanceof PostQuery.PublishedRange range) {
+                published = new PostQuery.PublishedRange(later(published.from(), range.from()), earlier(published.to(), range.to()));
+            } else if (conjunct instanceof PostQuery.Contains contains) {
+                keywords.add(contains.text());
+            }
+        }
+
+        var candidates = new ArrayList<Candidate>();
+        long total = posts.count();
+        var best = new Choice(new Candidate(Driver.FULL_SCAN, "all posts", total, false, total), null);
+        candidates.add(best.candidate());
+        long publishedCount = index.publishedCount();
+        best = consider(candidates, best, new Choice(
+                new Candidate(Driver.STATE_INDEX, "published", publishedCount, false, publishedCount * LOOKUP_COST),
+                index::forEachPublished));
+        if (index.isTextIndexEnabled()) {
+            for (String keyword : keywords) {
+                String text = keyword.toLowerCase();
+                // 1文字ずつ小文字にして照合しないキーワードは、索引のトライグラムと一致しない場合がある
+                if (text.length() >= MIN_INDEXED_KEYWORD && KeywordMatcher.compile(keyword).isFoldedPerChar()) {
+                    long rows = index.estimateContaining(text);
+                    best = consider(candidates, best, new Choice(
+                            new Candidate(Driver.TEXT_INDEX, "contains " + text, rows, false, rows * LOOKUP_COST),
+                            action -> index.forEachContaining(text, action)));
+                }
+            }
+        }
+        if (published.from() != null || published.to() != null) {
+            var range = published;
+            long limit = best.candidate().cost() / LOOKUP_COST + 1;
+            long rows = index.countPublishedBetween(range.from(), range.to(), limit);
+            best = consider(candidates, best, new Choice(
+                    new Candidate(Driver.PUBLISHED_INDEX, range.toString(), rows, rows == limit, rows * LOOKUP_COST),
+                    action -> index.forEachPublishedBetween(range.from(), range.to(), action)));
+        }
+        if (likes.min() > 0 || likes.max() < Integer.MAX_VALUE) {
+            var range = likes;
+            long limit = best.candidate().cost() / LOOKUP_COST + 1;
+            long rows = index.countLikesBetween(range.min(), range.max(), limit);
+            best = consider(candidates, best, new Choice(
+                    new Candidate(Driver.LIKES_INDEX, range.toString(), rows, rows == limit, rows * LOOKUP_COST),
+                    action -> index.forEachLikesBetween(range.min(), range.max(), action)));
+        }
+
+        var ordered = conjuncts.stream().sorted(Comparator.comparingInt(QueryPlanner::filterCost)).toList();
+        var filters = new ArrayList<String>();
+        filters.add("published");
+        Predicate<Post> filter = post -> !post.isDraft() && post.getPublishedAt() != null;
+        for (PostQuery conjunct : ordered) {
+            filters.add(conjunct.toString());
+            filter = filter.and(compile(conjunct));
+        }
+        var chosen = best.candidate();
+        var plan = new QueryPlan(query.toString(), chosen.driver(), chosen.condition(), chosen.estimatedRows(),
+                List.copyOf(filters), List.copyOf(candidates));
+        return new Prepared(plan, best.source(), filter);
+    }
+
+    private static Choice consider(List<Candidate> candidates, Choice best, Choice candidate) {
+        candidates.add(candidate.candidate());
+        return candidate.candidate().cost() < best.candidate().cost() ? candidate : best;
+    }
+
+    /**
+     * 条件を投稿の判定処理に変換します。キーワードの照合器はここで1回だけ生成します。
+     */
+    static Predicate<Post> compile(PostQuery query) {
+        return switch (query) {
+            case PostQuery.Contains contains -> {
+                var matcher = KeywordMatcher.compile(contains.text());
+                yield post -> {
+                    String content = post.getContent();
+                    return content != null && matcher.matches(content);
+                };
+            }
+            case PostQuery.And and -> and.operands().stream().map(QueryPlanner::compile).reduce(Predicate::and).orElse(post -> true);
+            case PostQuery.Or or -> or.operands().stream().map(QueryPlanner::compile).reduce(Predicate::or).orElse(post -> false);
+            case PostQuery.Not not -> compile(not.operand()).negate();
+            case PostQuery.LikesRange range -> post -> post.getLikes() >= range.min() && post.getLikes() <= range.max();
+            case PostQuery.PublishedRange range -> post -> {
+                Instant publishedAt = post.getPublishedAt();
+                return publishedAt != null
+                        && (range.from() == null || !publishedAt.isBefore(range.from()))
+                        && (range.to() == null || publishedAt.isBefore(range.to()));
+            };
+        };
+    }
+
+    /**
+     * 判定の順序を決める条件の重さ（範囲、キーワード、複合条件の順に軽い）。
+     */
+    private static int filterCost(PostQuery query) {
+        return switch (query) {
+            case PostQuery.LikesRange range -> 0;
+            case PostQuery.PublishedRange range -> 0;
+            case PostQuery.Contains contains -> 1;
+            default -> 2;
+        };
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static Instant earlier(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * 検討中のドライバーと、その候補の列挙処理（全件走査の場合はnull）。
+     */
+    private record Choice(Candidate candidate, Consumer<LongConsumer> source) {
+    }
+
+    private record Prepared(QueryPlan plan, Consumer<LongConsumer> source, Predicate<Post> filter) {
+    }
+}
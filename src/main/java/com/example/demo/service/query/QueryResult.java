@@ -0,0 +1,32 @@
+package com.example.demo.service.query;
+
+import java.util.List;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PageCursor;
+
+/**
+ * 検索クエリの実行結果。
+ *
+ * @param plan 実行した計画
+ * @param posts 条件に一致した公開済み投稿（公開日時の新しい順、変更不可）
+ * @param examinedRows ドライバーが列挙し、条件を判定した候補の数
+ * @param elapsedMicros 実行にかかった時間（マイクロ秒、計画の作成を除く）
+ * @param next 次のページのカーソル（最後のページの場合はnull）
+ * @param cached キャッシュした結果から返した場合はtrue（{@code examinedRows}と{@code elapsedMicros}はキャッシュした時の実行の値）
+ */
+public record QueryResult(QueryPlan plan, List<Post> posts, long examinedRows, double elapsedMicros,
+                          PageCursor next, boolean cached) {
+
+    /**
+     * ページに分けずに実行した結果を生成します。
+     *
+     * @param plan 実行した計画
+     * @param posts 条件に一致した公開済み投稿
+     * @param examinedRows 条件を判定した候補の数
+     * @param elapsedMicros 実行にかかった時間（マイクロ秒）
+     */
+    public QueryResult(QueryPlan plan, List<Post> posts, long examinedRows, double elapsedMicros) {
+        this(plan, posts, examinedRows, elapsedMicros, null, false);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.service.query;
+
+/**
+ * 検索クエリの構文が正しくない場合にスローされる例外。
+ */
+public class QuerySyntaxException extends IllegalArgumentException {
+
+    private final int position;
+
+    /**
+     * 例外を生成します。
+     *
+     * @param message エラーの内容
+     * @param position エラーを検出したクエリ文字列上の位置（0始まり）
+     */
+    public QuerySyntaxException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * エラーを検出したクエリ文字列上の位置を取得します。
+     *
+     * @return 位置（0始まり）
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service.ranking;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+
+/**
+ * 公開済み投稿をいいね数の多い順に並べたランキング。
+ * 変更イベント（公開・いいね・削除）のたびに該当する投稿だけを更新するため、
+ * リクエストごとに全投稿をソートする必要はありません。
+ */
+public class LikeLeaderboard implements PostChangeListener {
+
+    private final ScoreIndex index = new ScoreIndex();
+
+    @Override
+    public void onChange(PostChange change) {
+        switch (change.type()) {
+            case PUBLISHED, LIKED -> {
+                if (!change.post().isDraft()) {
+                    index.put(change.postId(), change.post().getLikes());
+                }
+            }
+            case DELETED -> index.remove(change.postId());
+            default -> {
+                // 作成（下書き）や内容の更新ではいいね数は変わらない
+            }
+        }
+    }
+
+    /**
+     * 現在の投稿から索引を作り直します。
+     * 変更イベントを経由せずにストアの内容が入れ替わった場合（レプリカのスナップショットなど）に使用します。
+     *
+     * @param posts ストア内の全投稿
+     */
+    public void rebuild(Collection<Post> posts) {
+        clear();
+        posts.forEach(this::add);
+    }
+
+    /**
+     * 索引を空にします。{@link #add}と組み合わせて、ストアを走査しながら作り直す場合に使用します。
+     */
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * 変更イベントを経由せずに投稿を索引へ追加します。下書きは無視されます。
+     *
+     * @param post 追加する投稿
+     */
+    public void add(Post post) {
+        if (!post.isDraft()) {
+            index.put(post.getId(), post.getLikes());
+        }
+    }
+
+    /**
+     * いいね数の多い順に最大K件の投稿IDを取得します。いいね数が同じ場合はIDの小さい順です。
+     *
+     * @param k 取得する件数
+     * @return 投稿IDのリスト
+     */
+    public List<Long> topIds(int k) {
+        return index.top(k).stream().map(ScoreIndex.Entry::id).toList();
+    }
+
+    /**
+     * ランキングに含まれる投稿数を取得します。
+     *
+     * @return 投稿数
+     */
+    public int size() {
+        return index.size();
+    }
+}
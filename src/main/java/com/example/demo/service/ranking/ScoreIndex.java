@@ -0,0 +1,128 @@
+package com.example.demo.service.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * 投稿IDごとのスコアを保持し、スコアの高い順に上位K件を取得できる索引。
+ * (スコア, ID)をキーとする並行スキップリストで順序を維持するため、更新はO(log n)、
+ * 上位K件の取得は全件のソートを行わずO(k)で行えます。
+ *
+ * <p>スコアの更新では新しいエントリーを追加してから古いエントリーを削除するため、
+ * 読み取り中の投稿が一時的に一覧から消えることはありません。一時的に新旧両方が見える場合は
+ * 現在のエントリーだけを採用します。</p>
+ */
+class ScoreIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparingLong(Entry::id);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> current = new ConcurrentHashMap<>();
+
+    /**
+     * 投稿のスコアを設定します。
+     *
+     * @param id 投稿ID
+     * @param score 新しいスコア
+     */
+    void put(long id, double score) {
+        merge(id, score, (previous, value) -> value);
+    }
+
+    /**
+     * 投稿の現在のスコアと指定された値から新しいスコアを求めて設定します。投稿ごとに原子的に行われます。
+     *
+     * @param id 投稿ID
+     * @param value 索引に含まれない場合の初期スコア、または合成する値
+     * @param combiner 現在のスコアと{@code value}から新しいスコアを求める関数
+     */
+    void merge(long id, double value, DoubleBinaryOperator combiner) {
+        current.compute(id, (key, previous) -> {
+            double score = previous == null ? value : combiner.applyAsDouble(previous.score(), value);
+            if (previous != null && previous.score() == score) {
+                return previous;
+            }
+            var entry = new Entry(id, score);
+            ranking.add(entry);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * 投稿を索引から削除します。
+     *
+     * @param id 投稿ID
+     */
+    void remove(long id) {
+        current.computeIfPresent(id, (key, previous) -> {
+            ranking.remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * 投稿の現在のスコアを取得します。
+     *
+     * @param id 投稿ID
+     * @return スコア、または索引に含まれない場合はnull
+     */
+    Double score(long id) {
+        var entry = current.get(id);
+        return entry != null ? entry.score() : null;
+    }
+
+    /**
+     * スコアの高い順に最大K件を取得します。スコアが同じ場合はIDの小さい順です。
+     *
+     * @param k 取得する件数
+     * @return 上位のエントリー
+     */
+    List<Entry> top(int k) {
+        var result = new ArrayList<Entry>(Math.min(k, 64));
+        for (Entry entry : ranking) {
+            if (result.size() >= k) {
+                break;
+            }
+            if (current.get(entry.id()) == entry) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 索引に含まれる投稿数を取得します。
+     *
+     * @return 投稿数
+     */
+    int size() {
+        return current.size();
+    }
+
+    /**
+     * すべてのエントリーを削除します。
+     */
+    void clear() {
+        current.clear();
+        ranking.clear();
+    }
+
+    /**
+     * 索引の1エントリー。
+     *
+     * @param id 投稿ID
+     * @param score スコア
+     */
+    record Entry(long id, double score) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.service.ranking;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+
+/**
+ * 最近のいいねほど重く評価する、時間減衰付きのトレンドランキング。
+ *
+ * <p>各いいねの寄与は半減期ごとに半分になります。すべての投稿のスコアを時間経過に合わせて
+ * 再計算する代わりに、固定の基準時刻からの経過時間で重みを増やしていく方式（前方減衰）を採用しています。
+ * 現在時刻による減衰は全投稿に共通の係数になるため順位に影響せず、いいねのあった投稿だけを
+ * O(log n)で更新すれば常に正しい順位が保たれます。重みは指数的に大きくなるため、スコアは対数で保持します。</p>
+ */
+public class TrendingIndex implements PostChangeListener {
+
+    private final ScoreIndex index = new ScoreIndex();
+    private final Clock clock;
+    /** 1ミリ秒当たりの減衰率（ln 2 / 半減期） */
+    private final double decayPerMilli;
+    /** 前方減衰の基準時刻（エポックミリ秒） */
+    private final long landmarkMillis;
+
+    /**
+     * 指定された半減期でランキングを生成します。
+     *
+     * @param halfLife いいねの寄与が半分になるまでの時間
+     */
+    public TrendingIndex(Duration halfLife) {
+        this(halfLife, Clock.systemUTC());
+    }
+
+    /**
+     * 指定された半減期と時計でランキングを生成します。
+     *
+     * @param halfLife いいねの寄与が半分になるまでの時間
+     * @param clock 現在のスコアの算出に使用する時計
+     */
+    public TrendingIndex(Duration halfLife, Clock clock) {
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("halfLife must be positive: " + halfLife);
+        }
+        this.clock = clock;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.landmarkMillis = clock.millis();
+    }
+
+    @Override
+    public void onChange(PostChange change) {
+        switch (change.type()) {
+            case LIKED -> {
+                if (!change.post().isDraft()) {
+                    recordLike(change.postId(), change.timestamp());
+                }
+            }
+            case DELETED -> index.remove(change.postId());
+            default -> {
+                // いいね以外の変更はスコアに影響しない
+            }
+        }
+    }
+
+    /**
+     * いいねを1件記録します。
+     *
+     * @param postId いいねされた投稿のID
+     * @param likedAt いいねの日時
+     */
+    public void recordLike(long postId, Instant likedAt) {
+        double weight = decayPerMilli * (likedAt.toEpochMilli() - landmarkMillis);
+        index.merge(postId, weight, TrendingIndex::logAddExp);
+    }
+
+    /**
+     * 現在トレンドの投稿IDをスコアの高い順に最大N件取得します。
+     *
+     * @param n 取得する件数
+     * @return 投稿IDのリスト
+     */
+    public List<Long> topIds(int n) {
+        return index.top(n).stream().map(ScoreIndex.Entry::id).toList();
+    }
+
+    /**
+     * 投稿の現在のトレンドスコア（現在時刻まで減衰させたいいねの重みの合計）を取得します。
+     *
+     * @param postId 投稿ID
+     * @return スコア、またはいいねが記録されていない場合は0
+     */
+    public double currentScore(long postId) {
+        Double logScore = index.score(postId);
+        if (logScore == null) {
+            return 0;
+        }
+        return Math.exp(logScore - decayPerMilli * (clock.millis() - landmarkMillis));
+    }
+
+    /**
+     * 記録されたスコアをすべて破棄します。
+     */
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * 対数で表された2つの値の和を対数のまま求めます（log(e^a + e^b)）。
+     */
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+}
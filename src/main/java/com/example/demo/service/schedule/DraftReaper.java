@@ -0,0 +1,245 @@
+package com.example.demo.service.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.model.Post;
+import com.example.demo.repository.PostFootprint;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+
+/**
+ * 一定期間更新されていない下書きを削除するリーパー。
+ *
+ * <p>下書きは期限（更新日時＋TTL）ごとに一定幅の時間バケットへ振り分けて管理します。
+ * リーパーは期限を過ぎたバケットに含まれる下書きだけを確認するため、ストア全体を走査しません。
+ * 下書きが更新された場合は新しい期限のバケットへ移され、公開・削除・公開予約された場合は対象から外れます。
+ * 削除処理が下書きの削除を見送った場合（読み取り専用のレプリカなど）も対象から外れるため、
+ * 削除できる状態になった時点で{@link #rebuild(Collection)}で管理対象を作り直します。</p>
+ */
+public class DraftReaper implements PostChangeListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftReaper.class);
+
+    private final Duration ttl;
+    private final long bucketMillis;
+    private final Clock clock;
+    private final Function<Long, Post> expirer;
+    /** 期限のバケット番号 → そのバケットで期限を迎える下書きのID */
+    private final TreeMap<Long, Set<Long>> buckets = new TreeMap<>();
+    /** 下書きのID → 所属するバケット番号 */
+    private final Map<Long, Long> bucketOf = new HashMap<>();
+    private final AtomicLong reclaimedDrafts = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private volatile Instant lastReapAt;
+    private ScheduledExecutorService executor;
+
+    /**
+     * リーパーを生成します。
+     *
+     * @param ttl 下書きを保持する期間（最終更新日時から）
+     * @param bucketWidth 時間バケットの幅（リーパーの実行間隔）
+     * @param clock 現在時刻の取得に使用する時計
+     * @param expirer 下書きのIDを受け取り、期限切れであることを確認して削除する処理（削除した投稿、削除しなかった場合はnullを返す）
+     */
+    public DraftReaper(Duration ttl, Duration bucketWidth, Clock clock, Function<Long, Post> expirer) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.ttl = ttl;
+        this.bucketMillis = Math.max(1, bucketWidth.toMillis());
+        this.clock = clock;
+        this.expirer = expirer;
+    }
+
+    /**
+     * 一定間隔で期限切れの下書きを削除するスレッドを起動します。
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "draft-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::reapSafely, bucketMillis, bucketMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onChange(PostChange change) {
+        switch (change.type()) {
+            case CREATED, UPDATED -> track(change.post());
+            case PUBLISHED, DELETED -> untrack(change.postId());
+            default -> {
+                // いいねでは更新日時は変わらない
+            }
+        }
+    }
+
+    /**
+     * 投稿を期限の管理対象に加えます。下書きでない投稿や公開予約中の下書きは対象から外します。
+     *
+     * @param post 投稿
+     */
+    public synchronized void track(Post post) {
+        if (!post.isDraft() || post.getScheduledPublishAt() != null) {
+            untrack(post.getId());
+            return;
+        }
+        Instant lastModified = post.getUpdatedAt() != null ? post.getUpdatedAt() : post.getCreatedAt();
+        long bucket = Math.floorDiv(lastModified.plus(ttl).toEpochMilli() + bucketMillis - 1, bucketMillis);
+        Long previous = bucketOf.put(post.getId(), bucket);
+        if (previous != null && previous != bucket) {
+            removeFromBucket(previous, post.getId());
+        }
+        buckets.computeIfAbsent(bucket, key -> new HashSet<>()).add(post.getId());
+    }
+
+    /**
+     * 管理対象を破棄し、指定された投稿から作り直します。
+     *
+     * @param posts 管理対象とする投稿（下書きでない投稿は無視されます）
+     */
+    public synchronized void rebuild(Collection<Post> posts) {
+        clear();
+        posts.forEach(this::track);
+    }
+
+    /**
+     * 管理対象をすべて破棄します。{@link #track}と組み合わせて、ストアを走査しながら作り直す場合に使用します。
+     */
+    public synchronized void clear() {
+        buckets.clear();
+        bucketOf.clear();
+    }
+
+    /**
+     * 投稿を期限の管理対象から外します。
+     *
+     * @param postId 投稿ID
+     */
+    public synchronized void untrack(Long postId) {
+        Long previous = bucketOf.remove(postId);
+        if (previous != null) {
+            removeFromBucket(previous, postId);
+        }
+    }
+
+    /**
+     * 期限を過ぎたバケットの下書きを削除します。
+     * 削除処理はロックを保持せずに呼び出すため、その中で発生する変更通知によって管理対象が更新されても問題ありません。
+     *
+     * @return 削除した下書きの数
+     */
+    public int reap() {
+        long nowBucket = Math.floorDiv(clock.millis(), bucketMillis);
+        var due = new ArrayList<Long>();
+        synchronized (this) {
+            while (!buckets.isEmpty() && buckets.firstKey() <= nowBucket) {
+                for (Long postId : buckets.pollFirstEntry().getValue()) {
+                    bucketOf.remove(postId);
+                    due.add(postId);
+                }
+            }
+        }
+        int reclaimed = 0;
+        for (Long postId : due) {
+            Post removed;
+            try {
+                removed = expirer.apply(postId);
+            } catch (RuntimeException e) {
+                // 一時的な失敗の可能性があるため、次のバケットで確認し直す
+                log.warn("Expiring draft {} failed", postId, e);
+                retryLater(postId, nowBucket + 1);
+                continue;
+            }
+            if (removed != null) {
+                reclaimed++;
+                reclaimedBytes.addAndGet(PostFootprint.estimate(removed));
+                reclaimedDrafts.incrementAndGet();
+            }
+        }
+        lastReapAt = clock.instant();
+        return reclaimed;
+    }
+
+    /**
+     * 期限切れの判定基準となる時刻（現在時刻−TTL）を取得します。この時刻以前に最後に更新された下書きは期限切れです。
+     *
+     * @return 判定基準の時刻
+     */
+    public Instant getExpiryCutoff() {
+        return clock.instant().minus(ttl);
+    }
+
+    /**
+     * 下書きの削除状況を取得します。
+     *
+     * @return TTL、管理中の下書き数、削除した下書きの数と推定解放バイト数、最後の実行日時
+     */
+    public synchronized Map<String, Object> snapshot() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("ttl", ttl.toString());
+        stats.put("trackedDrafts", bucketOf.size());
+        stats.put("pendingBuckets", buckets.size());
+        stats.put("reclaimedDrafts", reclaimedDrafts.get());
+        stats.put("reclaimedBytes", reclaimedBytes.get());
+        stats.put("lastReapAt", lastReapAt);
+        return stats;
+    }
+
+    /**
+     * リーパーのスレッドを停止します。
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private synchronized void retryLater(Long postId, long bucket) {
+        // 確認の間に更新されて管理対象に戻っている場合は、その期限を優先する
+        if (bucketOf.putIfAbsent(postId, bucket) == null) {
+            buckets.computeIfAbsent(bucket, key -> new HashSet<>()).add(postId);
+        }
+    }
+
+    private void removeFromBucket(long bucket, Long postId) {
+        var ids = buckets.get(bucket);
+        if (ids != null && ids.remove(postId) && ids.isEmpty()) {
+            buckets.remove(bucket);
+        }
+    }
+
+    private void reapSafely() {
+        try {
+            int reclaimed = reap();
+            if (reclaimed > 0) {
+                log.info("Reclaimed {} abandoned drafts", reclaimed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Draft reaper run failed", e);
+        }
+    }
+}
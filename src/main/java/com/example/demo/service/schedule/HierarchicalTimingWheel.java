@@ -0,0 +1,202 @@
+package com.example.demo.service.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * 多数のタイマーをO(1)で登録・取り消しできる階層型タイミングホイール。
+ *
+ * <p>最下層のホイールは1スロットが1ティック、上の階層ほど1スロットがスロット数倍の時間を表します。
+ * 遠い期限のタイマーは上位の階層に置かれ、その時間帯が近づいた時点で下位の階層へ移されます（カスケード）。
+ * 最上位の階層でも表せないほど遠いタイマーは最上位の最も遠いスロットに置かれ、移される際に改めて配置されます。</p>
+ *
+ * <p>このクラスはスレッドセーフではありません。呼び出し元で排他制御を行ってください。</p>
+ *
+ * @param <T> タイマーに関連付ける値の型
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Slot<T>[][] wheels;
+    /** 処理済みの最後のティック（{@code originMillis}からのティック数） */
+    private long currentTick;
+    private int size;
+
+    /**
+     * タイミングホイールを生成します。
+     *
+     * @param tickMillis 1ティックの長さ（ミリ秒）
+     * @param levels 階層数（1〜10）。表せる範囲は{@code tickMillis * 64^levels}ミリ秒
+     * @param startMillis 開始時刻（エポックミリ秒）
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        if (levels < 1 || levels > 10) {
+            throw new IllegalArgumentException("levels must be between 1 and 10: " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = startMillis;
+        this.wheels = new Slot[levels][SLOTS];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Slot<>();
+            }
+        }
+    }
+
+    /**
+     * タイマーを登録します。期限が既に過ぎている場合は次のティックで満了します。
+     *
+     * @param deadlineMillis 期限（エポックミリ秒）
+     * @param value タイマーに関連付ける値
+     * @return 取り消しに使用するタイマー
+     */
+    public Timer<T> schedule(long deadlineMillis, T value) {
+        long ticks = Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+        var timer = new Timer<T>(Math.max(ticks, currentTick + 1), value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * タイマーを取り消します。
+     *
+     * @param timer 取り消すタイマー
+     * @return 取り消した場合はtrue、既に満了または取り消し済みの場合はfalse
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.slot == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * 指定された時刻までホイールを進め、期限を迎えたタイマーの値を期限順に通知します。
+     *
+     * @param nowMillis 現在時刻（エポックミリ秒）
+     * @param expired 期限を迎えたタイマーの値を受け取る処理
+     * @return 満了したタイマーの数
+     */
+    public int advanceTo(long nowMillis, Consumer<? super T> expired) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int fired = 0;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // 空の間は各ティックを処理する必要がない
+                currentTick = targetTick;
+                break;
+            }
+            long tick = ++currentTick;
+            for (int level = wheels.length - 1; level >= 1; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            var slot = wheels[0][(int) tick & SLOT_MASK];
+            for (Timer<T> timer = slot.head.next; timer != slot.head; timer = slot.head.next) {
+                timer.unlink();
+                size--;
+                fired++;
+                expired.accept(timer.value);
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * 登録中のタイマー数を取得します。
+     *
+     * @return タイマー数
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(Slot<T> slot) {
+        for (Timer<T> timer = slot.head.next; timer != slot.head; timer = slot.head.next) {
+            timer.unlink();
+            place(timer);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long deadline = Math.max(timer.deadlineTick, currentTick);
+        long delta = deadline - currentTick;
+        for (int level = 0; level < wheels.length; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                wheels[level][(int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK].add(timer);
+                return;
+            }
+        }
+        // 表せる範囲を超えるタイマーは最上位の最も遠いスロットに置き、移される際に再配置する
+        int top = wheels.length - 1;
+        long farthest = currentTick + (1L << (SLOT_BITS * wheels.length)) - 1;
+        wheels[top][(int) (farthest >>> (SLOT_BITS * top)) & SLOT_MASK].add(timer);
+    }
+
+    /**
+     * 登録されたタイマー。取り消しに使用します。
+     *
+     * @param <T> タイマーに関連付ける値の型
+     */
+    public static final class Timer<T> {
+        private final long deadlineTick;
+        private final T value;
+        private Slot<T> slot;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadlineTick, T value) {
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+
+        /**
+         * タイマーに関連付けた値を取得します。
+         *
+         * @return 値
+         */
+        public T getValue() {
+            return value;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+            slot = null;
+        }
+    }
+
+    /**
+     * 1つのスロット。タイマーの双方向循環リストで、番兵を先頭に持ちます。
+     */
+    private static final class Slot<T> {
+        private final Timer<T> head = new Timer<>(0, null);
+
+        Slot() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Timer<T> timer) {
+            timer.slot = this;
+            timer.prev = head.prev;
+            timer.next = head;
+            head.prev.next = timer;
+            head.prev = timer;
+        }
+    }
+}
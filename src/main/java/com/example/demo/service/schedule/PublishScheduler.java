@@ -0,0 +1,152 @@
+package com.example.demo.service.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 投稿の予約公開を管理するスケジューラー。
+ * 予約は{@link HierarchicalTimingWheel}に登録され、ティックごとに期限を迎えた投稿IDがまとめて通知されます。
+ * ティックを進めるスレッドは最初の予約が登録された時点で起動します。
+ */
+public class PublishScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishScheduler.class);
+    /** 1ティック×64^5で、100ミリ秒ティックなら約34年先までを直接表せる */
+    private static final int LEVELS = 5;
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final Consumer<List<Long>> publisher;
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Map<Long, HierarchicalTimingWheel.Timer<Long>> timers = new HashMap<>();
+    private ScheduledExecutorService ticker;
+    private boolean closed;
+
+    /**
+     * スケジューラーを生成します。
+     *
+     * @param tick ティックの長さ（予約公開の時刻の精度）
+     * @param clock 現在時刻の取得に使用する時計
+     * @param publisher 期限を迎えた投稿IDのまとまりを受け取り、公開する処理
+     */
+    public PublishScheduler(Duration tick, Clock clock, Consumer<List<Long>> publisher) {
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.publisher = publisher;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, LEVELS, clock.millis());
+    }
+
+    /**
+     * 投稿の公開を予約します。既に予約がある場合は置き換えます。
+     *
+     * @param postId 投稿ID
+     * @param publishAt 公開日時
+     */
+    public synchronized void schedule(Long postId, Instant publishAt) {
+        if (closed) {
+            throw new IllegalStateException("Scheduler has been closed");
+        }
+        var previous = timers.put(postId, wheel.schedule(publishAt.toEpochMilli(), postId));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        startTicker();
+    }
+
+    /**
+     * 投稿の公開予約を取り消します。
+     *
+     * @param postId 投稿ID
+     * @return 予約を取り消した場合はtrue、予約がなかった場合はfalse
+     */
+    public synchronized boolean cancel(Long postId) {
+        var timer = timers.remove(postId);
+        return timer != null && wheel.cancel(timer);
+    }
+
+    /**
+     * 複数の投稿の公開予約をまとめて取り消します。
+     *
+     * @param postIds 投稿IDの一覧
+     * @return 取り消した予約の数
+     */
+    public synchronized int cancelAll(Collection<Long> postIds) {
+        if (timers.isEmpty()) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (Long postId : postIds) {
+            var timer = timers.remove(postId);
+            if (timer != null && wheel.cancel(timer)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * 公開待ちの予約数を取得します。
+     *
+     * @return 予約数
+     */
+    public synchronized int getPendingCount() {
+        return timers.size();
+    }
+
+    /**
+     * 現在時刻までホイールを進め、期限を迎えた投稿をまとめて公開処理へ渡します。
+     * 公開処理はロックを保持せずに呼び出すため、その中で予約の登録や取り消しを行えます。
+     */
+    void tick() {
+        var due = new ArrayList<Long>();
+        synchronized (this) {
+            wheel.advanceTo(clock.millis(), postId -> {
+                timers.remove(postId);
+                due.add(postId);
+            });
+        }
+        if (!due.isEmpty()) {
+            try {
+                publisher.accept(due);
+            } catch (RuntimeException e) {
+                log.warn("Scheduled publish of {} posts failed", due.size(), e);
+            }
+        }
+    }
+
+    /**
+     * ティックを進めるスレッドを停止します。登録済みの予約は破棄されます。
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    private void startTicker() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "post-publish-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.service.stats;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 投稿ごとの直近24時間の1分単位のいいね数。
+ *
+ * <p>ヒストグラムはいいねされた投稿に対してだけ、最初のいいねの時点で割り当てます。
+ * 各ヒストグラムは1440個の{@code int}からなるリングで、スロットには日の番号の下位12ビットと
+ * その分のいいね数（20ビット、上限で飽和）を詰めて保持し、CASで更新するため、ロックは使用しません。</p>
+ *
+ * <p>メモリ使用量は追跡する投稿数の上限（1件当たり約6KB）で抑えます。上限を超えた場合は、
+ * 追跡を始めた順に古いヒストグラムから破棄します。ただし直近1時間にいいねのあった投稿は一度だけ後回しにします。</p>
+ */
+public class LikeHistograms {
+
+    /** 保持する分の数（24時間） */
+    public static final int MINUTES = 24 * 60;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final int COUNT_BITS = 20;
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+    private static final int TAG_MASK = (1 << (Integer.SIZE - COUNT_BITS)) - 1;
+    /** 追い出しを後回しにする、最後のいいねからの分数 */
+    private static final long RECENT_MINUTES = 60;
+    /** ヒストグラム1件当たりの推定バイト数（int配列本体と管理用のオブジェクト） */
+    private static final long HISTOGRAM_BYTES = 16L + 4L * MINUTES + 64;
+
+    private final int maxTrackedPosts;
+    private final Map<Long, Histogram> histograms = new ConcurrentHashMap<>();
+    /** 追跡を始めた順の投稿ID（追い出しの候補） */
+    private final Queue<Long> admissionOrder = new ConcurrentLinkedQueue<>();
+    /** admissionOrderの要素数（ConcurrentLinkedQueue#sizeは線形時間のため別に数える） */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 指定された上限でヒストグラムの集合を生成します。
+     *
+     * @param maxTrackedPosts 同時に追跡する投稿数の上限
+     */
+    public LikeHistograms(int maxTrackedPosts) {
+        if (maxTrackedPosts < 1) {
+            throw new IllegalArgumentException("maxTrackedPosts must be positive: " + maxTrackedPosts);
+        }
+        this.maxTrackedPosts = maxTrackedPosts;
+    }
+
+    /**
+     * いいねを1件記録します。
+     *
+     * @param postId 投稿ID
+     * @param epochMillis いいねの日時（エポックミリ秒）
+     */
+    public void record(Long postId, long epochMillis) {
+        long minute = Math.floorDiv(epochMillis, MINUTE_MILLIS);
+        var histogram = histograms.get(postId);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(postId, id -> {
+                admissionOrder.add(id);
+                queued.incrementAndGet();
+                return new Histogram();
+            });
+            if (histograms.size() > maxTrackedPosts) {
+                evict(minute);
+            }
+        }
+        histogram.increment(minute);
+    }
+
+    /**
+     * 指定された時刻までの直近の1分ごとのいいね数を取得します。
+     *
+     * @param postId 投稿ID
+     * @param nowMillis 最後の分を含む時刻（エポックミリ秒）
+     * @param minutes 取得する分の数（1〜{@value #MINUTES}）
+     * @return 古い順の1分ごとのいいね数（追跡していない投稿はすべて0）
+     */
+    public int[] recent(Long postId, long nowMillis, int minutes) {
+        if (minutes < 1 || minutes > MINUTES) {
+            throw new IllegalArgumentException("minutes must be between 1 and " + MINUTES + ": " + minutes);
+        }
+        var counts = new int[minutes];
+        var histogram = histograms.get(postId);
+        if (histogram != null) {
+            long last = Math.floorDiv(nowMillis, MINUTE_MILLIS);
+            for (int i = 0; i < minutes; i++) {
+                counts[i] = histogram.count(last - minutes + 1 + i);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 指定された分の開始日時を取得します。
+     *
+     * @param nowMillis 最後の分を含む時刻（エポックミリ秒）
+     * @param minutes 分の数
+     * @return {@link #recent}が返す最初の分の開始日時
+     */
+    public static Instant startOf(long nowMillis, int minutes) {
+        return Instant.ofEpochMilli((Math.floorDiv(nowMillis, MINUTE_MILLIS) - minutes + 1) * MINUTE_MILLIS);
+    }
+
+    /**
+     * 投稿のヒストグラムを破棄します。
+     *
+     * @param postId 投稿ID
+     */
+    public void remove(Long postId) {
+        if (histograms.remove(postId) != null && queued.get() > 2 * maxTrackedPosts) {
+            // 削除された投稿のIDが追い出しの候補に溜まり続けないよう、まとめて取り除く
+            admissionOrder.removeIf(id -> !histograms.containsKey(id));
+            queued.set(admissionOrder.size());
+        }
+    }
+
+    /**
+     * すべてのヒストグラムを破棄します。
+     */
+    public void clear() {
+        histograms.clear();
+        admissionOrder.clear();
+        queued.set(0);
+    }
+
+    /**
+     * 追跡中の投稿数を取得します。
+     *
+     * @return 投稿数
+     */
+    public int size() {
+        return histograms.size();
+    }
+
+    /**
+     * ヒストグラムが使用しているおおよそのバイト数を取得します。
+     *
+     * @return 推定バイト数
+     */
+    public long estimatedBytes() {
+        return histograms.size() * HISTOGRAM_BYTES;
+    }
+
+    private void evict(long nowMinute) {
+        int postponed = 0;
+        while (histograms.size() > maxTrackedPosts) {
+            Long candidate = admissionOrder.poll();
+            if (candidate == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            var histogram = histograms.get(candidate);
+            if (histogram == null) {
+                // 削除済みの投稿
+                continue;
+            }
+            if (histogram.lastMinute >= nowMinute - RECENT_MINUTES && postponed < maxTrackedPosts) {
+                postponed++;
+                admissionOrder.add(candidate);
+                queued.incrementAndGet();
+                continue;
+            }
+            histograms.remove(candidate, histogram);
+        }
+    }
+
+    /**
+     * 1件の投稿の直近24時間のいいね数。
+     */
+    private static final class Histogram {
+        private final AtomicIntegerArray slots = new AtomicIntegerArray(MINUTES);
+        private volatile long lastMinute;
+
+        void increment(long minute) {
+            int index = (int) Math.floorMod(minute, (long) MINUTES);
+            int tag = tagOf(minute);
+            while (true) {
+                int current = slots.get(index);
+                int next;
+                if (current != 0 && current >>> COUNT_BITS == tag) {
+                    if ((current & COUNT_MASK) == COUNT_MASK) {
+                        return;
+                    }
+                    next = current + 1;
+                } else if (current == 0 || isNewer(tag, current >>> COUNT_BITS)) {
+                    next = (tag << COUNT_BITS) | 1;
+                } else {
+                    // スロットが既に新しい日に使われている（24時間より前のいいね）
+                    return;
+                }
+                if (slots.compareAndSet(index, current, next)) {
+                    break;
+                }
+            }
+            if (minute > lastMinute) {
+                lastMinute = minute;
+            }
+        }
+
+        int count(long minute) {
+            int value = slots.get((int) Math.floorMod(minute, (long) MINUTES));
+            return value != 0 && value >>> COUNT_BITS == tagOf(minute) ? value & COUNT_MASK : 0;
+        }
+
+        private static int tagOf(long minute) {
+            return (int) (Math.floorDiv(minute, (long) MINUTES) & TAG_MASK);
+        }
+
+        private static boolean isNewer(int tag, int storedTag) {
+            return ((tag - storedTag) & TAG_MASK) < (TAG_MASK + 1) / 2;
+        }
+    }
+}
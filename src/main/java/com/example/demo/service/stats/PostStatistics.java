@@ -0,0 +1,122 @@
+package com.example.demo.service.stats;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.demo.model.Post;
+
+/**
+ * 投稿の件数・いいね数・内容の長さの合計を、変更のたびに差分で更新する集計器。
+ *
+ * <p>各集計値は{@link LongAdder}で保持するため、同時に多数の更新があってもカウンターの競合は起きず、
+ * 集計値の取得は投稿数によらず定数時間です。
+ * 複数の集計値をまとめて取得する際の一貫性は保証しないため、更新中は値の間にわずかなずれが生じる場合があります。</p>
+ */
+public class PostStatistics {
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder drafts = new LongAdder();
+    private final LongAdder likes = new LongAdder();
+    private final LongAdder contentLength = new LongAdder();
+
+    /**
+     * 投稿の追加を反映します。
+     *
+     * @param post 追加された投稿
+     */
+    public void added(Post post) {
+        total.increment();
+        if (post.isDraft()) {
+            drafts.increment();
+        }
+        likes.add(post.getLikes());
+        contentLength.add(post.contentLength());
+    }
+
+    /**
+     * 投稿の削除を反映します。
+     *
+     * @param post 削除された投稿
+     */
+    public void removed(Post post) {
+        total.decrement();
+        if (post.isDraft()) {
+            drafts.decrement();
+        }
+        likes.add(-post.getLikes());
+        contentLength.add(-post.contentLength());
+    }
+
+    /**
+     * 投稿の変更を反映します。値が変わった集計値だけを更新します。
+     *
+     * @param before 変更前の投稿の状態
+     * @param after 変更後の投稿
+     */
+    public void changed(Shape before, Post after) {
+        if (before.draft() != after.isDraft()) {
+            drafts.add(after.isDraft() ? 1 : -1);
+        }
+        if (before.likes() != after.getLikes()) {
+            likes.add(after.getLikes() - before.likes());
+        }
+        int length = after.contentLength();
+        if (before.contentLength() != length) {
+            contentLength.add(length - before.contentLength());
+        }
+    }
+
+    /**
+     * 現在の投稿から集計し直します。
+     * 変更イベントを経由せずにストアの内容が入れ替わった場合（起動時やレプリカのスナップショットなど）に使用します。
+     *
+     * @param posts ストア内の全投稿
+     */
+    public synchronized void rebuild(Collection<Post> posts) {
+        clear();
+        posts.forEach(this::added);
+    }
+
+    /**
+     * 集計値を0に戻します。{@link #added}と組み合わせて、ストアを走査しながら集計し直す場合に使用します。
+     */
+    public synchronized void clear() {
+        total.reset();
+        drafts.reset();
+        likes.reset();
+        contentLength.reset();
+    }
+
+    /**
+     * 現在の集計値を取得します。
+     *
+     * @return 集計値
+     */
+    public PostStats snapshot() {
+        long totalPosts = Math.max(0, total.sum());
+        long draftPosts = Math.max(0, Math.min(totalPosts, drafts.sum()));
+        long length = contentLength.sum();
+        return new PostStats(totalPosts, draftPosts, totalPosts - draftPosts, likes.sum(),
+                totalPosts == 0 ? 0.0 : (double) length / totalPosts);
+    }
+
+    /**
+     * 集計に関わる投稿の状態。変更前の値を保持するために使用します。
+     *
+     * @param draft 下書きかどうか
+     * @param likes いいね数
+     * @param contentLength 内容の文字数
+     */
+    public record Shape(boolean draft, int likes, int contentLength) {
+
+        /**
+         * 投稿の現在の状態を取得します。
+         *
+         * @param post 投稿
+         * @return 集計に関わる状態
+         */
+        public static Shape of(Post post) {
+            return new Shape(post.isDraft(), post.getLikes(), post.contentLength());
+        }
+    }
+}
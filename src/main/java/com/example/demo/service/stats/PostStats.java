@@ -0,0 +1,14 @@
+package com.example.demo.service.stats;
+
+/**
+ * 投稿全体の集計値。
+ *
+ * @param totalPosts 投稿の総数
+ * @param draftPosts 下書きの数
+ * @param publishedPosts 公開済みの投稿の数
+ * @param totalLikes いいね数の合計
+ * @param averageContentLength 投稿内容の平均文字数（投稿がない場合は0）
+ */
+public record PostStats(long totalPosts, long draftPosts, long publishedPosts, long totalLikes,
+                        double averageContentLength) {
+}
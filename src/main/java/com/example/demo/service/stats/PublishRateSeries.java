@@ -0,0 +1,223 @@
+package com.example.demo.service.stats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+
+/**
+ * 投稿の公開数を分・時・日単位で集計する時系列。
+ *
+ * <p>解像度ごとに固定長のリングバッファを持ち、公開のたびに公開日時が属する区間のカウンターを1つずつ増やします。
+ * 各スロットは区間の番号とカウントを1つの{@code long}に詰めて保持し、CASで更新するため、ロックは使用しません。
+ * 保持期間を過ぎた区間のスロットは、新しい区間の最初の公開で上書きされます。</p>
+ *
+ * <p>集計するのは公開のイベント数であり、公開後に投稿が削除されても過去の区間の件数は減りません。</p>
+ */
+public class PublishRateSeries implements PostChangeListener {
+
+    /**
+     * 集計の解像度と保持する区間数。
+     */
+    public enum Resolution {
+        /** 1分単位（直近24時間） */
+        MINUTE(60_000L, 24 * 60),
+        /** 1時間単位（直近30日） */
+        HOUR(3_600_000L, 30 * 24),
+        /** 1日単位（直近366日） */
+        DAY(86_400_000L, 366);
+
+        private final long millis;
+        private final int retention;
+
+        Resolution(long millis, int retention) {
+            this.millis = millis;
+            this.retention = retention;
+        }
+
+        /**
+         * 区間の長さ（ミリ秒）を取得します。
+         *
+         * @return 区間の長さ
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * 保持する区間の数を取得します。
+         *
+         * @return 区間数
+         */
+        public int getRetention() {
+            return retention;
+        }
+
+        /**
+         * 名前（大文字・小文字を区別しない）から解像度を取得します。
+         *
+         * @param name 解像度の名前（例: {@code minute}）
+         * @return 解像度、または該当しない場合はnull
+         */
+        public static Resolution parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 1つの区間の公開数。
+     *
+     * @param start 区間の開始日時
+     * @param count 公開数
+     */
+    public record Bucket(Instant start, long count) {
+    }
+
+    private final Ring[] rings;
+
+    /**
+     * 空の時系列を生成します。
+     */
+    public PublishRateSeries() {
+        var resolutions = Resolution.values();
+        this.rings = new Ring[resolutions.length];
+        for (Resolution resolution : resolutions) {
+            rings[resolution.ordinal()] = new Ring(resolution);
+        }
+    }
+
+    @Override
+    public void onChange(PostChange change) {
+        if (change.type() == PostChange.Type.PUBLISHED && change.post().getPublishedAt() != null) {
+            record(change.post().getPublishedAt());
+        }
+    }
+
+    /**
+     * 公開を1件記録します。
+     *
+     * @param publishedAt 公開日時
+     */
+    public void record(Instant publishedAt) {
+        long millis = publishedAt.toEpochMilli();
+        for (Ring ring : rings) {
+            ring.increment(millis);
+        }
+    }
+
+    /**
+     * 現在の投稿の公開日時から集計し直します。
+     * 変更イベントを経由せずにストアの内容が入れ替わった場合（起動時やレプリカのスナップショットなど）に使用します。
+     *
+     * @param posts ストア内の全投稿
+     */
+    public synchronized void rebuild(Collection<Post> posts) {
+        clear();
+        posts.forEach(this::add);
+    }
+
+    /**
+     * 集計を空にします。{@link #add}と組み合わせて、ストアを走査しながら集計し直す場合に使用します。
+     */
+    public synchronized void clear() {
+        for (Ring ring : rings) {
+            ring.clear();
+        }
+    }
+
+    /**
+     * 変更イベントを経由せずに投稿の公開日時を集計へ加えます。下書きは無視されます。
+     *
+     * @param post 集計する投稿
+     */
+    public void add(Post post) {
+        if (!post.isDraft() && post.getPublishedAt() != null) {
+            record(post.getPublishedAt());
+        }
+    }
+
+    /**
+     * 指定された範囲に含まれる区間ごとの公開数を取得します。
+     * 範囲の境界を含む区間も対象となり、保持期間を過ぎた区間の公開数は0になります。
+     *
+     * @param resolution 解像度
+     * @param from 範囲の開始日時
+     * @param to 範囲の終了日時（この日時を含まない）
+     * @return 開始日時の古い順の区間（最大で保持する区間数まで、新しい側を優先）
+     */
+    public List<Bucket> query(Resolution resolution, Instant from, Instant to) {
+        return rings[resolution.ordinal()].query(from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * 1つの解像度のリングバッファ。
+     */
+    private static final class Ring {
+        private static final int COUNT_BITS = 32;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final long millis;
+        private final int retention;
+        /** 上位32ビットに区間番号、下位32ビットにカウントを詰めた値 */
+        private final AtomicLongArray slots;
+
+        Ring(Resolution resolution) {
+            this.millis = resolution.getMillis();
+            this.retention = resolution.getRetention();
+            this.slots = new AtomicLongArray(retention);
+        }
+
+        void increment(long epochMillis) {
+            long bucket = Math.floorDiv(epochMillis, millis);
+            if (bucket < 0) {
+                return;
+            }
+            int index = (int) Math.floorMod(bucket, (long) retention);
+            while (true) {
+                long current = slots.get(index);
+                long stored = current >>> COUNT_BITS;
+                long next;
+                if (stored == bucket) {
+                    next = current + 1;
+                } else if (stored < bucket) {
+                    next = (bucket << COUNT_BITS) | 1;
+                } else {
+                    // 保持期間より古い公開は記録しない
+                    return;
+                }
+                if (slots.compareAndSet(index, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        List<Bucket> query(long fromMillis, long toMillis) {
+            long first = Math.floorDiv(fromMillis, millis);
+            long last = Math.floorDiv(toMillis - 1, millis);
+            first = Math.max(first, last - retention + 1);
+            var result = new ArrayList<Bucket>((int) Math.max(0, last - first + 1));
+            for (long bucket = first; bucket <= last; bucket++) {
+                long value = slots.get((int) Math.floorMod(bucket, (long) retention));
+                long count = value >>> COUNT_BITS == bucket ? value & COUNT_MASK : 0;
+                result.add(new Bucket(Instant.ofEpochMilli(bucket * millis), count));
+            }
+            return result;
+        }
+
+        void clear() {
+            for (int i = 0; i < retention; i++) {
+                slots.set(i, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.web;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 同時実行数の上限を応答時間に応じて調整するリミッター（AIMD方式）。
+ *
+ * <p>完了したリクエストの応答時間を一定の時間窓ごとに平均し、目標の応答時間を超えた窓（または過負荷による失敗を含む窓）では
+ * 上限を0.9倍に下げ、目標以内に収まり上限近くまで使われていた窓では上限を1つ上げます。
+ * 上限に達している間の新しいリクエストは待たせずに即座に拒否します。</p>
+ *
+ * <p>受け付けと完了は{@code int}カウンターのCASだけで行い、上限の調整は時間窓を閉じたスレッドが1回だけ行うため、ロックは使用しません。</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long DEFAULT_WINDOW_NANOS = 100_000_000L;
+    private static final int DEFAULT_MIN_SAMPLES = 10;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final long windowNanos;
+    private final int minSamples;
+    private final LongSupplier clock;
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** 現在の時間窓の集計 */
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private final LongAdder windowDropped = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicLong windowEnd;
+    private volatile double lastAverageLatencyMillis;
+
+    /**
+     * リミッターを生成します。
+     *
+     * @param initialLimit 同時実行数の初期上限
+     * @param maxLimit 同時実行数の上限の最大値
+     * @param latencyTarget 目標とする平均応答時間
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, Duration latencyTarget) {
+        this(initialLimit, maxLimit, latencyTarget.toNanos(), DEFAULT_WINDOW_NANOS, DEFAULT_MIN_SAMPLES, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, long latencyTargetNanos,
+                               long windowNanos, int minSamples, LongSupplier clock) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                    "limits must satisfy 1 <= initialLimit <= maxLimit: " + initialLimit + ", " + maxLimit);
+        }
+        if (latencyTargetNanos <= 0) {
+            throw new IllegalArgumentException("latencyTarget must be positive");
+        }
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.windowNanos = windowNanos;
+        this.minSamples = minSamples;
+        this.clock = clock;
+        this.windowEnd = new AtomicLong(clock.getAsLong() + windowNanos);
+    }
+
+    /**
+     * 実行枠を1つ取得します。上限に達している場合は待たずに失敗します。
+     *
+     * @return 取得できた場合はtrue（完了時に{@link #release}を呼び出すこと）
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 実行枠を返却し、応答時間を記録します。
+     *
+     * @param latencyNanos 取得から返却までの時間（ナノ秒）
+     * @param dropped 過負荷によって処理に失敗した場合はtrue（上限を下げる要因として扱う）
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        windowSamples.increment();
+        windowLatencyNanos.add(latencyNanos);
+        if (dropped) {
+            windowDropped.increment();
+        }
+        long now = clock.getAsLong();
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowSamples.sum() >= minSamples && windowEnd.compareAndSet(end, now + windowNanos)) {
+            adjust();
+        }
+    }
+
+    /**
+     * 現在の同時実行数の上限を取得します。
+     *
+     * @return 上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 実行中のリクエスト数を取得します。
+     *
+     * @return 実行中の数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * リミッターの状態を取得します。
+     *
+     * @return 上限、実行中の数、受け付け・拒否した数、直近の時間窓の平均応答時間などの統計
+     */
+    public Map<String, Object> snapshot() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("limit", limit);
+        stats.put("maxLimit", maxLimit);
+        stats.put("inFlight", inFlight.get());
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("latencyTargetMillis", latencyTargetNanos / 1_000_000.0);
+        stats.put("lastAverageLatencyMillis", lastAverageLatencyMillis);
+        return stats;
+    }
+
+    private void adjust() {
+        // 集計中の他のスレッドの加算はどちらかの窓に入るか取りこぼされるが、数件の誤差は調整に影響しない
+        long samples = windowSamples.sumThenReset();
+        long latency = windowLatencyNanos.sumThenReset();
+        long dropped = windowDropped.sumThenReset();
+        int peak = windowMaxInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+        long average = latency / samples;
+        lastAverageLatencyMillis = average / 1_000_000.0;
+        int current = limit;
+        if (dropped > 0 || average > latencyTargetNanos) {
+            limit = Math.max(1, (int) (current * BACKOFF_RATIO));
+        } else if (peak * 2 >= current) {
+            // 上限の半分も使われていない窓では、上限を上げる根拠がない
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.web;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * リクエスト単位のヒープ割り当て量をルートごとに集計するクラス。
+ * {@code com.sun.management.ThreadMXBean}が提供するスレッド別の割り当てバイト数を利用し、
+ * 2のべき乗幅のバケットで構成されるヒストグラムとして保持します。
+ */
+public class AllocationTracker {
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * 実行中のJVMのThreadMXBeanを使用してトラッカーを生成します。
+     * スレッド別の割り当て計測がサポートされていない場合、計測は無効になります。
+     */
+    public AllocationTracker() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            this.threadMXBean = sunBean;
+        } else {
+            this.threadMXBean = null;
+        }
+    }
+
+    /**
+     * このJVMでスレッド別の割り当て計測が利用可能かどうかを判定します。
+     *
+     * @return 利用可能な場合はtrue
+     */
+    public boolean isSupported() {
+        return threadMXBean != null;
+    }
+
+    /**
+     * 現在のスレッドがこれまでに割り当てた累積バイト数を取得します。
+     *
+     * @return 累積割り当てバイト数、計測が利用できない場合は-1
+     */
+    public long currentThreadAllocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1L;
+    }
+
+    /**
+     * 1リクエスト分の割り当てバイト数を記録します。
+     *
+     * @param route ルートを表すキー（例: "GET /api/posts/{id}"）
+     * @param bytes リクエスト処理中に割り当てられたバイト数
+     */
+    public void record(String route, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+        histograms.computeIfAbsent(route, key -> new Histogram()).record(bytes);
+    }
+
+    /**
+     * ルートごとの集計結果を取得します。
+     *
+     * @return ルートをキー、集計結果を値とするマップ（ルート名順）
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        var result = new TreeMap<String, Map<String, Object>>();
+        histograms.forEach((route, histogram) -> result.put(route, histogram.snapshot()));
+        return result;
+    }
+
+    /**
+     * これまでの集計結果をすべて破棄します。
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * 1ルート分の割り当てバイト数ヒストグラム。
+     * バケットiには[2^(i-1), 2^i)バイトのリクエストが数えられます（バケット0は0バイト）。
+     */
+    static class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalBytes = new LongAdder();
+        private final LongAccumulator maxBytes = new LongAccumulator(Math::max, 0L);
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long bytes) {
+            buckets[BUCKETS - Long.numberOfLeadingZeros(bytes)].increment();
+            count.increment();
+            totalBytes.add(bytes);
+            maxBytes.accumulate(bytes);
+        }
+
+        Map<String, Object> snapshot() {
+            long[] counts = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                n += counts[i];
+            }
+
+            var result = new LinkedHashMap<String, Object>();
+            long total = totalBytes.sum();
+            result.put("requests", n);
+            result.put("totalBytes", total);
+            result.put("meanBytes", n == 0 ? 0 : total / n);
+            result.put("maxBytes", maxBytes.get());
+            result.put("p50Bytes", percentile(counts, n, 0.50));
+            result.put("p90Bytes", percentile(counts, n, 0.90));
+            result.put("p99Bytes", percentile(counts, n, 0.99));
+
+            var histogram = new LinkedHashMap<String, Long>();
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    histogram.put("<" + upperBound(i), counts[i]);
+                }
+            }
+            result.put("histogram", histogram);
+            return result;
+        }
+
+        /**
+         * 指定パーセンタイルを含むバケットの上限値を返します（近似値）。
+         */
+        private static long percentile(long[] counts, long n, double quantile) {
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        private static long upperBound(int bucket) {
+            return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+        }
+    }
+}
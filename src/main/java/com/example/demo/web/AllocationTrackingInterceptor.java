@@ -0,0 +1,49 @@
+package com.example.demo.web;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ハンドラー実行前後のスレッド別割り当てバイト数を読み取り、
+ * その差分をルートごとに{@link AllocationTracker}へ記録するインターセプター。
+ * 計測範囲にはレスポンスのシリアライズも含まれます。
+ */
+public class AllocationTrackingInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = AllocationTrackingInterceptor.class.getName() + ".start";
+
+    private final AllocationTracker tracker;
+
+    /**
+     * インターセプターのコンストラクタ。
+     *
+     * @param tracker 計測結果の集計先
+     */
+    public AllocationTrackingInterceptor(AllocationTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, tracker.currentThreadAllocatedBytes());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 非同期処理に移行したリクエストは別スレッドで割り当てが発生するため計測対象外とする
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start) || start < 0 || request.isAsyncStarted()) {
+            return;
+        }
+        long allocated = tracker.currentThreadAllocatedBytes() - start;
+        tracker.record(routeOf(request), allocated);
+    }
+
+    private static String routeOf(HttpServletRequest request) {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
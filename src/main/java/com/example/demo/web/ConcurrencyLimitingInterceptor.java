@@ -0,0 +1,68 @@
+package com.example.demo.web;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ルートの種類ごとの同時実行数の上限を超えたリクエストを、ハンドラーを実行せずに503で拒否するインターセプター。
+ * 受け付けたリクエストは完了時に実行枠を返却し、応答時間をリミッターに記録します。
+ * 拒否の応答には再試行までの秒数を{@code Retry-After}ヘッダーで示します。
+ */
+public class ConcurrencyLimitingInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitingInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = ConcurrencyLimitingInterceptor.class.getName() + ".start";
+    private static final String REJECTED_BODY = "{\"error\":\"Too many concurrent requests\"}";
+
+    private final RouteConcurrencyLimits limits;
+    private final String retryAfterSeconds;
+
+    /**
+     * インターセプターのコンストラクタ。
+     *
+     * @param limits ルートの種類ごとのリミッター
+     * @param retryAfterSeconds 拒否したリクエストに示す再試行までの秒数
+     */
+    public ConcurrencyLimitingInterceptor(RouteConcurrencyLimits limits, long retryAfterSeconds) {
+        this.limits = limits;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfterSeconds));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        var routeClass = RouteConcurrencyLimits.classify(request.getMethod(),
+                pattern != null ? pattern.toString() : request.getRequestURI());
+        var limiter = limits.get(routeClass);
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(REJECTED_BODY);
+            return false;
+        }
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter limiter)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        // フォロワーが書き込みを拒否する503は負荷と無関係なため、処理されなかった例外と500だけを失敗として扱う
+        boolean dropped = ex != null || response.getStatus() == HttpStatus.INTERNAL_SERVER_ERROR.value();
+        limiter.release(System.nanoTime() - start, dropped);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.demo.web;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostChangeListener;
+import com.example.demo.service.PostService;
+
+/**
+ * {@link PostService}の変更イベントを購読者へプッシュ配信するフィード。
+ *
+ * <p>同じ投稿へのいいねイベントは設定された時間幅の中で最新の1件にまとめて配信します。
+ * いいね以外のイベントを配信する前には保留中のいいねをすべて送り出すため、イベントは常にシーケンス順に届き、
+ * 再接続時のLast-Event-IDより前のいいねが送られないまま残ることはありません。
+ * 配信の順序はキューで決め、キューからの送り出しは1つのスレッドだけが行うため、
+ * いいねの送り出し中に届いた変更通知はキューに積むだけで戻ります。
+ * 購読者ごとに容量固定のバッファを持ち、送信は購読者ごとに仮想スレッドで行うため、
+ * 遅い購読者が他の購読者やイベントの発行元を待たせることはありません。
+ * バッファがあふれた購読者には{@code resync}イベントを送って接続を終了し、再同期を促します。</p>
+ */
+@Component
+public class PostChangeFeed implements PostChangeListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostChangeFeed.class);
+
+    private final PostService postService;
+    private final long likeWindowMillis;
+    private final int bufferCapacity;
+    /** 投稿ごとに保留中の最新のいいね（{@code pendingLikes}自体をロックして操作する） */
+    private final Map<Long, PostChange> pendingLikes = new HashMap<>();
+    /** 購読者へ送り出す順に並べたイベント */
+    private final ConcurrentLinkedQueue<PostChange> outbox = new ConcurrentLinkedQueue<>();
+    /** いずれかのスレッドが{@code outbox}から送り出している間はtrue */
+    private final AtomicBoolean broadcasting = new AtomicBoolean();
+    /** 送り出しと購読開始時の再送を直列化し、購読開始の前後でイベントを取りこぼさないためのモニター */
+    private final Object subscriptionMonitor = new Object();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * フィードを生成し、変更リスナーとして登録します。
+     *
+     * @param postService イベントの発行元
+     * @param properties 投稿機能の設定
+     */
+    public PostChangeFeed(PostService postService, PostProperties properties) {
+        this.postService = postService;
+        this.likeWindowMillis = properties.getFeed().getLikeCoalesceWindow().toMillis();
+        this.bufferCapacity = properties.getFeed().getSubscriberBuffer();
+        if (likeWindowMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "post-feed-like-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(this::flushLikes, likeWindowMillis, likeWindowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+        postService.addChangeListener(this);
+    }
+
+    /**
+     * 購読を開始します。
+     * {@code lastSequence}が指定された場合は、変更ログに残っているそれ以降の反映済みの変更を先に送ります。
+     * 変更ログに残っていない場合やバッファに収まらない場合は{@code resync}イベントを送ります。
+     *
+     * @param lastSequence クライアントが最後に受信したシーケンス番号（初回接続の場合はnull）
+     * @param sink イベントの送信先
+     * @return 購読を解除するためのハンドル
+     */
+    public Subscription subscribe(Long lastSequence, EventSink sink) {
+        var subscriber = new Subscriber(sink);
+        synchronized (subscriptionMonitor) {
+            subscribers.add(subscriber);
+            if (lastSequence != null) {
+                List<PostChange> missed = postService.getChangeLog().stableSince(lastSequence, bufferCapacity + 1);
+                if (missed == null || missed.size() > bufferCapacity) {
+                    subscriber.overflow();
+                } else {
+                    missed.forEach(subscriber::offer);
+                    subscriber.replayedUpTo = missed.isEmpty() ? lastSequence : missed.get(missed.size() - 1).sequence();
+                }
+            }
+        }
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * 現在の購読者数を取得します。
+     *
+     * @return 購読者数
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onChange(PostChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLikes) {
+            if (change.type() == PostChange.Type.LIKED && likeWindowMillis > 0) {
+                pendingLikes.put(change.postId(), change);
+                return;
+            }
+            // 後続のイベントは投稿全体のスナップショットを含むため、同じ投稿の保留中のいいねは不要になる
+            pendingLikes.remove(change.postId());
+            // このイベントより前のいいねを先に送り、Last-Event-IDより前のイベントが未送信で残らないようにする
+            releasePendingLikes();
+            outbox.add(change);
+        }
+        drainOutbox();
+    }
+
+    /**
+     * フィードを停止し、すべての購読を終了します。
+     */
+    @Override
+    public void close() {
+        postService.removeChangeListener(this);
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.sink.close());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    /**
+     * 保留中のいいねイベントを投稿ごとに最新の1件ずつ配信します。
+     */
+    void flushLikes() {
+        synchronized (pendingLikes) {
+            if (pendingLikes.isEmpty()) {
+                return;
+            }
+            releasePendingLikes();
+        }
+        drainOutbox();
+    }
+
+    /**
+     * 保留中のいいねをシーケンス順に送り出しのキューへ移します。{@code pendingLikes}のロックを保持して呼び出す必要があります。
+     */
+    private void releasePendingLikes() {
+        if (pendingLikes.isEmpty()) {
+            return;
+        }
+        pendingLikes.values().stream()
+                .sorted(Comparator.comparingLong(PostChange::sequence))
+                .forEach(outbox::add);
+        pendingLikes.clear();
+    }
+
+    /**
+     * キューのイベントを順に購読者へ配信します。
+     * 他のスレッドが配信中の場合は任せてすぐに戻り、配信を終える直前に追加されたイベントは終えた後に確認します。
+     */
+    private void drainOutbox() {
+        while (broadcasting.compareAndSet(false, true)) {
+            try {
+                PostChange change;
+                while ((change = outbox.poll()) != null) {
+                    synchronized (subscriptionMonitor) {
+                        broadcast(change);
+                    }
+                }
+            } finally {
+                broadcasting.set(false);
+            }
+            if (outbox.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void broadcast(PostChange change) {
+        for (Subscriber subscriber : subscribers) {
+            if (change.sequence() > subscriber.replayedUpTo) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    /**
+     * イベントの送信先。SSEの接続など、実際の転送手段を抽象化します。
+     */
+    public interface EventSink {
+
+        /**
+         * 変更イベントを送信します。
+         *
+         * @param change 送信する変更
+         * @throws IOException 送信に失敗した（接続が切れた）場合
+         */
+        void send(PostChange change) throws IOException;
+
+        /**
+         * 再同期が必要であることを通知します。
+         *
+         * @throws IOException 送信に失敗した場合
+         */
+        void sendResync() throws IOException;
+
+        /**
+         * 接続を終了します。
+         */
+        void close();
+    }
+
+    /**
+     * 購読の解除ハンドル。
+     */
+    @FunctionalInterface
+    public interface Subscription {
+
+        /**
+         * 購読を解除します。
+         */
+        void cancel();
+    }
+
+    /**
+     * 1つの購読者と、その未送信イベントのバッファ。
+     */
+    private final class Subscriber {
+        private final EventSink sink;
+        private final ArrayBlockingQueue<PostChange> buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean overflowed;
+        /** 接続時に変更ログから再送した最後のシーケンス番号（重複送信を避けるため） */
+        private long replayedUpTo = Long.MIN_VALUE;
+
+        Subscriber(EventSink sink) {
+            this.sink = sink;
+        }
+
+        void offer(PostChange change) {
+            if (overflowed) {
+                return;
+            }
+            if (!buffer.offer(change)) {
+                overflow();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void overflow() {
+            overflowed = true;
+            buffer.clear();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // 停止処理中は送信しない
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                PostChange change;
+                while (!overflowed && (change = buffer.poll()) != null) {
+                    sink.send(change);
+                }
+                if (overflowed) {
+                    subscribers.remove(this);
+                    sink.sendResync();
+                    sink.close();
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Dropping change feed subscriber: {}", e.toString());
+                subscribers.remove(this);
+                sink.close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.web;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ルートの種類ごとの{@link AdaptiveConcurrencyLimiter}の集合。
+ *
+ * <p>応答時間の傾向が大きく異なるルートを同じ上限で制御すると、重い一覧取得の遅延で軽い取得まで拒否されるため、
+ * 1件の取得などの軽い読み取り、全件を走査する読み取り、書き込みの3種類に分けて個別に上限を調整します。</p>
+ */
+public class RouteConcurrencyLimits {
+
+    /**
+     * 同時実行数を個別に制御するルートの種類。
+     */
+    public enum RouteClass {
+        /** 1件の取得や集計済みの値の取得など、投稿数によらず短時間で終わる読み取り */
+        POINT_READ,
+        /** 全件の走査を伴う一覧取得 */
+        SCAN,
+        /** 作成・更新・削除・いいねなどの書き込み */
+        WRITE
+    }
+
+    /** 全件の走査を伴う読み取りのルート */
+    private static final Set<String> SCAN_ROUTES = Set.of(
+            "/api/posts/published", "/api/posts/drafts", "/api/posts/changes", "/api/posts/search",
+            "/api/posts/query");
+
+    private final Map<RouteClass, AdaptiveConcurrencyLimiter> limiters;
+
+    /**
+     * ルートの種類ごとのリミッターから集合を生成します。
+     *
+     * @param limiters ルートの種類ごとのリミッター（すべての種類を含むこと）
+     */
+    public RouteConcurrencyLimits(Map<RouteClass, AdaptiveConcurrencyLimiter> limiters) {
+        if (!limiters.keySet().containsAll(Set.of(RouteClass.values()))) {
+            throw new IllegalArgumentException("limiters must cover every route class: " + limiters.keySet());
+        }
+        this.limiters = new EnumMap<>(limiters);
+    }
+
+    /**
+     * HTTPメソッドとルートのパターンからルートの種類を判定します。
+     *
+     * @param method HTTPメソッド
+     * @param pattern ルートのパターン（例: {@code /api/posts/{id}}）
+     * @return ルートの種類
+     */
+    public static RouteClass classify(String method, String pattern) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return RouteClass.WRITE;
+        }
+        return SCAN_ROUTES.contains(pattern) ? RouteClass.SCAN : RouteClass.POINT_READ;
+    }
+
+    /**
+     * ルートの種類のリミッターを取得します。
+     *
+     * @param routeClass ルートの種類
+     * @return リミッター
+     */
+    public AdaptiveConcurrencyLimiter get(RouteClass routeClass) {
+        return limiters.get(routeClass);
+    }
+
+    /**
+     * すべてのリミッターの状態を取得します。
+     *
+     * @return ルートの種類ごとの状態
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        var snapshot = new LinkedHashMap<String, Map<String, Object>>();
+        limiters.forEach((routeClass, limiter) -> snapshot.put(routeClass.name(), limiter.snapshot()));
+        return snapshot;
+    }
+}
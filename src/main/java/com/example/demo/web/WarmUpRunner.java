@@ -0,0 +1,172 @@
+package com.example.demo.web;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.model.Post;
+import com.example.demo.repository.PostRepository;
+import com.example.demo.service.PostService;
+import com.example.demo.service.id.SequentialIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 起動直後に、使い捨てのストアに対して疑似的な操作を繰り返し、JITコンパイルを進めるランナー。
+ *
+ * <p>本番と同じ種類のリポジトリで{@link PostService}を別に生成し、作成・公開・取得・いいね・更新・削除と、
+ * 一覧・検索・検索クエリ・ランキング・集計の取得を繰り返して、結果をAPIと同じ{@link ObjectMapper}でシリアライズします。
+ * 本番のストアや変更ログには一切触れません。</p>
+ *
+ * <p>Spring Bootはすべての{@link ApplicationRunner}の完了後に準備完了（{@code ReadinessState.ACCEPTING_TRAFFIC}）を通知するため、
+ * 準備完了の判定はウォームアップの終了まで遅れます。ウォームアップの前後で1件の取得とシリアライズにかかる時間を計測し、ログに出力します。</p>
+ */
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    /** 前後の比較に使う計測の回数 */
+    private static final int PROBES = 2_000;
+    /** 使い捨てのストアに保持する投稿数の上限（一覧・検索の走査量を一定に保つ） */
+    private static final int MAX_POSTS = 512;
+    /** 一覧・検索などの走査を伴う操作を行う間隔 */
+    private static final int SCAN_INTERVAL = 16;
+
+    private final Supplier<PostRepository> repositories;
+    private final PostProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * ランナーのコンストラクタ。
+     *
+     * @param repositories 使い捨てのリポジトリを生成する処理（本番と同じ種類のリポジトリを返すこと）
+     * @param properties 投稿機能の設定
+     * @param objectMapper APIの応答のシリアライズに使われるマッパー
+     */
+    public WarmUpRunner(Supplier<PostRepository> repositories, PostProperties properties, ObjectMapper objectMapper) {
+        this.repositories = repositories;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        var result = warmUp();
+        log.info("Warm-up finished in {} ms ({} iterations). getPost+serialize p50/p99: before {}, after {}",
+                result.elapsed().toMillis(), result.iterations(), result.before(), result.after());
+    }
+
+    /**
+     * ウォームアップを実行します。
+     *
+     * @return 実行した回数、所要時間、前後の計測結果
+     * @throws Exception 使い捨てのストアの操作またはシリアライズに失敗した場合
+     */
+    public Result warmUp() throws Exception {
+        var settings = properties.getWarmUp();
+        var repository = repositories.get();
+        try (var service = new PostService(repository, new SequentialIdGenerator(), properties)) {
+            var ids = new ArrayDeque<Long>();
+            // 計測対象の投稿を用意してから、ウォームアップ前の時間を計る
+            for (int i = 0; i < SCAN_INTERVAL; i++) {
+                iterate(service, ids, i);
+            }
+            var before = probe(service, ids.peekLast());
+
+            long start = System.nanoTime();
+            long deadline = start + settings.getMaxDuration().toNanos();
+            int iterations = 0;
+            while (iterations < settings.getIterations() && System.nanoTime() - deadline < 0) {
+                iterate(service, ids, SCAN_INTERVAL + iterations);
+                iterations++;
+            }
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            var after = probe(service, ids.peekLast());
+            return new Result(iterations, elapsed, before, after);
+        } finally {
+            if (repository instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * 1回分の疑似的な操作。
+     */
+    private void iterate(PostService service, ArrayDeque<Long> ids, int iteration) throws JsonProcessingException {
+        Post post = service.createDraft("Warm-up post " + iteration + " about spring boot and jvm warm-up");
+        Long id = post.getId();
+        ids.addLast(id);
+        serialize(service.publishPost(id));
+        serialize(service.getPost(id));
+        serialize(service.likePost(id));
+        serialize(service.getPostLikes(id));
+        if (iteration % 4 == 0) {
+            serialize(service.updateContent(id, "Updated warm-up post " + iteration));
+        }
+        if (iteration % SCAN_INTERVAL == 0) {
+            var params = new Post.SearchParams();
+            params.setContentKeyword(iteration % 2 == 0 ? "Spring" : "missing");
+            serialize(service.getAllPublishedPosts());
+            serialize(service.getAllDraftPosts());
+            serialize(service.searchPosts(params));
+            var query = iteration % 2 == 0 ? "spring -missing likes:>=0" : "(jvm OR \"warm-up post\") published:>=2025-01-01";
+            serialize(service.queryPosts(query).posts());
+            serialize(service.getTopLikedPosts(10));
+            serialize(service.getTrendingPosts(10));
+            serialize(service.getStats());
+            serialize(service.getChangesSince(Math.max(0, service.getStableSequence() - 10), 100));
+        }
+        if (ids.size() > MAX_POSTS) {
+            service.deletePost(ids.removeFirst());
+        }
+    }
+
+    private Latency probe(PostService service, Long id) throws JsonProcessingException {
+        var nanos = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            long start = System.nanoTime();
+            serialize(service.getPost(id));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Latency(nanos[PROBES / 2] / 1_000.0, nanos[PROBES * 99 / 100] / 1_000.0);
+    }
+
+    private void serialize(Object value) throws JsonProcessingException {
+        objectMapper.writeValueAsBytes(value);
+    }
+
+    /**
+     * ウォームアップの結果。
+     *
+     * @param iterations 疑似的な操作を繰り返した回数
+     * @param elapsed 所要時間（前後の計測を除く）
+     * @param before ウォームアップ前の計測結果
+     * @param after ウォームアップ後の計測結果
+     */
+    public record Result(int iterations, Duration elapsed, Latency before, Latency after) {
+    }
+
+    /**
+     * 1件の取得とシリアライズにかかった時間の分布。
+     *
+     * @param p50Micros 中央値（マイクロ秒）
+     * @param p99Micros 99パーセンタイル（マイクロ秒）
+     */
+    public record Latency(double p50Micros, double p99Micros) {
+
+        @Override
+        public String toString() {
+            return String.format("%.1f/%.1f us", p50Micros, p99Micros);
+        }
+    }
+}
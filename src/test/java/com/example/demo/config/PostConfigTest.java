@@ -0,0 +1,98 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+import com.example.demo.repository.JdbcPostRepository;
+import com.example.demo.service.id.BlockLeaseIdGenerator;
+
+/**
+ * PostConfigの動作をテストするクラス
+ * 永続化されたストアから起動した場合に、採番済みのIDと重複しないことを検証する
+ */
+class PostConfigTest {
+
+    private Path directory;
+    private String url;
+
+    /**
+     * 各テストメソッド実行前に一時ディレクトリのH2データベースを用意
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("post-config");
+        url = "jdbc:h2:file:" + directory.resolve("posts").toAbsolutePath();
+    }
+
+    /**
+     * 各テストメソッド実行後にデータベースのファイルを削除
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * ブロック方式の再起動のテスト
+     * 再起動後のジェネレーターが、自ノードの保存済みのIDより後ろから採番し、既存の投稿を上書きしないことを確認する
+     */
+    @Test
+    void postIdGenerator_shouldNotReuseBlockLeaseIdsAfterRestart() {
+        // given - ノードID 3のブロック方式
+        var properties = new PostProperties();
+        properties.getId().setStrategy(PostProperties.IdStrategy.BLOCK_LEASE);
+        properties.getId().setNodeId(3);
+        properties.getId().setBlockSize(4);
+        var config = new PostConfig();
+
+        // given - 再起動前に採番した投稿と、他ノードが採番したより大きな連番の投稿を保存
+        Set<Long> saved = new HashSet<>();
+        try (var repository = new JdbcPostRepository(url, Duration.ofHours(1), 1000)) {
+            var generator = config.postIdGenerator(properties, repository);
+            for (int i = 0; i < 10; i++) {
+                long id = generator.nextId();
+                repository.save(post(id, "Before restart " + i));
+                saved.add(id);
+            }
+            repository.save(post((4L << BlockLeaseIdGenerator.NODE_SHIFT) | 1_000L, "Other node"));
+        }
+
+        // when - 同じデータベースから再起動して採番
+        try (var repository = new JdbcPostRepository(url, Duration.ofHours(1), 1000)) {
+            var generator = config.postIdGenerator(properties, repository);
+            long next = generator.nextId();
+
+            // then - 保存済みのIDと重複せず、自ノードの最大の連番の次から採番されること
+            assertFalse(saved.contains(next));
+            assertEquals(3L, next >>> BlockLeaseIdGenerator.NODE_SHIFT);
+            assertEquals(11L, next & BlockLeaseIdGenerator.SEQUENCE_MASK);
+            assertNull(repository.findById(next));
+            assertEquals(11L, repository.count());
+        }
+    }
+
+    private static Post post(long id, String content) {
+        var post = new Post(content);
+        post.setId(id);
+        return post;
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.demo.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,9 +28,22 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.example.demo.config.BinaryFormatConfig;
 import com.example.demo.config.DeploymentInfo;
 import com.example.demo.model.Post;
+import com.example.demo.service.BulkResult;
+import com.example.demo.service.InvalidCursorException;
+import com.example.demo.service.PageCursor;
+import com.example.demo.service.PostDelta;
+import com.example.demo.service.PostPage;
 import com.example.demo.service.PostService;
+import com.example.demo.service.ReadOnlyReplicaException;
+import com.example.demo.service.query.QueryPlan;
+import com.example.demo.service.query.QueryResult;
+import com.example.demo.service.query.QuerySyntaxException;
+import com.example.demo.service.stats.PostStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 /**
  * PostControllerのREST APIエンドポイントをテストするクラス
@@ -28,7 +51,7 @@ import com.example.demo.service.PostService;
  * PostServiceはMockとしてモック化している
  */
 @WebMvcTest(PostController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, BinaryFormatConfig.class})
 class PostControllerTest {
 
     @Autowired
@@ -321,4 +344,277 @@ class PostControllerTest {
         mockMvc.perform(get("/api/posts/{id}/likes", postId))
                 .andExpect(status().isNotFound()); // HTTP 404 Not Found
     }
-}
\ No newline at end of file
+
+    /**
+     * 読み取り専用レプリカへの更新APIのテスト - 異常系
+     * レプリカに下書き作成を送った場合、HTTP 503が返されることを確認する
+     */
+    @Test
+    void createDraft_shouldReturnServiceUnavailableOnReadOnlyReplica() throws Exception {
+        // given - サービスが読み取り専用として例外をスローするようにモック
+        when(postService.createDraft("Content")).thenThrow(new ReadOnlyReplicaException());
+
+        // when & then - APIを呼び出してHTTP 503を期待
+        mockMvc.perform(post("/api/posts/drafts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Content\"}"))
+                .andExpect(status().isServiceUnavailable()) // HTTP 503 Service Unavailable
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    /**
+     * 投稿内容更新APIのテスト - 正常系
+     * 投稿内容を更新し、HTTP 200と更新後の投稿が返されることを確認する
+     */
+    @Test
+    void updatePost_shouldReturnUpdatedPost() throws Exception {
+        // given - 更新後の投稿を返すようにモック
+        Post updatedPost = new Post("Updated");
+        updatedPost.setId(1L);
+        when(postService.updateContent(1L, "Updated")).thenReturn(updatedPost);
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(put("/api/posts/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Updated\"}"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(jsonPath("$.content").value("Updated"));
+    }
+
+    /**
+     * 差分取得APIのテスト - 正常系
+     * 差分とシーケンス番号ヘッダーが返されることを確認する
+     */
+    @Test
+    void getChanges_shouldReturnDelta() throws Exception {
+        // given - 差分を返すようにモック
+        Post post = new Post("Content");
+        post.setId(1L);
+        post.setDraft(false);
+        when(postService.getChangesSince(5L, 1000)).thenReturn(new PostDelta(5L, 8L, List.of(post), List.of(2L), false));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/changes").param("since", "5"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(header().string("X-Change-Sequence", "8"))
+                .andExpect(jsonPath("$.sequence").value(8))
+                .andExpect(jsonPath("$.posts[0].id").value(1))
+                .andExpect(jsonPath("$.deletedIds[0]").value(2));
+    }
+
+    /**
+     * 差分取得APIのテスト - 再同期
+     * 変更ログの保持範囲を超えて遅れている場合、HTTP 410が返されることを確認する
+     */
+    @Test
+    void getChanges_shouldReturnGoneWhenResyncRequired() throws Exception {
+        // given - 差分を返せないようにモック
+        when(postService.getChangesSince(1L, 1000)).thenReturn(null);
+
+        // when & then - APIを呼び出してHTTP 410を期待
+        mockMvc.perform(get("/api/posts/changes").param("since", "1"))
+                .andExpect(status().isGone()) // HTTP 410 Gone
+                .andExpect(jsonPath("$.resyncRequired").value(true));
+    }
+
+    /**
+     * いいねランキングAPIのテスト - 異常系
+     * 取得件数が範囲外の場合、HTTP 400が返されることを確認する
+     */
+    @Test
+    void getTopLikedPosts_shouldReturnBadRequestForInvalidK() throws Exception {
+        // when & then - 範囲外の件数でAPIを呼び出してHTTP 400を期待
+        mockMvc.perform(get("/api/posts/top").param("k", "0"))
+                .andExpect(status().isBadRequest()); // HTTP 400 Bad Request
+        mockMvc.perform(get("/api/posts/top").param("k", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * 下書き投稿作成APIのテスト - 予約日時の形式エラー
+     * 予約公開日時の形式が不正な場合、HTTP 400が返されることを確認する
+     */
+    @Test
+    void createDraft_shouldReturnBadRequestForInvalidPublishAt() throws Exception {
+        // when & then - 不正な日時でAPIを呼び出してHTTP 400を期待
+        mockMvc.perform(post("/api/posts/drafts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Content\",\"publishAt\":\"tomorrow\"}"))
+                .andExpect(status().isBadRequest()); // HTTP 400 Bad Request
+    }
+
+    /**
+     * 一括公開APIのテスト - 正常系
+     * IDの一覧で指定した投稿の結果が返されることを確認する
+     */
+    @Test
+    void publishPosts_shouldReturnOutcomes() throws Exception {
+        // given - 一括公開の結果を返すようにモック
+        Map<Long, BulkResult.Outcome> outcomes = new LinkedHashMap<>();
+        outcomes.put(1L, BulkResult.Outcome.APPLIED);
+        outcomes.put(2L, BulkResult.Outcome.NOT_FOUND);
+        when(postService.publishPosts(List.of(1L, 2L))).thenReturn(new BulkResult(Instant.now(), 1, outcomes));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(post("/api/posts/bulk/publish")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.outcomes.1").value("APPLIED"))
+                .andExpect(jsonPath("$.outcomes.2").value("NOT_FOUND"));
+    }
+
+    /**
+     * 一括削除APIのテスト - 異常系
+     * IDの一覧と日時の範囲を同時に指定した場合や、範囲が不正な場合にHTTP 400が返されることを確認する
+     */
+    @Test
+    void deletePosts_shouldReturnBadRequestForInvalidTarget() throws Exception {
+        // when & then - 不正な指定でAPIを呼び出してHTTP 400を期待
+        mockMvc.perform(post("/api/posts/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1],\"from\":\"2025-01-01T00:00:00Z\",\"to\":\"2025-02-01T00:00:00Z\"}"))
+                .andExpect(status().isBadRequest()); // HTTP 400 Bad Request
+        mockMvc.perform(post("/api/posts/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\":\"2025-02-01T00:00:00Z\",\"to\":\"2025-01-01T00:00:00Z\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * 集計値取得APIのテスト - 正常系
+     * サービスが保持する集計値が返されることを確認する
+     */
+    @Test
+    void getStats_shouldReturnAggregates() throws Exception {
+        // given - 集計値を返すようにモック
+        when(postService.getStats()).thenReturn(new PostStats(10, 3, 7, 42, 120.5));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/stats"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(jsonPath("$.totalPosts").value(10))
+                .andExpect(jsonPath("$.publishedPosts").value(7))
+                .andExpect(jsonPath("$.averageContentLength").value(120.5));
+    }
+
+    /**
+     * 検索クエリAPIのテスト - 正常系
+     * 一致した投稿と、実行した計画の概要を示すヘッダーが返されることを確認する
+     */
+    @Test
+    void queryPosts_shouldReturnPostsWithPlanHeader() throws Exception {
+        // given - 実行結果を返すようにモック
+        Post post = new Post("Spring Boot");
+        post.setId(1L);
+        var plan = new QueryPlan("spring", QueryPlan.Driver.TEXT_INDEX, "contains spring", 3, List.of("published", "spring"), List.of());
+        when(postService.queryPosts("spring", null, 0)).thenReturn(new QueryResult(plan, List.of(post), 3, 12.5));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/query").param("q", "spring"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(header().string("X-Query-Plan", "TEXT_INDEX; estimated=3; examined=3; elapsed=12.5us"))
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    /**
+     * 検索APIのページ分けのテスト - 正常系
+     * 次のページのカーソルとキャッシュから返したかどうかを示すヘッダーが返されることを確認する
+     */
+    @Test
+    void searchPosts_shouldReturnNextCursorHeader() throws Exception {
+        // given - 続きのあるページをキャッシュから返すようにモック
+        Post post = new Post("Spring Boot");
+        post.setId(5L);
+        post.setPublishedAt(Instant.parse("2025-06-01T00:00:00Z"));
+        var next = PageCursor.after(post);
+        when(postService.searchPosts(any(Post.SearchParams.class), isNull(), eq(1)))
+                .thenReturn(new PostPage(List.of(post), next, true));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/search").param("keyword", "spring").param("limit", "1"))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(header().string("X-Next-Cursor", next.encode()))
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(jsonPath("$[0].id").value(5));
+    }
+
+    /**
+     * 検索APIのページ分けのテスト - 異常系
+     * 不正なカーソルと範囲外の件数でHTTP 400が返されることを確認する
+     */
+    @Test
+    void searchPosts_shouldReturnBadRequestForInvalidPage() throws Exception {
+        // given - 不正なカーソルで例外をスローするようにモック
+        when(postService.searchPosts(any(Post.SearchParams.class), eq("broken"), anyInt()))
+                .thenThrow(new InvalidCursorException("broken"));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/search").param("cursor", "broken"))
+                .andExpect(status().isBadRequest()); // HTTP 400 Bad Request
+        mockMvc.perform(get("/api/posts/search").param("limit", "1001"))
+                .andExpect(status().isBadRequest()); // HTTP 400 Bad Request
+    }
+
+    /**
+     * 検索クエリAPIのテスト - 異常系
+     * 構文が正しくないクエリでHTTP 400とエラーの位置が返されることを確認する
+     */
+    @Test
+    void queryPosts_shouldReturnBadRequestForSyntaxError() throws Exception {
+        // given - 構文エラーをスローするようにモック
+        when(postService.queryPosts("(spring", null, 0)).thenThrow(new QuerySyntaxException("missing ')'", 7));
+
+        // when & then - APIを呼び出してレスポンスを検証
+        mockMvc.perform(get("/api/posts/query").param("q", "(spring"))
+                .andExpect(status().isBadRequest()) // HTTP 400 Bad Request
+                .andExpect(jsonPath("$.position").value(7));
+    }
+
+    /**
+     * バイナリ形式の応答のテスト
+     * AcceptヘッダーでCBORを指定した場合、JSONと同じ構造の投稿がCBORで返されることを確認する
+     */
+    @Test
+    void getPost_shouldReturnCborWhenAccepted() throws Exception {
+        // given - 取得対象の投稿データを準備
+        Post post = new Post("Content");
+        post.setId(1L);
+        when(postService.getPost(1L)).thenReturn(post);
+
+        // when - CBORを指定してAPIを呼び出す
+        byte[] body = mockMvc.perform(get("/api/posts/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk()) // HTTP 200 OK
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then - 復号した内容がJSONの応答と同じ項目を持つこと
+        Map<?, ?> decoded = new ObjectMapper(new CBORFactory()).readValue(body, Map.class);
+        assertEquals(1, decoded.get("id"));
+        assertEquals("Content", decoded.get("content"));
+        assertEquals(post.getCreatedAt().toString(), decoded.get("createdAt")); // 日時はJSONと同じISO-8601形式
+    }
+
+    /**
+     * バイナリ形式のリクエストボディのテスト
+     * CBORで送信した下書きの内容が受け付けられることを確認する
+     */
+    @Test
+    void createDraft_shouldAcceptCborBody() throws Exception {
+        // given - CBORで内容を符号化
+        Post createdPost = new Post("Binary content");
+        createdPost.setId(2L);
+        when(postService.createDraft("Binary content")).thenReturn(createdPost);
+        byte[] body = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of("content", "Binary content"));
+
+        // when & then - CBORのリクエストにJSONで応答すること
+        mockMvc.perform(post("/api/posts/drafts")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated()) // HTTP 201 Created
+                .andExpect(jsonPath("$.id").value(2));
+    }
+}
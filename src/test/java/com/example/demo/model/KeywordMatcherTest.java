@@ -0,0 +1,111 @@
+package com.example.demo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * KeywordMatcherの動作をテストするクラス
+ * 大文字・小文字を区別しない照合と、文字列全体を小文字に変換して比較する従来の判定との一致を検証する
+ */
+class KeywordMatcherTest {
+
+    /** 照合で特別な扱いが必要な文字を含む、ランダムな文字列の材料 */
+    private static final String ALPHABET = "aAbBiIkKxX İı̇ΣσςßéÉ投稿いいね𐐀𐐨";
+
+    /**
+     * 大文字・小文字を区別しない照合のテスト
+     * 内容の先頭・途中・末尾にあるキーワードを大文字・小文字の違いにかかわらず見つけることを確認する
+     */
+    @Test
+    void matches_shouldIgnoreCase() {
+        // given
+        var matcher = KeywordMatcher.compile("Spring");
+
+        // when / then
+        assertTrue(matcher.matches("spring boot"));
+        assertTrue(matcher.matches("Hello SPRING"));
+        assertTrue(matcher.matches("JavaとsPrInGの投稿"));
+        assertFalse(matcher.matches("sprin g"));
+        assertFalse(matcher.matches("spr"));
+        assertFalse(matcher.matches(""));
+    }
+
+    /**
+     * 1文字のキーワードのテスト
+     * ずらし表を使わない1文字のキーワードでも照合できることを確認する
+     */
+    @Test
+    void matches_shouldHandleSingleCharacterKeyword() {
+        var matcher = KeywordMatcher.compile("X");
+
+        assertTrue(matcher.matches("x"));
+        assertTrue(matcher.matches("abcx"));
+        assertFalse(matcher.matches("abc"));
+    }
+
+    /**
+     * 従来の判定との一致のテスト
+     * 特殊な大文字・小文字の変換を持つ文字を含むランダムな内容とキーワードで、
+     * {@code content.toLowerCase().contains(keyword.toLowerCase())}と同じ結果になることを確認する
+     */
+    @Test
+    void matches_shouldAgreeWithToLowerCaseContains() {
+        // given
+        var random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            var content = randomText(random, random.nextInt(24));
+            var keyword = random.nextBoolean()
+                    ? randomText(random, 1 + random.nextInt(4))
+                    : substring(random, content);
+            if (keyword.isEmpty()) {
+                continue;
+            }
+
+            // when
+            boolean actual = KeywordMatcher.compile(keyword).matches(content);
+
+            // then
+            boolean expected = content.toLowerCase().contains(keyword.toLowerCase());
+            assertEquals(expected, actual, "content=" + content + ", keyword=" + keyword);
+        }
+    }
+
+    /**
+     * 空のキーワードのテスト
+     * 空のキーワードからは照合器を生成できないことを確認する
+     */
+    @Test
+    void compile_shouldRejectEmptyKeyword() {
+        assertThrows(IllegalArgumentException.class, () -> KeywordMatcher.compile(""));
+    }
+
+    private static String randomText(Random random, int length) {
+        var text = new StringBuilder();
+        while (text.length() < length) {
+            int index = random.nextInt(ALPHABET.length());
+            char c = ALPHABET.charAt(index);
+            if (Character.isHighSurrogate(c)) {
+                text.append(c).append(ALPHABET.charAt(index + 1));
+            } else if (!Character.isLowSurrogate(c)) {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private static String substring(Random random, String content) {
+        if (content.isEmpty()) {
+            return content;
+        }
+        int start = random.nextInt(content.length());
+        int end = start + 1 + random.nextInt(content.length() - start);
+        return content.substring(start, end).toUpperCase();
+    }
+}
@@ -56,6 +56,35 @@ class PostTest {
         assertNull(post.getPublishedAt()); // 公開日時は未設定
     }
 
+    /**
+     * コピーコンストラクタのテスト
+     * 全フィールドが複製され、複製後の変更が元の投稿に影響しないことを確認する
+     */
+    @Test
+    void copyConstructor_shouldCopyAllFields() {
+        // given - 公開済みでいいねのある投稿を準備
+        Post original = new Post("Original content");
+        original.setId(1L);
+        original.setDraft(false);
+        original.setLikes(3);
+        original.setScheduledPublishAt(Instant.parse("2030-01-01T00:00:00Z"));
+
+        // when - コピーを作成して変更
+        Post copy = new Post(original);
+        copy.incrementLikes();
+
+        // then - 複製された内容と独立性を確認
+        assertEquals(original.getId(), copy.getId());
+        assertEquals(original.getContent(), copy.getContent());
+        assertEquals(original.getCreatedAt(), copy.getCreatedAt());
+        assertEquals(original.getUpdatedAt(), copy.getUpdatedAt());
+        assertEquals(original.getPublishedAt(), copy.getPublishedAt());
+        assertEquals(original.getScheduledPublishAt(), copy.getScheduledPublishAt());
+        assertFalse(copy.isDraft());
+        assertEquals(4, copy.getLikes());
+        assertEquals(3, original.getLikes()); // 元の投稿は変更されないこと
+    }
+
     /**
      * コンテンツ更新機能のテスト
      * コンテンツを変更した際に更新日時も自動更新されることを確認する
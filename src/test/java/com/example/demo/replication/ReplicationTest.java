@@ -0,0 +1,135 @@
+package com.example.demo.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.model.Post;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.service.PostService;
+import com.example.demo.service.ReadOnlyReplicaException;
+import com.example.demo.service.id.SequentialIdGenerator;
+
+/**
+ * プライマリとフォロワーを同一プロセス内でlocalhost経由で接続し、レプリケーションを検証するクラス
+ */
+class ReplicationTest {
+
+    private ReplicationPublisher publisher; // プライマリ側の配信コンポーネント
+    private ReplicationFollower follower; // フォロワー側の受信コンポーネント
+
+    /**
+     * 各テストメソッド実行後に接続を停止
+     */
+    @AfterEach
+    void tearDown() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * 変更の追従テスト
+     * プライマリでの作成・公開・いいね・削除がフォロワーに反映されることを確認する
+     */
+    @Test
+    void follower_shouldApplyPrimaryMutations() throws Exception {
+        // given - プライマリとフォロワーを起動
+        PostService primary = new PostService();
+        PostService replica = new PostService();
+        publisher = new ReplicationPublisher(primary, 0);
+        publisher.start();
+        follower = new ReplicationFollower(replica, "localhost", publisher.getPort());
+        follower.start();
+
+        // when - プライマリで投稿を操作
+        Post kept = primary.createDraft("Replicated content");
+        Post removed = primary.createDraft("To be deleted");
+        primary.publishPost(kept.getId());
+        primary.likePost(kept.getId());
+        primary.likePost(kept.getId());
+        primary.deletePost(removed.getId());
+
+        // then - フォロワーに同じ状態が反映されること
+        awaitCondition(() -> follower.getAppliedSequence() == primary.getCurrentSequence());
+        Post replicated = replica.getPost(kept.getId());
+        assertNotNull(replicated);
+        assertEquals("Replicated content", replicated.getContent());
+        assertEquals(2, replicated.getLikes());
+        assertEquals(kept.getPublishedAt(), replicated.getPublishedAt());
+        assertNull(replica.getPost(removed.getId()));
+        assertEquals(0L, follower.getStatus().get("lagSequences"));
+    }
+
+    /**
+     * 読み取り専用のテスト
+     * フォロワーへの更新操作が拒否されることを確認する
+     */
+    @Test
+    void follower_shouldRejectWrites() throws Exception {
+        // given - プライマリとフォロワーを起動
+        PostService primary = new PostService();
+        publisher = new ReplicationPublisher(primary, 0);
+        publisher.start();
+        PostService replica = new PostService();
+        follower = new ReplicationFollower(replica, "localhost", publisher.getPort());
+        follower.start();
+
+        // when & then - 更新操作は例外となること
+        assertTrue(replica.isReadOnly());
+        assertThrows(ReadOnlyReplicaException.class, () -> replica.createDraft("Not allowed"));
+        assertThrows(ReadOnlyReplicaException.class, () -> replica.likePost(1L));
+    }
+
+    /**
+     * スナップショットによる追従テスト
+     * 変更ログの保持範囲を超えて遅れて接続したフォロワーが、全件スナップショットから追従できることを確認する
+     */
+    @Test
+    void lateFollower_shouldBootstrapFromSnapshot() throws Exception {
+        // given - 変更ログを10件しか保持しないプライマリで多数の変更を行う
+        PostProperties properties = new PostProperties();
+        properties.getChangeLog().setCapacity(10);
+        PostService primary = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties);
+        for (int i = 0; i < 50; i++) {
+            Post post = primary.createDraft("Post " + i);
+            primary.publishPost(post.getId());
+        }
+        publisher = new ReplicationPublisher(primary, 0);
+        publisher.start();
+
+        // when - フォロワーが接続し、その後も変更が続く
+        PostService replica = new PostService();
+        follower = new ReplicationFollower(replica, "localhost", publisher.getPort());
+        follower.start();
+        awaitCondition(() -> follower.getAppliedSequence() >= 100);
+        Post late = primary.createDraft("After snapshot");
+
+        // then - スナップショット分と以降の変更の両方が反映されること
+        awaitCondition(() -> follower.getAppliedSequence() == primary.getCurrentSequence());
+        assertEquals(51, replica.getAllPosts().size());
+        assertEquals(50, replica.getAllPublishedPosts().size());
+        assertEquals("After snapshot", replica.getPost(late.getId()).getContent());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within timeout");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
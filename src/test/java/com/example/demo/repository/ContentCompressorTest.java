@@ -0,0 +1,130 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+
+/**
+ * ContentCompressorとCompressingPostRepositoryの動作をテストするクラス
+ * 閾値による圧縮の判定、展開結果の一致、キャッシュ、サイズ区間ごとの統計を検証する
+ */
+class ContentCompressorTest {
+
+    private ContentCompressor compressor; // テスト対象の圧縮コンポーネント
+
+    /**
+     * 各テストメソッド実行前に閾値1KB・キャッシュ4件のコンポーネントを作成
+     */
+    @BeforeEach
+    void setUp() {
+        compressor = new ContentCompressor(1024, 4);
+    }
+
+    /**
+     * 圧縮と展開のテスト
+     * 閾値以上の繰り返しの多い内容が圧縮され、元の内容がそのまま取得できることを確認する
+     */
+    @Test
+    void compact_shouldCompressLargeRepetitiveContent() {
+        // given - 日本語を含む約10KBの内容
+        String content = "繰り返しの多い投稿内容です。repetitive text ".repeat(200);
+        Post post = new Post(content);
+        var updatedAt = post.getUpdatedAt();
+
+        // when
+        boolean compacted = compressor.compact(post);
+
+        // then
+        assertTrue(compacted);
+        assertNotNull(post.compressedContent());
+        assertEquals(content, post.getContent());
+        assertEquals(updatedAt, post.getUpdatedAt());
+        assertTrue(PostFootprint.estimate(post) < content.length());
+    }
+
+    /**
+     * 圧縮の対象外となる内容のテスト
+     * 閾値未満の内容と、圧縮しても小さくならない内容はそのまま保持されることを確認する
+     */
+    @Test
+    void compact_shouldSkipSmallOrIncompressibleContent() {
+        // given
+        Post small = new Post("short");
+        var random = new Random(42);
+        var builder = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            builder.append((char) ('!' + random.nextInt(90)));
+        }
+        Post noisy = new Post(builder.toString());
+
+        // when / then
+        assertFalse(compressor.compact(small));
+        assertFalse(compressor.compact(noisy));
+        assertNull(noisy.compressedContent());
+        assertEquals(1L, compressor.snapshot().get("4KB-8KB").get("skipped"));
+    }
+
+    /**
+     * 展開済み内容のキャッシュのテスト
+     * 同じ投稿を続けて読んだ場合は2回目以降に展開が行われないことを確認する
+     */
+    @Test
+    void getContent_shouldServeRepeatedReadsFromCache() {
+        // given
+        Post post = new Post("a".repeat(3000));
+        compressor.compact(post);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            post.getContent();
+        }
+
+        // then
+        var stats = compressor.snapshot().get("2KB-4KB");
+        assertEquals(1L, stats.get("compressed"));
+        assertEquals(1L, stats.get("decompressions"));
+        assertEquals(4L, stats.get("cacheHits"));
+        assertTrue((double) stats.get("ratio") < 0.1);
+    }
+
+    /**
+     * 内容の更新のテスト
+     * 圧縮された投稿の内容を更新すると圧縮が外れ、リポジトリ経由の更新では改めて圧縮されることを確認する
+     */
+    @Test
+    void update_shouldRecompressChangedContent() {
+        // given
+        var repository = new CompressingPostRepository(new InMemoryPostRepository(), compressor);
+        Post post = new Post("x".repeat(2000));
+        post.setId(1L);
+        repository.save(post);
+
+        // when
+        var updated = repository.update(1L, stored -> {
+            stored.setContent("y".repeat(5000));
+            return stored;
+        });
+
+        // then
+        assertNotNull(updated.compressedContent());
+        assertEquals("y".repeat(5000), repository.findById(1L).getContent());
+
+        // when - 直接内容を変更した場合
+        Post copy = new Post(updated);
+        copy.setContent("plain");
+
+        // then - 圧縮は外れ、複製元には影響しないこと
+        assertNull(copy.compressedContent());
+        assertEquals("plain", copy.getContent());
+        assertEquals("y".repeat(5000), updated.getContent());
+    }
+}
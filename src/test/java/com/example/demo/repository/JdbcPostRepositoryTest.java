@@ -0,0 +1,239 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+
+/**
+ * JdbcPostRepositoryの動作をテストするクラス
+ * 書き出すまでの変更のまとめ、バッチによる書き出し、再起動後の読み込み、変更ごとの書き出しと失敗時の再試行を検証する
+ */
+class JdbcPostRepositoryTest {
+
+    private Path directory;
+    private String url;
+
+    /**
+     * 各テストメソッド実行前に一時ディレクトリのH2データベースを用意
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("jdbc-posts");
+        url = "jdbc:h2:file:" + directory.resolve("posts").toAbsolutePath();
+    }
+
+    /**
+     * 各テストメソッド実行後にデータベースのファイルを削除
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * ライトビハインドのテスト
+     * 書き出すまではデータベースに行がなく、書き出すと同じ投稿への変更は最新の1行にまとめられ、
+     * 作成してすぐ削除された投稿は書き出されないことを確認する
+     */
+    @Test
+    void flush_shouldWriteOnlyLatestStateOfEachPost() throws SQLException {
+        // given - 自動では書き出されない長い間隔と、件数でも書き出されない大きなバッチ
+        try (var repository = new JdbcPostRepository(url, Duration.ofHours(1), 1000)) {
+            for (long id = 1; id <= 3; id++) {
+                repository.save(post(id, "Content " + id));
+            }
+            repository.update(1L, post -> {
+                post.setContent("Edited");
+                return post;
+            });
+            repository.update(1L, post -> {
+                post.incrementLikes();
+                return post;
+            });
+            repository.deleteById(3L);
+
+            // then - まだ書き出されていないこと
+            assertEquals(0, countRows());
+            assertEquals(3L, repository.getStats().get("pendingWrites"));
+
+            // when
+            int written = repository.flush();
+
+            // then - 投稿1と2の挿入だけがバッチで書き出されること
+            assertEquals(2, written);
+            assertEquals(2, countRows());
+            var stats = repository.getStats();
+            assertEquals(2L, stats.get("insertedRows"));
+            assertEquals(0L, stats.get("deletedRows"));
+            assertEquals(3L, stats.get("coalescedWrites"));
+            assertEquals(0L, stats.get("pendingWrites"));
+
+            // when - 書き出し済みの投稿を更新・削除する
+            repository.update(2L, post -> {
+                post.setDraft(false);
+                return post;
+            });
+            repository.deleteById(1L);
+            repository.flush();
+
+            // then
+            assertEquals(1, countRows());
+            assertEquals(1L, repository.getStats().get("updatedRows"));
+            assertEquals(1L, repository.getStats().get("deletedRows"));
+        }
+    }
+
+    /**
+     * 再起動後の読み込みのテスト
+     * 閉じるときに残りの変更が書き出され、同じデータベースから生成したリポジトリですべての項目が復元されることを確認する
+     */
+    @Test
+    void constructor_shouldLoadPostsSavedBeforeClose() {
+        // given
+        var publishedAt = Instant.parse("2025-06-01T12:34:56.123456789Z");
+        try (var repository = new JdbcPostRepository(url, Duration.ofHours(1), 1000)) {
+            var post = post(7L, "Persisted 投稿");
+            post.setPublishedAt(publishedAt);
+            post.setDraft(false);
+            post.setLikes(42);
+            repository.save(post);
+            repository.save(post(8L, null));
+        }
+
+        // when
+        try (var repository = new JdbcPostRepository(url, Duration.ofHours(1), 1000)) {
+            // then
+            assertEquals(2L, repository.count());
+            var post = repository.findById(7L);
+            assertEquals("Persisted 投稿", post.getContent());
+            assertFalse(post.isDraft());
+            assertEquals(publishedAt, post.getPublishedAt());
+            assertEquals(42, post.getLikes());
+            assertEquals(Instant.parse("2025-05-01T00:00:00Z"), post.getUpdatedAt());
+            assertNull(repository.findById(8L).getContent());
+            assertNull(repository.findById(8L).getPublishedAt());
+        }
+    }
+
+    /**
+     * 即時書き出しのテスト
+     * 書き出しの間隔が0の場合は、変更のたびにデータベースへ書き出されることを確認する
+     */
+    @Test
+    void save_shouldFlushEachWriteWhenIntervalIsZero() throws SQLException {
+        try (var repository = new JdbcPostRepository(url, Duration.ZERO, 1000)) {
+            // when
+            repository.save(post(1L, "Now"));
+
+            // then
+            assertEquals(1, countRows());
+            assertEquals(0L, repository.getStats().get("pendingWrites"));
+
+            // when
+            repository.deleteById(1L);
+
+            // then
+            assertEquals(0, countRows());
+        }
+    }
+
+    /**
+     * 即時書き出しに失敗した場合のテスト
+     * 失敗しても変更は取り消されず呼び出し元に例外が返らないこと、次の変更で残りがまとめて書き出されることを確認する
+     */
+    @Test
+    void save_shouldKeepFailedFlushesPending() throws SQLException {
+        // given - 再試行が割り込まないよう、バックグラウンドの再試行の間隔を長くする
+        try (var repository = new JdbcPostRepository(url, Duration.ZERO, 1000, Duration.ofHours(1))) {
+            // given - テーブルの名前を変えて書き出しを失敗させる
+            execute("ALTER TABLE posts RENAME TO posts_moved");
+
+            // when
+            var saved = repository.save(post(1L, "Kept"));
+
+            // then - 保存は成功し、変更は書き出し待ちとして残ること
+            assertEquals("Kept", saved.getContent());
+            assertEquals("Kept", repository.findById(1L).getContent());
+            var stats = repository.getStats();
+            assertEquals(1L, stats.get("pendingWrites"));
+            assertEquals(1L, stats.get("flushFailures"));
+
+            // when - テーブルを戻してから次の変更を行う
+            execute("ALTER TABLE posts_moved RENAME TO posts");
+            repository.save(post(2L, "Next"));
+
+            // then - 失敗した変更も合わせて書き出されること
+            assertEquals(2, countRows());
+            assertEquals(0L, repository.getStats().get("pendingWrites"));
+        }
+    }
+
+    /**
+     * 即時書き出しの再試行のテスト
+     * 書き出しに失敗した変更が、次の変更を待たずにバックグラウンドの再試行で書き出されることを確認する
+     */
+    @Test
+    void save_shouldRetryFailedFlushesInBackground() throws Exception {
+        try (var repository = new JdbcPostRepository(url, Duration.ZERO, 1000, Duration.ofMillis(50))) {
+            // given - テーブルの名前を変えて書き出しを失敗させる
+            execute("ALTER TABLE posts RENAME TO posts_moved");
+            repository.save(post(1L, "Retried"));
+
+            // when - 次の変更を行わずにテーブルを戻す
+            execute("ALTER TABLE posts_moved RENAME TO posts");
+
+            // then - バックグラウンドの再試行で書き出されること
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (countRows() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, countRows());
+            assertTrue((Long) repository.getStats().get("flushFailures") >= 1L);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (var connection = DriverManager.getConnection(url); var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int countRows() throws SQLException {
+        try (var connection = DriverManager.getConnection(url);
+             var statement = connection.createStatement();
+             var rows = statement.executeQuery("SELECT COUNT(*) FROM posts")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    private static Post post(long id, String content) {
+        var post = new Post(content);
+        post.setId(id);
+        post.setCreatedAt(Instant.parse("2025-05-01T00:00:00Z"));
+        post.setUpdatedAt(Instant.parse("2025-05-01T00:00:00Z"));
+        return post;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+
+/**
+ * ShardedPostRepositoryの動作をテストするクラス
+ * シャードへの振り分け、スナップショットの公開、並行更新の直列化を検証する
+ */
+class ShardedPostRepositoryTest {
+
+    private ShardedPostRepository repository; // テスト対象のリポジトリ
+
+    /**
+     * 各テストメソッド実行前に4シャードのリポジトリを作成
+     */
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedPostRepository(4);
+    }
+
+    /**
+     * 各テストメソッド実行後に書き込みスレッドを停止
+     */
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * 保存と取得のテスト
+     * 保存した投稿がIDで取得でき、件数に反映されることを確認する
+     */
+    @Test
+    void save_shouldMakePostReadable() {
+        // given - 複数の投稿を保存
+        for (long id = 1; id <= 100; id++) {
+            Post post = new Post("Content " + id);
+            post.setId(id);
+            repository.save(post);
+        }
+
+        // then - すべての投稿が取得できること
+        assertEquals(100, repository.count());
+        assertEquals("Content 42", repository.findById(42L).getContent());
+        assertEquals(100, repository.findAll(post -> true).size());
+    }
+
+    /**
+     * スナップショットのテスト
+     * 読み取り結果は更新のたびに新しいコピーとして公開されることを確認する
+     */
+    @Test
+    void update_shouldPublishNewSnapshot() {
+        // given - 投稿を保存して読み取る
+        Post post = new Post("Content");
+        post.setId(1L);
+        repository.save(post);
+        Post before = repository.findById(1L);
+
+        // when - いいねを追加
+        Post after = repository.update(1L, p -> {
+            p.incrementLikes();
+            return p;
+        });
+
+        // then - 以前のスナップショットは変更されず、新しいスナップショットが公開されること
+        assertEquals(0, before.getLikes());
+        assertEquals(1, after.getLikes());
+        assertEquals(1, repository.findById(1L).getLikes());
+        assertNotSame(before, repository.findById(1L));
+    }
+
+    /**
+     * 更新中止のテスト
+     * 変更処理がnullを返した場合、nullが返り投稿が変わらないことを確認する
+     */
+    @Test
+    void update_shouldReturnNullWhenMutatorDeclines() {
+        // given - 投稿を保存
+        Post post = new Post("Content");
+        post.setId(1L);
+        repository.save(post);
+
+        // when & then - 変更を行わない処理と存在しない投稿への更新
+        assertNull(repository.update(1L, p -> null));
+        assertNull(repository.update(999L, p -> p));
+        assertEquals(0, repository.findById(1L).getLikes());
+    }
+
+    /**
+     * 変更処理の例外伝播のテスト
+     * 書き込みスレッド上で発生した例外がラップされずに呼び出し元へ届くことを確認する
+     */
+    @Test
+    void update_shouldRethrowMutatorExceptionUnwrapped() {
+        // given - 投稿を保存
+        Post post = new Post("Content");
+        post.setId(1L);
+        repository.save(post);
+
+        // when & then - 変更処理の例外がそのまま投げられ、投稿は変わらないこと
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> repository.update(1L, p -> {
+                    throw new IllegalArgumentException("rejected");
+                }));
+        assertEquals("rejected", e.getMessage());
+        assertEquals("Content", repository.findById(1L).getContent());
+    }
+
+    /**
+     * 条件付き削除のテスト
+     * 条件を満たす場合のみ削除されることを確認する
+     */
+    @Test
+    void deleteById_shouldRespectCondition() {
+        // given - 投稿を保存
+        Post post = new Post("Content");
+        post.setId(1L);
+        repository.save(post);
+
+        // when & then - 条件を満たさない削除は行われない
+        assertNull(repository.deleteById(1L, p -> !p.isDraft())); // 下書きなので削除されない
+        assertNotNull(repository.findById(1L));
+
+        // when & then - 条件を満たす削除は行われる
+        assertNotNull(repository.deleteById(1L));
+        assertNull(repository.findById(1L));
+        assertEquals(0, repository.count());
+    }
+
+    /**
+     * 並行更新のテスト
+     * 複数スレッドから同じ投稿へいいねしても更新が失われないことを確認する
+     */
+    @Test
+    void update_shouldSerializeConcurrentMutations() throws Exception {
+        // given - 投稿を保存
+        Post post = new Post("Content");
+        post.setId(7L);
+        repository.save(post);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - 8スレッドから合計8000回いいね
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    repository.update(7L, p -> {
+                        p.incrementLikes();
+                        return p;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then - すべてのいいねが反映されていること
+        assertEquals(8000, repository.findById(7L).getLikes());
+    }
+
+    /**
+     * 停止と書き込みが競合した場合のテスト
+     * 停止中に依頼された書き込みは、実行されるか例外で失敗するかのどちらかで、待ち続けないことを確認する
+     */
+    @Test
+    void close_shouldNotStrandConcurrentWrites() throws Exception {
+        // given - 8スレッドから保存し続ける
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long base = t * 1_000_000L;
+            futures.add(executor.submit(() -> {
+                for (long id = base + 1; ; id++) {
+                    Post post = new Post("Content");
+                    post.setId(id);
+                    try {
+                        repository.save(post);
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                        return;
+                    }
+                }
+            }));
+        }
+
+        // when - 保存の途中で停止する
+        Thread.sleep(20);
+        repository.close();
+
+        // then - すべてのスレッドが停止を検知して終了すること
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(8, rejected.get());
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+
+/**
+ * TieredPostRepositoryの動作をテストするクラス
+ * ヒープ予算の維持、退避された投稿の読み書き、頻度に基づく追い出し、ファイルの詰め直しを検証する
+ */
+class TieredPostRepositoryTest {
+
+    private static final long HOT_BUDGET = 10_000;
+
+    private Path directory;
+    private TieredPostRepository repository; // テスト対象のリポジトリ
+
+    /**
+     * 各テストメソッド実行前に一時ディレクトリへ退避するリポジトリを作成（詰め直しの閾値は小さくする）
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("tiered-posts");
+        repository = new TieredPostRepository(HOT_BUDGET, directory, 4096);
+    }
+
+    /**
+     * 各テストメソッド実行後に退避ファイルを削除
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * ヒープ予算のテスト
+     * 予算を大きく超える投稿を保存しても、ヒープ上の推定バイト数が予算内に収まり、すべての投稿を取得できることを確認する
+     */
+    @Test
+    void save_shouldKeepHotTierWithinBudget() {
+        // given - 予算の数十倍の投稿を保存
+        saveAll(1000);
+
+        // then - ヒープ上は予算内で、残りは退避されていること
+        var stats = repository.getStats();
+        assertTrue((long) stats.get("hotBytes") <= HOT_BUDGET);
+        assertTrue((long) stats.get("coldOnlyPosts") > 900);
+        assertEquals(1000L, repository.count());
+
+        // then - 退避された投稿も正しい内容で取得できること
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals("Content " + id, repository.findById(id).getContent());
+        }
+        assertTrue((long) repository.getStats().get("hotBytes") <= HOT_BUDGET);
+    }
+
+    /**
+     * 全件走査のテスト
+     * 退避された投稿も条件判定の対象となり、走査によってヒープが入れ替わらないことを確認する
+     */
+    @Test
+    void findAll_shouldIncludeColdPostsWithoutAdmittingThem() {
+        // given
+        saveAll(500);
+        long missesBefore = (long) repository.getStats().get("misses");
+
+        // when
+        var even = repository.findAll(post -> post.getId() % 2 == 0);
+
+        // then
+        assertEquals(250, even.size());
+        assertTrue(even.stream().allMatch(post -> post.getContent().equals("Content " + post.getId())));
+        assertEquals(missesBefore, repository.getStats().get("misses"));
+    }
+
+    /**
+     * 退避された投稿の更新と削除のテスト
+     * 更新内容が再び退避された後も保持され、削除した投稿が取得できなくなることを確認する
+     */
+    @Test
+    void updateAndDelete_shouldApplyToColdPosts() {
+        // given - ID 1 と 2 は後続の保存で退避される
+        saveAll(500);
+
+        // when
+        var updated = repository.update(1L, post -> {
+            post.incrementLikes();
+            return post;
+        });
+        var deleted = repository.deleteById(2L, post -> true);
+        saveAll(501, 1000); // 更新した投稿を再び退避させる
+
+        // then
+        assertNotNull(updated);
+        assertEquals(1, repository.findById(1L).getLikes());
+        assertNotNull(deleted);
+        assertNull(repository.findById(2L));
+        assertEquals(999L, repository.count());
+        assertNull(repository.deleteById(2L, post -> true));
+    }
+
+    /**
+     * 退避された投稿の条件付き削除のテスト
+     * 条件の判定のために読み込んだ投稿がヒープへ戻らないことを確認する
+     */
+    @Test
+    void deleteById_shouldNotAdmitColdPosts() {
+        // given - 頻度の同じ投稿はメイン領域に先に入った投稿が残るため、途中のID 250 と 251 は退避されている
+        saveAll(500);
+        var before = repository.getStats();
+
+        // when - 条件を満たさない削除と満たす削除
+        var kept = repository.deleteById(250L, post -> post.getLikes() > 0);
+        var deleted = repository.deleteById(251L, post -> post.getLikes() == 0);
+
+        // then - ヒープ上の投稿とミス数が変わらないこと
+        assertNull(kept);
+        assertEquals("Content 251", deleted.getContent());
+        var after = repository.getStats();
+        assertEquals(before.get("hotPosts"), after.get("hotPosts"));
+        assertEquals(before.get("misses"), after.get("misses"));
+        assertEquals("Content 250", repository.findById(250L).getContent());
+        assertEquals(499L, repository.count());
+    }
+
+    /**
+     * 並行アクセスのテスト
+     * ロックを取らない読み取りと更新が同時に行われても、更新が失われずヒープ予算が守られることを確認する
+     */
+    @Test
+    void findById_shouldReadConsistentlyWhileUpdating() throws Exception {
+        // given
+        saveAll(100);
+        var readers = Executors.newFixedThreadPool(4);
+        var stop = new AtomicBoolean();
+        var torn = new AtomicInteger();
+
+        // when - 4スレッドで読み続ける間に、各投稿を10回ずつ更新する
+        try {
+            for (int i = 0; i < 4; i++) {
+                readers.execute(() -> {
+                    while (!stop.get()) {
+                        for (long id = 1; id <= 100; id++) {
+                            var post = repository.findById(id);
+                            if (post == null || !post.getContent().equals("Content " + id)) {
+                                torn.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            for (int round = 0; round < 10; round++) {
+                for (long id = 1; id <= 100; id++) {
+                    repository.update(id, post -> {
+                        post.incrementLikes();
+                        return post;
+                    });
+                }
+            }
+        } finally {
+            stop.set(true);
+            readers.shutdown();
+            assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        // then
+        assertEquals(0, torn.get());
+        for (long id = 1; id <= 100; id++) {
+            assertEquals(10, repository.findById(id).getLikes());
+        }
+        assertTrue((long) repository.getStats().get("hotBytes") <= HOT_BUDGET);
+    }
+
+    /**
+     * 走査のテスト
+     * 退避された投稿を含む全投稿を1回ずつ処理し、ヒープが入れ替わらないことを確認する
+     */
+    @Test
+    void forEach_shouldVisitEveryPostOnceWithoutAdmitting() {
+        // given
+        saveAll(1000);
+        var before = repository.getStats();
+
+        // when
+        var visited = new HashSet<Long>();
+        repository.forEach(post -> assertTrue(visited.add(post.getId())));
+
+        // then
+        assertEquals(1000, visited.size());
+        var after = repository.getStats();
+        assertEquals(before.get("hotPosts"), after.get("hotPosts"));
+        assertEquals(before.get("misses"), after.get("misses"));
+    }
+
+    /**
+     * 退避ファイルの分離のテスト
+     * 同じディレクトリに別名のファイルで作ったリポジトリを作成・破棄しても、既存のリポジトリの退避された投稿が読めることを確認する
+     */
+    @Test
+    void close_shouldNotTouchSegmentsOfOtherRepositories() {
+        // given - 退避された投稿を持つリポジトリ
+        saveAll(500);
+
+        // when - 同じディレクトリに使い捨てのリポジトリを作り、書き込んでから破棄する
+        try (var scratch = new TieredPostRepository(HOT_BUDGET, directory, "posts-scratch.seg")) {
+            for (long id = 1; id <= 500; id++) {
+                Post post = new Post("Scratch " + id);
+                post.setId(id);
+                scratch.save(post);
+            }
+        }
+
+        // then - 既存のリポジトリの内容が保たれていること
+        for (long id = 1; id <= 500; id++) {
+            assertEquals("Content " + id, repository.findById(id).getContent());
+        }
+        assertTrue(Files.notExists(directory.resolve("posts-scratch.seg")));
+    }
+
+    /**
+     * 書き出せない大きさの投稿のテスト
+     * 1レコードの上限を超える投稿は予算の外でヒープに残り、他の投稿とともに失われないことを確認する
+     */
+    @Test
+    void save_shouldKeepPostsTooLargeToSpillOnHeap() {
+        // given - 1レコード1KBまでのリポジトリ
+        repository.close();
+        repository = new TieredPostRepository(HOT_BUDGET, directory, 4096, 1024);
+
+        // when - 上限を超える投稿を保存してから、追い出しが起きるだけの投稿を保存する
+        Post large = new Post("x".repeat(4096));
+        large.setId(1L);
+        repository.save(large);
+        saveAll(2, 49);
+
+        // then - すべての投稿を取得でき、件数と一致すること
+        assertEquals(49L, repository.count());
+        assertEquals(4096, repository.findById(1L).getContent().length());
+        for (long id = 2; id <= 49; id++) {
+            assertEquals("Content " + id, repository.findById(id).getContent());
+        }
+        var stats = repository.getStats();
+        assertEquals(1, stats.get("pinnedPosts"));
+        assertEquals(1L, stats.get("spillFailures"));
+
+        // when - 上限に収まる内容へ更新してから、追い出しが起きるだけの投稿を保存する
+        repository.update(1L, post -> {
+            post.setContent("Small");
+            return post;
+        });
+        saveAll(50, 500);
+
+        // then - 予算の外に残っていた投稿も退避できるようになること
+        assertEquals(0, repository.getStats().get("pinnedPosts"));
+        assertEquals("Small", repository.findById(1L).getContent());
+        assertEquals(500L, repository.count());
+    }
+
+    /**
+     * 書き出しの失敗のテスト
+     * ファイルへの書き出しに失敗しても投稿は失われず、チャネルを開き直せるようになった後の追い出しで退避されることを確認する
+     */
+    @Test
+    void save_shouldNotLosePostsWhenSpillFails() {
+        // given
+        saveAll(500);
+
+        // when - 割り込まれたスレッドで保存し、書き出しを失敗させる（チャネルも閉じられる）
+        Thread.currentThread().interrupt();
+        try {
+            saveAll(501, 520);
+        } finally {
+            Thread.interrupted();
+        }
+
+        // then - 失敗した投稿はヒープに残り、取得できること
+        var stats = repository.getStats();
+        assertTrue((int) stats.get("pinnedPosts") > 0);
+        assertTrue((long) stats.get("spillFailures") > 0);
+        assertEquals(520L, repository.count());
+        for (long id = 501; id <= 520; id++) {
+            assertEquals("Content " + id, repository.findById(id).getContent());
+        }
+
+        // when - 割り込みのないスレッドで保存を続ける
+        saveAll(521, 600);
+
+        // then - チャネルが開き直され、残していた投稿も退避されて、すべての投稿を取得できること
+        assertEquals(0, repository.getStats().get("pinnedPosts"));
+        assertTrue((long) repository.getStats().get("hotBytes") <= HOT_BUDGET);
+        for (long id = 1; id <= 600; id++) {
+            assertEquals("Content " + id, repository.findById(id).getContent());
+        }
+    }
+
+    /**
+     * 返却値の独立性のテスト
+     * 取得した投稿を変更してもリポジトリの内容が変わらないことを確認する
+     */
+    @Test
+    void findById_shouldReturnCopies() {
+        // given
+        saveAll(1);
+
+        // when
+        repository.findById(1L).incrementLikes();
+
+        // then
+        assertEquals(0, repository.findById(1L).getLikes());
+    }
+
+    /**
+     * 頻度に基づく追い出しのテスト
+     * 繰り返し読まれる投稿は、一度しか読まれない投稿が大量に流れてもヒープに残ることを確認する
+     */
+    @Test
+    void findById_shouldKeepFrequentlyReadPostsHot() {
+        // given - ID 1〜10 を繰り返し読む
+        saveAll(10);
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 10; id++) {
+                repository.findById(id);
+            }
+        }
+
+        // when - 一度しか読まれない投稿を大量に保存する
+        saveAll(11, 2000);
+        long missesBefore = (long) repository.getStats().get("misses");
+        for (long id = 1; id <= 10; id++) {
+            repository.findById(id);
+        }
+
+        // then - よく読まれる投稿はヒープから読めること
+        assertEquals(missesBefore, repository.getStats().get("misses"));
+    }
+
+    /**
+     * ファイルの詰め直しのテスト
+     * 更新によって無効なレコードが増えるとファイルが詰め直され、内容が保たれることを確認する
+     */
+    @Test
+    void update_shouldCompactSegmentWhenMostRecordsAreDead() {
+        // given
+        saveAll(200);
+
+        // when - 退避と読み込みを繰り返して古いレコードを増やす
+        for (int round = 0; round < 30; round++) {
+            for (long id = 1; id <= 200; id++) {
+                repository.update(id, post -> {
+                    post.incrementLikes();
+                    return post;
+                });
+            }
+        }
+
+        // then
+        var stats = repository.getStats();
+        assertTrue((long) stats.get("compactions") > 0);
+        assertTrue((long) stats.get("deadBytes") <= (long) stats.get("segmentBytes"));
+        for (long id = 1; id <= 200; id++) {
+            assertEquals(30, repository.findById(id).getLikes());
+        }
+    }
+
+    private void saveAll(long count) {
+        saveAll(1, count);
+    }
+
+    private void saveAll(long from, long to) {
+        for (long id = from; id <= to; id++) {
+            Post post = new Post("Content " + id);
+            post.setId(id);
+            repository.save(post);
+        }
+    }
+}
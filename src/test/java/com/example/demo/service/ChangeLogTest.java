@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ChangeLogのリングバッファとしての動作をテストするクラス
+ */
+class ChangeLogTest {
+
+    /**
+     * 差分取得のテスト
+     * 指定したシーケンス番号より後の変更が古い順に返ることを確認する
+     */
+    @Test
+    void since_shouldReturnChangesAfterSequence() {
+        // given - 5件の変更を記録
+        ChangeLog log = new ChangeLog(10);
+        for (long s = 1; s <= 5; s++) {
+            log.append(change(s));
+        }
+
+        // when - 2番より後を取得
+        List<PostChange> changes = log.since(2, 100);
+
+        // then - 3, 4, 5番が返ること
+        assertEquals(3, changes.size());
+        assertEquals(3L, changes.get(0).sequence());
+        assertEquals(5L, changes.get(2).sequence());
+        assertTrue(log.since(5, 100).isEmpty());
+        assertEquals(1, log.since(0, 1).size()); // 件数の上限
+    }
+
+    /**
+     * 上書きのテスト
+     * 保持範囲を超えて古くなった変更を要求するとnullが返ることを確認する
+     */
+    @Test
+    void since_shouldReturnNullWhenChangesWereOverwritten() {
+        // given - 容量3で5件を記録
+        ChangeLog log = new ChangeLog(3);
+        for (long s = 1; s <= 5; s++) {
+            log.append(change(s));
+        }
+
+        // then - 3番以降は保持されており、それより前は失われている
+        assertEquals(3L, log.getFirstSequence());
+        assertEquals(3, log.since(2, 100).size());
+        assertNull(log.since(1, 100));
+    }
+
+    /**
+     * 順序違反のテスト
+     * 連番でない変更の追記は拒否されることを確認する
+     */
+    @Test
+    void append_shouldRejectGaps() {
+        ChangeLog log = new ChangeLog(3);
+        log.append(change(1));
+        assertThrows(IllegalStateException.class, () -> log.append(change(3)));
+    }
+
+    /**
+     * リセットのテスト
+     * リセット後は指定した番号の次から追記でき、それ以前は取得できないことを確認する
+     */
+    @Test
+    void reset_shouldStartAfterGivenSequence() {
+        ChangeLog log = new ChangeLog(3);
+        log.append(change(1));
+
+        log.reset(10);
+        log.append(change(11));
+
+        assertNull(log.since(5, 100));
+        assertEquals(1, log.since(10, 100).size());
+    }
+
+    /**
+     * 反映済みの範囲のテスト
+     * 反映済みと記録された番号までの変更だけが返り、記録が進むと続きが返ることを確認する
+     */
+    @Test
+    void stableSince_shouldStopAtStableSequence() throws InterruptedException {
+        // given - 5件を記録し、3番までを反映済みとする
+        ChangeLog log = new ChangeLog(10);
+        for (long s = 1; s <= 5; s++) {
+            log.append(change(s));
+        }
+        log.markStable(3);
+
+        // then - 3番までが返り、それより後の反映は待機で検知できること
+        assertEquals(3, log.stableSince(0, 100).size());
+        assertTrue(log.stableSince(3, 100).isEmpty());
+        assertFalse(log.awaitStableAfter(3, 10));
+
+        // when - 5番までを反映済みとする（古い番号の記録は無視される）
+        log.markStable(5);
+        log.markStable(4);
+
+        // then
+        assertTrue(log.awaitStableAfter(3, 10));
+        assertEquals(2, log.stableSince(3, 100).size());
+        assertEquals(5L, log.getStableSequence());
+    }
+
+    private static PostChange change(long sequence) {
+        return new PostChange(sequence, PostChange.Type.LIKED, 1L, null, Instant.now());
+    }
+}
@@ -5,14 +5,24 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.example.demo.config.PostProperties;
 import com.example.demo.model.Post;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.service.id.SequentialIdGenerator;
+import com.example.demo.service.stats.PostStats;
+import com.example.demo.service.stats.PublishRateSeries;
 
 /**
  * PostServiceのビジネスロジックをテストするクラス
@@ -338,4 +348,674 @@ class PostServiceTest {
         // then - nullが返されることを確認
         assertNull(likes);
     }
-}
\ No newline at end of file
+
+    /**
+     * 変更通知機能のテスト
+     * 各操作に連続したシーケンス番号が割り当てられ、リスナーへ順に通知されることを確認する
+     */
+    @Test
+    void mutations_shouldEmitSequencedChanges() {
+        // given - リスナーを登録
+        List<PostChange> changes = new ArrayList<>();
+        postService.addChangeListener(changes::add);
+
+        // when - 作成・公開・いいね・削除を実行
+        Post post = postService.createDraft("Content");
+        postService.publishPost(post.getId());
+        postService.likePost(post.getId());
+        postService.deletePost(post.getId());
+
+        // then - 4件の変更がシーケンス順に通知されること
+        assertEquals(4, changes.size());
+        assertEquals(PostChange.Type.CREATED, changes.get(0).type());
+        assertEquals(PostChange.Type.PUBLISHED, changes.get(1).type());
+        assertEquals(PostChange.Type.LIKED, changes.get(2).type());
+        assertEquals(1, changes.get(2).post().getLikes()); // 変更後のスナップショット
+        assertEquals(PostChange.Type.DELETED, changes.get(3).type());
+        assertNull(changes.get(3).post()); // 削除はトゥームストーン
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(i + 1, changes.get(i).sequence());
+        }
+        assertEquals(4L, postService.getCurrentSequence());
+        assertEquals(4L, postService.getStableSequence());
+    }
+
+    /**
+     * 変更通知機能のテスト - 変更なし
+     * 失敗した操作（既に公開済み、存在しない投稿）では変更が発行されないことを確認する
+     */
+    @Test
+    void failedMutations_shouldNotEmitChanges() {
+        // given - 公開済みの投稿
+        Post post = postService.createDraft("Content");
+        postService.publishPost(post.getId());
+        long before = postService.getCurrentSequence();
+
+        // when - 再公開と存在しない投稿への操作
+        postService.publishPost(post.getId());
+        postService.likePost(999L);
+        postService.deletePost(999L);
+
+        // then - シーケンス番号が進まないこと
+        assertEquals(before, postService.getCurrentSequence());
+    }
+
+    /**
+     * 変更通知機能のテスト - 保存の失敗
+     * ストアが保存を拒否した場合、作成を打ち消す削除が続けて通知され、集計にも含まれないことを確認する
+     */
+    @Test
+    void createDraft_shouldRetractChangeWhenStoreRejectsPost() {
+        // given - 内容が「reject」の投稿の保存を拒否するストア
+        PostService service = new PostService(new InMemoryPostRepository() {
+            @Override
+            public Post save(Post post) {
+                if ("reject".equals(post.getContent())) {
+                    throw new IllegalStateException("rejected");
+                }
+                return super.save(post);
+            }
+        });
+        List<PostChange> changes = new ArrayList<>();
+        service.addChangeListener(changes::add);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> service.createDraft("reject"));
+
+        // then - 作成と、それを打ち消す削除が通知されること
+        assertEquals(2, changes.size());
+        assertEquals(PostChange.Type.CREATED, changes.get(0).type());
+        assertEquals(PostChange.Type.DELETED, changes.get(1).type());
+        assertEquals(changes.get(0).postId(), changes.get(1).postId());
+        assertEquals(2L, service.getStableSequence());
+        assertEquals(0, service.getStats().totalPosts());
+        assertTrue(service.getChangesSince(0, 100).posts().isEmpty());
+    }
+
+    /**
+     * スナップショット受信のテスト
+     * 受信中はローカルのストアが直前の状態で応答し、完了時にスナップショットの内容へ置き換わることを確認する
+     */
+    @Test
+    void replicaSnapshot_shouldKeepServingPreviousStoreUntilComplete() {
+        // given - 2件の投稿があるレプリカ
+        Post kept = postService.createDraft("Kept");
+        Post dropped = postService.createDraft("Dropped");
+        postService.setReadOnly(true);
+
+        // when - 投稿1件を受信している途中
+        postService.beginReplicaSnapshot();
+        Post replaced = new Post(kept);
+        replaced.setContent("Replaced");
+        postService.applySnapshotPost(replaced);
+
+        // then - 受信中は直前の状態のまま読み取れること
+        assertEquals("Kept", postService.getPost(kept.getId()).getContent());
+        assertNotNull(postService.getPost(dropped.getId()));
+
+        // when - 受信を完了
+        postService.completeReplicaSnapshot(10);
+
+        // then - スナップショットの内容に置き換わること
+        assertEquals("Replaced", postService.getPost(kept.getId()).getContent());
+        assertNull(postService.getPost(dropped.getId()));
+        assertEquals(1, postService.getStats().totalPosts());
+        assertEquals(10L, postService.getCurrentSequence());
+    }
+
+    /**
+     * 投稿内容更新機能のテスト
+     * 内容と更新日時が変更され、UPDATEDの変更が発行されることを確認する
+     */
+    @Test
+    void updateContent_shouldChangeContentAndEmitChange() {
+        // given - 下書き投稿
+        Post post = postService.createDraft("Before");
+        List<PostChange> changes = new ArrayList<>();
+        postService.addChangeListener(changes::add);
+
+        // when - 内容を更新
+        Post updated = postService.updateContent(post.getId(), "After");
+
+        // then - 内容が更新され、変更が発行されること
+        assertEquals("After", updated.getContent());
+        assertEquals("After", postService.getPost(post.getId()).getContent());
+        assertEquals(1, changes.size());
+        assertEquals(PostChange.Type.UPDATED, changes.get(0).type());
+        assertNull(postService.updateContent(999L, "After"));
+    }
+
+    /**
+     * 差分取得機能のテスト
+     * 投稿ごとに最新の状態へまとめられ、下書きは除外され、削除はトゥームストーンとして返ることを確認する
+     */
+    @Test
+    void getChangesSince_shouldCoalesceChangesWithTombstones() {
+        // given - 公開済みの投稿が1件ある状態を同期済みとする
+        Post kept = postService.createDraft("Kept");
+        postService.publishPost(kept.getId());
+        Post removed = postService.createDraft("Removed");
+        postService.publishPost(removed.getId());
+        long synced = postService.getStableSequence();
+
+        // when - いいね2回、削除、下書き作成、新規公開を行ってから差分を取得
+        postService.likePost(kept.getId());
+        postService.likePost(kept.getId());
+        postService.deletePost(removed.getId());
+        postService.createDraft("Draft");
+        Post added = postService.createDraft("Added");
+        postService.publishPost(added.getId());
+        PostDelta delta = postService.getChangesSince(synced, 100);
+
+        // then - 公開済み投稿の最新状態と削除IDだけが返ること
+        assertEquals(synced, delta.since());
+        assertEquals(postService.getCurrentSequence(), delta.sequence());
+        assertEquals(2, delta.posts().size());
+        assertEquals(kept.getId(), delta.posts().get(0).getId());
+        assertEquals(2, delta.posts().get(0).getLikes());
+        assertEquals(added.getId(), delta.posts().get(1).getId());
+        assertEquals(List.of(removed.getId()), delta.deletedIds());
+        assertFalse(delta.hasMore());
+        assertTrue(postService.getChangesSince(delta.sequence(), 100).posts().isEmpty());
+    }
+
+    /**
+     * 差分取得機能のテスト - 件数上限
+     * 上限で打ち切られた場合は続きがあることが示され、続きから取得できることを確認する
+     */
+    @Test
+    void getChangesSince_shouldPageByLimit() {
+        // given - 3件の公開済み投稿
+        for (int i = 0; i < 3; i++) {
+            Post post = postService.createDraft("Content" + i);
+            postService.publishPost(post.getId());
+        }
+
+        // when - 4件ずつ取得
+        PostDelta first = postService.getChangesSince(0, 4);
+        PostDelta second = postService.getChangesSince(first.sequence(), 4);
+
+        // then - 合わせて3件の投稿が返ること
+        assertTrue(first.hasMore());
+        assertEquals(4L, first.sequence());
+        assertFalse(second.hasMore());
+        assertEquals(3, first.posts().size() + second.posts().size());
+    }
+
+    /**
+     * 差分取得機能のテスト - 再同期
+     * 変更ログの保持範囲より古いシーケンス番号や、未来のシーケンス番号を指定するとnullが返ることを確認する
+     */
+    @Test
+    void getChangesSince_shouldRequireResyncWhenTooFarBehind() {
+        // given - 変更ログの保持件数が2件のサービス
+        PostProperties properties = new PostProperties();
+        properties.getChangeLog().setCapacity(2);
+        PostService service = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties);
+        for (int i = 0; i < 5; i++) {
+            service.createDraft("Content" + i);
+        }
+
+        // when & then - 保持範囲外と未来のシーケンス番号はnull、保持範囲内は差分が返ること
+        assertNull(service.getChangesSince(1, 100));
+        assertNull(service.getChangesSince(10, 100));
+        assertNotNull(service.getChangesSince(3, 100));
+    }
+
+    /**
+     * いいねランキング機能のテスト
+     * 公開済み投稿だけがいいね数の多い順に返り、削除された投稿は除外されることを確認する
+     */
+    @Test
+    void getTopLikedPosts_shouldReturnPublishedPostsByLikes() {
+        // given - 公開済み3件と、いいねされた下書き1件
+        Post first = postService.createDraft("First");
+        Post second = postService.createDraft("Second");
+        Post third = postService.createDraft("Third");
+        Post draft = postService.createDraft("Draft");
+        postService.publishPost(first.getId());
+        postService.publishPost(second.getId());
+        postService.publishPost(third.getId());
+        for (int i = 0; i < 5; i++) {
+            postService.likePost(draft.getId());
+        }
+
+        // when - いいねと削除を行う
+        postService.likePost(second.getId());
+        postService.likePost(second.getId());
+        postService.likePost(third.getId());
+        postService.deletePost(third.getId());
+        List<Post> top = postService.getTopLikedPosts(10);
+
+        // then - 2番目、1番目の順で返ること
+        assertEquals(2, top.size());
+        assertEquals(second.getId(), top.get(0).getId());
+        assertEquals(2, top.get(0).getLikes());
+        assertEquals(first.getId(), top.get(1).getId());
+        assertEquals(1, postService.getTopLikedPosts(1).size());
+    }
+
+    /**
+     * トレンド機能のテスト
+     * いいねされた公開済み投稿だけが返り、削除された投稿は除外されることを確認する
+     */
+    @Test
+    void getTrendingPosts_shouldReturnLikedPublishedPosts() {
+        // given - 公開済み2件といいねされていない公開済み1件
+        Post hot = postService.createDraft("Hot");
+        Post warm = postService.createDraft("Warm");
+        Post cold = postService.createDraft("Cold");
+        postService.publishPost(hot.getId());
+        postService.publishPost(warm.getId());
+        postService.publishPost(cold.getId());
+
+        // when - いいねの数に差をつける
+        postService.likePost(hot.getId());
+        postService.likePost(hot.getId());
+        postService.likePost(warm.getId());
+        List<Post> trending = postService.getTrendingPosts(10);
+
+        // then - いいねの多い順に、いいねのあった投稿だけが返ること
+        assertEquals(2, trending.size());
+        assertEquals(hot.getId(), trending.get(0).getId());
+        assertEquals(warm.getId(), trending.get(1).getId());
+        postService.deletePost(hot.getId());
+        assertEquals(1, postService.getTrendingPosts(10).size());
+    }
+
+    /**
+     * 予約公開機能のテスト
+     * 予約した日時を過ぎると自動的に公開されることを確認する
+     */
+    @Test
+    void createDraft_withPublishAt_shouldPublishWhenDue() throws Exception {
+        // given - ティック10ミリ秒のサービス
+        PostProperties properties = new PostProperties();
+        properties.getSchedule().setTick(Duration.ofMillis(10));
+        try (PostService service = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties)) {
+            // when - 100ミリ秒後の公開を予約して作成
+            Instant publishAt = Instant.now().plusMillis(100);
+            Post post = service.createDraft("Scheduled", publishAt);
+
+            // then - 作成直後は下書きで、予約日時が記録されていること
+            assertTrue(post.isDraft());
+            assertEquals(publishAt, post.getScheduledPublishAt());
+
+            // then - 予約日時を過ぎると公開され、予約日時が消えること
+            long deadline = System.currentTimeMillis() + 5000;
+            while (service.getPost(post.getId()).isDraft() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Post published = service.getPost(post.getId());
+            assertFalse(published.isDraft());
+            assertNull(published.getScheduledPublishAt());
+            assertFalse(published.getPublishedAt().isBefore(publishAt));
+        }
+    }
+
+    /**
+     * 予約公開機能のテスト - 取り消し
+     * 予約中の投稿を削除・即時公開すると、予約が取り消されることを確認する
+     */
+    @Test
+    void schedulePublish_shouldBeCancelledByDeleteAndManualPublish() throws Exception {
+        // given - 予約中の下書き2件
+        PostProperties properties = new PostProperties();
+        properties.getSchedule().setTick(Duration.ofMillis(10));
+        try (PostService service = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties)) {
+            Post deleted = service.createDraft("Deleted");
+            Post manual = service.createDraft("Manual");
+            Instant publishAt = Instant.now().plusMillis(100);
+            assertEquals(publishAt, service.schedulePublish(deleted.getId(), publishAt).getScheduledPublishAt());
+            service.schedulePublish(manual.getId(), publishAt);
+
+            // when - 1件を削除し、もう1件を即時公開して予約日時を過ぎるまで待つ
+            service.deletePost(deleted.getId());
+            Post published = service.publishPost(manual.getId());
+            long sequence = service.getCurrentSequence();
+            Thread.sleep(300);
+
+            // then - 予約による公開は行われないこと
+            assertNull(published.getScheduledPublishAt());
+            assertNull(service.getPost(deleted.getId()));
+            assertEquals(sequence, service.getCurrentSequence());
+        }
+    }
+
+    /**
+     * 予約公開機能のテスト - 再起動
+     * 予約中の下書きを含むストアから起動すると、予約が登録し直されることを確認する
+     */
+    @Test
+    void constructor_shouldRearmStoredSchedules() throws Exception {
+        // given - 予約日時を過ぎた下書きが保存されたストア
+        InMemoryPostRepository repository = new InMemoryPostRepository();
+        Post stored = new Post("Stored");
+        stored.setId(1L);
+        stored.setScheduledPublishAt(Instant.now().minusSeconds(1));
+        repository.save(stored);
+        PostProperties properties = new PostProperties();
+        properties.getSchedule().setTick(Duration.ofMillis(10));
+
+        // when - そのストアでサービスを起動
+        try (PostService service = new PostService(repository, new SequentialIdGenerator(), properties)) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (service.getPost(1L).isDraft() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // then - 起動後に公開されること
+            assertFalse(service.getPost(1L).isDraft());
+        }
+    }
+
+    /**
+     * 下書きの自動削除機能のテスト
+     * 保持期間を過ぎた下書きだけが削除され、統計に反映されることを確認する
+     */
+    @Test
+    void draftTtl_shouldReclaimAbandonedDrafts() throws Exception {
+        // given - 保持期間50ミリ秒、実行間隔10ミリ秒のサービス
+        PostProperties properties = new PostProperties();
+        properties.getDrafts().setTtl(Duration.ofMillis(50));
+        properties.getDrafts().setReapInterval(Duration.ofMillis(10));
+        try (PostService service = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties)) {
+            // when - 下書きと公開済みの投稿を作成して待つ
+            Post abandoned = service.createDraft("Abandoned");
+            Post published = service.createDraft("Published");
+            service.publishPost(published.getId());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Long.valueOf(1).equals(service.getDraftExpiryStats().get("reclaimedDrafts"))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // then - 下書きだけが削除され、統計に反映されていること
+            assertNull(service.getPost(abandoned.getId()));
+            assertNotNull(service.getPost(published.getId()));
+            Map<String, Object> stats = service.getDraftExpiryStats();
+            assertEquals(1L, stats.get("reclaimedDrafts"));
+            assertTrue((Long) stats.get("reclaimedBytes") > 0);
+        }
+        assertNull(postService.getDraftExpiryStats()); // 既定では無効
+    }
+
+    /**
+     * 下書きの自動削除機能のテスト - 昇格
+     * 読み取り専用の間は期限切れの下書きが削除されず、書き込み可能になると削除されることを確認する
+     */
+    @Test
+    void draftTtl_shouldReclaimDraftsAfterPromotion() throws Exception {
+        // given - 保持期間50ミリ秒、実行間隔10ミリ秒のサービスを読み取り専用にする
+        PostProperties properties = new PostProperties();
+        properties.getDrafts().setTtl(Duration.ofMillis(50));
+        properties.getDrafts().setReapInterval(Duration.ofMillis(10));
+        try (PostService service = new PostService(new InMemoryPostRepository(), new SequentialIdGenerator(), properties)) {
+            Post abandoned = service.createDraft("Abandoned");
+            service.setReadOnly(true);
+
+            // when - 期限を過ぎて削除が見送られるまで待つ
+            Thread.sleep(200);
+
+            // then - 削除されずに残っていること
+            assertNotNull(service.getPost(abandoned.getId()));
+            assertEquals(0, service.getDraftExpiryStats().get("trackedDrafts"));
+
+            // when - 書き込み可能に切り替える
+            service.setReadOnly(false);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!Long.valueOf(1).equals(service.getDraftExpiryStats().get("reclaimedDrafts"))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // then - 削除されていること
+            assertNull(service.getPost(abandoned.getId()));
+        }
+    }
+
+    /**
+     * 一括公開機能のテスト
+     * 下書きが同じ公開日時で公開され、IDごとの結果が返されることを確認する
+     */
+    @Test
+    void publishPosts_shouldPublishDraftsWithOneTimestamp() {
+        // given - 下書き3件と公開済み1件
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(postService.createDraft("Draft " + i).getId());
+        }
+        Long published = postService.createDraft("Published").getId();
+        postService.publishPost(published);
+        ids.add(published);
+        ids.add(999L);
+
+        // when - 存在しないIDと重複を含めて一括公開
+        ids.add(ids.get(0));
+        BulkResult result = postService.publishPosts(ids);
+
+        // then - 下書きだけが同じ日時で公開されていること
+        assertEquals(3, result.applied());
+        assertEquals(5, result.outcomes().size());
+        assertEquals(BulkResult.Outcome.SKIPPED, result.outcomes().get(published));
+        assertEquals(BulkResult.Outcome.NOT_FOUND, result.outcomes().get(999L));
+        for (Long id : ids.subList(0, 3)) {
+            assertEquals(BulkResult.Outcome.APPLIED, result.outcomes().get(id));
+            assertEquals(result.timestamp(), postService.getPost(id).getPublishedAt());
+        }
+        assertEquals(4, postService.getAllPublishedPosts().size());
+    }
+
+    /**
+     * 一括削除機能のテスト
+     * 公開日時の範囲で指定した公開済み投稿だけが削除され、差分にトゥームストーンが残ることを確認する
+     */
+    @Test
+    void deletePostsPublishedBetween_shouldRetractPublishedPostsInRange() {
+        // given - 公開済み2件と下書き1件
+        Post first = postService.createDraft("First");
+        Post second = postService.createDraft("Second");
+        Post draft = postService.createDraft("Draft");
+        BulkResult published = postService.publishPosts(List.of(first.getId(), second.getId()));
+        long since = postService.getStableSequence();
+
+        // when - 公開日時を含む範囲で一括削除
+        BulkResult result = postService.deletePostsPublishedBetween(
+                published.timestamp(), published.timestamp().plusMillis(1));
+
+        // then - 公開済みの投稿だけが削除されていること
+        assertEquals(2, result.applied());
+        assertEquals(List.of(first.getId(), second.getId()), new ArrayList<>(result.outcomes().keySet()));
+        assertNull(postService.getPost(first.getId()));
+        assertNotNull(postService.getPost(draft.getId()));
+        assertEquals(List.of(first.getId(), second.getId()), postService.getChangesSince(since, 100).deletedIds());
+        assertEquals(BulkResult.Outcome.NOT_FOUND, postService.deletePosts(List.of(first.getId())).outcomes().get(first.getId()));
+    }
+
+    /**
+     * 集計値のテスト
+     * 作成・公開・いいね・内容の更新・削除のたびに集計値が更新されることを確認する
+     */
+    @Test
+    void getStats_shouldTrackAggregatesIncrementally() {
+        // given - 下書き2件（内容はそれぞれ4文字と6文字）
+        Post first = postService.createDraft("abcd");
+        Post second = postService.createDraft("abcdef");
+
+        // when - 1件を公開していいねし、内容を更新する
+        postService.publishPost(first.getId());
+        postService.likePost(first.getId());
+        postService.likePost(first.getId());
+        postService.updateContent(second.getId(), "ab");
+
+        // then
+        PostStats stats = postService.getStats();
+        assertEquals(2, stats.totalPosts());
+        assertEquals(1, stats.draftPosts());
+        assertEquals(1, stats.publishedPosts());
+        assertEquals(2, stats.totalLikes());
+        assertEquals(3.0, stats.averageContentLength());
+
+        // when - 公開済みの投稿を削除する
+        postService.deletePost(first.getId());
+
+        // then - 削除した投稿の分が差し引かれていること
+        stats = postService.getStats();
+        assertEquals(1, stats.totalPosts());
+        assertEquals(1, stats.draftPosts());
+        assertEquals(0, stats.publishedPosts());
+        assertEquals(0, stats.totalLikes());
+        assertEquals(2.0, stats.averageContentLength());
+    }
+
+    /**
+     * 公開数の時系列のテスト
+     * 公開した投稿が公開日時の区間に数えられることを確認する
+     */
+    @Test
+    void getPublishRate_shouldCountPublishedPosts() {
+        // given - 2件を公開
+        Post first = postService.createDraft("First");
+        Post second = postService.createDraft("Second");
+        Instant publishedAt = postService.publishPost(first.getId()).getPublishedAt();
+        postService.publishPost(second.getId());
+
+        // when - 公開日時を含む1日分を日単位で取得
+        var buckets = postService.getPublishRate(PublishRateSeries.Resolution.DAY,
+                publishedAt.minus(Duration.ofDays(1)), publishedAt.plus(Duration.ofDays(1)));
+
+        // then
+        assertEquals(2L, buckets.stream().mapToLong(PublishRateSeries.Bucket::count).sum());
+    }
+
+    /**
+     * いいね数の推移のテスト
+     * いいねが直近の1分に数えられ、削除した投稿や存在しない投稿ではnullが返されることを確認する
+     */
+    @Test
+    void getLikeHistory_shouldCountRecentLikes() {
+        // given - 公開済みの投稿に3回いいね
+        Post post = postService.createDraft("Content");
+        postService.publishPost(post.getId());
+        for (int i = 0; i < 3; i++) {
+            postService.likePost(post.getId());
+        }
+
+        // when - 直近2分を取得
+        LikeHistory history = postService.getLikeHistory(post.getId(), 2);
+
+        // then - 合計が3件で、最後の分の開始日時が現在以前であること
+        assertEquals(3, history.likesPerMinute()[0] + history.likesPerMinute()[1]);
+        assertTrue(history.start().isBefore(Instant.now()));
+        postService.deletePost(post.getId());
+        assertNull(postService.getLikeHistory(post.getId(), 2));
+        assertNull(postService.getLikeHistory(999L, 2));
+    }
+
+    /**
+     * 投稿の検索のテスト
+     * キーワードに大文字・小文字の区別なくマッチする公開済みの投稿だけが返され、
+     * 書き込み後の検索には書き込みが反映されることを確認する
+     */
+    @Test
+    void searchPosts_shouldReturnMatchingPublishedPosts() {
+        // given
+        Post spring = postService.createDraft("Spring Boot tips");
+        postService.createDraft("spring draft");
+        Post other = postService.createDraft("Other topic");
+        postService.publishPost(spring.getId());
+        postService.publishPost(other.getId());
+        var params = new Post.SearchParams();
+        params.setContentKeyword("SPRING");
+
+        // when
+        List<Post> result = postService.searchPosts(params);
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(spring.getId(), result.get(0).getId());
+
+        // when - 内容を更新した後に同じ条件で検索する
+        postService.updateContent(other.getId(), "Spring again");
+
+        // then
+        assertEquals(2, postService.searchPosts(params).size());
+        assertEquals(2L, postService.getCoalescingStats().get("search").get("executions"));
+    }
+
+    /**
+     * 検索結果のキャッシュのテスト
+     * 同じ条件の検索はキャッシュから返し、いいねでは使われ続けていいね数は最新になり、
+     * 内容の更新でキャッシュが使われなくなることを確認する
+     */
+    @Test
+    void searchPosts_shouldServeCachedPagesUntilContentChanges() {
+        // given
+        Post post = postService.createDraft("Spring Boot tips");
+        postService.publishPost(post.getId());
+        var params = new Post.SearchParams();
+        params.setContentKeyword("spring");
+        assertFalse(postService.searchPosts(params, null, 0).cached());
+
+        // when - いいねした後に大文字・小文字の違う条件で検索する
+        postService.likePost(post.getId());
+        params.setContentKeyword("SPRING");
+        PostPage afterLike = postService.searchPosts(params, null, 0);
+
+        // then
+        assertTrue(afterLike.cached());
+        assertEquals(1, afterLike.posts().get(0).getLikes());
+
+        // when - 内容を更新した後に検索する
+        postService.updateContent(post.getId(), "Kotlin tips");
+
+        // then
+        PostPage afterUpdate = postService.searchPosts(params, null, 0);
+        assertFalse(afterUpdate.cached());
+        assertTrue(afterUpdate.posts().isEmpty());
+        Map<String, Object> stats = postService.getResultCacheStats().get("search");
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("staleMisses"));
+    }
+
+    /**
+     * 検索クエリのページ分けのテスト
+     * カーソルで公開日時の新しい順に重複なく最後まで取得でき、いいね数の条件を含むクエリはいいねでキャッシュが使われなくなることを確認する
+     */
+    @Test
+    void queryPosts_shouldPageThroughResultsWithCursor() {
+        // given - 5件の公開済み投稿
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Post post = postService.createDraft("Spring post " + i);
+            postService.publishPost(post.getId());
+            expected.add(0, post.getId());
+        }
+
+        // when - 2件ずつ取得する
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = postService.queryPosts("spring", cursor, 2);
+            page.posts().forEach(post -> ids.add(post.getId()));
+            cursor = page.next() != null ? page.next().encode() : null;
+            pages++;
+        } while (cursor != null);
+
+        // then
+        assertEquals(3, pages);
+        assertEquals(expected, ids);
+        assertTrue(postService.queryPosts("SPRING", null, 2).cached());
+
+        // when - いいね数の条件を含むクエリを、いいねの前後で実行する
+        postService.queryPosts("spring likes:>=1", null, 0);
+        postService.likePost(expected.get(0));
+
+        // then
+        var liked = postService.queryPosts("spring likes:>=1", null, 0);
+        assertFalse(liked.cached());
+        assertEquals(List.of(expected.get(0)), liked.posts().stream().map(Post::getId).toList());
+        assertThrows(InvalidCursorException.class, () -> postService.queryPosts("spring", "not a cursor", 2));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SingleFlightの動作をテストするクラス
+ * 同時の読み取りのまとめ、待ち時間の上限、書き込み後の合流の抑止、例外の共有を検証する
+ */
+class SingleFlightTest {
+
+    private final AtomicLong version = new AtomicLong();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    /**
+     * 各テストメソッド実行後にスレッドを停止
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 同時の読み取りのまとめのテスト
+     * 実行中に届いた同じキーの読み取りが1回の実行の結果を共有することを確認する
+     */
+    @Test
+    void execute_shouldCollapseConcurrentCallsForSameKey() throws Exception {
+        // given - リーダーの読み取りを止めておく
+        var flight = new SingleFlight<String, Object>(Duration.ofSeconds(10), version::get);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executions = new AtomicInteger();
+        var result = new Object();
+        var leader = executor.submit(() -> flight.execute("key", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return result;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when - 実行中に同じキーの読み取りが届く
+        List<Future<Object>> waiters = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            waiters.add(executor.submit(() -> flight.execute("key", () -> {
+                executions.incrementAndGet();
+                return new Object();
+            })));
+        }
+        awaitRequests(flight, 8);
+        release.countDown();
+
+        // then - 全員が同じ結果を受け取り、実行は1回だけであること
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        for (var waiter : waiters) {
+            assertSame(result, waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        var stats = flight.snapshot();
+        assertEquals(7L, stats.get("shared"));
+        assertEquals(7.0 / 8, (double) stats.get("collapseRatio"), 1e-9);
+        assertEquals(0, stats.get("inFlight"));
+    }
+
+    /**
+     * 待ち時間の上限のテスト
+     * 実行中の読み取りが上限を超えて終わらない場合、待っていた呼び出し元が自分で読み取りを実行することを確認する
+     */
+    @Test
+    void execute_shouldFallBackToOwnLoadAfterMaxWait() throws Exception {
+        // given
+        var flight = new SingleFlight<String, String>(Duration.ofMillis(20), version::get);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var leader = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        String value = flight.execute("key", () -> "own");
+
+        // then
+        assertEquals("own", value);
+        assertEquals(1L, flight.snapshot().get("timeouts"));
+        release.countDown();
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 書き込み後の合流の抑止のテスト
+     * 読み取りの開始後に書き込みがあった場合、後から届いた呼び出しは実行中の結果を使わないことを確認する
+     */
+    @Test
+    void execute_shouldNotJoinFlightStartedBeforeWrite() throws Exception {
+        // given
+        var flight = new SingleFlight<String, String>(Duration.ofSeconds(10), version::get);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var leader = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "before";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when - 書き込みの後に読み取る
+        version.incrementAndGet();
+        String value = flight.execute("key", () -> "after");
+
+        // then
+        assertEquals("after", value);
+        assertEquals(0L, flight.snapshot().get("shared"));
+        release.countDown();
+        assertEquals("before", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 例外の共有のテスト
+     * リーダーの読み取りが失敗した場合、待っていた呼び出し元にも同じ例外が伝わることを確認する
+     */
+    @Test
+    void execute_shouldPropagateLeaderFailureToWaiters() throws Exception {
+        // given
+        var flight = new SingleFlight<String, String>(Duration.ofSeconds(10), version::get);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var failure = new IllegalStateException("backend unavailable");
+        executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // when
+        var waiter = executor.submit(() -> flight.execute("key", () -> "own"));
+        awaitRequests(flight, 2);
+        release.countDown();
+
+        // then
+        var thrown = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertSame(failure, thrown.getCause());
+    }
+
+    /**
+     * まとめの無効化のテスト
+     * 待ち時間の上限が0の場合は毎回読み取りを実行することを確認する
+     */
+    @Test
+    void execute_shouldAlwaysLoadWhenDisabled() {
+        // given
+        var flight = new SingleFlight<String, Integer>(Duration.ZERO, version::get);
+        var executions = new AtomicInteger();
+
+        // when
+        flight.execute("key", executions::incrementAndGet);
+        flight.execute("key", executions::incrementAndGet);
+
+        // then
+        assertEquals(2, executions.get());
+        assertEquals(0.0, flight.snapshot().get("collapseRatio"));
+    }
+
+    /**
+     * 指定された数の呼び出しが届き、実行中の読み取りを待ち始めるまで待機する
+     */
+    private static void awaitRequests(SingleFlight<?, ?> flight, long count) throws InterruptedException {
+        while ((long) flight.snapshot().get("requests") < count) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
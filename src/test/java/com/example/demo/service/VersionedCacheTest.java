@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * VersionedCacheの動作をテストするクラス
+ * バージョンが一致する場合だけのヒット、件数とメモリ量の上限による追い出し、統計を検証する
+ */
+class VersionedCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * バージョンによる無効化のテスト
+     * 同じバージョンではキャッシュから返し、バージョンが進むと計算し直すことを確認する
+     */
+    @Test
+    void get_shouldHitOnlyForSameVersion() {
+        // given
+        var cache = new VersionedCache<String, String>(10, 1_000_000, value -> value.length());
+
+        // when
+        var first = cache.get("spring", 1, () -> load("v1"));
+        var second = cache.get("spring", 1, () -> load("unused"));
+        var third = cache.get("spring", 2, () -> load("v2"));
+
+        // then
+        assertFalse(first.cached());
+        assertTrue(second.cached());
+        assertEquals("v1", second.value());
+        assertFalse(third.cached());
+        assertEquals("v2", third.value());
+        assertEquals(2, loads.get());
+        var stats = cache.snapshot();
+        assertEquals(3L, stats.get("requests"));
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("staleMisses"));
+        assertEquals(1, stats.get("entries"));
+    }
+
+    /**
+     * 件数とメモリ量の上限のテスト
+     * 上限を超えると最も長く使われていないエントリーから追い出され、推定メモリ使用量が上限以下に保たれることを確認する
+     */
+    @Test
+    void get_shouldEvictLeastRecentlyUsedEntries() {
+        // given - 3件まで、または結果2件分のメモリまで
+        long entryBytes = VersionedCache.ENTRY_OVERHEAD_BYTES + 100;
+        var byCount = new VersionedCache<Integer, String>(3, Long.MAX_VALUE, value -> 100);
+        var byMemory = new VersionedCache<Integer, String>(100, entryBytes * 2, value -> 100);
+
+        // when - 1を使い直してから4件目を追加する
+        for (var cache : List.of(byCount, byMemory)) {
+            cache.get(1, 0, () -> load("1"));
+            cache.get(2, 0, () -> load("2"));
+            cache.get(1, 0, () -> load("1"));
+            cache.get(3, 0, () -> load("3"));
+            cache.get(4, 0, () -> load("4"));
+        }
+
+        // then - 件数の上限では2が、メモリの上限では2と1が追い出される
+        assertEquals(1L, byCount.snapshot().get("evictions"));
+        assertTrue(byCount.get(1, 0, () -> load("1")).cached());
+        assertFalse(byCount.get(2, 0, () -> load("2")).cached());
+        assertEquals(2, byMemory.snapshot().get("entries"));
+        assertEquals(entryBytes * 2, byMemory.snapshot().get("estimatedBytes"));
+        assertTrue(byMemory.get(4, 0, () -> load("4")).cached());
+    }
+
+    /**
+     * 並行アクセスのテスト
+     * 複数のスレッドから同時に取得しても、件数と推定メモリ使用量の計算が崩れず、上限が守られることを確認する
+     */
+    @Test
+    void get_shouldKeepLimitsUnderConcurrentAccess() throws Exception {
+        // given - 20件までのキャッシュに50種類のキーで取得する
+        long entryBytes = VersionedCache.ENTRY_OVERHEAD_BYTES + 100;
+        var cache = new VersionedCache<Integer, String>(20, Long.MAX_VALUE, value -> 100);
+        var executor = Executors.newFixedThreadPool(8);
+
+        // when
+        try {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                tasks.add(() -> {
+                    var random = new Random(seed);
+                    for (int i = 0; i < 2000; i++) {
+                        int key = random.nextInt(50);
+                        cache.get(key, 0, () -> load(String.valueOf(key)));
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        var stats = cache.snapshot();
+        assertEquals(16_000L, stats.get("requests"));
+        assertTrue((int) stats.get("entries") <= 20);
+        assertEquals((int) stats.get("entries") * entryBytes, stats.get("estimatedBytes"));
+        assertTrue((long) stats.get("hits") > 0);
+    }
+
+    /**
+     * キャッシュを無効にした場合のテスト
+     * 上限が0の場合は常に計算し、何も保持しないことを確認する
+     */
+    @Test
+    void get_shouldNotCacheWhenDisabled() {
+        // given
+        var cache = new VersionedCache<String, String>(0, 1_000_000, value -> 1);
+
+        // when
+        cache.get("spring", 1, () -> load("v1"));
+        var second = cache.get("spring", 1, () -> load("v1"));
+
+        // then
+        assertFalse(second.cached());
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.snapshot().get("entries"));
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
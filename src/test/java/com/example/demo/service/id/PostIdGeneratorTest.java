@@ -0,0 +1,140 @@
+package com.example.demo.service.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 投稿IDジェネレーター各実装の採番規則をテストするクラス
+ * 単調増加、ノードIDの埋め込み、並行採番時の一意性を検証する
+ */
+class PostIdGeneratorTest {
+
+    /**
+     * 連番ジェネレーターのテスト
+     * 1から順に採番されることを確認する
+     */
+    @Test
+    void sequential_shouldStartAtOne() {
+        // given - 連番ジェネレーター
+        PostIdGenerator generator = new SequentialIdGenerator();
+
+        // when & then - 1, 2, 3の順に採番されること
+        assertEquals(1L, generator.nextId());
+        assertEquals(2L, generator.nextId());
+        assertEquals(3L, generator.nextId());
+    }
+
+    /**
+     * Snowflakeジェネレーターのテスト
+     * ノードIDと時刻がIDに埋め込まれることを確認する
+     */
+    @Test
+    void snowflake_shouldEmbedNodeIdAndTimestamp() {
+        // given - 固定時計とノードID 5のジェネレーター
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, Clock.fixed(now, ZoneOffset.UTC));
+
+        // when - IDを採番
+        long id = generator.nextId();
+
+        // then - ノードIDと時刻が取り出せること
+        assertEquals(5, SnowflakeIdGenerator.nodeIdOf(id));
+        assertEquals(now, SnowflakeIdGenerator.timestampOf(id));
+    }
+
+    /**
+     * Snowflakeジェネレーターの単調増加テスト
+     * 時計が止まっていてもシーケンスを使い切ってもIDが単調増加することを確認する
+     */
+    @Test
+    void snowflake_shouldStayMonotonicWhenClockDoesNotAdvance() {
+        // given - 時刻が進まない時計
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1,
+                Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC));
+
+        // when & then - 1ミリ秒あたりのシーケンス上限を超えて採番しても単調増加すること
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            assertEquals(1, SnowflakeIdGenerator.nodeIdOf(next));
+            previous = next;
+        }
+    }
+
+    /**
+     * Snowflakeジェネレーターの不正なノードIDテスト
+     * 範囲外のノードIDを指定すると例外が発生することを確認する
+     */
+    @Test
+    void snowflake_shouldRejectInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+
+    /**
+     * ブロック方式ジェネレーターのテスト
+     * スレッド内で単調増加し、ノードIDが上位ビットに埋め込まれることを確認する
+     */
+    @Test
+    void blockLease_shouldBeMonotonicWithinThreadAndCarryNodeId() {
+        // given - ノードID 3、ブロックサイズ4のジェネレーター
+        BlockLeaseIdGenerator generator = new BlockLeaseIdGenerator(3, 4);
+
+        // when & then - ブロックをまたいでも単調増加すること
+        long previous = generator.nextId();
+        for (int i = 0; i < 20; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            assertEquals(3L, next >>> BlockLeaseIdGenerator.NODE_SHIFT);
+            previous = next;
+        }
+    }
+
+    /**
+     * 並行採番のテスト
+     * 複数スレッドから採番してもIDが重複しないことを確認する
+     */
+    @Test
+    void allGenerators_shouldProduceUniqueIdsUnderContention() throws Exception {
+        List<PostIdGenerator> generators = List.of(
+                new SequentialIdGenerator(),
+                new SnowflakeIdGenerator(0),
+                new BlockLeaseIdGenerator(0, 64));
+
+        for (PostIdGenerator generator : generators) {
+            // given - 8スレッドで各5000件採番
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // then - 重複がないこと
+            assertEquals(40_000, ids.size());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * QueryParserの動作をテストするクラス
+ * 演算子の優先順位、フレーズ、いいね数・公開日時の範囲、構文エラーを検証する
+ */
+class QueryParserTest {
+
+    /**
+     * 演算子の優先順位のテスト
+     * NOT、AND（省略を含む）、ORの順に強く結びつくことを確認する
+     */
+    @Test
+    void parse_shouldApplyOperatorPrecedence() {
+        // when
+        var query = QueryParser.parse("spring boot OR jvm AND NOT draft");
+
+        // then
+        assertEquals("(spring AND boot) OR (jvm AND NOT draft)", query.toString());
+    }
+
+    /**
+     * 括弧・フレーズ・否定の接頭辞のテスト
+     * 括弧で優先順位を変えられ、引用符の中の空白や演算子は文字列として扱われ、先頭の-はNOTになることを確認する
+     */
+    @Test
+    void parse_shouldHandleParenthesesPhrasesAndMinus() {
+        // when
+        var query = QueryParser.parse("(spring OR \"jvm AND jit\") -draft well-known");
+
+        // then
+        var expected = new PostQuery.And(List.of(
+                new PostQuery.Or(List.of(new PostQuery.Contains("spring", false), new PostQuery.Contains("jvm AND jit", true))),
+                new PostQuery.Not(new PostQuery.Contains("draft", false)),
+                new PostQuery.Contains("well-known", false)));
+        assertEquals(expected, query);
+    }
+
+    /**
+     * いいね数の範囲のテスト
+     * 比較演算子と範囲指定が両端を含む範囲に変換されることを確認する
+     */
+    @Test
+    void parse_shouldParseLikesRanges() {
+        assertEquals(new PostQuery.LikesRange(10, Integer.MAX_VALUE), QueryParser.parse("likes:>=10"));
+        assertEquals(new PostQuery.LikesRange(11, Integer.MAX_VALUE), QueryParser.parse("likes:>10"));
+        assertEquals(new PostQuery.LikesRange(0, 99), QueryParser.parse("likes:<100"));
+        assertEquals(new PostQuery.LikesRange(5, 20), QueryParser.parse("likes:5..20"));
+        assertEquals(new PostQuery.LikesRange(3, 3), QueryParser.parse("likes:3"));
+    }
+
+    /**
+     * 公開日時の範囲のテスト
+     * 日付だけの指定はUTCのその日全体を表し、終了日時を含まない範囲に変換されることを確認する
+     */
+    @Test
+    void parse_shouldParsePublishedRanges() {
+        var june1 = Instant.parse("2025-06-01T00:00:00Z");
+        var june2 = Instant.parse("2025-06-02T00:00:00Z");
+
+        assertEquals(new PostQuery.PublishedRange(june1, june2), QueryParser.parse("published:2025-06-01"));
+        assertEquals(new PostQuery.PublishedRange(june2, null), QueryParser.parse("published:>2025-06-01"));
+        assertEquals(new PostQuery.PublishedRange(null, june1), QueryParser.parse("published:<2025-06-01"));
+        assertEquals(new PostQuery.PublishedRange(june1, Instant.parse("2025-07-01T00:00:00Z")),
+                QueryParser.parse("published:2025-06-01..2025-06-30"));
+        assertEquals(new PostQuery.PublishedRange(june1, null), QueryParser.parse("published:>=2025-06-01T00:00:00Z"));
+    }
+
+    /**
+     * 構文エラーのテスト
+     * 不正なクエリでは位置を含むQuerySyntaxExceptionがスローされることを確認する
+     */
+    @Test
+    void parse_shouldRejectInvalidQueries() {
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse(" "));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("(spring"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("spring)"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("spring AND"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("\"spring"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("likes:-1"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("published:yesterday"));
+        assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("(".repeat(40) + "a" + ")".repeat(40)));
+
+        var error = assertThrows(QuerySyntaxException.class, () -> QueryParser.parse("spring OR OR boot"));
+        assertEquals(10, error.getPosition());
+    }
+}
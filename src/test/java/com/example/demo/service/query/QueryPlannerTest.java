@@ -0,0 +1,174 @@
+package com.example.demo.service.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.query.QueryPlan.Driver;
+
+/**
+ * QueryPlannerとPostSearchIndexの動作をテストするクラス
+ * 最も候補の少ないドライバーの選択、全件走査との結果の一致、変更イベントによる索引の更新を検証する
+ */
+class QueryPlannerTest {
+
+    private static final Instant BASE = Instant.parse("2025-06-01T00:00:00Z");
+    private static final String[] WORDS = {"Spring", "Boot", "JVM", "jit", "投稿", "いいね", "latency", "search"};
+
+    private InMemoryPostRepository repository;
+    private PostSearchIndex index;
+    private QueryPlanner planner;
+
+    /**
+     * 各テストメソッド実行前に、1日1件ずつ公開された1000件の投稿（うち100件は下書き）を用意
+     * 内容にRareWordを含むのは5件、いいね数が500以上なのは10件
+     */
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryPostRepository();
+        var random = new Random(42);
+        for (int i = 1; i <= 1000; i++) {
+            var content = new StringBuilder();
+            for (int w = 0; w < 6; w++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (i % 200 == 0) {
+                content.append("RareWord");
+            }
+            var post = new Post(content.toString());
+            post.setId((long) i);
+            if (i % 10 != 0) {
+                post.setDraft(false);
+                post.setPublishedAt(BASE.plusSeconds(86_400L * i));
+            }
+            post.setLikes(i % 100 == 1 ? 500 + i : i % 50);
+            repository.save(post);
+        }
+        index = new PostSearchIndex(true);
+        index.rebuild(repository.findAll(post -> true));
+        planner = new QueryPlanner(repository, index);
+    }
+
+    /**
+     * ドライバーの選択のテスト
+     * 条件ごとに最も候補の少ない索引が選ばれ、索引で絞り込めない条件では全件走査になることを確認する
+     */
+    @Test
+    void plan_shouldPickMostSelectiveDriver() {
+        assertEquals(Driver.TEXT_INDEX, planner.plan(QueryParser.parse("rareword spring")).driver());
+        assertEquals(Driver.LIKES_INDEX, planner.plan(QueryParser.parse("spring likes:>=500")).driver());
+        assertEquals(Driver.PUBLISHED_INDEX,
+                planner.plan(QueryParser.parse("spring published:2025-06-10..2025-06-20")).driver());
+        assertEquals(Driver.FULL_SCAN, planner.plan(QueryParser.parse("spring OR boot")).driver());
+        assertEquals(Driver.FULL_SCAN, planner.plan(QueryParser.parse("NOT jit")).driver());
+    }
+
+    /**
+     * 実行計画の表示のテスト
+     * 選ばれたドライバーの推定値、判定する条件の順序、検討したドライバーが含まれることを確認する
+     */
+    @Test
+    void plan_shouldDescribeFiltersAndCandidates() {
+        // when
+        var plan = planner.plan(QueryParser.parse("(jvm OR jit) rareword likes:>=1"));
+
+        // then
+        assertEquals(Driver.TEXT_INDEX, plan.driver());
+        assertEquals("contains rareword", plan.driverCondition());
+        assertTrue(plan.estimatedRows() <= 5);
+        assertEquals(List.of("published", "likes:>=1", "rareword", "jvm OR jit"), plan.filters());
+        assertEquals(List.of(Driver.FULL_SCAN, Driver.STATE_INDEX, Driver.TEXT_INDEX, Driver.LIKES_INDEX),
+                plan.candidates().stream().map(QueryPlan.Candidate::driver).toList());
+    }
+
+    /**
+     * 全件走査との結果の一致のテスト
+     * どのドライバーが選ばれても、全投稿に条件を判定した結果と同じ投稿が公開日時の新しい順に返ることを確認する
+     */
+    @Test
+    void execute_shouldMatchBruteForceForAnyDriver() {
+        for (var text : List.of("rareword", "SPRING -boot", "jvm likes:10..20", "\"spring boot\" OR likes:>=900",
+                "published:>=2026-01-01 (jit OR 投稿)", "NOT spring NOT boot NOT jvm", "いいね published:<2025-07-01")) {
+            // given
+            var query = QueryParser.parse(text);
+            var filter = QueryPlanner.compile(query);
+            var expected = repository.findAll(post -> !post.isDraft() && filter.test(post)).stream()
+                    .sorted(Comparator.comparing(Post::getPublishedAt).reversed())
+                    .map(Post::getId)
+                    .toList();
+
+            // when
+            var result = planner.execute(query);
+
+            // then
+            assertEquals(expected, result.posts().stream().map(Post::getId).toList(), text);
+            assertTrue(result.examinedRows() >= expected.size());
+        }
+    }
+
+    /**
+     * 変更イベントによる索引の更新のテスト
+     * 内容の更新・いいね・削除が索引に反映され、索引を使った検索の結果が変わることを確認する
+     */
+    @Test
+    void onChange_shouldKeepIndexesInSync() {
+        // given - RareWordを含まない公開済みの投稿
+        var post = new Post(repository.findById(1L));
+
+        // when - 内容を更新していいね数を変える
+        post.setContent("Now with RareWord");
+        post.setLikes(10_000);
+        repository.save(post);
+        index.onChange(new PostChange(1, PostChange.Type.UPDATED, 1L, new Post(post), Instant.now()));
+
+        // then
+        assertTrue(ids("rareword").contains(1L));
+        assertEquals(List.of(1L), ids("likes:>=10000"));
+
+        // when - 削除する
+        repository.deleteById(1L);
+        index.onChange(new PostChange(2, PostChange.Type.DELETED, 1L, null, Instant.now()));
+
+        // then
+        assertTrue(!ids("rareword").contains(1L));
+        assertEquals(0, index.countLikesBetween(10_000, Integer.MAX_VALUE, 10));
+        assertEquals(899, index.publishedCount());
+    }
+
+    /**
+     * 索引の大きさの報告のテスト
+     * 転置索引を作る場合は公開済み投稿分のトライグラムが数えられ、作らない場合は転置リストが空になることを確認する
+     */
+    @Test
+    void snapshot_shouldReportTextIndexSize() {
+        // given - 転置索引を作らない索引
+        var withoutText = new PostSearchIndex(false);
+        withoutText.rebuild(repository.findAll(post -> true));
+
+        // when
+        var with = index.snapshot();
+        var without = withoutText.snapshot();
+
+        // then
+        assertEquals(900L, with.get("posts"));
+        assertTrue((long) with.get("trigrams") > 0);
+        assertTrue((long) with.get("postings") >= 900);
+        assertEquals(900L, without.get("posts"));
+        assertEquals(0L, without.get("postings"));
+        assertTrue((long) with.get("estimatedBytes") > (long) without.get("estimatedBytes"));
+    }
+
+    private List<Long> ids(String query) {
+        return planner.execute(QueryParser.parse(query)).posts().stream().map(Post::getId).toList();
+    }
+}
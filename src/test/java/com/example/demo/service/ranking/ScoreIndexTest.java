@@ -0,0 +1,71 @@
+package com.example.demo.service.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ScoreIndexの順序維持と並行更新をテストするクラス
+ */
+class ScoreIndexTest {
+
+    /**
+     * 上位K件取得のテスト
+     * スコアの高い順（同点はIDの小さい順）に返り、更新・削除が反映されることを確認する
+     */
+    @Test
+    void top_shouldReturnHighestScoresFirst() {
+        // given - 4件の投稿を登録
+        ScoreIndex index = new ScoreIndex();
+        index.put(1, 5);
+        index.put(2, 10);
+        index.put(3, 5);
+        index.put(4, 1);
+
+        // when - 4番のスコアを上げ、2番を削除
+        index.put(4, 7);
+        index.remove(2);
+
+        // then - 4, 1, 3の順で返ること
+        assertEquals(List.of(4L, 1L, 3L), index.top(3).stream().map(ScoreIndex.Entry::id).toList());
+        assertEquals(2, index.top(2).size());
+        assertEquals(3, index.size());
+        assertNull(index.score(2));
+        assertEquals(7.0, index.score(4));
+    }
+
+    /**
+     * 並行更新のテスト
+     * 複数スレッドから同時に更新しても、各投稿のエントリーが1件だけ残ることを確認する
+     */
+    @Test
+    void put_shouldKeepSingleEntryPerIdUnderConcurrentUpdates() throws Exception {
+        // given - 100件の投稿と4つの更新スレッド
+        ScoreIndex index = new ScoreIndex();
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // when - 各スレッドがすべての投稿のスコアを繰り返し更新
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            new Thread(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (long id = 0; id < 100; id++) {
+                        index.put(id, round * threads + offset);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        // then - 各投稿が1回ずつだけ含まれること
+        assertEquals(100, index.size());
+        assertEquals(100, index.top(1000).size());
+        assertEquals(100, index.top(1000).stream().map(ScoreIndex.Entry::id).distinct().count());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+
+/**
+ * TrendingIndexの時間減衰スコアをテストするクラス
+ */
+class TrendingIndexTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    /**
+     * 時間減衰のテスト
+     * 古い多数のいいねより、最近の少数のいいねが上位になることを確認する
+     */
+    @Test
+    void topIds_shouldFavorRecentLikes() {
+        // given - 半減期1時間
+        TrendingIndex trending = new TrendingIndex(Duration.ofHours(1), Clock.fixed(START, ZoneOffset.UTC));
+
+        // when - 投稿1に開始時点で4件、投稿2に3時間後に1件のいいね
+        for (int i = 0; i < 4; i++) {
+            trending.recordLike(1, START);
+        }
+        trending.recordLike(2, START.plus(Duration.ofHours(3)));
+
+        // then - 投稿1の寄与は4/8=0.5件分に減衰しているため、投稿2が上位になること
+        assertEquals(List.of(2L, 1L), trending.topIds(10));
+    }
+
+    /**
+     * 現在スコアのテスト
+     * 半減期が経過するとスコアが半分になることを確認する
+     */
+    @Test
+    void currentScore_shouldHalveAfterHalfLife() {
+        // given - 開始時点のいいね2件
+        MutableClock clock = new MutableClock(START);
+        TrendingIndex trending = new TrendingIndex(Duration.ofHours(1), clock);
+        trending.recordLike(1, START);
+        trending.recordLike(1, START);
+        double initial = trending.currentScore(1);
+
+        // when - 1時間経過
+        clock.now = START.plus(Duration.ofHours(1));
+
+        // then - 2件分から1件分に減衰していること
+        assertEquals(2.0, initial, 1e-9);
+        assertEquals(1.0, trending.currentScore(1), 1e-9);
+        assertEquals(0.0, trending.currentScore(2));
+    }
+
+    /**
+     * 長期間の運用のテスト
+     * 基準時刻から長期間が経過しても、スコアがオーバーフローせず順位が保たれることを確認する
+     */
+    @Test
+    void recordLike_shouldNotOverflowLongAfterLandmark() {
+        // given - 半減期1分で10年後のいいね
+        TrendingIndex trending = new TrendingIndex(Duration.ofMinutes(1), Clock.fixed(START, ZoneOffset.UTC));
+        Instant tenYearsLater = START.plus(Duration.ofDays(3650));
+
+        // when - 投稿1に2件、投稿2に1件
+        trending.recordLike(1, tenYearsLater);
+        trending.recordLike(1, tenYearsLater);
+        trending.recordLike(2, tenYearsLater);
+
+        // then - 件数どおりの順位になること
+        assertEquals(List.of(1L, 2L), trending.topIds(10));
+    }
+
+    /**
+     * 変更イベントのテスト
+     * 公開済み投稿へのいいねだけが記録され、削除で除外されることを確認する
+     */
+    @Test
+    void onChange_shouldTrackLikesOnPublishedPosts() {
+        // given - 公開済みの投稿1と下書きの投稿2
+        TrendingIndex trending = new TrendingIndex(Duration.ofHours(1), Clock.fixed(START, ZoneOffset.UTC));
+        Post published = post(1L, false);
+        Post draft = post(2L, true);
+
+        // when - それぞれにいいねした後、投稿1を削除
+        trending.onChange(new PostChange(1, PostChange.Type.LIKED, 1L, published, START));
+        trending.onChange(new PostChange(2, PostChange.Type.LIKED, 2L, draft, START));
+        List<Long> beforeDelete = trending.topIds(10);
+        trending.onChange(new PostChange(3, PostChange.Type.DELETED, 1L, null, START));
+
+        // then - 下書きは記録されず、削除後は空になること
+        assertEquals(List.of(1L), beforeDelete);
+        assertTrue(trending.topIds(10).isEmpty());
+    }
+
+    private static Post post(Long id, boolean draft) {
+        Post post = new Post("Content");
+        post.setId(id);
+        post.setDraft(draft);
+        return post;
+    }
+
+    /**
+     * テスト用に現在時刻を変更できる時計
+     */
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
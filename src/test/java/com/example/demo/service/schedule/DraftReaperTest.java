@@ -0,0 +1,179 @@
+package com.example.demo.service.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+
+/**
+ * DraftReaperの時間バケットによる期限管理をテストするクラス
+ */
+class DraftReaperTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    /**
+     * 期限切れのテスト
+     * 期限を過ぎたバケットの下書きだけが削除対象になることを確認する
+     */
+    @Test
+    void reap_shouldVisitOnlyExpiredBuckets() {
+        // given - TTL1時間、バケット幅1分のリーパーに、作成時刻の異なる下書き2件
+        MutableClock clock = new MutableClock(START);
+        List<Long> visited = new ArrayList<>();
+        DraftReaper reaper = new DraftReaper(Duration.ofHours(1), Duration.ofMinutes(1), clock, id -> {
+            visited.add(id);
+            return draft(id, START);
+        });
+        reaper.track(draft(1L, START));
+        reaper.track(draft(2L, START.plus(Duration.ofMinutes(30))));
+
+        // when & then - 期限前は何も削除されないこと
+        clock.now = START.plus(Duration.ofMinutes(59));
+        assertEquals(0, reaper.reap());
+
+        // when & then - 1件目の期限を過ぎると1件目だけが削除されること
+        clock.now = START.plus(Duration.ofMinutes(61));
+        assertEquals(1, reaper.reap());
+        assertEquals(List.of(1L), visited);
+
+        // then - 統計に反映されていること
+        Map<String, Object> stats = reaper.snapshot();
+        assertEquals(1, stats.get("trackedDrafts"));
+        assertEquals(1L, stats.get("reclaimedDrafts"));
+        assertTrue((Long) stats.get("reclaimedBytes") > 0);
+    }
+
+    /**
+     * 更新・公開のテスト
+     * 更新された下書きは期限が延び、公開された投稿は対象から外れることを確認する
+     */
+    @Test
+    void onChange_shouldMoveUpdatedDraftsAndDropPublishedPosts() {
+        // given - 2件の下書き
+        MutableClock clock = new MutableClock(START);
+        List<Long> visited = new ArrayList<>();
+        DraftReaper reaper = new DraftReaper(Duration.ofHours(1), Duration.ofMinutes(1), clock, id -> {
+            visited.add(id);
+            return null;
+        });
+        reaper.onChange(new PostChange(1, PostChange.Type.CREATED, 1L, draft(1L, START), START));
+        reaper.onChange(new PostChange(2, PostChange.Type.CREATED, 2L, draft(2L, START), START));
+
+        // when - 1件目を30分後に更新し、2件目を公開
+        Instant updatedAt = START.plus(Duration.ofMinutes(30));
+        reaper.onChange(new PostChange(3, PostChange.Type.UPDATED, 1L, draft(1L, updatedAt), updatedAt));
+        reaper.onChange(new PostChange(4, PostChange.Type.PUBLISHED, 2L, null, updatedAt));
+
+        // then - 当初の期限では何も確認されず、延長後の期限で1件目が確認されること
+        clock.now = START.plus(Duration.ofMinutes(61));
+        reaper.reap();
+        assertTrue(visited.isEmpty());
+        clock.now = START.plus(Duration.ofMinutes(91));
+        reaper.reap();
+        assertEquals(List.of(1L), visited);
+    }
+
+    /**
+     * 公開予約のテスト
+     * 公開予約中の下書きは削除対象にならないことを確認する
+     */
+    @Test
+    void track_shouldIgnoreScheduledDrafts() {
+        // given - 公開予約中の下書き
+        DraftReaper reaper = new DraftReaper(Duration.ofHours(1), Duration.ofMinutes(1), new MutableClock(START), id -> null);
+        Post scheduled = draft(1L, START);
+        scheduled.setScheduledPublishAt(START.plus(Duration.ofDays(7)));
+
+        // when - 管理対象に加えようとする
+        reaper.track(scheduled);
+
+        // then - 管理対象にならないこと
+        assertEquals(0, reaper.snapshot().get("trackedDrafts"));
+    }
+
+    /**
+     * 削除を見送った下書きのテスト
+     * 見送った下書きは作り直した時点で管理対象に戻り、削除に失敗した下書きは次の実行で確認し直されることを確認する
+     */
+    @Test
+    void reap_shouldRevisitDeclinedDraftsAfterRebuildAndFailedDraftsNextRun() {
+        // given - 1件目の削除を見送り、2件目の削除に1回だけ失敗するリーパー
+        MutableClock clock = new MutableClock(START);
+        List<Long> visited = new ArrayList<>();
+        boolean[] declining = {true};
+        int[] failures = {1};
+        DraftReaper reaper = new DraftReaper(Duration.ofHours(1), Duration.ofMinutes(1), clock, id -> {
+            visited.add(id);
+            if (id == 2L && failures[0]-- > 0) {
+                throw new IllegalStateException("temporary failure");
+            }
+            return id == 1L && declining[0] ? null : draft(id, START);
+        });
+        reaper.track(draft(1L, START));
+        reaper.track(draft(2L, START));
+
+        // when - 期限後に実行すると、1件目は見送られ、2件目は失敗する
+        clock.now = START.plus(Duration.ofMinutes(61));
+        assertEquals(0, reaper.reap());
+
+        // then - 失敗した2件目だけが管理対象に残ること
+        assertEquals(1, reaper.snapshot().get("trackedDrafts"));
+
+        // when - 次の実行で2件目が削除され、作り直した後に1件目が削除される
+        clock.now = START.plus(Duration.ofMinutes(63));
+        assertEquals(1, reaper.reap());
+        declining[0] = false;
+        reaper.rebuild(List.of(draft(1L, START)));
+        assertEquals(1, reaper.reap());
+
+        // then
+        assertEquals(List.of(1L, 2L, 2L, 1L), visited);
+        assertEquals(0, reaper.snapshot().get("trackedDrafts"));
+    }
+
+    private static Post draft(Long id, Instant updatedAt) {
+        Post post = new Post("Draft content");
+        post.setId(id);
+        post.setUpdatedAt(updatedAt);
+        return post;
+    }
+
+    /**
+     * テスト用に現在時刻を変更できる時計
+     */
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * HierarchicalTimingWheelのタイマー満了と取り消しをテストするクラス
+ */
+class HierarchicalTimingWheelTest {
+
+    /**
+     * 満了のテスト
+     * 期限を迎えたタイマーだけが、期限を過ぎたティックで満了することを確認する
+     */
+    @Test
+    void advanceTo_shouldFireTimersAtDeadline() {
+        // given - 10ミリ秒ティックのホイールに3件のタイマー
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 3, 0);
+        wheel.schedule(25, "a");
+        wheel.schedule(10, "b");
+        wheel.schedule(1000, "c");
+        List<String> fired = new ArrayList<>();
+
+        // when & then - 時刻を進めるごとに期限を迎えたものだけが満了すること
+        assertEquals(1, wheel.advanceTo(20, fired::add));
+        assertEquals(List.of("b"), fired);
+        assertEquals(1, wheel.advanceTo(30, fired::add));
+        assertEquals(List.of("b", "a"), fired);
+        assertEquals(0, wheel.advanceTo(990, fired::add));
+        assertEquals(1, wheel.advanceTo(1000, fired::add));
+        assertEquals(List.of("b", "a", "c"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * 取り消しのテスト
+     * 取り消したタイマーは満了せず、二重の取り消しはfalseになることを確認する
+     */
+    @Test
+    void cancel_shouldPreventFiring() {
+        // given - 2件のタイマー
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 3, 0);
+        HierarchicalTimingWheel.Timer<String> cancelled = wheel.schedule(5_000, "cancelled");
+        wheel.schedule(5_000, "kept");
+
+        // when - 1件を取り消して時刻を進める
+        assertTrue(wheel.cancel(cancelled));
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+
+        // then - 残した1件だけが満了すること
+        assertEquals(List.of("kept"), fired);
+        assertFalse(wheel.cancel(cancelled));
+    }
+
+    /**
+     * カスケードのテスト
+     * 上位の階層や表せる範囲を超える期限のタイマーも、ちょうど期限のティックで満了することを確認する
+     */
+    @Test
+    void advanceTo_shouldCascadeFarTimersExactly() {
+        // given - 2階層（4096ティック）のホイールに、範囲内外の期限をランダムに登録
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 2, 0);
+        Random random = new Random(42);
+        int count = 2_000;
+        for (int i = 0; i < count; i++) {
+            long deadline = 1 + random.nextInt(20_000);
+            wheel.schedule(deadline, deadline);
+        }
+
+        // when - 1ティックずつ進める
+        List<Long> late = new ArrayList<>();
+        int[] fired = {0};
+        for (long now = 1; now <= 20_000; now++) {
+            long current = now;
+            wheel.advanceTo(now, deadline -> {
+                fired[0]++;
+                if (deadline != current) {
+                    late.add(deadline);
+                }
+            });
+        }
+
+        // then - すべてが期限どおりに満了すること
+        assertEquals(count, fired[0]);
+        assertTrue(late.isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service.stats;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * LikeHistogramsの動作をテストするクラス
+ * 1分ごとの集計、24時間を過ぎたスロットの再利用、追跡数の上限、並行した記録を検証する
+ */
+class LikeHistogramsTest {
+
+    private static final long BASE = Instant.parse("2025-06-01T00:00:00Z").toEpochMilli();
+    private static final long MINUTE = 60_000L;
+
+    private LikeHistograms histograms; // テスト対象のヒストグラム
+
+    /**
+     * 各テストメソッド実行前に追跡数の上限が3件のヒストグラムを作成
+     */
+    @BeforeEach
+    void setUp() {
+        histograms = new LikeHistograms(3);
+    }
+
+    /**
+     * 1分ごとの集計のテスト
+     * いいねが分ごとに数えられ、古い順に返されることを確認する
+     */
+    @Test
+    void recent_shouldReturnLikesPerMinute() {
+        // given - 0分に2件、2分に1件
+        histograms.record(1L, BASE);
+        histograms.record(1L, BASE + 30_000);
+        histograms.record(1L, BASE + 2 * MINUTE);
+
+        // when - 2分の時点から直近4分を取得
+        int[] counts = histograms.recent(1L, BASE + 2 * MINUTE + 5_000, 4);
+
+        // then
+        assertArrayEquals(new int[] {0, 2, 0, 1}, counts);
+        assertEquals(Instant.ofEpochMilli(BASE - MINUTE), LikeHistograms.startOf(BASE + 2 * MINUTE + 5_000, 4));
+        assertArrayEquals(new int[] {0, 0}, histograms.recent(2L, BASE, 2)); // いいねのない投稿
+        assertEquals(1, histograms.size());
+    }
+
+    /**
+     * スロットの再利用のテスト
+     * 24時間後の同じ時刻のいいねがスロットを上書きし、古い分の件数が残らないことを確認する
+     */
+    @Test
+    void record_shouldReuseSlotsAfterOneDay() {
+        // given
+        histograms.record(1L, BASE);
+        histograms.record(1L, BASE);
+
+        // when - ちょうど24時間後に1件、その後に24時間前のいいねを1件
+        long nextDay = BASE + LikeHistograms.MINUTES * MINUTE;
+        histograms.record(1L, nextDay);
+        histograms.record(1L, BASE);
+
+        // then - 新しい日の件数だけが残ること
+        assertArrayEquals(new int[] {1}, histograms.recent(1L, nextDay, 1));
+        assertArrayEquals(new int[] {0}, histograms.recent(1L, BASE, 1));
+    }
+
+    /**
+     * 追跡数の上限のテスト
+     * 上限を超えると、直近にいいねのない古い投稿から破棄されることを確認する
+     */
+    @Test
+    void record_shouldEvictOldestIdlePostsBeyondLimit() {
+        // given - 2日前にいいねされた投稿1と、直近にいいねされた投稿2・3
+        long now = BASE + 2 * LikeHistograms.MINUTES * MINUTE;
+        histograms.record(2L, now);
+        histograms.record(1L, BASE);
+        histograms.record(3L, now);
+
+        // when - 4件目の投稿がいいねされる
+        histograms.record(4L, now);
+
+        // then - 直近にいいねのない投稿1が破棄されていること
+        assertEquals(3, histograms.size());
+        assertArrayEquals(new int[] {1}, histograms.recent(2L, now, 1));
+        assertArrayEquals(new int[] {1}, histograms.recent(4L, now, 1));
+        assertEquals(3L * (16 + 4 * LikeHistograms.MINUTES + 64), histograms.estimatedBytes());
+    }
+
+    /**
+     * 並行した記録のテスト
+     * 複数のスレッドから同じ投稿に同時にいいねしても件数が失われないことを確認する
+     */
+    @Test
+    void record_shouldNotLoseConcurrentLikes() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - 8スレッドから同じ分に1万件ずつ記録
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histograms.record(1L, BASE + i % MINUTE);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // then
+        assertArrayEquals(new int[] {80_000}, histograms.recent(1L, BASE, 1));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.model.Post;
+
+/**
+ * PublishRateSeriesの動作をテストするクラス
+ * 解像度ごとの集計、保持期間を過ぎた区間の扱い、並行した記録を検証する
+ */
+class PublishRateSeriesTest {
+
+    private static final Instant BASE = Instant.parse("2025-06-01T00:00:00Z");
+
+    private PublishRateSeries series; // テスト対象の時系列
+
+    /**
+     * 各テストメソッド実行前に空の時系列を作成
+     */
+    @BeforeEach
+    void setUp() {
+        series = new PublishRateSeries();
+    }
+
+    /**
+     * 解像度ごとの集計のテスト
+     * 同じ公開が分・時・日の各区間に数えられることを確認する
+     */
+    @Test
+    void query_shouldCountPublishesPerResolution() {
+        // given - 0分に2件、1分に1件、1時間後に1件
+        series.record(BASE.plusSeconds(10));
+        series.record(BASE.plusSeconds(50));
+        series.record(BASE.plusSeconds(70));
+        series.record(BASE.plusSeconds(3600));
+
+        // when
+        var minutes = series.query(PublishRateSeries.Resolution.MINUTE, BASE, BASE.plusSeconds(180));
+        var hours = series.query(PublishRateSeries.Resolution.HOUR, BASE, BASE.plus(Duration.ofHours(2)));
+        var days = series.query(PublishRateSeries.Resolution.DAY, BASE, BASE.plus(Duration.ofDays(1)));
+
+        // then
+        assertEquals(List.of(2L, 1L, 0L), minutes.stream().map(PublishRateSeries.Bucket::count).toList());
+        assertEquals(BASE.plusSeconds(60), minutes.get(1).start());
+        assertEquals(List.of(3L, 1L), hours.stream().map(PublishRateSeries.Bucket::count).toList());
+        assertEquals(List.of(4L), days.stream().map(PublishRateSeries.Bucket::count).toList());
+    }
+
+    /**
+     * 保持期間のテスト
+     * 同じスロットを新しい区間が使うと古い区間の件数は0になり、範囲は保持する区間数に切り詰められることを確認する
+     */
+    @Test
+    void query_shouldForgetBucketsBeyondRetention() {
+        // given - ちょうど24時間離れた2つの公開（分単位では同じスロット）
+        series.record(BASE);
+        series.record(BASE.plus(Duration.ofDays(1)));
+        series.record(BASE); // 上書き後の古い公開は記録されない
+
+        // when
+        var old = series.query(PublishRateSeries.Resolution.MINUTE, BASE, BASE.plusSeconds(60));
+        var all = series.query(PublishRateSeries.Resolution.MINUTE, BASE, BASE.plus(Duration.ofDays(2)));
+
+        // then
+        assertEquals(0L, old.get(0).count());
+        assertEquals(24 * 60, all.size());
+        assertEquals(1L, all.stream().mapToLong(PublishRateSeries.Bucket::count).sum());
+    }
+
+    /**
+     * 並行した記録のテスト
+     * 複数のスレッドから同時に記録しても件数が失われないことを確認する
+     */
+    @Test
+    void record_shouldNotLoseConcurrentUpdates() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - 8スレッドから同じ分に1万件ずつ記録
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    series.record(BASE.plusMillis(i % 60_000));
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(80_000L, series.query(PublishRateSeries.Resolution.MINUTE, BASE, BASE.plusSeconds(1)).get(0).count());
+    }
+
+    /**
+     * 再集計のテスト
+     * ストアの公開済み投稿から集計し直せることを確認する
+     */
+    @Test
+    void rebuild_shouldCountPublishedPosts() {
+        // given - 公開済み1件と下書き1件
+        Post published = new Post("Published");
+        published.setDraft(false);
+        published.setPublishedAt(BASE);
+        Post draft = new Post("Draft");
+        series.record(BASE.plusSeconds(3600));
+
+        // when
+        series.rebuild(List.of(published, draft));
+
+        // then
+        var hours = series.query(PublishRateSeries.Resolution.HOUR, BASE, BASE.plus(Duration.ofHours(2)));
+        assertEquals(List.of(1L, 0L), hours.stream().map(PublishRateSeries.Bucket::count).toList());
+    }
+}
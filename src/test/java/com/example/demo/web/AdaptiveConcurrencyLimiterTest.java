@@ -0,0 +1,140 @@
+package com.example.demo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.web.RouteConcurrencyLimits.RouteClass;
+
+/**
+ * AdaptiveConcurrencyLimiterとルートの種類の判定をテストするクラス
+ * 上限による拒否、応答時間に応じた上限の増減、ルートの分類を検証する
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET_NANOS = 10_000_000L; // 10ms
+    private static final long WINDOW_NANOS = 100_000_000L; // 100ms
+
+    private final AtomicLong clock = new AtomicLong();
+    private AdaptiveConcurrencyLimiter limiter; // テスト対象のリミッター
+
+    /**
+     * 各テストメソッド実行前に初期上限4・最大8のリミッターを作成（時間窓は1件から閉じる）
+     */
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter(4, 8, TARGET_NANOS, WINDOW_NANOS, 1, clock::get);
+    }
+
+    /**
+     * 上限による拒否のテスト
+     * 上限に達すると新しい実行枠を待たずに拒否し、返却後は再び取得できることを確認する
+     */
+    @Test
+    void tryAcquire_shouldRejectWhenLimitReached() {
+        // given
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // when / then
+        assertFalse(limiter.tryAcquire());
+        limiter.release(1_000_000L, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(5L, limiter.snapshot().get("accepted"));
+        assertEquals(1L, limiter.snapshot().get("rejected"));
+    }
+
+    /**
+     * 上限の減少のテスト
+     * 時間窓の平均応答時間が目標を超えると上限が下がり、1未満にはならないことを確認する
+     */
+    @Test
+    void release_shouldDecreaseLimitWhenLatencyExceedsTarget() {
+        // when - 目標の5倍の応答時間が続く
+        for (int round = 0; round < 50; round++) {
+            assertTrue(limiter.tryAcquire());
+            closeWindow(5 * TARGET_NANOS, false);
+        }
+
+        // then
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * 上限の増加のテスト
+     * 上限近くまで使われ応答時間が目標以内の窓では上限が1ずつ上がり、最大値で止まることを確認する
+     */
+    @Test
+    void release_shouldIncreaseLimitWhileHealthyAndSaturated() {
+        // when - 上限いっぱいまで使い、速く応答する
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired - 1; i++) {
+                limiter.release(TARGET_NANOS / 10, false);
+            }
+            closeWindow(TARGET_NANOS / 10, false);
+        }
+
+        // then
+        assertEquals(8, limiter.getLimit());
+    }
+
+    /**
+     * 使われていない上限のテスト
+     * 実行中の数が上限の半分に満たない窓では、応答が速くても上限を上げないことを確認する
+     */
+    @Test
+    void release_shouldNotIncreaseLimitWhenUnderused() {
+        // when - 常に1件ずつ処理する
+        for (int round = 0; round < 10; round++) {
+            assertTrue(limiter.tryAcquire());
+            closeWindow(TARGET_NANOS / 10, false);
+        }
+
+        // then
+        assertEquals(4, limiter.getLimit());
+    }
+
+    /**
+     * 失敗による上限の減少のテスト
+     * 応答時間が目標以内でも、過負荷による失敗を含む窓では上限が下がることを確認する
+     */
+    @Test
+    void release_shouldDecreaseLimitOnDroppedRequest() {
+        // when
+        assertTrue(limiter.tryAcquire());
+        closeWindow(TARGET_NANOS / 10, true);
+
+        // then
+        assertEquals(3, limiter.getLimit());
+    }
+
+    /**
+     * ルートの種類の判定のテスト
+     * 書き込み、全件を走査する読み取り、軽い読み取りに分類されることを確認する
+     */
+    @Test
+    void classify_shouldSeparateRouteClasses() {
+        assertEquals(RouteClass.WRITE, RouteConcurrencyLimits.classify("POST", "/api/posts/drafts"));
+        assertEquals(RouteClass.WRITE, RouteConcurrencyLimits.classify("DELETE", "/api/posts/{id}"));
+        assertEquals(RouteClass.SCAN, RouteConcurrencyLimits.classify("GET", "/api/posts/published"));
+        assertEquals(RouteClass.SCAN, RouteConcurrencyLimits.classify("GET", "/api/posts/drafts"));
+        assertEquals(RouteClass.POINT_READ, RouteConcurrencyLimits.classify("GET", "/api/posts/{id}"));
+        assertEquals(RouteClass.POINT_READ, RouteConcurrencyLimits.classify("GET", "/api/posts/top"));
+    }
+
+    private void closeWindow(long latencyNanos, boolean dropped) {
+        clock.addAndGet(WINDOW_NANOS);
+        limiter.release(latencyNanos, dropped);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AllocationTrackerの集計処理をテストするクラス
+ * ルートごとのヒストグラム集計とリセットを検証する
+ */
+class AllocationTrackerTest {
+
+    /**
+     * 割り当て量記録のテスト
+     * 記録した値がルートごとに件数・合計・最大値として集計されることを確認する
+     */
+    @Test
+    void record_shouldAggregatePerRoute() {
+        // given - トラッカーを準備
+        AllocationTracker tracker = new AllocationTracker();
+
+        // when - 2つのルートに割り当て量を記録
+        tracker.record("GET /api/posts/published", 1000);
+        tracker.record("GET /api/posts/published", 3000);
+        tracker.record("GET /api/posts/{id}", 100);
+
+        // then - ルートごとに集計されていること
+        Map<String, Map<String, Object>> snapshot = tracker.snapshot();
+        assertEquals(2, snapshot.size());
+        Map<String, Object> published = snapshot.get("GET /api/posts/published");
+        assertEquals(2L, published.get("requests"));
+        assertEquals(4000L, published.get("totalBytes"));
+        assertEquals(2000L, published.get("meanBytes"));
+        assertEquals(3000L, published.get("maxBytes"));
+        assertEquals(4096L, published.get("p99Bytes")); // 3000バイトは[2048, 4096)のバケット
+    }
+
+    /**
+     * 負の割り当て量のテスト
+     * 計測不能を表す負の値は記録されないことを確認する
+     */
+    @Test
+    void record_shouldIgnoreNegativeValues() {
+        // given - トラッカーを準備
+        AllocationTracker tracker = new AllocationTracker();
+
+        // when - 負の値を記録
+        tracker.record("GET /api/posts/drafts", -1);
+
+        // then - 何も集計されていないこと
+        assertTrue(tracker.snapshot().isEmpty());
+    }
+
+    /**
+     * リセットのテスト
+     * リセット後に集計結果が空になることを確認する
+     */
+    @Test
+    void reset_shouldClearAllRoutes() {
+        // given - 記録済みのトラッカーを準備
+        AllocationTracker tracker = new AllocationTracker();
+        tracker.record("POST /api/posts/drafts", 512);
+
+        // when - リセット
+        tracker.reset();
+
+        // then - 集計結果が空であること
+        assertTrue(tracker.snapshot().isEmpty());
+    }
+
+    /**
+     * スレッド別割り当て量取得のテスト
+     * HotSpot上では割り当てにより累積値が増加することを確認する
+     */
+    @Test
+    void currentThreadAllocatedBytes_shouldIncreaseAfterAllocation() {
+        // given - 計測をサポートするトラッカー
+        AllocationTracker tracker = new AllocationTracker();
+        if (!tracker.isSupported()) {
+            return;
+        }
+        long before = tracker.currentThreadAllocatedBytes();
+
+        // when - 配列を割り当てる
+        byte[] buffer = new byte[1 << 20];
+
+        // then - 割り当て量が増加していること
+        assertTrue(tracker.currentThreadAllocatedBytes() - before >= buffer.length);
+    }
+}
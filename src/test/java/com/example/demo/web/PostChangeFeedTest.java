@@ -0,0 +1,184 @@
+package com.example.demo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.model.Post;
+import com.example.demo.service.PostChange;
+import com.example.demo.service.PostService;
+
+/**
+ * PostChangeFeedの配信処理をテストするクラス
+ * いいねの集約、Last-Event-IDからの再開、バッファあふれ時の再同期を検証する
+ */
+class PostChangeFeedTest {
+
+    private PostChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    /**
+     * いいね集約のテスト
+     * 同じ投稿への連続したいいねが最新の1件にまとめて配信されることを確認する
+     */
+    @Test
+    void onChange_shouldCoalesceLikesPerPost() throws Exception {
+        // given - 集約の時間幅を十分長くしたフィードを購読
+        PostService postService = new PostService();
+        feed = new PostChangeFeed(postService, properties(Duration.ofHours(1), 16));
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+        Post post = postService.createDraft("いいね集約");
+        postService.publishPost(post.getId());
+
+        // when - 3回いいねしてから集約分を送出
+        postService.likePost(post.getId());
+        postService.likePost(post.getId());
+        postService.likePost(post.getId());
+        feed.flushLikes();
+
+        // then - 作成、公開、いいね1件の順で届き、いいねは最新の値であること
+        awaitTrue(() -> sink.changes.size() == 3);
+        assertEquals(PostChange.Type.CREATED, sink.changes.get(0).type());
+        assertEquals(PostChange.Type.PUBLISHED, sink.changes.get(1).type());
+        assertEquals(PostChange.Type.LIKED, sink.changes.get(2).type());
+        assertEquals(3, sink.changes.get(2).post().getLikes());
+    }
+
+    /**
+     * いいね集約の順序のテスト
+     * 保留中のいいねは後続のイベントより先に送られ、イベントがシーケンス順に届くことを確認する
+     */
+    @Test
+    void onChange_shouldReleasePendingLikesBeforeLaterEvents() throws Exception {
+        // given - 集約の時間幅を十分長くしたフィードを購読
+        PostService postService = new PostService();
+        feed = new PostChangeFeed(postService, properties(Duration.ofHours(1), 16));
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+        Post liked = postService.createDraft("いいねされる投稿");
+        Post other = postService.createDraft("別の投稿");
+        postService.publishPost(liked.getId());
+
+        // when - いいねの後に別の投稿を公開する
+        postService.likePost(liked.getId());
+        postService.likePost(liked.getId());
+        postService.publishPost(other.getId());
+
+        // then - 集約の時間幅を待たずに、いいね1件が公開より先に届くこと
+        awaitTrue(() -> sink.changes.size() == 5);
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), sink.changes.stream().map(PostChange::sequence).toList());
+        assertEquals(PostChange.Type.LIKED, sink.changes.get(3).type());
+        assertEquals(2, sink.changes.get(3).post().getLikes());
+    }
+
+    /**
+     * 再接続のテスト
+     * Last-Event-IDより後の変更が重複なく順番どおりに配信されることを確認する
+     */
+    @Test
+    void subscribe_shouldReplayChangesAfterLastEventId() throws Exception {
+        // given - 3件の変更が発生済み
+        PostService postService = new PostService();
+        feed = new PostChangeFeed(postService, properties(Duration.ZERO, 16));
+        postService.createDraft("1件目");
+        postService.createDraft("2件目");
+        postService.createDraft("3件目");
+
+        // when - 1番まで受信済みとして購読し、さらに変更を発生させる
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(1L, sink);
+        postService.createDraft("4件目");
+
+        // then - 2, 3, 4番が届くこと
+        awaitTrue(() -> sink.changes.size() == 3);
+        assertEquals(List.of(2L, 3L, 4L), sink.changes.stream().map(PostChange::sequence).toList());
+    }
+
+    /**
+     * バッファあふれのテスト
+     * 送信が追いつかない購読者にはresyncが通知され、接続が終了することを確認する
+     */
+    @Test
+    void onChange_shouldResyncSlowSubscriber() throws Exception {
+        // given - 送信が止まっている購読者（バッファ2件）
+        PostService postService = new PostService();
+        feed = new PostChangeFeed(postService, properties(Duration.ZERO, 2));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink() {
+            @Override
+            public void send(PostChange change) throws java.io.IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(change);
+            }
+        };
+        feed.subscribe(null, sink);
+
+        // when - バッファを超える変更を発生させてから送信を再開
+        for (int i = 0; i < 10; i++) {
+            postService.createDraft("投稿" + i);
+        }
+        release.countDown();
+
+        // then - resyncが通知されて購読が終了していること
+        awaitTrue(() -> sink.closed);
+        assertTrue(sink.resync);
+        assertTrue(sink.changes.size() < 10);
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    private static PostProperties properties(Duration likeWindow, int buffer) {
+        PostProperties properties = new PostProperties();
+        properties.getFeed().setLikeCoalesceWindow(likeWindow);
+        properties.getFeed().setSubscriberBuffer(buffer);
+        return properties;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class RecordingSink implements PostChangeFeed.EventSink {
+        final List<PostChange> changes = new CopyOnWriteArrayList<>();
+        volatile boolean resync;
+        volatile boolean closed;
+
+        @Override
+        public void send(PostChange change) throws java.io.IOException {
+            changes.add(change);
+        }
+
+        @Override
+        public void sendResync() {
+            resync = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
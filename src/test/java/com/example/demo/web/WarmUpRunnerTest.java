@@ -0,0 +1,68 @@
+package com.example.demo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.PostProperties;
+import com.example.demo.repository.InMemoryPostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * WarmUpRunnerの動作をテストするクラス
+ * 指定回数の繰り返し、時間による打ち切り、使い捨てのストアの利用を検証する
+ */
+class WarmUpRunnerTest {
+
+    /**
+     * 繰り返し回数のテスト
+     * 指定された回数だけ疑似的な操作が行われ、前後の計測結果が得られることを確認する
+     */
+    @Test
+    void warmUp_shouldRunConfiguredIterationsAgainstThrowawayStore() throws Exception {
+        // given
+        var properties = new PostProperties();
+        properties.getWarmUp().setIterations(300);
+        List<InMemoryPostRepository> created = new ArrayList<>();
+        var runner = new WarmUpRunner(() -> {
+            var repository = new InMemoryPostRepository();
+            created.add(repository);
+            return repository;
+        }, properties, new ObjectMapper());
+
+        // when
+        var result = runner.warmUp();
+
+        // then - 使い捨てのストアが1つだけ作られ、投稿数は上限内に保たれていること
+        assertEquals(300, result.iterations());
+        assertTrue(result.before().p50Micros() > 0);
+        assertTrue(result.after().p99Micros() >= result.after().p50Micros());
+        assertEquals(1, created.size());
+        assertTrue(created.get(0).count() <= 513);
+    }
+
+    /**
+     * 最大時間のテスト
+     * 最大時間を過ぎた場合は繰り返し回数に達していなくても打ち切られることを確認する
+     */
+    @Test
+    void warmUp_shouldStopAtMaxDuration() throws Exception {
+        // given
+        var properties = new PostProperties();
+        properties.getWarmUp().setIterations(Integer.MAX_VALUE);
+        properties.getWarmUp().setMaxDuration(Duration.ofMillis(200));
+        var runner = new WarmUpRunner(InMemoryPostRepository::new, properties, new ObjectMapper());
+
+        // when
+        var result = runner.warmUp();
+
+        // then
+        assertTrue(result.iterations() < Integer.MAX_VALUE);
+        assertTrue(result.elapsed().toMillis() < 5_000);
+    }
+}